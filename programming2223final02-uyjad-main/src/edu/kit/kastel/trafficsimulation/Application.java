@@ -1,9 +1,17 @@
 package edu.kit.kastel.trafficsimulation;
 
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.server.LoadTestClient;
+import edu.kit.kastel.trafficsimulation.server.SimulationServer;
 import edu.kit.kastel.trafficsimulation.simulation.TrafficSystemUI;
 
+import java.io.IOException;
+
 /**
  * Entry point of this application. It runs the interactive command session.
+ * With the arguments "server &lt;address&gt;" it serves a shared simulation to many clients instead.
+ * With the arguments "loadtest &lt;address&gt; &lt;connections&gt; &lt;queries&gt; &lt;idOfCar&gt;"
+ * it runs a load test against such a server.
  *
  * @author uyjad
  * @version 1.0
@@ -14,6 +22,10 @@ public final class Application {
      * Utility class should not have instance.
      */
     public static final String UTILITY_CLASS_INSTANTIATION = "Utility class cannot be instantiated.";
+    private static final String MODE_SERVER = "server";
+    private static final String MODE_LOAD_TEST = "loadtest";
+    private static final int NUMBER_OF_SERVER_ARGUMENTS = 2;
+    private static final int NUMBER_OF_LOAD_TEST_ARGUMENTS = 5;
 
     /**
      * Private constructor to avoid object generation.
@@ -26,10 +38,74 @@ private Application() {
      * The main entry point of the application. Starts the interactive command line session.
      *
      * @param args the command line arguments
+     * @throws IOException if the server cannot listen on the given address
+     * @throws InterruptedException if the load test is interrupted
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals(MODE_SERVER)) {
+            SimulationServer server = createServer(args);
+            if (server == null) {
+                System.out.println(ErrorMessage.ILLEGAL_SERVER);
+                return;
+            }
+            server.serve();
+            return;
+        }
+        if (args.length > 0 && args[0].equals(MODE_LOAD_TEST)) {
+            LoadTestClient client = createLoadTestClient(args);
+            if (client == null) {
+                System.out.println(ErrorMessage.ILLEGAL_LOAD_TEST.format(Integer.MAX_VALUE));
+                return;
+            }
+            System.out.println(client.run());
+            return;
+        }
         TrafficSystemUI systemUI = new TrafficSystemUI();
         systemUI.interactive();
     }
 
+    /**
+     * Creates a server of the arguments "server &lt;address&gt;".
+     *
+     * @param args the command line arguments
+     * @return the server, or null if the arguments are not valid
+     */
+    private static SimulationServer createServer(String[] args) {
+        if (args.length != NUMBER_OF_SERVER_ARGUMENTS) {
+            return null;
+        }
+        try {
+            return new SimulationServer(args[1]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a load test client of the arguments "loadtest &lt;address&gt; &lt;connections&gt; &lt;queries&gt;
+     * &lt;idOfCar&gt;". The latencies of all queries are kept in one array, so there are at most as many queries as
+     * an array holds.
+     *
+     * @param args the command line arguments
+     * @return the load test client, or null if the arguments are not valid
+     */
+    private static LoadTestClient createLoadTestClient(String[] args) {
+        if (args.length != NUMBER_OF_LOAD_TEST_ARGUMENTS) {
+            return null;
+        }
+        try {
+            int numberOfConnections = Integer.parseInt(args[2]);
+            int queriesPerConnection = Integer.parseInt(args[3]);
+            int idOfCar = Integer.parseInt(args[4]);
+            if (numberOfConnections < 1 || queriesPerConnection < 1 || idOfCar < 0
+                    || (long) numberOfConnections * queriesPerConnection > Integer.MAX_VALUE) {
+                return null;
+            }
+            return new LoadTestClient(args[1], numberOfConnections, queriesPerConnection, idOfCar);
+        } catch (IllegalArgumentException e) {
+            // Also thrown if the address is neither a port number nor a socket path, or the port is out of range.
+            return null;
+        }
+    }
+
 }
\ No newline at end of file
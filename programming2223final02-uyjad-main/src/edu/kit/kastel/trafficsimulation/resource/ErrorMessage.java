@@ -104,7 +104,196 @@ public enum ErrorMessage {
      * If a string could not be parsed to an integer, the error message will be printed.
      * Expects one format argument: the illegal string.
      */
-    ILLEGAL_INTEGER("cannot parse %s into an integer.");
+    ILLEGAL_INTEGER("cannot parse %s into an integer."),
+
+    /**
+     * If the simulation is interrupted before it is finished, the error message will be printed.
+     */
+    SIMULATION_INTERRUPTED("the simulation was interrupted."),
+
+    /**
+     * If a simulation running in the background fails, the error message will be printed.
+     * Expects one format argument: the cause of the failure.
+     */
+    SIMULATION_FAILED("the simulation failed: %s."),
+
+    /**
+     * If this id of branch does not exist, the error message will be printed.
+     * Expects one format argument: the invalid id of branch.
+     */
+    BRANCH_NOT_FOUND("There is no branch with the identifier %d."),
+
+    /**
+     * If the command would change the street network while a simulation runs in the background,
+     * the error message will be printed.
+     */
+    SIMULATION_RUNNING("a simulation is running in the background."),
+
+    /**
+     * If no simulation was started in the background, the error message will be printed.
+     */
+    NO_BACKGROUND_SIMULATION("no simulation was started in the background."),
+
+    /**
+     * If the id of street does not exist, the error message will be printed.
+     */
+    STREET_NOT_FOUND("There is no street with the identifier %d."),
+
+    /**
+     * If a file cannot be written, the error message will be printed.
+     */
+    WRITE_FAILED("cannot write %s."),
+
+    /**
+     * If a periodic export fails for another reason than writing, the error message will be printed.
+     * Expects two format arguments: the path of the file and the cause of the failure.
+     */
+    EXPORT_FAILED("the export into %s failed: %s."),
+
+    /**
+     * If the id of crossing does not exist, the error message will be printed.
+     */
+    CROSSING_NOT_FOUND("There is no crossing with the identifier %d."),
+
+    /**
+     * If the crossing has no green light, the error message will be printed.
+     */
+    NO_GREEN_LIGHT("crossing %d has no green light."),
+
+    /**
+     * If no export is running when it should be stopped, the error message will be printed.
+     */
+    NO_EXPORT("no export was started."),
+
+    /**
+     * If a tick is queried that has not been simulated yet, the error message will be printed.
+     */
+    TICK_NOT_REACHED("tick %d has not been simulated yet."),
+
+    /**
+     * If a tick before the last change of the scenario is queried, the error message will be printed.
+     */
+    TICK_BEFORE_RELOAD("tick %d cannot be rebuilt, because the scenario was changed at tick %d."),
+
+    /**
+     * If a file cannot be read, the error message will be printed.
+     */
+    READ_FAILED("cannot read %s."),
+
+    /**
+     * If no trace is recorded when it should be finished, the error message will be printed.
+     */
+    NO_TRACE_RECORDED("no trace is recorded."),
+
+    /**
+     * If no trace is open when it should be read, the error message will be printed.
+     */
+    NO_TRACE_OPEN("no trace is open."),
+
+    /**
+     * If the tick is not part of the open trace, the error message will be printed.
+     */
+    TICK_NOT_IN_TRACE("tick %d is not part of the trace, which covers ticks %d to %d."),
+
+    /**
+     * If the tick lies within the open trace, but was not appended to it while it was recorded, the error message
+     * will be printed.
+     */
+    TICK_NOT_RECORDED("tick %d was not recorded in the trace."),
+
+    /**
+     * If the street network should be simulated in the background or together with its branches while the ticks
+     * of the selected network are needed one after another, the error message will be printed.
+     */
+    ONLY_SIMULATE("the street network can only be simulated by simulate while %s."),
+
+    /**
+     * If the scenario folder is not watched when the status is requested, the error message will be printed.
+     */
+    NO_WATCH("the scenario folder is not watched."),
+
+    /**
+     * If a car is spawned with the identifier of a car on the network, the error message will be printed.
+     */
+    CAR_EXISTS("There is already a car with the identifier %d."),
+
+    /**
+     * If a car is spawned onto a street whose start is occupied, the error message will be printed.
+     */
+    NO_ROOM_AT_START("the start of street %d is occupied."),
+
+    /**
+     * If the rate of a source is negative, the error message will be printed.
+     */
+    ILLEGAL_RATE("the rate of a source must not be negative."),
+
+    /**
+     * If no arrival file is open when its arrivals should be stopped or shown, the error message will be printed.
+     */
+    NO_ARRIVALS("no arrival file is open."),
+
+    /**
+     * If a line of the arrival file is no valid arrival or arrives before the line above,
+     * the error message will be printed.
+     */
+    ILLEGAL_ARRIVAL("line %d of the arrival file is not valid."),
+
+    /**
+     * If the routing should be shown, but no car of the street network has a destination,
+     * the error message will be printed.
+     */
+    NO_ROUTING("no car has a destination."),
+
+    /**
+     * If rerouting should be stopped or shown, but is not switched on, the error message will be printed.
+     */
+    NO_REROUTING("rerouting is not switched on."),
+
+    /**
+     * If the arguments of a server are not valid, the error message will be printed.
+     */
+    ILLEGAL_SERVER("usage: server <address>, with a port number or unix: followed by a socket path as address."),
+
+    /**
+     * If the arguments of a load test are not valid, the error message will be printed.
+     */
+    ILLEGAL_LOAD_TEST("usage: loadtest <address> <connections> <queries> <idOfCar>, with a port number or unix: "
+            + "followed by a socket path as address, at least one connection and one query per connection, at most "
+            + "%d queries in total and an id of car that is not negative."),
+
+    /**
+     * If the number of ticks per second of a paced run is out of range, the error message will be printed.
+     */
+    ILLEGAL_TICKS_PER_SECOND("the number of ticks per second must be between 1 and %d."),
+
+    /**
+     * If the threshold or the delay of rerouting is not positive, the error message will be printed.
+     */
+    ILLEGAL_REROUTING("the threshold and the delay of rerouting must be positive."),
+
+    /**
+     * If the number of workers is out of range or workers are combined with queues, the error message will be printed.
+     */
+    ILLEGAL_WORKERS("the number of workers must be between 1 and %d, and every street must be simulated "
+            + "microscopically."),
+
+    /**
+     * If the number of regions is out of range or regions are combined with queues, the error message will be printed.
+     */
+    ILLEGAL_REGIONS("the number of regions must be between 1 and %d, and every street must be simulated "
+            + "microscopically."),
+
+    /**
+     * If the regions should be shown, but the street network is not split into regions, the error message will be
+     * printed.
+     */
+    NO_REGIONS("the street network is not split into regions."),
+
+    /**
+     * If the workload should be shown, but the street network is not simulated by workers sharing a single region,
+     * the error message will be printed.
+     */
+    NO_WORKLOAD("the street network is not simulated by workers in a single region.");
 
     private static final String PREFIX = "Error: ";
     private final String message;
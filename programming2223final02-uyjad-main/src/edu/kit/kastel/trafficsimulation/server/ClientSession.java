@@ -0,0 +1,121 @@
+package edu.kit.kastel.trafficsimulation.server;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class describes the session of one client connected to the server.
+ * It accepts the command language of the interactive session and answers every command with exactly one line.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ClientSession implements Runnable {
+    private static final String MESSAGE_READY = "READY";
+    private static final String KEY_ID_OF_CAR = "idOfCar";
+    private static final String KEY_PATH = "path";
+    private static final String KEY_TICKS = "ticks";
+    private static final String REGEX_COMMAND_QUIT = "quit";
+    private static final String REGEX_COMMAND_STATS = "stats";
+    private static final Pattern REGEX_COMMAND_LOAD = Pattern.compile("load (?<" + KEY_PATH + ">\\S+)");
+    private static final Pattern REGEX_COMMAND_SIMULATE = Pattern.compile("simulate (?<" + KEY_TICKS + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_POSITION = Pattern.compile("position (?<" + KEY_ID_OF_CAR
+            + ">\\d+)");
+    private final SocketChannel channel;
+    private final SharedSimulation simulation;
+
+    /**
+     * Constructor of a client session.
+     *
+     * @param channel connection to the client, closed when the session ends
+     * @param simulation simulation shared by all clients
+     */
+    public ClientSession(SocketChannel channel, SharedSimulation simulation) {
+        this.channel = channel;
+        this.simulation = simulation;
+    }
+
+    @Override
+    public void run() {
+        try (SocketChannel connection = this.channel;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection),
+                     StandardCharsets.UTF_8));
+             PrintWriter writer = new PrintWriter(Channels.newOutputStream(connection), true,
+                     StandardCharsets.UTF_8)) {
+            String input = reader.readLine();
+            while (input != null && !input.equals(REGEX_COMMAND_QUIT)) {
+                try {
+                    writer.println(execute(input));
+                } catch (TrafficException e) {
+                    writer.println(e.getMessage());
+                }
+                input = reader.readLine();
+            }
+        } catch (IOException e) {
+            // The client closed the connection, nothing left to answer.
+        }
+    }
+
+    /**
+     * Executes one command.
+     *
+     * @param input input given by the client
+     * @return the answer to the command
+     * @throws TrafficException if the input is not valid or the command cannot be executed
+     */
+    public String execute(String input) throws TrafficException {
+        Matcher loadMatcher = REGEX_COMMAND_LOAD.matcher(input);
+        Matcher simulateMatcher = REGEX_COMMAND_SIMULATE.matcher(input);
+        Matcher positionMatcher = REGEX_COMMAND_POSITION.matcher(input);
+
+        if (loadMatcher.matches()) {
+            this.simulation.load(loadMatcher.group(KEY_PATH));
+            return MESSAGE_READY;
+        }
+        if (simulateMatcher.matches()) {
+            this.simulation.simulate(parseInteger(simulateMatcher.group(KEY_TICKS)));
+            return MESSAGE_READY;
+        }
+        if (positionMatcher.matches()) {
+            try {
+                return this.simulation.getLatestSnapshot()
+                        .getCarDetail(parseInteger(positionMatcher.group(KEY_ID_OF_CAR)));
+            } catch (InquiryException e) {
+                throw new TrafficException(e.getMessage());
+            }
+        }
+        if (input.equals(REGEX_COMMAND_STATS)) {
+            return this.simulation.getLatestSnapshot().getStatistics();
+        }
+        throw new TrafficException(ErrorMessage.INPUT_NOT_VALID.toString());
+    }
+
+    /**
+     * Parses the string input into an integer.
+     *
+     * @param inputToParse string input to parse
+     * @return integer parsed from the input if parsing is successful, otherwise throw exception
+     * @throws TrafficException if the string input cannot be parsed into an integer
+     */
+    public int parseInteger(String inputToParse) throws TrafficException {
+        int result;
+        try {
+            result = Integer.parseInt(inputToParse);
+        } catch (NumberFormatException e) {
+            throw new TrafficException(ErrorMessage.ILLEGAL_INTEGER.format(inputToParse));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,144 @@
+package edu.kit.kastel.trafficsimulation.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * This class describes a load test client for the server.
+ * It opens many connections at once, sends position queries on each of them
+ * and reports the queries per second and the 99th percentile of the latency.
+ * All connections are opened before the first query is sent, so the time to connect is not measured.
+ * A query fails if its connection cannot be opened, breaks or is closed by the server before the answer,
+ * then the remaining queries of the connection fail as well. Failed queries are counted, not measured.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class LoadTestClient {
+    private static final String FORMAT_QUERY = "position %d";
+    private static final String FORMAT_RESULT = "%d queries on %d connections: %.0f queries per second, "
+            + "p99 latency %.3f ms, %d failed queries on %d failed connections";
+    private static final double PERCENTILE = 0.99;
+    private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private final SocketAddress address;
+    private final int numberOfConnections;
+    private final int queriesPerConnection;
+    private final int idOfCar;
+
+    /**
+     * Constructor of a load test client.
+     *
+     * @param address address of the server, either a port number or "unix:" followed by a socket path
+     * @param numberOfConnections number of connections opened at the same time
+     * @param queriesPerConnection number of queries sent on each connection
+     * @param idOfCar id of the car whose position is queried
+     */
+    public LoadTestClient(String address, int numberOfConnections, int queriesPerConnection, int idOfCar) {
+        this.address = SimulationServer.toSocketAddress(address);
+        this.numberOfConnections = numberOfConnections;
+        this.queriesPerConnection = queriesPerConnection;
+        this.idOfCar = idOfCar;
+    }
+
+    /**
+     * Runs the load test and returns the result.
+     *
+     * @return line describing the answered queries per second, their p99 latency and the failures
+     * @throws InterruptedException if waiting for the connections is interrupted
+     */
+    public String run() throws InterruptedException {
+        long[][] latencies = new long[this.numberOfConnections][this.queriesPerConnection];
+        // Number of answered queries of each connection, each written by the thread of its connection only.
+        int[] answers = new int[this.numberOfConnections];
+        CountDownLatch connected = new CountDownLatch(this.numberOfConnections);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[this.numberOfConnections];
+        for (int i = 0; i < this.numberOfConnections; i++) {
+            int connection = i;
+            threads[i] = new Thread(() -> answers[connection] = query(connected, start, latencies[connection]));
+            threads[i].start();
+        }
+        connected.await();
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long duration = System.nanoTime() - startTime;
+
+        int numberOfAnswers = 0;
+        int failedConnections = 0;
+        for (int answersOfConnection : answers) {
+            numberOfAnswers += answersOfConnection;
+            if (answersOfConnection < this.queriesPerConnection) {
+                failedConnections++;
+            }
+        }
+        long[] allLatencies = new long[numberOfAnswers];
+        int end = 0;
+        for (int i = 0; i < this.numberOfConnections; i++) {
+            System.arraycopy(latencies[i], 0, allLatencies, end, answers[i]);
+            end += answers[i];
+        }
+        Arrays.sort(allLatencies);
+        long p99 = allLatencies.length == 0 ? 0 : allLatencies[(int) Math.ceil(allLatencies.length * PERCENTILE) - 1];
+        long failedQueries = (long) this.numberOfConnections * this.queriesPerConnection - numberOfAnswers;
+        return String.format(Locale.ROOT, FORMAT_RESULT, numberOfAnswers, this.numberOfConnections,
+                numberOfAnswers * NANOSECONDS_PER_SECOND / duration, p99 / NANOSECONDS_PER_MILLISECOND,
+                failedQueries, failedConnections);
+    }
+
+    /**
+     * Sends the queries of one connection and measures the latency of each answered one.
+     *
+     * @param connected latch counted down once the connection is opened or failed to open
+     * @param start latch released when all connections should start sending
+     * @param latencies latencies of the answered queries, in the order they were sent
+     * @return the number of answered queries, fewer than the queries of the connection if it failed
+     */
+    private int query(CountDownLatch connected, CountDownLatch start, long[] latencies) {
+        String query = String.format(FORMAT_QUERY, this.idOfCar);
+        int numberOfAnswers = 0;
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(this.address);
+        } catch (IOException e) {
+            // No query of a connection that cannot be opened is answered.
+            return 0;
+        } finally {
+            connected.countDown();
+        }
+        try (channel;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                     StandardCharsets.UTF_8));
+             PrintWriter writer = new PrintWriter(Channels.newOutputStream(channel), true,
+                     StandardCharsets.UTF_8)) {
+            start.await();
+            while (numberOfAnswers < latencies.length) {
+                long before = System.nanoTime();
+                writer.println(query);
+                if (reader.readLine() == null) {
+                    // The server closed the connection.
+                    break;
+                }
+                latencies[numberOfAnswers++] = System.nanoTime() - before;
+            }
+        } catch (IOException e) {
+            // The connection broke, so its remaining queries fail.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return numberOfAnswers;
+    }
+
+}
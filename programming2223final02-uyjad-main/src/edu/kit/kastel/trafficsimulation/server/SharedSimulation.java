@@ -0,0 +1,77 @@
+package edu.kit.kastel.trafficsimulation.server;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.TopologyLoader;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkSnapshot;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class describes one street network shared by all clients of the server.
+ * Consistency model: load and simulate commands are serialized by a lock and applied one after another.
+ * Queries never take the lock. They read the snapshot published after the last completed load or simulate command,
+ * so a query sees either the whole effect of a command or none of it.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class SharedSimulation {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final TopologyLoader topologyLoader = new TopologyLoader();
+    private StreetNetwork streetNetwork;
+    private volatile NetworkSnapshot latestSnapshot;
+
+    /**
+     * Loads a new street network. Waits until a running load or simulate command is finished.
+     *
+     * @param path path of the folder containing the simulation files
+     * @throws TrafficException if the path is not valid or the content derived is not valid
+     */
+    public void load(String path) throws TrafficException {
+        this.writeLock.lock();
+        try {
+            this.streetNetwork = new StreetNetwork(this.topologyLoader.load(path));
+            this.latestSnapshot = this.streetNetwork.createSnapshot();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Executes simulation according to given ticks. Waits until a running load or simulate command is finished.
+     *
+     * @param ticks how many times simulation is executed
+     * @throws TrafficException if no street network is loaded yet
+     */
+    public void simulate(int ticks) throws TrafficException {
+        this.writeLock.lock();
+        try {
+            if (this.streetNetwork == null) {
+                throw new TrafficException(ErrorMessage.INCOMPLETE_SET_UP.toString());
+            }
+            for (int i = 0; i < ticks; i++) {
+                this.streetNetwork.update();
+            }
+            this.latestSnapshot = this.streetNetwork.createSnapshot();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the snapshot published by the last completed command. Never blocks.
+     *
+     * @return the latest snapshot
+     * @throws TrafficException if no street network is loaded yet
+     */
+    public NetworkSnapshot getLatestSnapshot() throws TrafficException {
+        NetworkSnapshot snapshot = this.latestSnapshot;
+        if (snapshot == null) {
+            throw new TrafficException(ErrorMessage.INCOMPLETE_SET_UP.toString());
+        }
+        return snapshot;
+    }
+
+}
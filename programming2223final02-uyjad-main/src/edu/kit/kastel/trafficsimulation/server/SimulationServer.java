@@ -0,0 +1,86 @@
+package edu.kit.kastel.trafficsimulation.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class describes a server that lets many clients work on one shared simulation at the same time.
+ * It listens on a local TCP port or on a Unix domain socket and serves each connection on its own thread.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class SimulationServer {
+    private static final String PREFIX_UNIX_SOCKET = "unix:";
+    private final SocketAddress address;
+    private final SharedSimulation simulation;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor of a server.
+     *
+     * @param address address to listen on, either a port number or "unix:" followed by a socket path
+     * @throws IllegalArgumentException if the address is not valid
+     */
+    public SimulationServer(String address) {
+        this.address = toSocketAddress(address);
+        this.simulation = new SharedSimulation();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Converts an address given by user into a socket address on the local machine.
+     *
+     * @param address either a port number or "unix:" followed by a socket path
+     * @return the socket address
+     * @throws IllegalArgumentException if the address is neither a port number nor a Unix domain socket path,
+     *      or the port is out of range
+     */
+    public static SocketAddress toSocketAddress(String address) {
+        if (address.startsWith(PREFIX_UNIX_SOCKET)) {
+            return UnixDomainSocketAddress.of(address.substring(PREFIX_UNIX_SOCKET.length()));
+        }
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+    }
+
+    /**
+     * Accepts connections until the server channel is closed. Every connection is served by its own session.
+     *
+     * @throws IOException if the address cannot be bound
+     */
+    public void serve() throws IOException {
+        boolean isUnixSocket = this.address instanceof UnixDomainSocketAddress;
+        if (isUnixSocket) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) this.address).getPath());
+        }
+        try (ServerSocketChannel serverChannel = isUnixSocket
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open()) {
+            serverChannel.bind(this.address);
+            while (serverChannel.isOpen()) {
+                SocketChannel channel = serverChannel.accept();
+                this.executor.execute(new ClientSession(channel, this.simulation));
+            }
+        } finally {
+            this.executor.shutdownNow();
+            if (isUnixSocket) {
+                Path path = ((UnixDomainSocketAddress) this.address).getPath();
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+/**
+ * This class describes a block of arrivals parsed from an arrival file, held in primitive arrays.
+ * Blocks are handed from the prefetching thread to the simulating thread and back again to be refilled,
+ * so reading a file of any length allocates only a fixed number of blocks.
+ * The last block of a file is marked, and so is a block that ends at a line that could not be read.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class ArrivalBlock {
+    private final long[] ticks;
+    private final int[] streets;
+    private final int[] wishedSpeeds;
+    private final int[] accelerators;
+    private int size;
+    // Number of the line of the first arrival, so invalid arrivals can be reported by line.
+    private long firstLine;
+    private boolean isLast;
+    // Number of the line that could not be read after the arrivals of this block, 0 if there is none.
+    private long invalidLine;
+    private boolean hasFailed;
+
+    /**
+     * Constructor of an empty block.
+     *
+     * @param capacity maximum number of arrivals of the block
+     */
+    ArrivalBlock(int capacity) {
+        this.ticks = new long[capacity];
+        this.streets = new int[capacity];
+        this.wishedSpeeds = new int[capacity];
+        this.accelerators = new int[capacity];
+    }
+
+    /**
+     * Empties the block, so it can be refilled.
+     *
+     * @param firstLine number of the line of the next arrival
+     */
+    void clear(long firstLine) {
+        this.size = 0;
+        this.firstLine = firstLine;
+        this.isLast = false;
+        this.invalidLine = 0;
+        this.hasFailed = false;
+    }
+
+    /**
+     * Appends an arrival. The block must not be full.
+     *
+     * @param tick tick the car arrives at
+     * @param idOfStreet id of the street the car enters
+     * @param wishedSpeed wished speed of the car
+     * @param accelerator accelerator of the car
+     */
+    void add(long tick, int idOfStreet, int wishedSpeed, int accelerator) {
+        this.ticks[this.size] = tick;
+        this.streets[this.size] = idOfStreet;
+        this.wishedSpeeds[this.size] = wishedSpeed;
+        this.accelerators[this.size] = accelerator;
+        this.size++;
+    }
+
+    /**
+     * Checks whether no more arrival can be appended.
+     *
+     * @return true if the block is full, otherwise false
+     */
+    boolean isFull() {
+        return this.size == this.ticks.length;
+    }
+
+    /**
+     * Marks the block as the last one of the file.
+     */
+    void markAsLast() {
+        this.isLast = true;
+    }
+
+    /**
+     * Marks the block as the last one of the file, because the line after its arrivals could not be read.
+     *
+     * @param line number of the invalid line
+     */
+    void markAsInvalid(long line) {
+        this.isLast = true;
+        this.invalidLine = line;
+    }
+
+    /**
+     * Marks the block as the last one, because the file could not be read any further.
+     */
+    void markAsFailed() {
+        this.isLast = true;
+        this.hasFailed = true;
+    }
+
+    /**
+     * Gets the number of arrivals of the block.
+     *
+     * @return the number of arrivals
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the tick of an arrival.
+     *
+     * @param index index of the arrival in the block
+     * @return the tick the car arrives at
+     */
+    long getTick(int index) {
+        return this.ticks[index];
+    }
+
+    /**
+     * Gets the street of an arrival.
+     *
+     * @param index index of the arrival in the block
+     * @return the id of the street the car enters
+     */
+    int getIdOfStreet(int index) {
+        return this.streets[index];
+    }
+
+    /**
+     * Gets the wished speed of an arrival.
+     *
+     * @param index index of the arrival in the block
+     * @return the wished speed of the car
+     */
+    int getWishedSpeed(int index) {
+        return this.wishedSpeeds[index];
+    }
+
+    /**
+     * Gets the accelerator of an arrival.
+     *
+     * @param index index of the arrival in the block
+     * @return the accelerator of the car
+     */
+    int getAccelerator(int index) {
+        return this.accelerators[index];
+    }
+
+    /**
+     * Gets the number of the line of an arrival.
+     *
+     * @param index index of the arrival in the block
+     * @return the number of the line, starting with 1
+     */
+    long getLine(int index) {
+        return this.firstLine + index;
+    }
+
+    /**
+     * Checks whether the block is the last one of the file.
+     *
+     * @return true if no block follows, otherwise false
+     */
+    boolean isLast() {
+        return this.isLast;
+    }
+
+    /**
+     * Gets the number of the line that could not be read after the arrivals of this block.
+     *
+     * @return the number of the invalid line, or 0 if there is none
+     */
+    long getInvalidLine() {
+        return this.invalidLine;
+    }
+
+    /**
+     * Checks whether the file could not be read after the arrivals of this block.
+     *
+     * @return true if reading failed, otherwise false
+     */
+    boolean hasFailed() {
+        return this.hasFailed;
+    }
+
+}
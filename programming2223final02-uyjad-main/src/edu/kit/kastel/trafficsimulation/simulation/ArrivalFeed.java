@@ -0,0 +1,278 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class describes the arrivals of cars read from a time-ordered file with one line
+ * {@code tick,street,wishedSpeed,accelerator} per car, which may be far larger than memory.
+ * A dedicated thread reads the file through a channel into a direct buffer and parses it into blocks of primitive
+ * arrays ahead of the simulation, so the simulating thread only waits if it consumes arrivals faster than the disk
+ * delivers them. A fixed number of blocks circulates between the two threads, so at most that many arrivals are
+ * held in memory at once.
+ * Before each tick, the cars arriving at that tick enter the start of their street if it is free by the rules of
+ * the network, otherwise they wait outside until it is free. Arrivals before the tick the file was opened at are
+ * skipped. The file is closed when the last arrival was read.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ArrivalFeed {
+    private static final String NAME_OF_THREAD = "arrival-prefetch";
+    private static final String FORMAT_STATUS = "Arrivals from %s: %d read, %d entered, %d waiting, %d skipped, "
+            + "%d stalls%s";
+    private static final String MESSAGE_END_OF_FILE = ", end of file";
+    private static final int SIZE_OF_BUFFER = 1 << 20;
+    private static final int CAPACITY_OF_BLOCK = 4096;
+    private static final int NUMBER_OF_BLOCKS = 8;
+    private static final int NUMBER_OF_FIELDS = 4;
+    private static final int RADIX = 10;
+    private final Path path;
+    private final long firstTick;
+    private final FileChannel channel;
+    private final BlockingQueue<ArrivalBlock> filledBlocks = new ArrayBlockingQueue<>(NUMBER_OF_BLOCKS);
+    private final BlockingQueue<ArrivalBlock> emptyBlocks = new ArrayBlockingQueue<>(NUMBER_OF_BLOCKS);
+    private final WaitingArrivals waitingArrivals;
+    private final Thread prefetcher;
+    // Block the next arrival is read from, null before the first block is taken.
+    private ArrivalBlock block;
+    private int position;
+    private boolean isAtEnd;
+    private long lastTick;
+    private long numberOfReadArrivals;
+    private long numberOfEnteredCars;
+    private long numberOfSkippedArrivals;
+    private long numberOfStalls;
+
+    /**
+     * Constructor of an arrival feed. It opens the file, but does not read it before {@link #start()}.
+     *
+     * @param path path of the arrival file
+     * @param firstTick tick of the network the file is opened at
+     * @param numberOfStreets number of streets of the network
+     * @throws IOException if the file cannot be opened
+     */
+    public ArrivalFeed(Path path, long firstTick, int numberOfStreets) throws IOException {
+        this.path = path;
+        this.firstTick = firstTick;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.waitingArrivals = new WaitingArrivals(numberOfStreets);
+        for (int i = 0; i < NUMBER_OF_BLOCKS; i++) {
+            this.emptyBlocks.add(new ArrivalBlock(CAPACITY_OF_BLOCK));
+        }
+        this.prefetcher = new Thread(this::prefetch, NAME_OF_THREAD);
+        this.prefetcher.setDaemon(true);
+    }
+
+    /**
+     * Starts the prefetching thread.
+     */
+    public void start() {
+        this.prefetcher.start();
+    }
+
+    /**
+     * Stops reading the file and closes it. Waiting cars do not enter anymore.
+     */
+    public void close() {
+        this.prefetcher.interrupt();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            // The file is not read anymore either way.
+        }
+    }
+
+    /**
+     * Lets the cars arriving up to the current tick of the network enter it. Cars that wait enter first,
+     * in the order of the ids of their streets, then the arrivals of the tick in the order of the file.
+     * Must be called by the thread that simulates the network, between two ticks.
+     *
+     * @param network network the cars enter, built upon the topology the feed was opened for
+     * @throws TrafficException if an arrival is not valid, the file cannot be read or waiting for it is interrupted
+     */
+    public void feed(StreetNetwork network) throws TrafficException {
+        int idOfStreet = this.waitingArrivals.getNextStreet(0);
+        while (idOfStreet != -1) {
+            if (network.spawnArrival(idOfStreet, this.waitingArrivals.getWishedSpeedOfFirstCar(idOfStreet),
+                    this.waitingArrivals.getAcceleratorOfFirstCar(idOfStreet))) {
+                this.waitingArrivals.removeFirstCar(idOfStreet);
+                this.numberOfEnteredCars++;
+            }
+            idOfStreet = this.waitingArrivals.getNextStreet(idOfStreet + 1);
+        }
+        long tick = network.getNumberOfTicks();
+        while (!this.isAtEnd) {
+            // The last block may be empty, if the file ends or fails right after a full block or at its start.
+            if (this.block == null || this.position == this.block.size()) {
+                if (!takeBlock()) {
+                    return;
+                }
+                continue;
+            }
+            long tickOfArrival = this.block.getTick(this.position);
+            if (tickOfArrival > tick) {
+                return;
+            }
+            if (tickOfArrival < this.lastTick) {
+                throw new TrafficException(ErrorMessage.ILLEGAL_ARRIVAL.format(this.block.getLine(this.position)));
+            }
+            this.lastTick = tickOfArrival;
+            enter(network, this.position);
+            this.position++;
+            this.numberOfReadArrivals++;
+        }
+    }
+
+    private void enter(StreetNetwork network, int index) throws TrafficException {
+        if (this.block.getTick(index) < this.firstTick) {
+            this.numberOfSkippedArrivals++;
+            return;
+        }
+        int idOfStreet = this.block.getIdOfStreet(index);
+        int wishedSpeed = this.block.getWishedSpeed(index);
+        int accelerator = this.block.getAccelerator(index);
+        try {
+            network.checkArrival(idOfStreet, wishedSpeed, accelerator);
+        } catch (InquiryException e) {
+            throw new TrafficException(ErrorMessage.ILLEGAL_ARRIVAL.format(this.block.getLine(index)));
+        }
+        // A car must not pass the cars that wait for the same street.
+        if (this.waitingArrivals.hasWaitingCars(idOfStreet)
+                || !network.spawnArrival(idOfStreet, wishedSpeed, accelerator)) {
+            this.waitingArrivals.add(idOfStreet, wishedSpeed, accelerator);
+        } else {
+            this.numberOfEnteredCars++;
+        }
+    }
+
+    /**
+     * Hands the read block back to be refilled and takes the next filled block.
+     *
+     * @return true if a block was taken, false if the file has been read completely
+     * @throws TrafficException if the file cannot be read or is not valid, or waiting is interrupted
+     */
+    private boolean takeBlock() throws TrafficException {
+        if (this.block != null) {
+            if (this.block.isLast()) {
+                this.isAtEnd = true;
+                close();
+                if (this.block.hasFailed()) {
+                    throw new TrafficException(ErrorMessage.READ_FAILED.format(this.path));
+                }
+                if (this.block.getInvalidLine() != 0) {
+                    throw new TrafficException(ErrorMessage.ILLEGAL_ARRIVAL.format(this.block.getInvalidLine()));
+                }
+                return false;
+            }
+            this.emptyBlocks.add(this.block);
+        }
+        ArrivalBlock nextBlock = this.filledBlocks.poll();
+        if (nextBlock == null) {
+            // The prefetching thread fell behind, so the tick has to wait for the disk.
+            this.numberOfStalls++;
+            try {
+                nextBlock = this.filledBlocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TrafficException(ErrorMessage.SIMULATION_INTERRUPTED.toString());
+            }
+        }
+        this.block = nextBlock;
+        this.position = 0;
+        return true;
+    }
+
+    /**
+     * Gets the path of the file, the number of read, entered, waiting and skipped arrivals and the number of ticks
+     * that had to wait for the prefetching thread.
+     *
+     * @return string of the status
+     */
+    public String getStatus() {
+        return String.format(FORMAT_STATUS, this.path, this.numberOfReadArrivals, this.numberOfEnteredCars,
+                this.waitingArrivals.size(), this.numberOfSkippedArrivals, this.numberOfStalls,
+                this.isAtEnd ? MESSAGE_END_OF_FILE : "");
+    }
+
+    /**
+     * Reads and parses the file into blocks until it ends, a line is not valid or the feed is closed.
+     * There are as many places in the queue of filled blocks as there are blocks, so handing a block over never
+     * blocks this thread, it only waits for empty blocks.
+     */
+    private void prefetch() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SIZE_OF_BUFFER);
+        long[] fields = new long[NUMBER_OF_FIELDS];
+        int field = 0;
+        boolean hasDigit = false;
+        long line = 1;
+        ArrivalBlock currentBlock;
+        try {
+            currentBlock = this.emptyBlocks.take();
+        } catch (InterruptedException e) {
+            return;
+        }
+        currentBlock.clear(line);
+        try {
+            while (this.channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte character = buffer.get();
+                    if (character >= '0' && character <= '9') {
+                        fields[field] = fields[field] * RADIX + character - '0';
+                        hasDigit = true;
+                        if (fields[field] > Integer.MAX_VALUE) {
+                            currentBlock.markAsInvalid(line);
+                            this.filledBlocks.add(currentBlock);
+                            return;
+                        }
+                    } else if (character == ',' && hasDigit && field < NUMBER_OF_FIELDS - 1) {
+                        field++;
+                        hasDigit = false;
+                    } else if (character == '\n' && hasDigit && field == NUMBER_OF_FIELDS - 1) {
+                        currentBlock.add(fields[0], (int) fields[1], (int) fields[2], (int) fields[3]);
+                        line++;
+                        field = 0;
+                        hasDigit = false;
+                        Arrays.fill(fields, 0);
+                        if (currentBlock.isFull()) {
+                            this.filledBlocks.add(currentBlock);
+                            currentBlock = this.emptyBlocks.take();
+                            currentBlock.clear(line);
+                        }
+                    } else if (character != '\r') {
+                        currentBlock.markAsInvalid(line);
+                        this.filledBlocks.add(currentBlock);
+                        return;
+                    }
+                }
+                buffer.clear();
+            }
+            // The last line may end without a line break.
+            if (hasDigit && field == NUMBER_OF_FIELDS - 1) {
+                currentBlock.add(fields[0], (int) fields[1], (int) fields[2], (int) fields[3]);
+            } else if (hasDigit || field > 0) {
+                currentBlock.markAsInvalid(line);
+            }
+            currentBlock.markAsLast();
+        } catch (IOException e) {
+            // Also thrown if the feed is closed while reading, then the block is not taken anymore.
+            currentBlock.markAsFailed();
+        } catch (InterruptedException e) {
+            return;
+        }
+        this.filledBlocks.add(currentBlock);
+    }
+
+}
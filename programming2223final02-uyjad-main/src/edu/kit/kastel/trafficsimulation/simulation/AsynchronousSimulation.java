@@ -0,0 +1,48 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkSnapshot;
+
+/**
+ * This interface describes a simulation that advances a street network on another thread,
+ * while queries are answered from the snapshots it publishes.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public interface AsynchronousSimulation {
+
+    /**
+     * Starts the simulation and returns immediately.
+     */
+    void start();
+
+    /**
+     * Cancels the simulation and waits until it stopped at a tick boundary.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    void cancel() throws InterruptedException;
+
+    /**
+     * Gets the latest published snapshot. Never blocks.
+     *
+     * @return the latest published snapshot
+     */
+    NetworkSnapshot getLatestSnapshot();
+
+    /**
+     * Checks whether the simulation has ended, either finished or cancelled.
+     * Once this returns true, the network may be used by other threads again.
+     *
+     * @return true if the simulation has ended, otherwise false
+     */
+    boolean isFinished();
+
+    /**
+     * Gets a description of the progress of the simulation.
+     *
+     * @return description of the progress
+     */
+    String getProgress();
+
+}
@@ -0,0 +1,92 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkSnapshot;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+/**
+ * This class describes a simulation that runs on a dedicated thread.
+ * Every given number of ticks it publishes an immutable snapshot of the network,
+ * so queries can be answered without waiting for the simulation and without locking.
+ * The simulation can be cancelled, it then stops at the next tick boundary.
+ * If a tick fails, the simulation ends there and the failure is reported with its progress.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class BackgroundSimulation implements AsynchronousSimulation {
+    private static final String NAME_OF_THREAD = "background-simulation";
+    private static final String FORMAT_PROGRESS = "Progress: %d/%d ticks";
+    private static final String FORMAT_FAILURE = "%s, failed: %s";
+    private final StreetNetwork streetNetwork;
+    private final int ticks;
+    private final int intervalOfSnapshots;
+    private final Thread thread;
+    private volatile NetworkSnapshot latestSnapshot;
+    private volatile int ticksDone;
+    private volatile boolean isCancelled;
+    private volatile boolean isFinished;
+    private volatile RuntimeException failure;
+
+    /**
+     * Constructor of a background simulation. The simulation does not start before {@link #start()} is called.
+     *
+     * @param streetNetwork network to be simulated, it must not be used by other threads until the simulation ends
+     * @param ticks how many ticks are simulated
+     * @param intervalOfSnapshots number of ticks between two published snapshots, at least 1
+     */
+    public BackgroundSimulation(StreetNetwork streetNetwork, int ticks, int intervalOfSnapshots) {
+        this.streetNetwork = streetNetwork;
+        this.ticks = ticks;
+        this.intervalOfSnapshots = Math.max(intervalOfSnapshots, 1);
+        this.latestSnapshot = streetNetwork.createSnapshot();
+        this.thread = new Thread(this::run, NAME_OF_THREAD);
+        this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void start() {
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            for (int i = 1; i <= this.ticks && !this.isCancelled; i++) {
+                this.streetNetwork.update();
+                this.ticksDone = i;
+                if (i % this.intervalOfSnapshots == 0) {
+                    this.latestSnapshot = this.streetNetwork.createSnapshot();
+                }
+            }
+            this.latestSnapshot = this.streetNetwork.createSnapshot();
+        } catch (RuntimeException e) {
+            // The latest snapshot is kept, the network may be left in the middle of the failed tick.
+            this.failure = e;
+        } finally {
+            this.isFinished = true;
+        }
+    }
+
+    @Override
+    public void cancel() throws InterruptedException {
+        this.isCancelled = true;
+        this.thread.join();
+    }
+
+    @Override
+    public NetworkSnapshot getLatestSnapshot() {
+        return this.latestSnapshot;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return this.isFinished;
+    }
+
+    @Override
+    public String getProgress() {
+        String progress = String.format(FORMAT_PROGRESS, this.ticksDone, this.ticks);
+        RuntimeException failure = this.failure;
+        return failure == null ? progress : String.format(FORMAT_FAILURE, progress, failure);
+    }
+
+}
@@ -0,0 +1,97 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkCheckpoint;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * This class describes the compressed checkpoints of one street network, taken every K ticks within a budget
+ * of memory. A past state is rebuilt by restoring the nearest earlier checkpoint and simulating forward,
+ * so as long as the checkpoints around a tick are retained, rebuilding it costs at most K ticks of simulation.
+ * Tick 0 is never stored, as it is taken from the topology.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class CheckpointHistory {
+    private static final int BYTES_PER_KILOBYTE = 1024;
+    private final int interval;
+    private final long budgetInBytes;
+    private final CheckpointPolicy policy;
+    private final NavigableMap<Long, NetworkCheckpoint> checkpoints = new TreeMap<>();
+    private long sizeInBytes;
+
+    /**
+     * Constructor of an empty checkpoint history.
+     *
+     * @param interval number of ticks between two checkpoints, at least 1
+     * @param budgetInKilobytes memory all checkpoints together may use
+     * @param policy policy that decides which checkpoint is evicted if the budget is exceeded
+     */
+    public CheckpointHistory(int interval, int budgetInKilobytes, CheckpointPolicy policy) {
+        this.interval = interval;
+        this.budgetInBytes = (long) budgetInKilobytes * BYTES_PER_KILOBYTE;
+        this.policy = policy;
+    }
+
+    /**
+     * Takes a checkpoint of the network if its number of ticks is a multiple of the interval.
+     * Must be called by the thread that simulates the network.
+     *
+     * @param streetNetwork network whose history this is
+     */
+    public void record(StreetNetwork streetNetwork) {
+        long tick = streetNetwork.getNumberOfTicks();
+        if (tick == 0 || tick % this.interval != 0 || this.checkpoints.containsKey(tick)) {
+            return;
+        }
+        NetworkCheckpoint checkpoint = streetNetwork.createCheckpoint();
+        this.checkpoints.put(tick, checkpoint);
+        this.sizeInBytes += checkpoint.getSizeInBytes();
+        while (this.sizeInBytes > this.budgetInBytes && !this.checkpoints.isEmpty()) {
+            NetworkCheckpoint evicted = this.checkpoints.remove(this.policy.selectEvicted(this.checkpoints));
+            this.sizeInBytes -= evicted.getSizeInBytes();
+        }
+    }
+
+    /**
+     * Removes all checkpoints, for instance because another network is simulated from now on.
+     */
+    public void clear() {
+        this.checkpoints.clear();
+        this.sizeInBytes = 0;
+    }
+
+    /**
+     * Finds the latest checkpoint taken at or before the given tick.
+     *
+     * @param tick tick to be rebuilt
+     * @return the nearest earlier checkpoint, or null if there is none
+     */
+    public NetworkCheckpoint findCheckpoint(long tick) {
+        Map.Entry<Long, NetworkCheckpoint> checkpoint = this.checkpoints.floorEntry(tick);
+        return checkpoint == null ? null : checkpoint.getValue();
+    }
+
+    /**
+     * Gets the number of retained checkpoints.
+     *
+     * @return the number of checkpoints
+     */
+    public int getNumberOfCheckpoints() {
+        return this.checkpoints.size();
+    }
+
+    /**
+     * Gets the memory used by all retained checkpoints.
+     *
+     * @return the size of all checkpoints in bytes
+     */
+    public long getSizeInBytes() {
+        return this.sizeInBytes;
+    }
+
+}
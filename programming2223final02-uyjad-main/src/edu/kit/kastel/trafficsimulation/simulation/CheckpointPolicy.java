@@ -0,0 +1,83 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkCheckpoint;
+
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * This class describes the policies that decide which checkpoint is evicted if the checkpoints exceed their budget.
+ * The state at tick 0 can always be rebuilt from the topology, so it counts as a checkpoint that is never evicted.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public enum CheckpointPolicy {
+
+    /**
+     * The oldest checkpoint is evicted, so recent ticks stay fast to query while old ones replay from tick 0.
+     */
+    OLDEST("oldest") {
+        @Override
+        long selectEvicted(NavigableMap<Long, NetworkCheckpoint> checkpoints) {
+            return checkpoints.firstKey();
+        }
+    },
+
+    /**
+     * The checkpoint whose neighbours are closest to each other is evicted, the older one of equal candidates.
+     * The remaining checkpoints thin out, but stay spread over the whole run.
+     */
+    SPREAD("spread") {
+        @Override
+        long selectEvicted(NavigableMap<Long, NetworkCheckpoint> checkpoints) {
+            long evicted = checkpoints.firstKey();
+            long smallestGap = Long.MAX_VALUE;
+            long previous = 0;
+            for (Map.Entry<Long, NetworkCheckpoint> entry : checkpoints.headMap(checkpoints.lastKey()).entrySet()) {
+                long gap = checkpoints.higherKey(entry.getKey()) - previous;
+                if (gap < smallestGap) {
+                    smallestGap = gap;
+                    evicted = entry.getKey();
+                }
+                previous = entry.getKey();
+            }
+            return evicted;
+        }
+    };
+
+    private final String name;
+
+    /**
+     * Constructor of a checkpoint policy.
+     *
+     * @param name name of the policy as given by user
+     */
+    CheckpointPolicy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the checkpoint policy from input string.
+     *
+     * @param name name of the policy
+     * @return checkpoint policy that matches this name, otherwise null
+     */
+    public static CheckpointPolicy getCheckpointPolicyFromString(String name) {
+        for (CheckpointPolicy policy : CheckpointPolicy.values()) {
+            if (policy.name.equals(name)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selects the checkpoint to be evicted.
+     *
+     * @param checkpoints checkpoints by tick, at least one
+     * @return the tick of the checkpoint to be evicted
+     */
+    abstract long selectEvicted(NavigableMap<Long, NetworkCheckpoint> checkpoints);
+
+}
@@ -0,0 +1,208 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StateColumns;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * This class describes the export of the state of a street network every N ticks into a columnar file.
+ * The simulating thread only copies the state into one of a fixed number of preallocated {@link StateColumns},
+ * a dedicated writer thread compresses and writes them. If the writer falls behind, the simulation waits for
+ * a free sample, so the memory used stays the same no matter how long the simulation runs.
+ * <p>
+ * The file {@value #NAME_OF_FILE} in the target directory is a sequence of chunks, one per sample. A chunk starts
+ * with a header of the tick (long), the number of streets (int), the number of cars (int) and the compressed
+ * length of each column (int). The columns follow in the order occupancy, ids of cars, street ids of cars,
+ * positions and speeds. Each column is an array of big-endian ints compressed on its own with deflate (zlib),
+ * so a reader can skip the columns it does not need.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ColumnarExporter {
+    private static final String NAME_OF_THREAD = "columnar-export";
+    private static final String NAME_OF_FILE = "state.col";
+    // One sample is filled by the simulation while the other one is written.
+    private static final int NUMBER_OF_SAMPLES = 2;
+    private static final int NUMBER_OF_COLUMNS = 5;
+    private static final int SIZE_OF_HEADER = Long.BYTES + (2 + NUMBER_OF_COLUMNS) * Integer.BYTES;
+    private final Path directory;
+    private final int interval;
+    private final int numberOfStreets;
+    private final FileChannel channel;
+    private final BlockingQueue<StateColumns> freeSamples = new ArrayBlockingQueue<>(NUMBER_OF_SAMPLES);
+    private final BlockingQueue<StateColumns> filledSamples = new ArrayBlockingQueue<>(NUMBER_OF_SAMPLES);
+    private final Thread writer;
+    // Only used by the writer thread.
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer header = ByteBuffer.allocate(SIZE_OF_HEADER);
+    private ByteBuffer column;
+    private byte[] body;
+    private volatile IOException failure;
+
+    /**
+     * Constructor of a columnar exporter. It creates the directory and the file, but takes no sample before
+     * {@link #start()} is called.
+     *
+     * @param topology topology of the exported networks
+     * @param directory directory the file is written into
+     * @param interval number of ticks between two samples, at least 1
+     * @throws IOException if the directory or the file cannot be created
+     */
+    public ColumnarExporter(Topology topology, Path directory, int interval) throws IOException {
+        this.directory = directory;
+        this.interval = interval;
+        this.numberOfStreets = topology.getNumberOfStreets();
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(directory.resolve(NAME_OF_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            this.freeSamples.add(new StateColumns(topology));
+        }
+        this.column = ByteBuffer.allocate(Math.max(this.numberOfStreets, topology.getNumberOfCars()) * Integer.BYTES);
+        this.body = new byte[this.column.capacity()];
+        this.writer = new Thread(this::write, NAME_OF_THREAD);
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        this.writer.start();
+    }
+
+    /**
+     * Takes a sample of the network if its number of ticks is a multiple of the interval.
+     * Waits if all samples are still being written.
+     *
+     * @param streetNetwork network to be sampled, built upon the topology of this exporter
+     * @throws TrafficException if writing an earlier sample failed or waiting is interrupted
+     */
+    public void sample(StreetNetwork streetNetwork) throws TrafficException {
+        if (this.failure != null) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(this.directory));
+        }
+        if (streetNetwork.getNumberOfTicks() % this.interval != 0) {
+            return;
+        }
+        try {
+            StateColumns sample = this.freeSamples.take();
+            streetNetwork.fillColumns(sample);
+            this.filledSamples.add(sample);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrafficException(ErrorMessage.SIMULATION_INTERRUPTED.toString());
+        }
+    }
+
+    /**
+     * Writes all samples that were taken and closes the file.
+     *
+     * @throws TrafficException if a sample or the file could not be written
+     */
+    public void close() throws TrafficException {
+        // The writer gives every sample back after writing it, so holding all of them means it is idle.
+        try {
+            for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+                this.freeSamples.take();
+            }
+            this.writer.interrupt();
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.deflater.end();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            this.failure = e;
+        }
+        if (this.failure != null) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(this.directory));
+        }
+    }
+
+    private void write() {
+        while (true) {
+            StateColumns sample;
+            try {
+                sample = this.filledSamples.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                // After a failure the samples are only given back, so the simulation does not wait forever.
+                if (this.failure == null) {
+                    writeChunk(sample);
+                }
+            } catch (IOException e) {
+                this.failure = e;
+            } finally {
+                this.freeSamples.add(sample);
+            }
+        }
+    }
+
+    private void writeChunk(StateColumns sample) throws IOException {
+        int numberOfCars = sample.getNumberOfCars();
+        this.header.clear();
+        this.header.putLong(sample.getTick()).putInt(this.numberOfStreets).putInt(numberOfCars);
+        int lengthOfBody = 0;
+        lengthOfBody += compress(sample.getOccupancy(), this.numberOfStreets, lengthOfBody);
+        lengthOfBody += compress(sample.getIdsOfCars(), numberOfCars, lengthOfBody);
+        lengthOfBody += compress(sample.getStreetsOfCars(), numberOfCars, lengthOfBody);
+        lengthOfBody += compress(sample.getPositionsOfCars(), numberOfCars, lengthOfBody);
+        lengthOfBody += compress(sample.getSpeedsOfCars(), numberOfCars, lengthOfBody);
+        this.header.flip();
+        ByteBuffer[] chunk = {this.header, ByteBuffer.wrap(this.body, 0, lengthOfBody)};
+        while (chunk[0].hasRemaining() || chunk[1].hasRemaining()) {
+            this.channel.write(chunk);
+        }
+    }
+
+    /**
+     * Compresses a column into the body and adds its compressed length to the header.
+     *
+     * @param values values of the column
+     * @param length number of valid values
+     * @param offset offset in the body the column is written to
+     * @return the compressed length of the column
+     */
+    private int compress(int[] values, int length, int offset) {
+        if (length * Integer.BYTES > this.column.capacity()) {
+            // Only spawned cars make a sample larger than the topology.
+            this.column = ByteBuffer.allocate(2 * length * Integer.BYTES);
+        }
+        this.column.clear();
+        this.column.asIntBuffer().put(values, 0, length);
+        this.deflater.reset();
+        this.deflater.setInput(this.column.array(), 0, length * Integer.BYTES);
+        this.deflater.finish();
+        int end = offset;
+        while (!this.deflater.finished()) {
+            if (end == this.body.length) {
+                // The body only grows until it fits the least compressible sample, so it stays bounded.
+                byte[] grownBody = new byte[2 * this.body.length];
+                System.arraycopy(this.body, 0, grownBody, 0, end);
+                this.body = grownBody;
+            }
+            end += this.deflater.deflate(this.body, end, this.body.length - end);
+        }
+        this.header.putInt(end - offset);
+        return end - offset;
+    }
+
+}
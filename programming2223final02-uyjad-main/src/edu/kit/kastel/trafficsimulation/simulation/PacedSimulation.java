@@ -0,0 +1,127 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkSnapshot;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class describes a simulation that advances at a fixed number of ticks per wall-clock second.
+ * A scheduled executor wakes up once per tick period. Each wake-up simulates all ticks that are due by then,
+ * so if a tick overruns, the following wake-up catches up by batching ticks instead of drifting.
+ * The jitter of each wake-up and the number of missed deadlines are measured.
+ * If a tick fails, the simulation ends there and the failure is reported with its progress.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class PacedSimulation implements AsynchronousSimulation {
+    private static final String NAME_OF_THREAD = "paced-simulation";
+    private static final String FORMAT_PROGRESS = "Progress: %d ticks at %d ticks per second, %d missed deadlines, "
+            + "jitter average %.3f ms maximum %.3f ms";
+    private static final String FORMAT_FAILURE = "%s, failed: %s";
+    private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOSECONDS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+    private final StreetNetwork streetNetwork;
+    private final int ticksPerSecond;
+    private final long period;
+    private final ScheduledExecutorService executor;
+    private volatile NetworkSnapshot latestSnapshot;
+    private volatile long ticksDone;
+    private volatile long missedDeadlines;
+    private volatile long numberOfWakeUps;
+    private volatile long sumOfJitter;
+    private volatile long maximumJitter;
+    private volatile boolean isFinished;
+    private volatile RuntimeException failure;
+    private long startTime;
+
+    /**
+     * Constructor of a paced simulation. The simulation does not start before {@link #start()} is called.
+     *
+     * @param streetNetwork network to be simulated, it must not be used by other threads until the simulation ends
+     * @param ticksPerSecond number of ticks simulated per wall-clock second, at least 1
+     */
+    public PacedSimulation(StreetNetwork streetNetwork, int ticksPerSecond) {
+        this.streetNetwork = streetNetwork;
+        this.ticksPerSecond = Math.max(ticksPerSecond, 1);
+        this.period = NANOSECONDS_PER_SECOND / this.ticksPerSecond;
+        this.latestSnapshot = streetNetwork.createSnapshot();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, NAME_OF_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start() {
+        this.startTime = System.nanoTime();
+        this.executor.scheduleAtFixedRate(this::wakeUp, 0, this.period, TimeUnit.NANOSECONDS);
+    }
+
+    private void wakeUp() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            // A periodic task that throws is cancelled silently, so the simulation has to end itself.
+            this.failure = e;
+            this.executor.shutdown();
+            this.isFinished = true;
+        }
+    }
+
+    private void catchUp() {
+        long now = System.nanoTime();
+        long elapsed = now - this.startTime;
+        long jitter = Math.abs(elapsed - this.numberOfWakeUps * this.period);
+        this.numberOfWakeUps++;
+        this.sumOfJitter += jitter;
+        this.maximumJitter = Math.max(this.maximumJitter, jitter);
+
+        // The first tick is due at the start, every following tick one period later.
+        long ticksDue = elapsed / this.period + 1 - this.ticksDone;
+        for (long i = 0; i < ticksDue; i++) {
+            this.streetNetwork.update();
+        }
+        if (ticksDue > 0) {
+            // Every tick beyond the first one in a wake-up was due at an earlier wake-up.
+            this.missedDeadlines += ticksDue - 1;
+            this.ticksDone += ticksDue;
+            this.latestSnapshot = this.streetNetwork.createSnapshot();
+        }
+    }
+
+    @Override
+    public void cancel() throws InterruptedException {
+        // Shutting down lets the current wake-up finish, so the simulation stops at a tick boundary.
+        this.executor.shutdown();
+        this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        this.isFinished = true;
+    }
+
+    @Override
+    public NetworkSnapshot getLatestSnapshot() {
+        return this.latestSnapshot;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return this.isFinished;
+    }
+
+    @Override
+    public String getProgress() {
+        long wakeUps = this.numberOfWakeUps;
+        double averageJitter = wakeUps == 0 ? 0 : (double) this.sumOfJitter / wakeUps;
+        String progress = String.format(Locale.ROOT, FORMAT_PROGRESS, this.ticksDone, this.ticksPerSecond,
+                this.missedDeadlines, averageJitter / NANOSECONDS_PER_MILLISECOND,
+                this.maximumJitter / NANOSECONDS_PER_MILLISECOND);
+        RuntimeException failure = this.failure;
+        return failure == null ? progress : String.format(FORMAT_FAILURE, progress, failure);
+    }
+
+}
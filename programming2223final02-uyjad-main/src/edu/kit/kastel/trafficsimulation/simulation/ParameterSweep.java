@@ -0,0 +1,103 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NodeData;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class describes a parameter sweep over green light durations.
+ * All variants share one immutable topology and only allocate their own car and green light state.
+ * The variants are simulated in parallel and the throughput of the network is reported per variant.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ParameterSweep {
+    private static final String FORMAT_RESULT = "Duration %d: %d crossings in %d ticks (%.2f per tick)";
+    private final Topology topology;
+
+    /**
+     * Constructor of a parameter sweep.
+     *
+     * @param topology topology shared by all variants
+     */
+    public ParameterSweep(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Simulates one variant for each duration and reports the throughput of each variant.
+     * In a variant, every node with green light uses the given duration.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @param durations green light duration of each variant
+     * @return one line of result per variant, in the order of the given durations
+     * @throws TrafficException if a duration is not valid or the sweep is interrupted
+     */
+    public List<String> run(int ticks, List<Integer> durations) throws TrafficException {
+        for (int duration : durations) {
+            if (!NodeData.isValidDurationOfGreenLight(duration)) {
+                throw new TrafficException(ErrorMessage.ILLEGAL_DURATION.toString());
+            }
+        }
+
+        int numberOfThreads = Math.min(durations.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(numberOfThreads, 1));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int duration : durations) {
+                futures.add(executor.submit(createVariant(ticks, duration)));
+            }
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < durations.size(); i++) {
+                long crossings = futures.get(i).get();
+                double throughput = ticks == 0 ? 0 : (double) crossings / ticks;
+                results.add(String.format(Locale.ROOT, FORMAT_RESULT, durations.get(i), crossings, ticks,
+                        throughput));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrafficException(ErrorMessage.SIMULATION_INTERRUPTED.toString());
+        } catch (ExecutionException e) {
+            throw new TrafficException(ErrorMessage.SIMULATION_FAILED.format(e.getCause()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the task that simulates one variant.
+     *
+     * @param ticks how many ticks the variant is simulated
+     * @param duration green light duration of the variant
+     * @return task that returns the number of crossings of the variant
+     */
+    private Callable<Long> createVariant(int ticks, int duration) {
+        return () -> {
+            int[] durations = this.topology.getDurationsOfGreenLight();
+            for (int i = 0; i < durations.length; i++) {
+                if (durations[i] != 0) {
+                    durations[i] = duration;
+                }
+            }
+            StreetNetwork variant = new StreetNetwork(this.topology, durations);
+            for (int i = 0; i < ticks; i++) {
+                variant.update();
+            }
+            return variant.getNumberOfCrossings();
+        };
+    }
+
+}
@@ -0,0 +1,85 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class describes a benchmark of rerouting against static routing.
+ * Both variants are forks of the same network and are simulated one after the other on the calling thread,
+ * so they do not compete for processors except with the computation of the rerouting tables in the background.
+ * The tick throughput and the number of cars that left the network are reported per variant.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ReroutingBenchmark {
+    private static final String FORMAT_RESULT = "%s: %d ticks in %d ms (%.1f ticks per second), %d cars left";
+    private static final String NAME_OF_STATIC_ROUTING = "Static routing";
+    private static final String NAME_OF_REROUTING = "Rerouting";
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private static final int NANOSECONDS_PER_MILLISECOND = 1_000_000;
+    private final StreetNetwork network;
+
+    /**
+     * Constructor of a benchmark.
+     *
+     * @param network network both variants are forked of, which is not changed
+     */
+    public ReroutingBenchmark(StreetNetwork network) {
+        this.network = network;
+    }
+
+    /**
+     * Simulates a variant routing by the free-flow tables and a variant rerouting with the given settings.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @param thresholdInPercent drift of the weight of a street that leads to new tables
+     * @param delayInTicks number of ticks from starting a computation of tables until they are used
+     * @return one line of result per variant and the statistics of rerouting
+     * @throws TrafficException if no car has a destination or the threshold or delay is not positive
+     */
+    public List<String> run(int ticks, int thresholdInPercent, int delayInTicks) throws TrafficException {
+        StreetNetwork staticRouting = new StreetNetwork(this.network);
+        StreetNetwork rerouting = new StreetNetwork(this.network);
+        List<String> results = new ArrayList<>();
+        try {
+            rerouting.startRerouting(thresholdInPercent, delayInTicks);
+            // A fork keeps the rerouting of the forked network.
+            if (staticRouting.isRerouting()) {
+                staticRouting.stopRerouting();
+            }
+            results.add(simulate(NAME_OF_STATIC_ROUTING, staticRouting, ticks));
+            results.add(simulate(NAME_OF_REROUTING, rerouting, ticks));
+            results.add(rerouting.getReroutingStatistics());
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Simulates one variant and measures its duration.
+     *
+     * @param name name of the variant
+     * @param variant network of the variant
+     * @param ticks how many ticks the variant is simulated
+     * @return line of result of the variant
+     */
+    private String simulate(String name, StreetNetwork variant, int ticks) {
+        long numberOfRemovedCars = variant.getNumberOfRemovedCars();
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            variant.update();
+        }
+        long duration = System.nanoTime() - start;
+        double ticksPerSecond = duration == 0 ? 0 : ticks * NANOSECONDS_PER_SECOND / duration;
+        return String.format(Locale.ROOT, FORMAT_RESULT, name, ticks, duration / NANOSECONDS_PER_MILLISECOND,
+                ticksPerSecond, variant.getNumberOfRemovedCars() - numberOfRemovedCars);
+    }
+
+}
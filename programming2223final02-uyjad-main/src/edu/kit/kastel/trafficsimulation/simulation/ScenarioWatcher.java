@@ -0,0 +1,141 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetOrder;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+import edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class describes the watching of the folder of a loaded scenario for edits of its streets and crossings.
+ * A dedicated thread waits for events of the file system and only marks the scenario as changed, the simulating
+ * thread takes the mark between two ticks and loads the changed topology. Several edits before that are applied
+ * together. Edits of the cars are not watched, because the cars of a running simulation are not placed anew.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ScenarioWatcher {
+    private static final String NAME_OF_THREAD = "scenario-watch";
+    private static final Set<Path> WATCHED_FILES = Set.of(Path.of(SimulationFileLoader.FILENAME_STREETS),
+            Path.of(SimulationFileLoader.FILENAME_CROSSINGS));
+    private final String folder;
+    private final StreetOrder streetOrder;
+    private final CarStoreType storeType;
+    private final TopologyLoader topologyLoader;
+    private final WatchService watchService;
+    private final AtomicBoolean isChanged = new AtomicBoolean();
+    private final Thread watcher;
+
+    /**
+     * Constructor of a scenario watcher. It registers the folder, but does not watch it before {@link #start()}.
+     *
+     * @param folder path of the folder containing the simulation files
+     * @param streetOrder order the streets of the loaded topologies are laid out in
+     * @param storeType kind of storage for the cars of rebuilt networks
+     * @param topologyLoader loader of the changed topologies
+     * @throws IOException if the folder cannot be watched
+     */
+    public ScenarioWatcher(String folder, StreetOrder streetOrder, CarStoreType storeType,
+                           TopologyLoader topologyLoader) throws IOException {
+        this.folder = folder;
+        this.streetOrder = streetOrder;
+        this.storeType = storeType;
+        this.topologyLoader = topologyLoader;
+        this.watchService = Path.of(folder).getFileSystem().newWatchService();
+        try {
+            Path.of(folder).register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            this.watchService.close();
+            throw e;
+        }
+        this.watcher = new Thread(this::watch, NAME_OF_THREAD);
+        this.watcher.setDaemon(true);
+    }
+
+    /**
+     * Starts the watcher thread.
+     */
+    public void start() {
+        this.watcher.start();
+    }
+
+    /**
+     * Gets the path of the watched folder.
+     *
+     * @return the path of the folder
+     */
+    public String getFolder() {
+        return this.folder;
+    }
+
+    /**
+     * Gets the kind of storage for the cars of rebuilt networks.
+     *
+     * @return the kind of storage
+     */
+    public CarStoreType getStoreType() {
+        return this.storeType;
+    }
+
+    /**
+     * Takes the mark of a change, so the same edits are not reported twice.
+     *
+     * @return true if the streets or crossings were edited since the last call, otherwise false
+     */
+    public boolean takeChange() {
+        return this.isChanged.get() && this.isChanged.getAndSet(false);
+    }
+
+    /**
+     * Loads and validates the current content of the simulation files.
+     *
+     * @return topology described by the simulation files
+     * @throws TrafficException if the files cannot be read or are not valid
+     */
+    public Topology loadTopology() throws TrafficException {
+        return this.topologyLoader.load(this.folder, this.streetOrder);
+    }
+
+    /**
+     * Stops watching the folder.
+     */
+    public void stop() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            // The watcher thread ends anyway, because the service cannot be used anymore.
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // After an overflow events were lost, so one of them may have been an edit.
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || WATCHED_FILES.contains(event.context())) {
+                        this.isChanged.set(true);
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The folder is not watched anymore.
+        }
+    }
+
+}
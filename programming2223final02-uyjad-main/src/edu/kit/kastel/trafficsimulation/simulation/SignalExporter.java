@@ -0,0 +1,100 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * This class describes the periodic export of the signal statistics of all intersections into one file.
+ * A scheduled executor appends the statistics of the current street network at a fixed interval, while the
+ * simulation keeps running in the foreground or in the background. The counters are read without stopping
+ * the simulation, so a row may miss the updates of the tick that is being simulated at that moment.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class SignalExporter {
+    private static final String NAME_OF_THREAD = "signal-export";
+    private final Supplier<StreetNetwork> currentNetwork;
+    private final Path path;
+    private final ScheduledExecutorService executor;
+    private Writer writer;
+
+    /**
+     * Constructor of a signal exporter. Nothing is written before {@link #start(long)} is called.
+     *
+     * @param currentNetwork supplies the street network whose statistics are written at each export
+     * @param path path of the file to be written
+     */
+    public SignalExporter(Supplier<StreetNetwork> currentNetwork, Path path) {
+        this.currentNetwork = currentNetwork;
+        this.path = path;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, NAME_OF_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the file and writes the header and the current statistics. If the interval is positive,
+     * the statistics are appended again after each interval until the exporter is stopped.
+     *
+     * @param intervalInSeconds seconds between two exports, 0 to export only once
+     * @throws IOException if the file cannot be written
+     */
+    public void start(long intervalInSeconds) throws IOException {
+        this.writer = Files.newBufferedWriter(this.path);
+        StreetNetwork.writeHeaderOfSignalStatistics(this.writer);
+        if (intervalInSeconds == 0) {
+            export();
+            stop();
+            return;
+        }
+        this.executor.scheduleWithFixedDelay(this::exportOrStop, 0, intervalInSeconds, TimeUnit.SECONDS);
+    }
+
+    private void export() throws IOException {
+        this.currentNetwork.get().writeSignalStatistics(this.writer);
+        this.writer.flush();
+    }
+
+    private void exportOrStop() {
+        try {
+            export();
+        } catch (IOException e) {
+            System.out.println(ErrorMessage.WRITE_FAILED.format(this.path));
+            this.executor.shutdown();
+        } catch (RuntimeException e) {
+            // A periodic task that throws is cancelled silently, so the failure is reported here.
+            System.out.println(ErrorMessage.EXPORT_FAILED.format(this.path, e));
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * Stops the exporter and closes the file. An export that is being written is finished first.
+     */
+    public void stop() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            System.out.println(ErrorMessage.WRITE_FAILED.format(this.path));
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.kastel.trafficsimulation.simulation.exception.ParserException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Parser;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetOrder;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class loads the simulation files of a folder and turns them into a validated topology.
+ * Validated topologies are cached by a hash of the content of the three simulation files and the street order,
+ * so loading a scenario again only reads and hashes its files and skips parsing and validation. A topology is
+ * immutable, so every street network created from a cached topology starts from the same initial state.
+ * The least recently loaded topology is evicted if the cache is full.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class TopologyLoader {
+    private static final String FORMAT_CACHE = "Cache: %d hits, %d misses, %d of %d scenarios";
+    private static final String ALGORITHM_OF_HASH = "SHA-256";
+    private static final String SEPARATOR_OF_KEY = ":";
+    private static final int DEFAULT_CAPACITY = 4;
+    private final int capacity;
+    // Ordered by access, so the first entry is the least recently loaded topology.
+    private final Map<String, Topology> cache = new LinkedHashMap<>(DEFAULT_CAPACITY, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor of a topology loader that caches up to {@value #DEFAULT_CAPACITY} topologies.
+     */
+    public TopologyLoader() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor of a topology loader.
+     *
+     * @param capacity maximum number of cached topologies, 0 disables the cache
+     */
+    public TopologyLoader(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Loads the simulation files of the folder, parses and validates them.
+     *
+     * @param path path of the folder containing the simulation files
+     * @return validated topology described by the simulation files
+     * @throws TrafficException if the path is not valid or the content derived is not valid
+     */
+    public Topology load(String path) throws TrafficException {
+        return load(path, StreetOrder.FILE);
+    }
+
+    /**
+     * Loads the simulation files of the folder, parses and validates them, the streets are laid out in the given order.
+     *
+     * @param path path of the folder containing the simulation files
+     * @param streetOrder order the streets are laid out in
+     * @return validated topology described by the simulation files
+     * @throws TrafficException if the path is not valid or the content derived is not valid
+     */
+    public synchronized Topology load(String path, StreetOrder streetOrder) throws TrafficException {
+        SimulationFileLoader loader;
+        try {
+            loader = new SimulationFileLoader(path);
+        } catch (IOException e) {
+            throw new TrafficException(e.getMessage());
+        }
+
+        List<String> crossings;
+        List<String> streets;
+        List<String> cars;
+        try {
+            crossings = loader.loadCrossings();
+            streets = loader.loadStreets();
+            cars = loader.loadCars();
+        } catch (IOException e) {
+            throw new TrafficException(e.getMessage());
+        }
+
+        String key = hash(crossings, streets, cars) + SEPARATOR_OF_KEY + streetOrder.name();
+        Topology cachedTopology = this.cache.get(key);
+        if (cachedTopology != null) {
+            this.hits++;
+            return cachedTopology;
+        }
+        this.misses++;
+
+        List<String> clonedCrossings = cloneList(crossings);
+        List<String> clonedStreets = cloneList(streets);
+        List<String> clonedCars = cloneList(cars);
+
+        Parser parser = new Parser(clonedStreets, clonedCrossings, clonedCars);
+        try {
+            parser.setUp();
+        } catch (ParserException e) {
+            throw new TrafficException(e.getMessage());
+        }
+        Topology topology = parser.createTopology(streetOrder);
+        if (this.capacity > 0) {
+            if (this.cache.size() == this.capacity) {
+                this.cache.remove(this.cache.keySet().iterator().next());
+            }
+            this.cache.put(key, topology);
+        }
+        return topology;
+    }
+
+    /**
+     * Gets the statistics of the cache, including hits, misses and the number of cached topologies.
+     *
+     * @return string of the statistics of the cache
+     */
+    public synchronized String getCacheStatistics() {
+        return String.format(FORMAT_CACHE, this.hits, this.misses, this.cache.size(), this.capacity);
+    }
+
+    /**
+     * Hashes the lines of the simulation files. The number of lines of each file is hashed as well,
+     * so lines cannot move from one file into the next without changing the hash.
+     *
+     * @param files lines of each simulation file
+     * @return hexadecimal hash of the content
+     */
+    @SafeVarargs
+    private static String hash(List<String>... files) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM_OF_HASH);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer numberOfLines = ByteBuffer.allocate(Integer.BYTES);
+        for (List<String> lines : files) {
+            digest.update(numberOfLines.clear().putInt(lines.size()).array());
+            for (String line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Clones the string list.
+     *
+     * @param inputList list to be cloned
+     * @return the cloned string list
+     */
+    public List<String> cloneList(List<String> inputList) {
+        List<String> copyList = new ArrayList<>();
+        for (String line : inputList) {
+            copyList.add(line);
+        }
+        return copyList;
+    }
+
+}
@@ -1,7 +1,32 @@
 package edu.kit.kastel.trafficsimulation.simulation;
 
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
 import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.NetworkCheckpoint;
 import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.RoutingTable;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetOrder;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.TopologyChange;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.TraceReader;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.TraceWriter;
+import edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This class describes the traffic system where commands are executed.
@@ -10,36 +35,1015 @@
  * @version 1.0
  */
 public class TrafficSystem {
-    private StreetNetwork streetNetwork;
+    private static final String FORMAT_BRANCH = "Branch %d";
+    private static final String FORMAT_WATCH = "Watching %s: %d reloads, last: %s";
+    private static final String FORMAT_RELOAD = "tick %d, %s (%s)";
+    private static final String MESSAGE_NO_RELOAD = "none";
+    private static final String MESSAGE_IN_PLACE = "in place";
+    private static final String MESSAGE_REBUILT = "rebuilt";
+    private static final String REASON_TRACE = "a trace is recorded";
+    private static final String REASON_ARRIVALS = "an arrival file is open";
+    private static final String REASON_EXPORT = "the state is exported";
+    private static final String REASON_CHECKPOINTS = "checkpoints are recorded";
+    private static final String REASON_WATCH = "the scenario folder is watched";
+    private static final String FORMAT_MEMORY = "Heap %d KB, off-heap %d KB, %d garbage collections in %d ms";
+    private static final String FORMAT_ROUTING = "Routing to %d destinations, %d KB of next-hop tables, computed in "
+            + "%d ms";
+    private static final int NANOSECONDS_PER_MILLISECOND = 1_000_000;
+    private static final String NAME_OF_DIRECT_BUFFER_POOL = "direct";
+    private static final int BYTES_PER_KILOBYTE = 1024;
+    private final List<StreetNetwork> branches = new ArrayList<>();
+    // Volatile, because the signal exporter reads the selected network from its own thread.
+    private volatile StreetNetwork streetNetwork;
+    private AsynchronousSimulation backgroundSimulation;
+    private SignalExporter signalExporter;
+    private ColumnarExporter columnarExporter;
+    // Checkpoints of the selected street network, null if no checkpoints are taken.
+    private CheckpointHistory checkpointHistory;
+    // Trace the selected street network is recorded into, null if none is recorded.
+    private TraceWriter traceWriter;
+    private String pathOfTrace;
+    // Trace past queries are answered from, null if none is open.
+    private TraceReader traceReader;
+    // Watcher of the scenario folder of the loaded network, null if edits are not applied.
+    private ScenarioWatcher scenarioWatcher;
+    private int numberOfReloads;
+    private String lastReload;
+    // Arrivals fed into the selected network, null if no arrival file is open.
+    private ArrivalFeed arrivalFeed;
 
     /**
-     * Sets the street network.
+     * Sets the street network. All branches of the previous street network are discarded.
      *
      * @param streetNetwork graph where the simulation is executed upon.
      */
     public void setNetwork(StreetNetwork streetNetwork) {
+        closeColumnarExportQuietly();
+        finishTraceQuietly();
+        clearCheckpoints();
+        stopWatching();
+        stopArrivals();
+        this.backgroundSimulation = null;
         this.streetNetwork = streetNetwork;
+        this.branches.clear();
+        this.branches.add(streetNetwork);
+    }
+
+    /**
+     * Forks the current street network into a new branch and prints the id of the new branch.
+     * The current branch stays selected.
+     *
+     * @throws TrafficException if a simulation is running in the background
+     */
+    public void fork() throws TrafficException {
+        checkIdle();
+        this.branches.add(new StreetNetwork(this.streetNetwork));
+        System.out.println(String.format(FORMAT_BRANCH, this.branches.size() - 1));
+    }
+
+    /**
+     * Selects the branch that following commands are executed upon.
+     *
+     * @param idOfBranch id of branch, the loaded street network has id 0
+     * @throws TrafficException if the branch does not exist, a simulation is running in the background or the
+     *      recorded trace cannot be finished
+     */
+    public void selectBranch(int idOfBranch) throws TrafficException {
+        checkIdle();
+        if (idOfBranch >= this.branches.size()) {
+            throw new TrafficException(ErrorMessage.BRANCH_NOT_FOUND.format(idOfBranch));
+        }
+        finishTrace();
+        stopArrivals();
+        this.streetNetwork = this.branches.get(idOfBranch);
+        clearCheckpoints();
+    }
+
+    /**
+     * Executes simulation of all branches concurrently according to given ticks.
+     *
+     * @param ticks how many times simulation is executed in each branch
+     * @throws TrafficException if the simulation is interrupted or fails, a simulation is running in the background
+     *      or something is done around every tick of the selected network
+     */
+    public void simulateAllBranches(int ticks) throws TrafficException {
+        checkIdle();
+        checkEveryTickSeen();
+        int numberOfThreads = Math.min(this.branches.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (StreetNetwork branch : this.branches) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ticks; i++) {
+                        branch.update();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrafficException(ErrorMessage.SIMULATION_INTERRUPTED.toString());
+        } catch (ExecutionException e) {
+            throw new TrafficException(ErrorMessage.SIMULATION_FAILED.format(e.getCause()));
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * Executes simulation according to given ticks.
+     * Executes simulation according to given ticks. If a columnar export is running or checkpoints are taken,
+     * the state is sampled after every tick whose number is a multiple of their interval. If a trace is recorded,
+     * every tick is appended to it. If the scenario folder is watched, edits are applied before the next tick.
+     * If an arrival file is open, the cars arriving at the next tick enter after every tick.
      *
      * @param ticks how many times simulation is executed.
+     * @throws TrafficException if a simulation is running in the background, the export or trace fails
+     *      or the arrival file cannot be read or is not valid
      */
-    public void simulate(int ticks) {
+    public void simulate(int ticks) throws TrafficException {
+        checkIdle();
         for (int i = 0; i < ticks; i++) {
+            if (this.scenarioWatcher != null && this.scenarioWatcher.takeChange()) {
+                reload();
+            }
             this.streetNetwork.update();
+            if (this.arrivalFeed != null) {
+                feedArrivals();
+            }
+            if (this.columnarExporter != null) {
+                this.columnarExporter.sample(this.streetNetwork);
+            }
+            if (this.checkpointHistory != null) {
+                this.checkpointHistory.record(this.streetNetwork);
+            }
+            if (this.traceWriter != null) {
+                appendToTrace();
+            }
+        }
+    }
+
+    private void feedArrivals() throws TrafficException {
+        try {
+            this.arrivalFeed.feed(this.streetNetwork);
+        } catch (TrafficException e) {
+            stopArrivals();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file of arrivals for the selected street network, beginning with its current tick, and lets the cars
+     * arriving at it enter. The following arrivals are fed by {@link #simulate(int)}, each before its tick.
+     * An arrival file opened before is closed first, and the file is closed if another network or branch is
+     * selected or the network is rebuilt.
+     *
+     * @param path path of the arrival file
+     * @throws TrafficException if a simulation is running in the background or the file cannot be read or is not valid
+     */
+    public void openArrivals(String path) throws TrafficException {
+        checkIdle();
+        stopArrivals();
+        try {
+            this.arrivalFeed = new ArrivalFeed(Path.of(path), this.streetNetwork.getNumberOfTicks(),
+                    this.streetNetwork.getTopology().getNumberOfStreets());
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.READ_FAILED.format(path));
+        }
+        this.arrivalFeed.start();
+        feedArrivals();
+    }
+
+    /**
+     * Closes the arrival file. Cars that still wait to enter are discarded.
+     *
+     * @throws TrafficException if no arrival file is open
+     */
+    public void closeArrivals() throws TrafficException {
+        if (this.arrivalFeed == null) {
+            throw new TrafficException(ErrorMessage.NO_ARRIVALS.toString());
+        }
+        stopArrivals();
+    }
+
+    private void stopArrivals() {
+        if (this.arrivalFeed != null) {
+            this.arrivalFeed.close();
+            this.arrivalFeed = null;
+        }
+    }
+
+    /**
+     * Prints the number of read, entered, waiting and skipped arrivals of the open arrival file.
+     *
+     * @throws TrafficException if no arrival file is open
+     */
+    public void printArrivalStatus() throws TrafficException {
+        if (this.arrivalFeed == null) {
+            throw new TrafficException(ErrorMessage.NO_ARRIVALS.toString());
+        }
+        System.out.println(this.arrivalFeed.getStatus());
+    }
+
+    /**
+     * Prints the number of destinations of the cars of the selected street network, the size of their next-hop
+     * tables and the time it took to compute them.
+     *
+     * @throws TrafficException if no car of the street network has a destination
+     */
+    public void printRouting() throws TrafficException {
+        RoutingTable routingTable = this.streetNetwork.getTopology().getRoutingTable();
+        if (routingTable == null) {
+            throw new TrafficException(ErrorMessage.NO_ROUTING.toString());
+        }
+        System.out.println(String.format(FORMAT_ROUTING, routingTable.getNumberOfDestinations(),
+                routingTable.getSizeOfTables() / BYTES_PER_KILOBYTE,
+                routingTable.getDurationOfComputation() / NANOSECONDS_PER_MILLISECOND));
+    }
+
+    /**
+     * Prints how the selected street network is split into regions: a summary followed by one line per region.
+     *
+     * @throws TrafficException if the street network is not split into several regions
+     */
+    public void printRegions() throws TrafficException {
+        try {
+            for (String line : this.streetNetwork.getRegionStatistics()) {
+                System.out.println(line);
+            }
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    private void appendToTrace() throws TrafficException {
+        try {
+            this.traceWriter.append(this.streetNetwork);
+        } catch (IOException e) {
+            this.traceWriter = null;
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(this.pathOfTrace));
+        }
+    }
+
+    /**
+     * Starts recording the selected street network into a trace file, beginning with its current tick.
+     * Ticks are appended by {@link #simulate(int)}. A trace recorded before is finished first, and the trace is
+     * finished if another network or branch is selected.
+     *
+     * @param interval number of ticks between two keyframes, at least 1
+     * @param path path of the trace file
+     * @throws TrafficException if a simulation is running in the background or the file cannot be written
+     */
+    public void startTrace(int interval, String path) throws TrafficException {
+        checkIdle();
+        finishTrace();
+        try {
+            this.traceWriter = new TraceWriter(this.streetNetwork.getTopology(), Path.of(path), interval);
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(path));
+        }
+        this.pathOfTrace = path;
+        appendToTrace();
+    }
+
+    /**
+     * Finishes the trace that is recorded, so it can be opened.
+     *
+     * @throws TrafficException if no trace is recorded or it cannot be written
+     */
+    public void stopTrace() throws TrafficException {
+        if (this.traceWriter == null) {
+            throw new TrafficException(ErrorMessage.NO_TRACE_RECORDED.toString());
+        }
+        finishTrace();
+    }
+
+    private void finishTrace() throws TrafficException {
+        if (this.traceWriter != null) {
+            TraceWriter writer = this.traceWriter;
+            this.traceWriter = null;
+            try {
+                writer.finish();
+            } catch (IOException e) {
+                throw new TrafficException(ErrorMessage.WRITE_FAILED.format(this.pathOfTrace));
+            }
+        }
+    }
+
+    private void finishTraceQuietly() {
+        try {
+            finishTrace();
+        } catch (TrafficException e) {
+            System.out.println(e.getMessage());
         }
     }
 
+    /**
+     * Opens a trace file, so queries at past ticks are answered from it instead of by simulating.
+     * A trace opened before is closed.
+     *
+     * @param path path of the trace file
+     * @throws TrafficException if the file cannot be read or is no complete trace
+     */
+    public void openTrace(String path) throws TrafficException {
+        this.traceReader = null;
+        try {
+            this.traceReader = new TraceReader(Path.of(path));
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.READ_FAILED.format(path));
+        }
+    }
+
+    /**
+     * Closes the opened trace, so queries at past ticks are answered by simulating again.
+     *
+     * @throws TrafficException if no trace is open
+     */
+    public void closeTrace() throws TrafficException {
+        if (this.traceReader == null) {
+            throw new TrafficException(ErrorMessage.NO_TRACE_OPEN.toString());
+        }
+        this.traceReader = null;
+    }
+
+    /**
+     * Prints the number of cars of a street at a tick of the opened trace.
+     *
+     * @param idOfStreet id of street
+     * @param tick tick of the trace
+     * @throws TrafficException if no trace is open, the tick is not part of it or the id of street is not valid
+     */
+    public void printOccupancyAt(int idOfStreet, long tick) throws TrafficException {
+        if (this.traceReader == null) {
+            throw new TrafficException(ErrorMessage.NO_TRACE_OPEN.toString());
+        }
+        try {
+            System.out.println(this.traceReader.getOccupancy(idOfStreet, tick));
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts watching the scenario folder of the loaded street network. Whenever its streets or crossings are edited,
+     * the changes are applied to the selected network before the next tick simulated by {@link #simulate(int)}.
+     * If only speed limits and green light durations changed, they are set in place and all cars keep their state.
+     * Otherwise the network is rebuilt, and only the cars of untouched streets keep their state.
+     *
+     * @param folder path of the folder containing the simulation files of the loaded network
+     * @param streetOrder order the streets of the loaded network are laid out in
+     * @param storeType kind of storage for the cars of the loaded network
+     * @param topologyLoader loader of the changed topologies
+     * @throws TrafficException if a simulation is running in the background or the folder cannot be watched
+     */
+    public void startWatching(String folder, StreetOrder streetOrder, CarStoreType storeType,
+                              TopologyLoader topologyLoader) throws TrafficException {
+        checkIdle();
+        stopWatching();
+        try {
+            this.scenarioWatcher = new ScenarioWatcher(folder, streetOrder, storeType, topologyLoader);
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.READ_FAILED.format(folder));
+        }
+        this.numberOfReloads = 0;
+        this.lastReload = MESSAGE_NO_RELOAD;
+        this.scenarioWatcher.start();
+    }
+
+    /**
+     * Stops watching the scenario folder. Edits are not applied anymore.
+     */
+    public void stopWatching() {
+        if (this.scenarioWatcher != null) {
+            this.scenarioWatcher.stop();
+            this.scenarioWatcher = null;
+        }
+    }
+
+    /**
+     * Prints the watched folder, the number of applied reloads and the result of the last one.
+     *
+     * @throws TrafficException if the scenario folder is not watched
+     */
+    public void printWatchStatus() throws TrafficException {
+        if (this.scenarioWatcher == null) {
+            throw new TrafficException(ErrorMessage.NO_WATCH.toString());
+        }
+        System.out.println(String.format(FORMAT_WATCH, this.scenarioWatcher.getFolder(), this.numberOfReloads,
+                this.lastReload));
+    }
+
+    /**
+     * Applies the edited scenario to the selected street network. An invalid scenario is not applied, the network
+     * keeps running on its topology until the files are valid again. Checkpoints are discarded, because they would
+     * be restored on the changed topology, and the ticks before the change cannot be rebuilt anymore. The changed
+     * network takes a checkpoint of its own, which later ticks are rebuilt from. If the network is rebuilt, a running
+     * export or trace is finished and the arrival file is closed.
+     */
+    private void reload() {
+        StreetNetwork currentNetwork = this.streetNetwork;
+        Topology nextTopology;
+        try {
+            nextTopology = this.scenarioWatcher.loadTopology();
+        } catch (TrafficException e) {
+            this.lastReload = e.getMessage();
+            return;
+        }
+        TopologyChange change = new TopologyChange(currentNetwork.getTopology(), nextTopology);
+        if (change.isEmpty()) {
+            return;
+        }
+        clearCheckpoints();
+        String kindOfReload;
+        if (change.isParameterChange()) {
+            currentNetwork.applyParameters(change);
+            kindOfReload = MESSAGE_IN_PLACE;
+        } else {
+            closeColumnarExportQuietly();
+            finishTraceQuietly();
+            stopArrivals();
+            StreetNetwork nextNetwork = new StreetNetwork(currentNetwork, change,
+                    this.scenarioWatcher.getStoreType());
+            this.branches.set(this.branches.indexOf(currentNetwork), nextNetwork);
+            this.streetNetwork = nextNetwork;
+            kindOfReload = MESSAGE_REBUILT;
+        }
+        this.numberOfReloads++;
+        this.lastReload = String.format(FORMAT_RELOAD, currentNetwork.getNumberOfTicks(), change, kindOfReload);
+    }
+
+    /**
+     * Starts taking compressed checkpoints of the selected street network every given number of ticks.
+     * Checkpoints are taken by {@link #simulate(int)} and are discarded if another network or branch is selected.
+     * Checkpoints taken before are discarded.
+     *
+     * @param interval number of ticks between two checkpoints, at least 1
+     * @param budgetInKilobytes memory all checkpoints together may use
+     * @param policy policy that decides which checkpoint is evicted if the budget is exceeded
+     * @throws TrafficException if a simulation is running in the background
+     */
+    public void startCheckpoints(int interval, int budgetInKilobytes, CheckpointPolicy policy)
+            throws TrafficException {
+        checkIdle();
+        this.checkpointHistory = new CheckpointHistory(interval, budgetInKilobytes, policy);
+        this.checkpointHistory.record(this.streetNetwork);
+    }
+
+    /**
+     * Stops taking checkpoints and discards all checkpoints taken.
+     *
+     * @throws TrafficException if a simulation is running in the background
+     */
+    public void stopCheckpoints() throws TrafficException {
+        checkIdle();
+        this.checkpointHistory = null;
+    }
+
+    private void clearCheckpoints() {
+        if (this.checkpointHistory != null) {
+            this.checkpointHistory.clear();
+        }
+    }
+
+    /**
+     * Prints the string detail of a car at a past tick. If a trace is open, the detail is read from it.
+     * Otherwise the state of that tick is rebuilt from the nearest earlier checkpoint, or from the last change of
+     * the scenario or tick 0 if there is none, by simulating forward and replaying the cars spawned and removed on
+     * the way. The selected network is not changed.
+     *
+     * @param idOfCar id of car to be searched
+     * @param tick tick the car is searched at
+     * @throws TrafficException if the tick was not simulated yet, is before the last change of the scenario or is not
+     *      part of the open trace, or the id of car is not valid
+     */
+    public void getCarDetailsAt(int idOfCar, long tick) throws TrafficException {
+        if (this.traceReader != null) {
+            try {
+                System.out.println(this.traceReader.getCarDetail(idOfCar, tick));
+            } catch (InquiryException e) {
+                throw new TrafficException(e.getMessage());
+            }
+            return;
+        }
+        StreetNetwork currentNetwork = this.streetNetwork;
+        if (tick > currentNetwork.getNumberOfTicks()) {
+            throw new TrafficException(ErrorMessage.TICK_NOT_REACHED.format(tick));
+        }
+        NetworkCheckpoint checkpointOfChange = currentNetwork.getCheckpointOfChange();
+        if (checkpointOfChange != null && tick < checkpointOfChange.getTick()) {
+            throw new TrafficException(ErrorMessage.TICK_BEFORE_RELOAD.format(tick, checkpointOfChange.getTick()));
+        }
+        NetworkCheckpoint checkpoint = this.checkpointHistory == null
+                ? null : this.checkpointHistory.findCheckpoint(tick);
+        // The checkpoints taken before the change were discarded with it.
+        if (checkpoint == null) {
+            checkpoint = checkpointOfChange;
+        }
+        // The rebuilt network is only read by this query, so the compact storage is cheapest to fill.
+        // Crossings in rounds do not depend on the number of workers or regions, so it is rebuilt with at most one
+        // worker and a single region.
+        StreetNetwork pastNetwork = checkpoint == null
+                ? new StreetNetwork(currentNetwork.getTopology(), CarStoreType.COMPACT,
+                        currentNetwork.getTrafficModel(), Math.min(currentNetwork.getNumberOfWorkers(), 1))
+                : new StreetNetwork(currentNetwork.getTopology(), checkpoint, CarStoreType.COMPACT);
+        int numberOfInjections = checkpoint == null ? 0 : checkpoint.getNumberOfInjections();
+        numberOfInjections = currentNetwork.replayInjections(pastNetwork, numberOfInjections);
+        while (pastNetwork.getNumberOfTicks() < tick) {
+            pastNetwork.update();
+            numberOfInjections = currentNetwork.replayInjections(pastNetwork, numberOfInjections);
+        }
+        try {
+            System.out.println(pastNetwork.getCarDetail(idOfCar));
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Spawns a car standing at the start of a street of the selected street network.
+     *
+     * @param idOfCar id of car, which must not be on the network
+     * @param idOfStreet id of street
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @throws TrafficException if a simulation is running in the background, the street does not exist,
+     *      the id is on the network, the attributes are not valid or the start of the street is occupied
+     */
+    public void spawnCar(int idOfCar, int idOfStreet, int wishedSpeed, int accelerator) throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.spawnCar(idOfCar, idOfStreet, wishedSpeed, accelerator);
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Removes a car from the selected street network.
+     *
+     * @param idOfCar id of car
+     * @throws TrafficException if a simulation is running in the background or the car is not on the network
+     */
+    public void despawnCar(int idOfCar) throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.despawnCar(idOfCar);
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the source of a street of the selected street network. A rate of 0 removes the source.
+     *
+     * @param idOfStreet id of street
+     * @param carsPerMinute number of cars arriving every 60 ticks
+     * @param wishedSpeed wished speed of the cars
+     * @param accelerator accelerator of the cars
+     * @throws TrafficException if a simulation is running in the background, the street does not exist
+     *      or the attributes are not valid
+     */
+    public void setSource(int idOfStreet, int carsPerMinute, int wishedSpeed, int accelerator)
+            throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.setSource(idOfStreet, carsPerMinute, wishedSpeed, accelerator);
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sets or removes the sink of a street of the selected street network.
+     *
+     * @param idOfStreet id of street
+     * @param isSink true if cars leave the network at the end of the street, otherwise false
+     * @throws TrafficException if a simulation is running in the background or the street does not exist
+     */
+    public void setSink(int idOfStreet, boolean isSink) throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.setSink(idOfStreet, isSink);
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Lets the cars with a destination of the selected street network route around congested streets.
+     *
+     * @param thresholdInPercent drift of the weight of a street that leads to new tables
+     * @param delayInTicks number of ticks from starting a computation of tables until they are used
+     * @throws TrafficException if a simulation is running in the background, no car has a destination
+     *      or the threshold or delay is not positive
+     */
+    public void startRerouting(int thresholdInPercent, int delayInTicks) throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.startRerouting(thresholdInPercent, delayInTicks);
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Lets the cars with a destination of the selected street network route by the free-flow tables again.
+     *
+     * @throws TrafficException if a simulation is running in the background or rerouting is not switched on
+     */
+    public void stopRerouting() throws TrafficException {
+        checkIdle();
+        try {
+            this.streetNetwork.stopRerouting();
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Prints the statistics of rerouting of the selected street network.
+     *
+     * @throws TrafficException if a simulation is running in the background or rerouting is not switched on
+     */
+    public void printReroutingStatistics() throws TrafficException {
+        checkIdle();
+        try {
+            System.out.println(this.streetNetwork.getReroutingStatistics());
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Simulates the selected street network once with static routing and once with rerouting and prints the tick
+     * throughput of both. The selected street network is not changed by the benchmark.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @param thresholdInPercent drift of the weight of a street that leads to new tables
+     * @param delayInTicks number of ticks from starting a computation of tables until they are used
+     * @throws TrafficException if a simulation is running in the background, no car has a destination
+     *      or the threshold or delay is not positive
+     */
+    public void benchmarkRerouting(int ticks, int thresholdInPercent, int delayInTicks) throws TrafficException {
+        checkIdle();
+        ReroutingBenchmark benchmark = new ReroutingBenchmark(this.streetNetwork);
+        for (String result : benchmark.run(ticks, thresholdInPercent, delayInTicks)) {
+            System.out.println(result);
+        }
+    }
+
+    /**
+     * Prints how busy the workers of the selected street network were during its ticks so far, and how much longer
+     * its steps take than with a perfectly even load.
+     *
+     * @throws TrafficException if a simulation is running in the background or the street network is not simulated
+     *      by workers in a single region
+     */
+    public void printWorkload() throws TrafficException {
+        checkIdle();
+        try {
+            System.out.println(this.streetNetwork.getWorkloadStatistics());
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Simulates the selected street network once with the edges split into equal parts among the workers and once
+     * split into batches by their estimated work, and prints the tick throughput and the load of the workers of
+     * both. The selected street network is not changed by the benchmark.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @throws TrafficException if a simulation is running in the background or the street network is not simulated
+     *      by workers in a single region
+     */
+    public void benchmarkWorkload(int ticks) throws TrafficException {
+        checkIdle();
+        WorkloadBenchmark benchmark = new WorkloadBenchmark(this.streetNetwork);
+        for (String result : benchmark.run(ticks)) {
+            System.out.println(result);
+        }
+    }
+
+    /**
+     * Prints the statistics of spawned and removed cars of the selected street network.
+     *
+     * @throws TrafficException if a simulation is running in the background
+     */
+    public void printInjectionStatistics() throws TrafficException {
+        checkIdle();
+        System.out.println(this.streetNetwork.getInjectionStatistics());
+    }
+
+    /**
+     * Starts exporting the state of the selected street network every given number of ticks into a columnar
+     * file in the directory. Samples are taken by {@link #simulate(int)}. A running export is finished first.
+     *
+     * @param interval number of ticks between two samples, at least 1
+     * @param directory path of the directory to be written into
+     * @throws TrafficException if a simulation is running in the background or the directory cannot be written
+     */
+    public void startColumnarExport(int interval, String directory) throws TrafficException {
+        checkIdle();
+        closeColumnarExport();
+        try {
+            this.columnarExporter = new ColumnarExporter(this.streetNetwork.getTopology(), Path.of(directory),
+                    interval);
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(directory));
+        }
+        this.columnarExporter.start();
+    }
+
+    /**
+     * Stops the columnar export after all samples taken are written.
+     *
+     * @throws TrafficException if no export is running or a sample could not be written
+     */
+    public void stopColumnarExport() throws TrafficException {
+        if (this.columnarExporter == null) {
+            throw new TrafficException(ErrorMessage.NO_EXPORT.toString());
+        }
+        closeColumnarExport();
+    }
+
+    private void closeColumnarExport() throws TrafficException {
+        if (this.columnarExporter != null) {
+            ColumnarExporter exporter = this.columnarExporter;
+            this.columnarExporter = null;
+            exporter.close();
+        }
+    }
+
+    private void closeColumnarExportQuietly() {
+        try {
+            closeColumnarExport();
+        } catch (TrafficException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the simulation of the current street network on a dedicated thread and returns immediately.
+     * While it runs, queries are answered from the latest published snapshot.
+     *
+     * @param ticks how many times simulation is executed
+     * @param intervalOfSnapshots number of ticks between two published snapshots
+     * @throws TrafficException if a simulation is already running in the background or something is done around
+     *      every tick
+     */
+    public void simulateInBackground(int ticks, int intervalOfSnapshots) throws TrafficException {
+        checkIdle();
+        checkEveryTickSeen();
+        this.backgroundSimulation = new BackgroundSimulation(this.streetNetwork, ticks, intervalOfSnapshots);
+        this.backgroundSimulation.start();
+    }
+
+    /**
+     * Starts advancing the current street network at a fixed number of ticks per wall-clock second
+     * and returns immediately. It runs until it is cancelled. While it runs, queries are answered
+     * from the latest published snapshot.
+     *
+     * @param ticksPerSecond number of ticks simulated per second
+     * @throws TrafficException if a simulation is already running in the background or something is done around
+     *      every tick
+     */
+    public void runPaced(int ticksPerSecond) throws TrafficException {
+        checkIdle();
+        checkEveryTickSeen();
+        this.backgroundSimulation = new PacedSimulation(this.streetNetwork, ticksPerSecond);
+        this.backgroundSimulation.start();
+    }
+
+    /**
+     * Prints the progress of the simulation running in the background.
+     *
+     * @throws TrafficException if no simulation was started in the background
+     */
+    public void printProgress() throws TrafficException {
+        if (this.backgroundSimulation == null) {
+            throw new TrafficException(ErrorMessage.NO_BACKGROUND_SIMULATION.toString());
+        }
+        System.out.println(this.backgroundSimulation.getProgress());
+    }
+
+    /**
+     * Cancels the simulation running in the background. It stops at the next tick boundary.
+     *
+     * @throws TrafficException if no simulation was started in the background or waiting is interrupted
+     */
+    public void cancel() throws TrafficException {
+        if (this.backgroundSimulation == null) {
+            throw new TrafficException(ErrorMessage.NO_BACKGROUND_SIMULATION.toString());
+        }
+        try {
+            this.backgroundSimulation.cancel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrafficException(ErrorMessage.SIMULATION_INTERRUPTED.toString());
+        }
+    }
+
+    /**
+     * Stops all work of the traffic system, so the application can terminate.
+     */
+    public void shutDown() {
+        if (isBusy()) {
+            try {
+                this.backgroundSimulation.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        stopSignalExport();
+        closeColumnarExportQuietly();
+        finishTraceQuietly();
+        stopWatching();
+        stopArrivals();
+    }
+
+    /**
+     * Checks that no simulation is running in the background, so the current street network may be changed.
+     *
+     * @throws TrafficException if a simulation is running in the background
+     */
+    public void checkIdle() throws TrafficException {
+        if (isBusy()) {
+            throw new TrafficException(ErrorMessage.SIMULATION_RUNNING.toString());
+        }
+    }
+
+    /**
+     * Checks that nothing has to be done around every tick of the selected street network, which only
+     * {@link #simulate(int)} does. Changes of a watched scenario folder are applied before a tick, arrivals are fed,
+     * the state is exported and checkpoints and a trace are recorded after it.
+     *
+     * @throws TrafficException if an arrival file is open, the state is exported, checkpoints or a trace are
+     *      recorded or the scenario folder is watched
+     */
+    private void checkEveryTickSeen() throws TrafficException {
+        if (this.arrivalFeed != null) {
+            throw new TrafficException(ErrorMessage.ONLY_SIMULATE.format(REASON_ARRIVALS));
+        }
+        if (this.columnarExporter != null) {
+            throw new TrafficException(ErrorMessage.ONLY_SIMULATE.format(REASON_EXPORT));
+        }
+        if (this.checkpointHistory != null) {
+            throw new TrafficException(ErrorMessage.ONLY_SIMULATE.format(REASON_CHECKPOINTS));
+        }
+        if (this.traceWriter != null) {
+            throw new TrafficException(ErrorMessage.ONLY_SIMULATE.format(REASON_TRACE));
+        }
+        if (this.scenarioWatcher != null) {
+            throw new TrafficException(ErrorMessage.ONLY_SIMULATE.format(REASON_WATCH));
+        }
+    }
+
+    private boolean isBusy() {
+        return this.backgroundSimulation != null && !this.backgroundSimulation.isFinished();
+    }
+
     /**
      * Gets string detail of a car, including id, position, speed and current edge it is positioned.
+     * If a simulation is running in the background, the latest published snapshot is used.
      *
      * @param idOfCar id of car to be searched
      * @throws InquiryException if id of car is not valid
      */
     public void getCarDetails(int idOfCar) throws InquiryException {
+        if (isBusy()) {
+            System.out.println(this.backgroundSimulation.getLatestSnapshot().getCarDetail(idOfCar));
+            return;
+        }
         System.out.println(this.streetNetwork.getCarDetail(idOfCar));
     }
 
+    /**
+     * Prints the traffic statistics of a street.
+     *
+     * @param idOfStreet id of street
+     * @throws TrafficException if a simulation is running in the background or the id of street does not exist
+     */
+    public void printStreetStatistics(int idOfStreet) throws TrafficException {
+        checkIdle();
+        try {
+            System.out.println(this.streetNetwork.getStreetStatistics(idOfStreet));
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Exports the traffic statistics of all streets into a file as comma separated values.
+     *
+     * @param path path of the file to be written
+     * @throws TrafficException if a simulation is running in the background or the file cannot be written
+     */
+    public void exportStreetStatistics(String path) throws TrafficException {
+        checkIdle();
+        try (Writer writer = Files.newBufferedWriter(Path.of(path))) {
+            this.streetNetwork.writeStreetStatistics(writer);
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(path));
+        }
+    }
+
+    /**
+     * Prints the signal statistics of an intersection, one line per incoming street.
+     * The counters may be read while a simulation is running in the background.
+     *
+     * @param idOfNode id of the intersection
+     * @throws TrafficException if the node does not exist or has no green light
+     */
+    public void printSignalStatistics(int idOfNode) throws TrafficException {
+        try {
+            for (String line : this.streetNetwork.getSignalStatistics(idOfNode)) {
+                System.out.println(line);
+            }
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+    }
+
+    /**
+     * Exports the signal statistics of all intersections of the selected street network into a file as comma
+     * separated values. If the interval is positive, the statistics are appended again after each interval
+     * until the next export is started or the application ends. A running export is stopped first.
+     *
+     * @param intervalInSeconds seconds between two exports, 0 to export only once
+     * @param path path of the file to be written
+     * @throws TrafficException if the file cannot be written
+     */
+    public void exportSignalStatistics(long intervalInSeconds, String path) throws TrafficException {
+        stopSignalExport();
+        try {
+            SignalExporter exporter = new SignalExporter(() -> this.streetNetwork, Path.of(path));
+            exporter.start(intervalInSeconds);
+            if (intervalInSeconds > 0) {
+                this.signalExporter = exporter;
+            }
+        } catch (IOException | InvalidPathException e) {
+            throw new TrafficException(ErrorMessage.WRITE_FAILED.format(path));
+        }
+    }
+
+    private void stopSignalExport() {
+        if (this.signalExporter != null) {
+            this.signalExporter.stop();
+            this.signalExporter = null;
+        }
+    }
+
+    /**
+     * Prints the memory used by the heap after a garbage collection, the memory used outside the heap
+     * and the number and accumulated time of garbage collections since the start of the application.
+     */
+    public void printMemoryUsage() {
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeap = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals(NAME_OF_DIRECT_BUFFER_POOL)) {
+                offHeap += pool.getMemoryUsed();
+            }
+        }
+        long collections = 0;
+        long timeOfCollections = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(collector.getCollectionCount(), 0);
+            timeOfCollections += Math.max(collector.getCollectionTime(), 0);
+        }
+        System.out.println(String.format(FORMAT_MEMORY, heap / BYTES_PER_KILOBYTE, offHeap / BYTES_PER_KILOBYTE,
+                collections, timeOfCollections));
+    }
+
+    /**
+     * Prints the statistics of the current street network.
+     * If a simulation is running in the background, the latest published snapshot is used.
+     */
+    public void printStatistics() {
+        if (isBusy()) {
+            System.out.println(this.backgroundSimulation.getLatestSnapshot().getStatistics());
+            return;
+        }
+        System.out.println(this.streetNetwork.createSnapshot().getStatistics());
+    }
+
+    /**
+     * Simulates the loaded topology once per green light duration in parallel and prints the throughput of each.
+     * The current street network is not changed by the sweep.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @param durations green light duration of each variant
+     * @throws TrafficException if a duration is not valid or the sweep is interrupted
+     */
+    public void sweep(int ticks, List<Integer> durations) throws TrafficException {
+        ParameterSweep parameterSweep = new ParameterSweep(this.streetNetwork.getTopology());
+        for (String result : parameterSweep.run(ticks, durations)) {
+            System.out.println(result);
+        }
+    }
+
 }
@@ -1,13 +1,13 @@
 package edu.kit.kastel.trafficsimulation.simulation;
 
 import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
-import edu.kit.kastel.trafficsimulation.simulation.exception.ParserException;
 import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
-import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
 import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
-import edu.kit.kastel.trafficsimulation.simulation.initialization.Parser;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetOrder;
+import edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType;
+import edu.kit.kastel.trafficsimulation.simulation.module.TrafficModel;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -24,16 +24,114 @@ public class TrafficSystemUI {
     private static final String MESSAGE_READY = "READY";
     private static final String KEY_ID_OF_CAR = "idOfCar";
     private static final String KEY_PATH = "path";
+    private static final String KEY_STORAGE = "storage";
     private static final String KEY_TICKS = "ticks";
+    private static final String KEY_DURATIONS = "durations";
+    private static final String KEY_ID_OF_BRANCH = "idOfBranch";
+    private static final String KEY_ALL = "all";
+    private static final String KEY_ORDER = "order";
+    private static final String KEY_ID_OF_STREET = "idOfStreet";
+    private static final String KEY_ASYNC = "async";
+    private static final String KEY_INTERVAL = "interval";
+    private static final String KEY_TICKS_PER_SECOND = "ticksPerSecond";
+    private static final String KEY_ID_OF_NODE = "idOfNode";
+    private static final String KEY_SECONDS = "seconds";
+    private static final String KEY_EVERY = "every";
+    private static final String KEY_TICK = "tick";
+    private static final String KEY_BUDGET = "budget";
+    private static final String KEY_POLICY = "policy";
+    private static final String KEY_MODE = "mode";
+    private static final String KEY_SPEED = "speed";
+    private static final String KEY_ACCELERATION = "acceleration";
+    private static final String KEY_RATE = "rate";
+    private static final String KEY_THRESHOLD = "threshold";
+    private static final String KEY_DELAY = "delay";
+    private static final String KEY_MODEL = "model";
+    private static final String KEY_MINIMUM_LENGTH = "minimumLength";
+    private static final String KEY_WORKERS = "workers";
+    // Above a billion ticks per second, the period of a paced run is shorter than a nanosecond.
+    private static final int MAXIMUM_TICKS_PER_SECOND = 1_000_000_000;
+    private static final int MAXIMUM_NUMBER_OF_WORKERS = 256;
+    private static final String KEY_REGIONS = "regions";
+    private static final int MAXIMUM_NUMBER_OF_REGIONS = 256;
+    private static final String MODE_ON = "on";
+    private static final int DEFAULT_INTERVAL_OF_SNAPSHOTS = 100;
+    private static final String SEPARATOR_LIST = ",";
     private static final String REGEX_COMMAND_QUIT = "quit";
-    private static final Pattern REGEX_COMMAND_LOAD = Pattern.compile("load (?<" + KEY_PATH + ">\\S+)");
-    private static final Pattern REGEX_COMMAND_SIMULATE = Pattern.compile("simulate (?<" + KEY_TICKS + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_CACHE = Pattern.compile("cache");
+    private static final Pattern REGEX_COMMAND_LOAD = Pattern.compile("load (?<" + KEY_PATH + ">\\S+)(?: (?<"
+            + KEY_STORAGE + ">object|offheap|compact))?(?: (?<" + KEY_ORDER + ">file|bfs|rcm))?(?: (?<" + KEY_MODEL
+            + ">micro|meso|hybrid=(?<" + KEY_MINIMUM_LENGTH + ">\\d+)))?(?: workers=(?<" + KEY_WORKERS
+            + ">\\d+))?(?: regions=(?<" + KEY_REGIONS + ">\\d+))?");
+    private static final Pattern REGEX_COMMAND_SIMULATE = Pattern.compile("simulate (?<" + KEY_TICKS + ">\\d+)(?<"
+            + KEY_ALL + "> all|(?<" + KEY_ASYNC + "> async(?: (?<" + KEY_INTERVAL + ">\\d+))?))?");
     private static final Pattern REGEX_COMMAND_POSITION = Pattern.compile("position (?<" + KEY_ID_OF_CAR
+            + ">\\d+)(?: at (?<" + KEY_TICK + ">\\d+))?");
+    private static final Pattern REGEX_COMMAND_SWEEP = Pattern.compile("sweep (?<" + KEY_TICKS + ">\\d+) (?<"
+            + KEY_DURATIONS + ">\\d+(,\\d+)*)");
+    private static final Pattern REGEX_COMMAND_FORK = Pattern.compile("fork");
+    private static final Pattern REGEX_COMMAND_BRANCH = Pattern.compile("branch (?<" + KEY_ID_OF_BRANCH + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_STATS = Pattern.compile("stats");
+    private static final Pattern REGEX_COMMAND_PROGRESS = Pattern.compile("progress");
+    private static final Pattern REGEX_COMMAND_CANCEL = Pattern.compile("cancel");
+    private static final Pattern REGEX_COMMAND_MEMORY = Pattern.compile("memory");
+    private static final Pattern REGEX_COMMAND_STREET_STATISTICS = Pattern.compile("streetstats (?:(?<"
+            + KEY_ID_OF_STREET + ">\\d+)|export (?<" + KEY_PATH + ">\\S+))");
+    private static final Pattern REGEX_COMMAND_SIGNALS = Pattern.compile("signals (?:(?<" + KEY_ID_OF_NODE
+            + ">\\d+)|export (?<" + KEY_SECONDS + ">\\d+) (?<" + KEY_PATH + ">\\S+))");
+    private static final Pattern REGEX_COMMAND_EXPORT = Pattern.compile("export (?:every=(?<" + KEY_EVERY
+            + ">\\d+) (?<" + KEY_PATH + ">\\S+)|stop)");
+    private static final Pattern REGEX_COMMAND_CHECKPOINT = Pattern.compile("checkpoint (?:every=(?<" + KEY_EVERY
+            + ">\\d+) budget=(?<" + KEY_BUDGET + ">\\d+)(?: policy=(?<" + KEY_POLICY + ">oldest|spread))?|off)");
+    private static final Pattern REGEX_COMMAND_TRACE = Pattern.compile("trace (?:record every=(?<" + KEY_EVERY
+            + ">\\d+) (?<" + KEY_PATH + ">\\S+)|stop)");
+    private static final Pattern REGEX_COMMAND_TRACE_OPEN = Pattern.compile("trace (?:open (?<" + KEY_PATH
+            + ">\\S+)|close)");
+    private static final Pattern REGEX_COMMAND_OCCUPANCY = Pattern.compile("occupancy (?<" + KEY_ID_OF_STREET
+            + ">\\d+) at (?<" + KEY_TICK + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_WATCH = Pattern.compile("watch(?: (?<" + KEY_MODE + ">on|off))?");
+    private static final Pattern REGEX_COMMAND_RUN = Pattern.compile("run (?<" + KEY_TICKS_PER_SECOND + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_SPAWN = Pattern.compile("spawn (?<" + KEY_ID_OF_CAR + ">\\d+) street=(?<"
+            + KEY_ID_OF_STREET + ">\\d+) speed=(?<" + KEY_SPEED + ">\\d+) acceleration=(?<" + KEY_ACCELERATION
             + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_DESPAWN = Pattern.compile("despawn (?<" + KEY_ID_OF_CAR + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_SOURCE = Pattern.compile("source (?<" + KEY_ID_OF_STREET
+            + ">\\d+) (?:rate=(?<" + KEY_RATE + ">\\d+) speed=(?<" + KEY_SPEED + ">\\d+) acceleration=(?<"
+            + KEY_ACCELERATION + ">\\d+)|off)");
+    private static final Pattern REGEX_COMMAND_SINK = Pattern.compile("sink (?<" + KEY_ID_OF_STREET + ">\\d+)(?: (?<"
+            + KEY_MODE + ">on|off))?");
+    private static final Pattern REGEX_COMMAND_INJECTIONS = Pattern.compile("injections");
+    private static final Pattern REGEX_COMMAND_ARRIVALS = Pattern.compile("arrivals");
+    private static final Pattern REGEX_COMMAND_ARRIVALS_OPEN = Pattern.compile("arrivals (?:open (?<" + KEY_PATH
+            + ">\\S+)|close)");
+    private static final Pattern REGEX_COMMAND_ROUTING = Pattern.compile("routing");
+    private static final Pattern REGEX_COMMAND_REGIONS = Pattern.compile("regions");
+    private static final Pattern REGEX_COMMAND_WORKLOAD = Pattern.compile("workload");
+    private static final Pattern REGEX_COMMAND_WORKLOAD_BENCHMARK = Pattern.compile("workload benchmark (?<"
+            + KEY_TICKS + ">\\d+)");
+    private static final Pattern REGEX_COMMAND_REROUTING = Pattern.compile("rerouting(?: (?:threshold=(?<"
+            + KEY_THRESHOLD + ">\\d+) delay=(?<" + KEY_DELAY + ">\\d+)|(?<" + KEY_MODE + ">off)))?");
+    private static final Pattern REGEX_COMMAND_REROUTING_BENCHMARK = Pattern.compile("rerouting benchmark (?<"
+            + KEY_TICKS + ">\\d+) threshold=(?<" + KEY_THRESHOLD + ">\\d+) delay=(?<" + KEY_DELAY + ">\\d+)");
+    // All commands except load, cache and quit, which can only be executed after a street network is loaded.
+    private static final List<Pattern> COMMANDS_REQUIRING_NETWORK = List.of(REGEX_COMMAND_SIMULATE,
+            REGEX_COMMAND_POSITION, REGEX_COMMAND_SWEEP, REGEX_COMMAND_FORK, REGEX_COMMAND_BRANCH, REGEX_COMMAND_STATS,
+            REGEX_COMMAND_PROGRESS, REGEX_COMMAND_CANCEL, REGEX_COMMAND_RUN, REGEX_COMMAND_MEMORY,
+            REGEX_COMMAND_STREET_STATISTICS, REGEX_COMMAND_SIGNALS, REGEX_COMMAND_EXPORT,
+            REGEX_COMMAND_CHECKPOINT, REGEX_COMMAND_TRACE, REGEX_COMMAND_TRACE_OPEN, REGEX_COMMAND_OCCUPANCY,
+            REGEX_COMMAND_WATCH, REGEX_COMMAND_SPAWN, REGEX_COMMAND_DESPAWN, REGEX_COMMAND_SOURCE, REGEX_COMMAND_SINK,
+            REGEX_COMMAND_INJECTIONS, REGEX_COMMAND_ARRIVALS, REGEX_COMMAND_ARRIVALS_OPEN,
+            REGEX_COMMAND_ROUTING, REGEX_COMMAND_REROUTING, REGEX_COMMAND_REROUTING_BENCHMARK, REGEX_COMMAND_REGIONS,
+            REGEX_COMMAND_WORKLOAD, REGEX_COMMAND_WORKLOAD_BENCHMARK);
     private final TrafficSystem system;
+    private final TopologyLoader topologyLoader;
     private final Scanner scanner = new Scanner(System.in);
     private boolean isRunning;
     private boolean isInitialized;
+    // Scenario of the loaded street network, so its folder can be watched.
+    private String pathOfScenario;
+    private StreetOrder streetOrder;
+    private CarStoreType storeType;
 
     /**
      * Constructor of traffic system user interface.
@@ -42,6 +140,7 @@ public TrafficSystemUI() {
         this.isRunning = true;
         this.isInitialized = false;
         this.system = new TrafficSystem();
+        this.topologyLoader = new TopologyLoader();
     }
 
     /**
@@ -52,6 +151,7 @@ public void interactive() {
             String input = scanner.nextLine();
             if (input.equals(REGEX_COMMAND_QUIT)) {
                 stop();
+                this.system.shutDown();
                 return;
             }
             try {
@@ -73,17 +173,72 @@ public void parseInput(String input) throws TrafficException {
         Matcher loadMatcher = REGEX_COMMAND_LOAD.matcher(input);
         Matcher simulateMatcher = REGEX_COMMAND_SIMULATE.matcher(input);
         Matcher positionMatcher = REGEX_COMMAND_POSITION.matcher(input);
+        Matcher sweepMatcher = REGEX_COMMAND_SWEEP.matcher(input);
+        Matcher branchMatcher = REGEX_COMMAND_BRANCH.matcher(input);
+        Matcher runMatcher = REGEX_COMMAND_RUN.matcher(input);
+        Matcher streetStatisticsMatcher = REGEX_COMMAND_STREET_STATISTICS.matcher(input);
+        Matcher signalsMatcher = REGEX_COMMAND_SIGNALS.matcher(input);
+        Matcher exportMatcher = REGEX_COMMAND_EXPORT.matcher(input);
+        Matcher checkpointMatcher = REGEX_COMMAND_CHECKPOINT.matcher(input);
+        Matcher traceMatcher = REGEX_COMMAND_TRACE.matcher(input);
+        Matcher traceOpenMatcher = REGEX_COMMAND_TRACE_OPEN.matcher(input);
+        Matcher occupancyMatcher = REGEX_COMMAND_OCCUPANCY.matcher(input);
+        Matcher watchMatcher = REGEX_COMMAND_WATCH.matcher(input);
+        Matcher spawnMatcher = REGEX_COMMAND_SPAWN.matcher(input);
+        Matcher despawnMatcher = REGEX_COMMAND_DESPAWN.matcher(input);
+        Matcher sourceMatcher = REGEX_COMMAND_SOURCE.matcher(input);
+        Matcher sinkMatcher = REGEX_COMMAND_SINK.matcher(input);
+        Matcher arrivalsOpenMatcher = REGEX_COMMAND_ARRIVALS_OPEN.matcher(input);
+        Matcher reroutingMatcher = REGEX_COMMAND_REROUTING.matcher(input);
+        Matcher reroutingBenchmarkMatcher = REGEX_COMMAND_REROUTING_BENCHMARK.matcher(input);
+        Matcher workloadBenchmarkMatcher = REGEX_COMMAND_WORKLOAD_BENCHMARK.matcher(input);
 
         // Execute the load command.
         if (loadMatcher.matches()) {
             String path = loadMatcher.group(KEY_PATH);
-            parseLoadCommand(path);
+            String storage = loadMatcher.group(KEY_STORAGE);
+            CarStoreType storeType = storage == null
+                    ? CarStoreType.OBJECT : CarStoreType.getCarStoreTypeFromString(storage);
+            String order = loadMatcher.group(KEY_ORDER);
+            StreetOrder streetOrder = order == null ? StreetOrder.FILE : StreetOrder.getStreetOrderFromString(order);
+            String model = loadMatcher.group(KEY_MODEL);
+            TrafficModel trafficModel;
+            if (model == null) {
+                trafficModel = TrafficModel.MICROSCOPIC;
+            } else if (loadMatcher.group(KEY_MINIMUM_LENGTH) != null) {
+                trafficModel = TrafficModel.createHybrid(parseInteger(loadMatcher.group(KEY_MINIMUM_LENGTH)));
+            } else {
+                trafficModel = TrafficModel.getTrafficModelFromString(model);
+            }
+            String workers = loadMatcher.group(KEY_WORKERS);
+            int numberOfWorkers = workers == null ? 0 : parseInteger(workers);
+            if (workers != null && (numberOfWorkers < 1 || numberOfWorkers > MAXIMUM_NUMBER_OF_WORKERS
+                    || trafficModel != TrafficModel.MICROSCOPIC)) {
+                throw new TrafficException(ErrorMessage.ILLEGAL_WORKERS.format(MAXIMUM_NUMBER_OF_WORKERS));
+            }
+            String regions = loadMatcher.group(KEY_REGIONS);
+            int numberOfRegions = regions == null ? 1 : parseInteger(regions);
+            if (regions != null && (numberOfRegions < 1 || numberOfRegions > MAXIMUM_NUMBER_OF_REGIONS
+                    || trafficModel != TrafficModel.MICROSCOPIC)) {
+                throw new TrafficException(ErrorMessage.ILLEGAL_REGIONS.format(MAXIMUM_NUMBER_OF_REGIONS));
+            }
+            // Without a number of workers, each region gets its own worker.
+            if (workers == null && regions != null) {
+                numberOfWorkers = numberOfRegions;
+            }
+            parseLoadCommand(path, storeType, streetOrder, trafficModel, numberOfWorkers, numberOfRegions);
             setAsInitialized();
             System.out.println(MESSAGE_READY);
             return;
         }
 
-        if (!simulateMatcher.matches() && !positionMatcher.matches()) {
+        // Execute the cache command.
+        if (REGEX_COMMAND_CACHE.matcher(input).matches()) {
+            System.out.println(this.topologyLoader.getCacheStatistics());
+            return;
+        }
+
+        if (!isCommandRequiringNetwork(input)) {
             throw new TrafficException(ErrorMessage.INPUT_NOT_VALID.toString());
         }
         if (!this.isInitialized) {
@@ -93,14 +248,293 @@ public void parseInput(String input) throws TrafficException {
         // Execute the simulate command.
         if (simulateMatcher.matches()) {
             int ticks = parseInteger(simulateMatcher.group(KEY_TICKS));
-            this.system.simulate(ticks);
+            if (simulateMatcher.group(KEY_ASYNC) != null) {
+                String interval = simulateMatcher.group(KEY_INTERVAL);
+                this.system.simulateInBackground(ticks,
+                        interval == null ? DEFAULT_INTERVAL_OF_SNAPSHOTS : parseInteger(interval));
+            } else if (simulateMatcher.group(KEY_ALL) != null) {
+                this.system.simulateAllBranches(ticks);
+            } else {
+                this.system.simulate(ticks);
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the run command.
+        if (runMatcher.matches()) {
+            int ticksPerSecond = parseInteger(runMatcher.group(KEY_TICKS_PER_SECOND));
+            if (ticksPerSecond < 1 || ticksPerSecond > MAXIMUM_TICKS_PER_SECOND) {
+                throw new TrafficException(ErrorMessage.ILLEGAL_TICKS_PER_SECOND.format(MAXIMUM_TICKS_PER_SECOND));
+            }
+            this.system.runPaced(ticksPerSecond);
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the fork command.
+        if (REGEX_COMMAND_FORK.matcher(input).matches()) {
+            this.system.fork();
+            return;
+        }
+
+        // Execute the branch command.
+        if (branchMatcher.matches()) {
+            this.system.selectBranch(parseInteger(branchMatcher.group(KEY_ID_OF_BRANCH)));
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the memory command.
+        if (REGEX_COMMAND_MEMORY.matcher(input).matches()) {
+            this.system.printMemoryUsage();
+            return;
+        }
+
+        // Execute the stats command.
+        if (REGEX_COMMAND_STATS.matcher(input).matches()) {
+            this.system.printStatistics();
+            return;
+        }
+
+        // Execute the streetstats command.
+        if (streetStatisticsMatcher.matches()) {
+            String idOfStreet = streetStatisticsMatcher.group(KEY_ID_OF_STREET);
+            if (idOfStreet != null) {
+                this.system.printStreetStatistics(parseInteger(idOfStreet));
+            } else {
+                this.system.exportStreetStatistics(streetStatisticsMatcher.group(KEY_PATH));
+                System.out.println(MESSAGE_READY);
+            }
+            return;
+        }
+
+        // Execute the signals command.
+        if (signalsMatcher.matches()) {
+            String idOfNode = signalsMatcher.group(KEY_ID_OF_NODE);
+            if (idOfNode != null) {
+                this.system.printSignalStatistics(parseInteger(idOfNode));
+            } else {
+                this.system.exportSignalStatistics(parseInteger(signalsMatcher.group(KEY_SECONDS)),
+                        signalsMatcher.group(KEY_PATH));
+                System.out.println(MESSAGE_READY);
+            }
+            return;
+        }
+
+        // Execute the export command.
+        if (exportMatcher.matches()) {
+            String every = exportMatcher.group(KEY_EVERY);
+            if (every == null) {
+                this.system.stopColumnarExport();
+            } else {
+                int interval = parseInteger(every);
+                if (interval == 0) {
+                    throw new TrafficException(ErrorMessage.INPUT_NOT_VALID.toString());
+                }
+                this.system.startColumnarExport(interval, exportMatcher.group(KEY_PATH));
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the checkpoint command.
+        if (checkpointMatcher.matches()) {
+            String every = checkpointMatcher.group(KEY_EVERY);
+            if (every == null) {
+                this.system.stopCheckpoints();
+            } else {
+                int interval = parseInteger(every);
+                if (interval == 0) {
+                    throw new TrafficException(ErrorMessage.INPUT_NOT_VALID.toString());
+                }
+                String policy = checkpointMatcher.group(KEY_POLICY);
+                CheckpointPolicy checkpointPolicy = policy == null
+                        ? CheckpointPolicy.OLDEST : CheckpointPolicy.getCheckpointPolicyFromString(policy);
+                this.system.startCheckpoints(interval, parseInteger(checkpointMatcher.group(KEY_BUDGET)),
+                        checkpointPolicy);
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the trace command.
+        if (traceMatcher.matches()) {
+            String every = traceMatcher.group(KEY_EVERY);
+            if (every == null) {
+                this.system.stopTrace();
+            } else {
+                int interval = parseInteger(every);
+                if (interval == 0) {
+                    throw new TrafficException(ErrorMessage.INPUT_NOT_VALID.toString());
+                }
+                this.system.startTrace(interval, traceMatcher.group(KEY_PATH));
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (traceOpenMatcher.matches()) {
+            String path = traceOpenMatcher.group(KEY_PATH);
+            if (path == null) {
+                this.system.closeTrace();
+            } else {
+                this.system.openTrace(path);
+            }
             System.out.println(MESSAGE_READY);
             return;
         }
 
+        // Execute the occupancy command.
+        if (occupancyMatcher.matches()) {
+            this.system.printOccupancyAt(parseInteger(occupancyMatcher.group(KEY_ID_OF_STREET)),
+                    parseInteger(occupancyMatcher.group(KEY_TICK)));
+            return;
+        }
+
+        // Execute the watch command.
+        if (watchMatcher.matches()) {
+            String mode = watchMatcher.group(KEY_MODE);
+            if (mode == null) {
+                this.system.printWatchStatus();
+                return;
+            }
+            if (mode.equals(MODE_ON)) {
+                this.system.startWatching(this.pathOfScenario, this.streetOrder, this.storeType, this.topologyLoader);
+            } else {
+                this.system.stopWatching();
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the commands that spawn and remove cars.
+        if (spawnMatcher.matches()) {
+            this.system.spawnCar(parseInteger(spawnMatcher.group(KEY_ID_OF_CAR)),
+                    parseInteger(spawnMatcher.group(KEY_ID_OF_STREET)), parseInteger(spawnMatcher.group(KEY_SPEED)),
+                    parseInteger(spawnMatcher.group(KEY_ACCELERATION)));
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (despawnMatcher.matches()) {
+            this.system.despawnCar(parseInteger(despawnMatcher.group(KEY_ID_OF_CAR)));
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (sourceMatcher.matches()) {
+            int idOfStreet = parseInteger(sourceMatcher.group(KEY_ID_OF_STREET));
+            String rate = sourceMatcher.group(KEY_RATE);
+            if (rate == null) {
+                this.system.setSource(idOfStreet, 0, 0, 0);
+            } else {
+                this.system.setSource(idOfStreet, parseInteger(rate), parseInteger(sourceMatcher.group(KEY_SPEED)),
+                        parseInteger(sourceMatcher.group(KEY_ACCELERATION)));
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (sinkMatcher.matches()) {
+            String mode = sinkMatcher.group(KEY_MODE);
+            boolean isSink = mode == null || mode.equals(MODE_ON);
+            this.system.setSink(parseInteger(sinkMatcher.group(KEY_ID_OF_STREET)), isSink);
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (REGEX_COMMAND_INJECTIONS.matcher(input).matches()) {
+            this.system.printInjectionStatistics();
+            return;
+        }
+
+        // Execute the arrivals command.
+        if (REGEX_COMMAND_ARRIVALS.matcher(input).matches()) {
+            this.system.printArrivalStatus();
+            return;
+        }
+        if (arrivalsOpenMatcher.matches()) {
+            String path = arrivalsOpenMatcher.group(KEY_PATH);
+            if (path == null) {
+                this.system.closeArrivals();
+            } else {
+                this.system.openArrivals(path);
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the routing command.
+        if (REGEX_COMMAND_ROUTING.matcher(input).matches()) {
+            this.system.printRouting();
+            return;
+        }
+
+        // Execute the regions command.
+        if (REGEX_COMMAND_REGIONS.matcher(input).matches()) {
+            this.system.printRegions();
+            return;
+        }
+
+        // Execute the workload commands.
+        if (REGEX_COMMAND_WORKLOAD.matcher(input).matches()) {
+            this.system.printWorkload();
+            return;
+        }
+        if (workloadBenchmarkMatcher.matches()) {
+            this.system.benchmarkWorkload(parseInteger(workloadBenchmarkMatcher.group(KEY_TICKS)));
+            return;
+        }
+
+        // Execute the rerouting command.
+        if (reroutingMatcher.matches()) {
+            String threshold = reroutingMatcher.group(KEY_THRESHOLD);
+            if (threshold != null) {
+                this.system.startRerouting(parseInteger(threshold), parseInteger(reroutingMatcher.group(KEY_DELAY)));
+            } else if (reroutingMatcher.group(KEY_MODE) != null) {
+                this.system.stopRerouting();
+            } else {
+                this.system.printReroutingStatistics();
+                return;
+            }
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+        if (reroutingBenchmarkMatcher.matches()) {
+            this.system.benchmarkRerouting(parseInteger(reroutingBenchmarkMatcher.group(KEY_TICKS)),
+                    parseInteger(reroutingBenchmarkMatcher.group(KEY_THRESHOLD)),
+                    parseInteger(reroutingBenchmarkMatcher.group(KEY_DELAY)));
+            return;
+        }
+
+        // Execute the progress command.
+        if (REGEX_COMMAND_PROGRESS.matcher(input).matches()) {
+            this.system.printProgress();
+            return;
+        }
+
+        // Execute the cancel command.
+        if (REGEX_COMMAND_CANCEL.matcher(input).matches()) {
+            this.system.cancel();
+            System.out.println(MESSAGE_READY);
+            return;
+        }
+
+        // Execute the sweep command.
+        if (sweepMatcher.matches()) {
+            int ticks = parseInteger(sweepMatcher.group(KEY_TICKS));
+            List<Integer> durations = new ArrayList<>();
+            for (String duration : sweepMatcher.group(KEY_DURATIONS).split(SEPARATOR_LIST)) {
+                durations.add(parseInteger(duration));
+            }
+            this.system.sweep(ticks, durations);
+            return;
+        }
+
         // Execute the position command.
         if (positionMatcher.matches()) {
             int id = parseInteger(positionMatcher.group(KEY_ID_OF_CAR));
+            String tick = positionMatcher.group(KEY_TICK);
+            if (tick != null) {
+                this.system.getCarDetailsAt(id, parseInteger(tick));
+                return;
+            }
             try {
                 this.system.getCarDetails(id);
             } catch (InquiryException e) {
@@ -110,55 +544,40 @@ public void parseInput(String input) throws TrafficException {
     }
 
     /**
-     * Parses the load command.
+     * Checks whether the input matches one of the commands that require a loaded street network.
      *
-     * @param path path for loading
-     * @throws TrafficException if the path is not valid or the content derived is not valid
+     * @param input input given by user
+     * @return true if the input matches such a command, otherwise false
      */
-    public void parseLoadCommand(String path) throws TrafficException {
-        SimulationFileLoader loader;
-        try {
-            loader = new SimulationFileLoader(path);
-        } catch (IOException e) {
-            throw new TrafficException(e.getMessage());
-        }
-
-        List<String> crossings;
-        List<String> streets;
-        List<String> cars;
-        try {
-            crossings = loader.loadCrossings();
-            streets = loader.loadStreets();
-            cars = loader.loadCars();
-        } catch (IOException e) {
-            throw new TrafficException(e.getMessage());
-        }
-
-        List<String> clonedCrossings = cloneList(crossings);
-        List<String> clonedStreets = cloneList(streets);
-        List<String> clonedCars = cloneList(cars);
-
-        Parser parser = new Parser(clonedStreets, clonedCrossings, clonedCars);
-        try {
-            parser.setUp();
-        } catch (ParserException e) {
-            throw new TrafficException(e.getMessage());
+    private boolean isCommandRequiringNetwork(String input) {
+        for (Pattern command : COMMANDS_REQUIRING_NETWORK) {
+            if (command.matcher(input).matches()) {
+                return true;
+            }
         }
-        this.system.setNetwork(parser.createStreetNetwork());
+        return false;
     }
 
     /**
-     * Clones the string list.
+     * Parses the load command.
      *
-     * @param inputList list to be cloned
-     * @return the cloned string list
+     * @param path path for loading
+     * @param storeType kind of storage for the cars
+     * @param streetOrder order the streets are laid out in
+     * @param trafficModel model that decides which streets are simulated as queues
+     * @param numberOfWorkers number of workers the cars cross in rounds with, 0 to let them cross edge after edge
+     * @param numberOfRegions number of regions the street network is split into if there are workers
+     * @throws TrafficException if the path is not valid or the content derived is not valid
      */
-    public List<String> cloneList(List<String> inputList) {
-        List<String> copyList = new ArrayList<>();
-        for (String line : inputList) {
-            copyList.add(line);
-        }
-        return copyList;
+    public void parseLoadCommand(String path, CarStoreType storeType, StreetOrder streetOrder,
+                                 TrafficModel trafficModel, int numberOfWorkers, int numberOfRegions)
+            throws TrafficException {
+        this.system.checkIdle();
+        this.system.setNetwork(new StreetNetwork(this.topologyLoader.load(path, streetOrder), storeType,
+                trafficModel, numberOfWorkers, numberOfRegions));
+        this.pathOfScenario = path;
+        this.streetOrder = streetOrder;
+        this.storeType = storeType;
     }
 
     /**
@@ -0,0 +1,139 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class describes the cars of an arrival file that arrived, but could not enter their street yet because its
+ * start was occupied. They wait outside the network in one queue per street and enter in the order they arrived.
+ * The queues are linked lists of entries in primitive arrays, and entries of cars that entered are reused,
+ * so waiting allocates nothing once the arrays have grown to the largest number of waiting cars at the same time.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class WaitingArrivals {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    // First and last entry of the queue of each street, by id of street.
+    private final int[] heads;
+    private final int[] tails;
+    // Streets whose queue is not empty, so they can be visited in the order of their ids.
+    private final BitSet streetsWithWaitingCars = new BitSet();
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] wishedSpeeds = new int[INITIAL_CAPACITY];
+    private int[] accelerators = new int[INITIAL_CAPACITY];
+    private int freeEntry = NONE;
+    private int numberOfEntries;
+    private int size;
+
+    /**
+     * Constructor of empty queues.
+     *
+     * @param numberOfStreets number of streets of the network
+     */
+    WaitingArrivals(int numberOfStreets) {
+        this.heads = new int[numberOfStreets];
+        this.tails = new int[numberOfStreets];
+        Arrays.fill(this.heads, NONE);
+    }
+
+    /**
+     * Appends a car to the queue of a street.
+     *
+     * @param idOfStreet id of the street the car waits for
+     * @param wishedSpeed wished speed of the car
+     * @param accelerator accelerator of the car
+     */
+    void add(int idOfStreet, int wishedSpeed, int accelerator) {
+        int entry;
+        if (this.freeEntry != NONE) {
+            entry = this.freeEntry;
+            this.freeEntry = this.next[entry];
+        } else {
+            if (this.numberOfEntries == this.next.length) {
+                this.next = Arrays.copyOf(this.next, 2 * this.next.length);
+                this.wishedSpeeds = Arrays.copyOf(this.wishedSpeeds, this.next.length);
+                this.accelerators = Arrays.copyOf(this.accelerators, this.next.length);
+            }
+            entry = this.numberOfEntries++;
+        }
+        this.next[entry] = NONE;
+        this.wishedSpeeds[entry] = wishedSpeed;
+        this.accelerators[entry] = accelerator;
+        if (this.heads[idOfStreet] == NONE) {
+            this.heads[idOfStreet] = entry;
+            this.streetsWithWaitingCars.set(idOfStreet);
+        } else {
+            this.next[this.tails[idOfStreet]] = entry;
+        }
+        this.tails[idOfStreet] = entry;
+        this.size++;
+    }
+
+    /**
+     * Checks whether cars wait for a street.
+     *
+     * @param idOfStreet id of street
+     * @return true if the queue of the street is not empty, otherwise false
+     */
+    boolean hasWaitingCars(int idOfStreet) {
+        return this.heads[idOfStreet] != NONE;
+    }
+
+    /**
+     * Gets the next street from the given id on that cars wait for.
+     *
+     * @param idOfStreet id of the first street to be checked
+     * @return id of the street, or -1 if cars wait for no street from the given id on
+     */
+    int getNextStreet(int idOfStreet) {
+        return this.streetsWithWaitingCars.nextSetBit(idOfStreet);
+    }
+
+    /**
+     * Gets the wished speed of the first car waiting for a street.
+     *
+     * @param idOfStreet id of a street cars wait for
+     * @return the wished speed of the car
+     */
+    int getWishedSpeedOfFirstCar(int idOfStreet) {
+        return this.wishedSpeeds[this.heads[idOfStreet]];
+    }
+
+    /**
+     * Gets the accelerator of the first car waiting for a street.
+     *
+     * @param idOfStreet id of a street cars wait for
+     * @return the accelerator of the car
+     */
+    int getAcceleratorOfFirstCar(int idOfStreet) {
+        return this.accelerators[this.heads[idOfStreet]];
+    }
+
+    /**
+     * Removes the first car waiting for a street, because it entered the street.
+     *
+     * @param idOfStreet id of a street cars wait for
+     */
+    void removeFirstCar(int idOfStreet) {
+        int entry = this.heads[idOfStreet];
+        this.heads[idOfStreet] = this.next[entry];
+        if (this.heads[idOfStreet] == NONE) {
+            this.streetsWithWaitingCars.clear(idOfStreet);
+        }
+        this.next[entry] = this.freeEntry;
+        this.freeEntry = entry;
+        this.size--;
+    }
+
+    /**
+     * Gets the number of waiting cars of all streets.
+     *
+     * @return the number of waiting cars
+     */
+    int size() {
+        return this.size;
+    }
+
+}
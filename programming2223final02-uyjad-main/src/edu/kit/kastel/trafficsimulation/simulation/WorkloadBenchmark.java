@@ -0,0 +1,83 @@
+package edu.kit.kastel.trafficsimulation.simulation;
+
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.TrafficException;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class describes a benchmark of how evenly the workers are loaded, with the edges split into equal parts
+ * against batches of about the same estimated work that the workers steal from each other.
+ * Both variants are forks of the same network and are simulated one after the other on the calling thread, sharing
+ * the workers of the network. They move the cars the same, so only the time of a tick and the load of the workers
+ * differ. The tick throughput, the share of time the workers were busy and the imbalance estimated by the work of
+ * the edges are reported per variant.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class WorkloadBenchmark {
+    private static final String FORMAT_RESULT = "%s: %d ticks in %d ms (%.1f ticks per second). %s";
+    private static final String NAME_OF_EQUAL_PARTS = "Equal parts";
+    private static final String NAME_OF_BATCHES_BY_COST = "Batches by cost";
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+    private static final int NANOSECONDS_PER_MILLISECOND = 1_000_000;
+    private final StreetNetwork network;
+
+    /**
+     * Constructor of a benchmark.
+     *
+     * @param network network both variants are forked of, which is not changed
+     */
+    public WorkloadBenchmark(StreetNetwork network) {
+        this.network = network;
+    }
+
+    /**
+     * Simulates a variant that splits the edges into equal parts and a variant that splits them by their work.
+     *
+     * @param ticks how many ticks each variant is simulated
+     * @return one line of result per variant
+     * @throws TrafficException if the network is not simulated by workers in a single region
+     */
+    public List<String> run(int ticks) throws TrafficException {
+        StreetNetwork equalParts = new StreetNetwork(this.network);
+        StreetNetwork batchesByCost = new StreetNetwork(this.network);
+        equalParts.setSplitIntoEqualParts(true);
+        batchesByCost.setSplitIntoEqualParts(false);
+        List<String> results = new ArrayList<>();
+        try {
+            // Fails before anything is simulated if there is no workload to measure.
+            equalParts.getWorkloadStatistics();
+            results.add(simulate(NAME_OF_EQUAL_PARTS, equalParts, ticks));
+            results.add(simulate(NAME_OF_BATCHES_BY_COST, batchesByCost, ticks));
+        } catch (InquiryException e) {
+            throw new TrafficException(e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Simulates one variant and measures its duration.
+     *
+     * @param name name of the variant
+     * @param variant network of the variant
+     * @param ticks how many ticks the variant is simulated
+     * @return line of result of the variant
+     * @throws InquiryException if the network is not simulated by workers in a single region
+     */
+    private String simulate(String name, StreetNetwork variant, int ticks) throws InquiryException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            variant.update();
+        }
+        long duration = System.nanoTime() - start;
+        double ticksPerSecond = duration == 0 ? 0 : ticks * NANOSECONDS_PER_SECOND / duration;
+        return String.format(Locale.ROOT, FORMAT_RESULT, name, ticks, duration / NANOSECONDS_PER_MILLISECOND,
+                ticksPerSecond, variant.getWorkloadStatistics());
+    }
+
+}
@@ -22,6 +22,8 @@ public class Car implements Comparable<Car> {
     private final int id;
     private final int wishedSpeed;
     private final int accelerator;
+    // Index of the node the car drives to, -1 if it has no destination and follows its direction counter.
+    private final int destination;
     private int currentSpeed;
     private final Counter directionCounter;
     private int position;
@@ -36,7 +38,21 @@ public class Car implements Comparable<Car> {
      * @throws ParserException if the speed or accelerator is not valid
      */
     public Car(int idOfCar, int wishedSpeed, int accelerator) throws ParserException {
+        this(idOfCar, wishedSpeed, accelerator, -1);
+    }
+
+    /**
+     * Constructor of a car that drives to a destination.
+     *
+     * @param idOfCar id of car
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @param destination index of the node the car drives to, or -1 if it has no destination
+     * @throws ParserException if the speed or accelerator is not valid
+     */
+    public Car(int idOfCar, int wishedSpeed, int accelerator, int destination) throws ParserException {
         this.id = idOfCar;
+        this.destination = destination;
         if (wishedSpeed > MAXIMUM_WISHED_SPEED || wishedSpeed < MINIMUM_WISHED_SPEED) {
             throw new ParserException(ErrorMessage.ILLEGAL_SPEED.toString());
         }
@@ -59,7 +75,8 @@ public Car(Car carToCopy) {
         this.currentSpeed = carToCopy.getCurrentSpeed();
         this.wishedSpeed = carToCopy.getWishedSpeed();
         this.accelerator = carToCopy.getAccelerator();
-        this.directionCounter = carToCopy.getDirectionCounter();
+        this.destination = carToCopy.getDestination();
+        this.directionCounter = new Counter(carToCopy.getDirectionCounter());
         this.isUpdated = carToCopy.isUpdated();
         this.position = carToCopy.getPosition();
     }
@@ -100,6 +117,15 @@ public int getAccelerator() {
         return this.accelerator;
     }
 
+    /**
+     * Gets the destination of car.
+     *
+     * @return index of the node the car drives to, or -1 if it has no destination
+     */
+    public int getDestination() {
+        return this.destination;
+    }
+
     /**
      * Sets the car as updated.
      */
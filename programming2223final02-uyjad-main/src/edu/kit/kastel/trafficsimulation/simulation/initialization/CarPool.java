@@ -0,0 +1,198 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.simulation.exception.ParserException;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the immutable attributes of all cars that can be placed on networks built upon one topology.
+ * Indices 0 to n - 1 are the cars of the topology, their attributes are read from its primitive arrays.
+ * Cars spawned while simulating get the following indices, which are records of three ints in one array.
+ * A record is held by every network the car is on, so a network and its forks share the records; once no network
+ * holds a record anymore, its index is reused by the next spawned car. So spawning and removing cars allocates
+ * nothing once the pool has grown to the largest number of spawned cars at the same time.
+ * Records are acquired and released by the threads that simulate the networks, so these methods are synchronized,
+ * while reading the attributes of a car is not.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class CarPool {
+    private static final int SIZE_OF_RECORD = 3;
+    private static final int OFFSET_WISHED_SPEED = 1;
+    private static final int OFFSET_ACCELERATOR = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private final Topology topology;
+    private final int numberOfScenarioCars;
+    // Id, wished speed and accelerator of every spawned car, replaced by a larger copy when the pool grows.
+    private volatile int[] records = new int[INITIAL_CAPACITY * SIZE_OF_RECORD];
+    // Number of networks holding each record, 0 for a free record.
+    private int[] owners = new int[INITIAL_CAPACITY];
+    private int[] freeRecords = new int[INITIAL_CAPACITY];
+    private int numberOfFreeRecords;
+    private int numberOfRecords;
+
+    /**
+     * Constructor of a pool without spawned cars.
+     *
+     * @param topology topology that holds the attributes of the initial cars
+     */
+    public CarPool(Topology topology) {
+        this.topology = topology;
+        this.numberOfScenarioCars = topology.getNumberOfCars();
+    }
+
+    /**
+     * Gets the topology that holds the attributes of the initial cars.
+     *
+     * @return the topology of this pool
+     */
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    /**
+     * Checks whether the car with the given index was spawned, so it is not a car of the topology.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return true if the car was spawned, otherwise false
+     */
+    public boolean isSpawned(int indexOfCar) {
+        return indexOfCar >= this.numberOfScenarioCars;
+    }
+
+    /**
+     * Gets the id of the car with the given index.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return id of car
+     */
+    public int getIdOfCar(int indexOfCar) {
+        if (indexOfCar < this.numberOfScenarioCars) {
+            return this.topology.getIdOfCar(indexOfCar);
+        }
+        return this.records[(indexOfCar - this.numberOfScenarioCars) * SIZE_OF_RECORD];
+    }
+
+    /**
+     * Gets the wished speed of the car with the given index.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return wished speed of car
+     */
+    public int getWishedSpeedOfCar(int indexOfCar) {
+        if (indexOfCar < this.numberOfScenarioCars) {
+            return this.topology.getWishedSpeedOfCar(indexOfCar);
+        }
+        return this.records[(indexOfCar - this.numberOfScenarioCars) * SIZE_OF_RECORD + OFFSET_WISHED_SPEED];
+    }
+
+    /**
+     * Gets the accelerator of the car with the given index.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return accelerator of car
+     */
+    public int getAcceleratorOfCar(int indexOfCar) {
+        if (indexOfCar < this.numberOfScenarioCars) {
+            return this.topology.getAcceleratorOfCar(indexOfCar);
+        }
+        return this.records[(indexOfCar - this.numberOfScenarioCars) * SIZE_OF_RECORD + OFFSET_ACCELERATOR];
+    }
+
+    /**
+     * Gets the destination of the car with the given index. Spawned cars have no destination.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return index of the node the car drives to, or -1 if it has no destination
+     */
+    public int getDestinationOfCar(int indexOfCar) {
+        return indexOfCar < this.numberOfScenarioCars ? this.topology.getDestinationOfCar(indexOfCar) : -1;
+    }
+
+    /**
+     * Creates a standing car with the attributes of the car with the given index, for storages of car objects.
+     *
+     * @param indexOfCar index of car in this pool
+     * @return the new car
+     */
+    public Car createCar(int indexOfCar) {
+        if (indexOfCar < this.numberOfScenarioCars) {
+            return new Car(this.topology.getCar(indexOfCar));
+        }
+        try {
+            return new Car(getIdOfCar(indexOfCar), getWishedSpeedOfCar(indexOfCar), getAcceleratorOfCar(indexOfCar));
+        } catch (ParserException e) {
+            // The attributes were checked when the car was spawned.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Acquires a record for a spawned car, held by one network. A released record is reused if there is one.
+     *
+     * @param idOfCar id of car
+     * @param wishedSpeed wished speed of car, already checked
+     * @param accelerator accelerator of car, already checked
+     * @return index of the car in this pool
+     */
+    public synchronized int acquire(int idOfCar, int wishedSpeed, int accelerator) {
+        int record;
+        if (this.numberOfFreeRecords > 0) {
+            record = this.freeRecords[--this.numberOfFreeRecords];
+        } else {
+            if (this.numberOfRecords == this.owners.length) {
+                this.owners = Arrays.copyOf(this.owners, 2 * this.owners.length);
+                this.freeRecords = Arrays.copyOf(this.freeRecords, this.owners.length);
+                this.records = Arrays.copyOf(this.records, this.owners.length * SIZE_OF_RECORD);
+            }
+            record = this.numberOfRecords++;
+        }
+        int[] currentRecords = this.records;
+        currentRecords[record * SIZE_OF_RECORD] = idOfCar;
+        currentRecords[record * SIZE_OF_RECORD + OFFSET_WISHED_SPEED] = wishedSpeed;
+        currentRecords[record * SIZE_OF_RECORD + OFFSET_ACCELERATOR] = accelerator;
+        this.owners[record] = 1;
+        return this.numberOfScenarioCars + record;
+    }
+
+    /**
+     * Registers one more network that holds the spawned car, for instance a fork of the network it is on.
+     *
+     * @param indexOfCar index of a spawned car in this pool
+     */
+    public synchronized void retain(int indexOfCar) {
+        this.owners[indexOfCar - this.numberOfScenarioCars]++;
+    }
+
+    /**
+     * Unregisters one network that held the spawned car. The record is reused once no network holds it.
+     *
+     * @param indexOfCar index of a spawned car in this pool
+     */
+    public synchronized void release(int indexOfCar) {
+        int record = indexOfCar - this.numberOfScenarioCars;
+        if (--this.owners[record] == 0) {
+            this.freeRecords[this.numberOfFreeRecords++] = record;
+        }
+    }
+
+    /**
+     * Gets the number of records for spawned cars, held or free.
+     *
+     * @return the number of records
+     */
+    public synchronized int getNumberOfRecords() {
+        return this.numberOfRecords;
+    }
+
+    /**
+     * Gets the number of records that are held by no network and wait to be reused.
+     *
+     * @return the number of free records
+     */
+    public synchronized int getNumberOfFreeRecords() {
+        return this.numberOfFreeRecords;
+    }
+
+}
@@ -0,0 +1,223 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.BitSet;
+
+/**
+ * This class describes which cars are on one network: the cars of the topology that were not removed and the
+ * spawned cars, whose ids are mapped to their index in the shared {@link CarPool}. The mapping is an open
+ * addressing hash table of primitive arrays that removes by shifting the following entries back, so spawning and
+ * removing cars neither boxes an integer nor leaves deleted entries behind.
+ * It also hands out the ids of cars spawned by sources, counting up from the largest id ever on the network.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class CarRoster {
+    private static final int NOT_FOUND = -1;
+    private static final int MINIMUM_CAPACITY = 16;
+    // Odd multiplier that spreads consecutive ids over the table (Fibonacci hashing).
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private final CarPool carPool;
+    // Indices of the cars of the topology that were removed from the network.
+    private final BitSet removedCars;
+    private int[] keys;
+    // Index of the spawned car in the pool plus 1, so 0 marks an empty slot.
+    private int[] slots;
+    private int size;
+    private int nextIdOfCar;
+
+    /**
+     * Constructor of a roster that holds all cars of the topology of the pool and no spawned car.
+     *
+     * @param carPool pool of the cars
+     */
+    public CarRoster(CarPool carPool) {
+        this.carPool = carPool;
+        this.removedCars = new BitSet();
+        this.keys = new int[MINIMUM_CAPACITY];
+        this.slots = new int[MINIMUM_CAPACITY];
+        Topology topology = carPool.getTopology();
+        for (int i = 0; i < topology.getNumberOfCars(); i++) {
+            this.nextIdOfCar = Math.max(this.nextIdOfCar, topology.getIdOfCar(i) + 1);
+        }
+    }
+
+    /**
+     * Constructor of a roster for a fork of a network. The fork holds the same spawned cars, so every record is
+     * retained once more in the pool.
+     *
+     * @param rosterToCopy roster of the forked network
+     */
+    public CarRoster(CarRoster rosterToCopy) {
+        this.carPool = rosterToCopy.carPool;
+        this.removedCars = (BitSet) rosterToCopy.removedCars.clone();
+        this.keys = rosterToCopy.keys.clone();
+        this.slots = rosterToCopy.slots.clone();
+        this.size = rosterToCopy.size;
+        this.nextIdOfCar = rosterToCopy.nextIdOfCar;
+        for (int slot : this.slots) {
+            if (slot != 0) {
+                this.carPool.retain(slot - 1);
+            }
+        }
+    }
+
+    /**
+     * Gets the pool the cars of this roster are held in.
+     *
+     * @return the pool of the cars
+     */
+    public CarPool getCarPool() {
+        return this.carPool;
+    }
+
+    /**
+     * Gets the index in the pool of the car with the given id if it is on the network.
+     *
+     * @param idOfCar id of car
+     * @return index of car in the pool, or -1 if the car is not on the network
+     */
+    public int getIndexOfCar(int idOfCar) {
+        int slot = this.slots[findSlot(this.keys, this.slots, idOfCar)];
+        if (slot != 0) {
+            return slot - 1;
+        }
+        int indexOfCar = this.carPool.getTopology().getIndexOfCar(idOfCar);
+        return indexOfCar == NOT_FOUND || this.removedCars.get(indexOfCar) ? NOT_FOUND : indexOfCar;
+    }
+
+    /**
+     * Gets the id for the next car spawned by a source, which no car of the network had before.
+     *
+     * @return id for the next spawned car
+     */
+    public int takeNextIdOfCar() {
+        return this.nextIdOfCar++;
+    }
+
+    /**
+     * Adds a car that is spawned onto the network. The id must not be on the network.
+     *
+     * @param idOfCar id of car
+     * @param wishedSpeed wished speed of car, already checked
+     * @param accelerator accelerator of car, already checked
+     * @return index of the car in the pool
+     */
+    public int add(int idOfCar, int wishedSpeed, int accelerator) {
+        int indexOfCar = this.carPool.acquire(idOfCar, wishedSpeed, accelerator);
+        put(idOfCar, indexOfCar);
+        this.nextIdOfCar = Math.max(this.nextIdOfCar, idOfCar + 1);
+        return indexOfCar;
+    }
+
+    /**
+     * Adds a spawned car that is already held in the pool, for instance when a network is restored.
+     *
+     * @param idOfCar id of car
+     * @param indexOfCar index of the car in the pool, held for this roster
+     */
+    void put(int idOfCar, int indexOfCar) {
+        if (2 * (this.size + 1) > this.keys.length) {
+            rehash(2 * this.keys.length);
+        }
+        int slot = findSlot(this.keys, this.slots, idOfCar);
+        this.keys[slot] = idOfCar;
+        this.slots[slot] = indexOfCar + 1;
+        this.size++;
+    }
+
+    /**
+     * Marks a car of the topology as not on the network, for instance when a network is restored.
+     *
+     * @param indexOfCar index of the car in the topology
+     */
+    void markAsRemoved(int indexOfCar) {
+        this.removedCars.set(indexOfCar);
+    }
+
+    /**
+     * Removes a car that left the network. The record of a spawned car is released in the pool.
+     *
+     * @param idOfCar id of a car on the network
+     */
+    public void remove(int idOfCar) {
+        int slot = findSlot(this.keys, this.slots, idOfCar);
+        if (this.slots[slot] == 0) {
+            this.removedCars.set(this.carPool.getTopology().getIndexOfCar(idOfCar));
+            return;
+        }
+        this.carPool.release(this.slots[slot] - 1);
+        this.slots[slot] = 0;
+        this.size--;
+        // Moves the following entries of the probe sequence back, so no lookup stops at the freed slot.
+        int mask = this.keys.length - 1;
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (this.slots[next] != 0) {
+            int home = getHome(this.keys[next], mask);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                this.keys[free] = this.keys[next];
+                this.slots[free] = this.slots[next];
+                this.slots[next] = 0;
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Sets the id counter, for instance when a network is restored.
+     *
+     * @param nextIdOfCar id for the next spawned car
+     */
+    void setNextIdOfCar(int nextIdOfCar) {
+        this.nextIdOfCar = nextIdOfCar;
+    }
+
+    /**
+     * Gets the id counter without taking an id.
+     *
+     * @return id for the next spawned car
+     */
+    int getNextIdOfCar() {
+        return this.nextIdOfCar;
+    }
+
+    /**
+     * Gets the number of spawned cars on the network.
+     *
+     * @return the number of spawned cars
+     */
+    public int getNumberOfSpawnedCars() {
+        return this.size;
+    }
+
+    private static int getHome(int id, int mask) {
+        int hash = id * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> Integer.SIZE / 2)) & mask;
+    }
+
+    private static int findSlot(int[] keys, int[] slots, int id) {
+        int mask = keys.length - 1;
+        int slot = getHome(id, mask);
+        while (slots[slot] != 0 && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] newKeys = new int[capacity];
+        int[] newSlots = new int[capacity];
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.slots[i] != 0) {
+                int slot = findSlot(newKeys, newSlots, this.keys[i]);
+                newKeys[slot] = this.keys[i];
+                newSlots[slot] = this.slots[i];
+            }
+        }
+        this.keys = newKeys;
+        this.slots = newSlots;
+    }
+
+}
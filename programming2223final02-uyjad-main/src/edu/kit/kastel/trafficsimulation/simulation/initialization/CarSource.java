@@ -0,0 +1,138 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+/**
+ * This class describes a source that lets cars enter a network at the start of one street at a constant rate.
+ * Arrivals are counted in whole cars without randomness: every tick adds the rate to a sum and every 60 of it
+ * make one arriving car, so the rate is exact over every simulated minute of 60 ticks. Arriving cars wait outside
+ * the network until the start of the street is free, at most one of them enters per tick.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class CarSource {
+    private static final int TICKS_PER_MINUTE = 60;
+    private final int indexOfStreet;
+    private final int carsPerMinute;
+    private final int wishedSpeed;
+    private final int accelerator;
+    private int sumOfRate;
+    private long numberOfWaitingCars;
+
+    /**
+     * Constructor of a source without waiting cars.
+     *
+     * @param indexOfStreet index of the street the cars enter
+     * @param carsPerMinute number of cars arriving every 60 ticks
+     * @param wishedSpeed wished speed of the cars, already checked
+     * @param accelerator accelerator of the cars, already checked
+     */
+    CarSource(int indexOfStreet, int carsPerMinute, int wishedSpeed, int accelerator) {
+        this.indexOfStreet = indexOfStreet;
+        this.carsPerMinute = carsPerMinute;
+        this.wishedSpeed = wishedSpeed;
+        this.accelerator = accelerator;
+    }
+
+    /**
+     * Constructor of a source of another street with the state of an existing source.
+     *
+     * @param sourceToCopy source to be copied
+     * @param indexOfStreet index of the street the cars enter
+     */
+    CarSource(CarSource sourceToCopy, int indexOfStreet) {
+        this(indexOfStreet, sourceToCopy.carsPerMinute, sourceToCopy.wishedSpeed, sourceToCopy.accelerator);
+        this.sumOfRate = sourceToCopy.sumOfRate;
+        this.numberOfWaitingCars = sourceToCopy.numberOfWaitingCars;
+    }
+
+    /**
+     * Counts the cars arriving in one tick.
+     */
+    void recordTick() {
+        this.sumOfRate += this.carsPerMinute;
+        this.numberOfWaitingCars += this.sumOfRate / TICKS_PER_MINUTE;
+        this.sumOfRate %= TICKS_PER_MINUTE;
+    }
+
+    /**
+     * Checks whether a car waits to enter the network.
+     *
+     * @return true if a car waits, otherwise false
+     */
+    boolean hasWaitingCar() {
+        return this.numberOfWaitingCars > 0;
+    }
+
+    /**
+     * Takes the next waiting car, which enters the network.
+     */
+    void takeWaitingCar() {
+        this.numberOfWaitingCars--;
+    }
+
+    /**
+     * Restores the counters of arrivals, for instance from a checkpoint.
+     *
+     * @param sumOfRate sum of the rate that did not make a whole car yet
+     * @param numberOfWaitingCars number of cars waiting to enter
+     */
+    void restore(int sumOfRate, long numberOfWaitingCars) {
+        this.sumOfRate = sumOfRate;
+        this.numberOfWaitingCars = numberOfWaitingCars;
+    }
+
+    /**
+     * Gets the index of the street the cars enter.
+     *
+     * @return the index of the street
+     */
+    int getIndexOfStreet() {
+        return this.indexOfStreet;
+    }
+
+    /**
+     * Gets the number of cars arriving every 60 ticks.
+     *
+     * @return the rate of the source
+     */
+    int getCarsPerMinute() {
+        return this.carsPerMinute;
+    }
+
+    /**
+     * Gets the wished speed of the cars.
+     *
+     * @return the wished speed of the cars
+     */
+    int getWishedSpeed() {
+        return this.wishedSpeed;
+    }
+
+    /**
+     * Gets the accelerator of the cars.
+     *
+     * @return the accelerator of the cars
+     */
+    int getAccelerator() {
+        return this.accelerator;
+    }
+
+    /**
+     * Gets the sum of the rate that did not make a whole car yet.
+     *
+     * @return the sum of the rate
+     */
+    int getSumOfRate() {
+        return this.sumOfRate;
+    }
+
+    /**
+     * Gets the number of cars waiting to enter.
+     *
+     * @return the number of waiting cars
+     */
+    long getNumberOfWaitingCars() {
+        return this.numberOfWaitingCars;
+    }
+
+}
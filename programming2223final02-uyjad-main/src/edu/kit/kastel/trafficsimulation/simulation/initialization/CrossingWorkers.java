@@ -0,0 +1,107 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * This class describes the workers that update the edges of a network in parallel.
+ * The update of a tick is split into steps, and a step applies an action to each edge of a list. The list is split
+ * into contiguous batches by an {@link EdgeWorkload}, and a step ends once all batches are done, so the next step
+ * sees every change of the step before. An action must only change the edge it is applied to. If the network is
+ * split into regions, a step instead runs one task per region, which the workers take one after another. With one
+ * worker, the steps run on the calling thread. The workers can be shared by several networks, for instance by the
+ * forks of a network.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class CrossingWorkers {
+    private final int numberOfWorkers;
+    // Null if there is only one worker. Its threads end when they are idle, so the pool needs no shutdown.
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor of workers.
+     *
+     * @param numberOfWorkers number of workers, at least 1
+     */
+    CrossingWorkers(int numberOfWorkers) {
+        this.numberOfWorkers = numberOfWorkers;
+        this.pool = numberOfWorkers == 1 ? null : new ForkJoinPool(numberOfWorkers);
+    }
+
+    /**
+     * Gets the number of workers.
+     *
+     * @return the number of workers
+     */
+    int getNumberOfWorkers() {
+        return this.numberOfWorkers;
+    }
+
+    /**
+     * Applies an action to each of the given indices of edges and waits until all are done.
+     * The indices are split into batches by the given workload, which the workers steal from each other.
+     *
+     * @param indices indices of edges
+     * @param numberOfIndices number of valid entries at the start of the indices
+     * @param workload workload of the edges, which splits the indices and records how busy the workers are
+     * @param isByCost true to split the indices by the estimated work of their edges, false by their number
+     * @param action action applied to the index of each edge
+     */
+    void run(int[] indices, int numberOfIndices, EdgeWorkload workload, boolean isByCost, IntConsumer action) {
+        long start = System.nanoTime();
+        if (this.pool == null || numberOfIndices < 2) {
+            runPart(indices, 0, numberOfIndices, action);
+            long duration = System.nanoTime() - start;
+            workload.recordBusyTime(duration);
+            workload.recordStep(duration);
+            return;
+        }
+        int numberOfBatches = workload.split(indices, numberOfIndices, isByCost);
+        List<ForkJoinTask<?>> batches = new ArrayList<>(numberOfBatches);
+        for (int i = 0; i < numberOfBatches; i++) {
+            int startOfBatch = i == 0 ? 0 : workload.getEndOfBatch(i - 1);
+            int endOfBatch = workload.getEndOfBatch(i);
+            batches.add(ForkJoinTask.adapt(() -> {
+                long startOfWork = System.nanoTime();
+                runPart(indices, startOfBatch, endOfBatch, action);
+                workload.recordBusyTime(System.nanoTime() - startOfWork);
+            }));
+        }
+        // The batches are forked onto the queue of one worker, from which the idle workers steal them.
+        this.pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(batches)));
+        workload.recordStep(System.nanoTime() - start);
+    }
+
+    /**
+     * Runs a task for each of the given number of parts and waits until all are done.
+     *
+     * @param numberOfParts number of parts, for instance of regions
+     * @param task task applied to the number of each part
+     */
+    void runEach(int numberOfParts, IntConsumer task) {
+        if (this.pool == null) {
+            for (int i = 0; i < numberOfParts; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> parts = new ArrayList<>(numberOfParts);
+        for (int i = 0; i < numberOfParts; i++) {
+            int part = i;
+            parts.add(ForkJoinTask.adapt(() -> task.accept(part)));
+        }
+        this.pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(parts)));
+    }
+
+    private static void runPart(int[] indices, int start, int end, IntConsumer action) {
+        for (int i = start; i < end; i++) {
+            action.accept(indices[i]);
+        }
+    }
+
+}
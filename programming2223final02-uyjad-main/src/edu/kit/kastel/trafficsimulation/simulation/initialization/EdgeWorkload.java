@@ -0,0 +1,184 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.simulation.module.Edge;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class describes how much work the edges of a network are for the workers, and how a step of a round is split
+ * into batches of about the same work. The work of an edge is estimated from its number of cars, a car on a passing
+ * lane counting more as its edge sorts its cars again and looks two cars ahead. The estimates are only renewed every
+ * few ticks, as the cars of an edge change slowly compared to a tick.
+ * A step is split into several batches per worker, each one a contiguous part of the edges. A worker that finished
+ * its batches steals those of the others, so a batch that turns out more expensive than estimated delays the step
+ * less. The split only decides which thread moves which edges, never what happens to the cars.
+ * The time the workers are busy is measured against the time the steps take, to expose how evenly they are loaded.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class EdgeWorkload {
+    // Relative work of looking at an edge, of moving one of its cars, and of moving a car on a passing lane.
+    private static final int COST_OF_EDGE = 4;
+    private static final int COST_OF_CAR = 2;
+    private static final int COST_OF_CAR_ON_PASSING_LANE = 3;
+    private static final int TICKS_BETWEEN_ESTIMATES = 4;
+    private static final int BATCHES_PER_WORKER = 4;
+    private final int numberOfWorkers;
+    // Estimated work of each edge by index of street.
+    private final int[] costsOfEdges;
+    // End of each batch of the current step in the given indices.
+    private final int[] endsOfBatches;
+    private boolean isSplitByCost;
+    private long tickOfEstimates;
+    private final LongAdder busyTime;
+    private long durationOfSteps;
+    private long estimatedDurationOfSteps;
+    private long idealDurationOfSteps;
+
+    /**
+     * Constructor of the workload of the edges of a network.
+     *
+     * @param numberOfStreets number of streets of the network
+     * @param numberOfWorkers number of workers, at least 1
+     */
+    EdgeWorkload(int numberOfStreets, int numberOfWorkers) {
+        this.numberOfWorkers = numberOfWorkers;
+        this.costsOfEdges = new int[numberOfStreets];
+        this.endsOfBatches = new int[BATCHES_PER_WORKER * numberOfWorkers];
+        this.isSplitByCost = true;
+        this.tickOfEstimates = -TICKS_BETWEEN_ESTIMATES;
+        this.busyTime = new LongAdder();
+    }
+
+    /**
+     * Sets whether a step is split by the estimated work of the edges into batches that are stolen among the
+     * workers, or into one part of the same number of edges per worker.
+     *
+     * @param isSplitByCost true to split by the estimated work, false to split into equal parts
+     */
+    void setSplitByCost(boolean isSplitByCost) {
+        this.isSplitByCost = isSplitByCost;
+    }
+
+    /**
+     * Renews the estimated work of every edge if the last estimates are at least a few ticks old.
+     *
+     * @param edges edges of the network, ordered by index of street
+     * @param tick current tick
+     */
+    void estimate(List<Edge> edges, long tick) {
+        if (tick - this.tickOfEstimates < TICKS_BETWEEN_ESTIMATES) {
+            return;
+        }
+        for (int i = 0; i < this.costsOfEdges.length; i++) {
+            Edge edge = edges.get(i);
+            int costOfCar = edge.isOvertakingAllowed() ? COST_OF_CAR_ON_PASSING_LANE : COST_OF_CAR;
+            this.costsOfEdges[i] = COST_OF_EDGE + costOfCar * edge.getNumberOfCars();
+        }
+        this.tickOfEstimates = tick;
+    }
+
+    /**
+     * Splits the given indices of edges into contiguous batches, which can be read by {@link #getEndOfBatch(int)}.
+     * By cost, the batches get about the same estimated work, otherwise the same number of edges. Only the steps
+     * split by cost are counted for {@link #getEstimatedImbalance()}, the work of the others is not estimated.
+     *
+     * @param indices indices of edges
+     * @param numberOfIndices number of valid entries at the start of the indices, at least 1
+     * @param isByCost true to split by the estimated work of the edges, false to split by their number
+     * @return the number of batches
+     */
+    int split(int[] indices, int numberOfIndices, boolean isByCost) {
+        int numberOfBatches = Math.min(this.isSplitByCost ? this.endsOfBatches.length : this.numberOfWorkers,
+                numberOfIndices);
+        long totalCost = 0;
+        for (int i = 0; i < numberOfIndices; i++) {
+            totalCost += this.costsOfEdges[indices[i]];
+        }
+        long largestCost = 0;
+        if (isByCost && this.isSplitByCost) {
+            long sumOfCosts = 0;
+            int end = 0;
+            for (int batch = 0; batch < numberOfBatches; batch++) {
+                long start = sumOfCosts;
+                long goal = totalCost * (batch + 1) / numberOfBatches;
+                // Every batch keeps at least one edge, so that the remaining batches still get one each.
+                do {
+                    sumOfCosts += this.costsOfEdges[indices[end++]];
+                } while (end < numberOfIndices - (numberOfBatches - batch - 1) && sumOfCosts < goal);
+                this.endsOfBatches[batch] = end;
+                largestCost = Math.max(largestCost, sumOfCosts - start);
+            }
+        } else {
+            int start = 0;
+            for (int batch = 0; batch < numberOfBatches; batch++) {
+                int end = (int) ((long) numberOfIndices * (batch + 1) / numberOfBatches);
+                long cost = 0;
+                for (int i = start; i < end; i++) {
+                    cost += this.costsOfEdges[indices[i]];
+                }
+                this.endsOfBatches[batch] = end;
+                largestCost = Math.max(largestCost, cost);
+                start = end;
+            }
+        }
+        if (isByCost) {
+            // With equal parts, a step takes as long as its most expensive part. The batches are stolen, so a step
+            // takes at least an even share of the work and as long as the most expensive batch.
+            long idealCost = (totalCost + this.numberOfWorkers - 1) / this.numberOfWorkers;
+            this.idealDurationOfSteps += idealCost;
+            this.estimatedDurationOfSteps += this.isSplitByCost ? Math.max(idealCost, largestCost) : largestCost;
+        }
+        return numberOfBatches;
+    }
+
+    /**
+     * Gets the end of a batch of the last split, the batch starts at the end of the batch before.
+     *
+     * @param batch number of batch
+     * @return the end of the batch in the indices
+     */
+    int getEndOfBatch(int batch) {
+        return this.endsOfBatches[batch];
+    }
+
+    /**
+     * Records how long a worker was busy with a batch. May be called by several threads.
+     *
+     * @param duration duration in nanoseconds
+     */
+    void recordBusyTime(long duration) {
+        this.busyTime.add(duration);
+    }
+
+    /**
+     * Records how long a step took from its split until all its batches were done.
+     *
+     * @param duration duration in nanoseconds
+     */
+    void recordStep(long duration) {
+        this.durationOfSteps += duration;
+    }
+
+    /**
+     * Gets the share of the time of the steps that the workers were busy.
+     *
+     * @return the utilisation of the workers between 0 and about 1, or 0 if no step was taken
+     */
+    double getUtilisation() {
+        return this.durationOfSteps == 0
+                ? 0 : (double) this.busyTime.sum() / this.numberOfWorkers / this.durationOfSteps;
+    }
+
+    /**
+     * Gets how much longer the steps take than with a perfectly even load, as estimated by the work of the edges.
+     *
+     * @return the estimated imbalance, at least 1, or 1 if no step was taken
+     */
+    double getEstimatedImbalance() {
+        return this.idealDurationOfSteps == 0 ? 1 : (double) this.estimatedDurationOfSteps / this.idealDurationOfSteps;
+    }
+
+}
@@ -0,0 +1,117 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+/**
+ * This class describes the mapping of arbitrary external ids to dense internal indices 0 to n - 1.
+ * Indices are assigned in the order the ids are added. The mapping is an open addressing hash table of
+ * primitive arrays, so neither adding nor looking up an id boxes an integer or allocates an object.
+ * External ids are only translated when data is read from a file or a command, all internal structures
+ * of the simulation use the dense indices.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class IdIndex {
+    private static final int NOT_FOUND = -1;
+    private static final int MINIMUM_CAPACITY = 16;
+    // Odd multiplier that spreads consecutive ids over the table (Fibonacci hashing).
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private int[] keys;
+    // Index of the id plus 1, so 0 marks an empty slot.
+    private int[] slots;
+    private int[] ids;
+    private int size;
+
+    /**
+     * Constructor of an empty id index.
+     *
+     * @param expectedSize number of ids expected to be added
+     */
+    public IdIndex(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < 2 * expectedSize) {
+            capacity *= 2;
+        }
+        this.keys = new int[capacity];
+        this.slots = new int[capacity];
+        this.ids = new int[Math.max(expectedSize, 1)];
+    }
+
+    /**
+     * Adds an id and assigns the next free index to it.
+     *
+     * @param id id to be added
+     * @return the index assigned to the id, or -1 if the id was already added
+     */
+    public int add(int id) {
+        if (2 * (this.size + 1) > this.keys.length) {
+            rehash(2 * this.keys.length);
+        }
+        int slot = findSlot(this.keys, this.slots, id);
+        if (this.slots[slot] != 0) {
+            return NOT_FOUND;
+        }
+        if (this.size == this.ids.length) {
+            int[] grownIds = new int[2 * this.ids.length];
+            System.arraycopy(this.ids, 0, grownIds, 0, this.size);
+            this.ids = grownIds;
+        }
+        this.keys[slot] = id;
+        this.slots[slot] = this.size + 1;
+        this.ids[this.size] = id;
+        return this.size++;
+    }
+
+    /**
+     * Gets the index of an id.
+     *
+     * @param id id to be looked up
+     * @return index of the id, or -1 if the id was not added
+     */
+    public int indexOf(int id) {
+        return this.slots[findSlot(this.keys, this.slots, id)] - 1;
+    }
+
+    /**
+     * Gets the id with the given index.
+     *
+     * @param index index of the id
+     * @return the id with this index
+     */
+    public int idOf(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * Gets the number of added ids.
+     *
+     * @return the number of added ids
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private static int findSlot(int[] keys, int[] slots, int id) {
+        int mask = keys.length - 1;
+        int hash = id * HASH_MULTIPLIER;
+        int slot = (hash ^ (hash >>> Integer.SIZE / 2)) & mask;
+        while (slots[slot] != 0 && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] newKeys = new int[capacity];
+        int[] newSlots = new int[capacity];
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.slots[i] != 0) {
+                int slot = findSlot(newKeys, newSlots, this.keys[i]);
+                newKeys[slot] = this.keys[i];
+                newSlots[slot] = this.slots[i];
+            }
+        }
+        this.keys = newKeys;
+        this.slots = newSlots;
+    }
+
+}
@@ -0,0 +1,134 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+/**
+ * This class describes a change of the cars of a network made between two ticks from outside the simulation:
+ * a car spawned or removed, a source or a sink set, rerouting switched on or off. A network logs its injections,
+ * so the state at a past tick can be rebuilt by simulating forward and replaying every injection at the tick it
+ * was made.
+ * Cars spawned by sources are not logged, because a source spawns the same cars again when it is replayed.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class Injection {
+    private final Kind kind;
+    private final long tick;
+    private final int idOfCar;
+    private final int indexOfStreet;
+    private final int carsPerMinute;
+    private final int wishedSpeed;
+    private final int accelerator;
+
+    /**
+     * Constructor of an injection.
+     *
+     * @param kind kind of the injection
+     * @param tick tick the injection was made at
+     * @param idOfCar id of the spawned or removed car, or the delay of rerouting in ticks, otherwise 0
+     * @param indexOfStreet index of the street of the spawned car, the source or the sink, otherwise 0
+     * @param carsPerMinute rate of the source, 1 if a sink is set and 0 if it is removed, or the threshold of
+     *      rerouting in percent and 0 if it is switched off
+     * @param wishedSpeed wished speed of the spawned car or the cars of the source, otherwise 0
+     * @param accelerator accelerator of the spawned car or the cars of the source, otherwise 0
+     */
+    Injection(Kind kind, long tick, int idOfCar, int indexOfStreet, int carsPerMinute, int wishedSpeed,
+              int accelerator) {
+        this.kind = kind;
+        this.tick = tick;
+        this.idOfCar = idOfCar;
+        this.indexOfStreet = indexOfStreet;
+        this.carsPerMinute = carsPerMinute;
+        this.wishedSpeed = wishedSpeed;
+        this.accelerator = accelerator;
+    }
+
+    /**
+     * Gets the kind of the injection.
+     *
+     * @return the kind of the injection
+     */
+    Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Gets the tick the injection was made at.
+     *
+     * @return the tick of the injection
+     */
+    long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the id of the spawned or removed car, or the delay of rerouting.
+     *
+     * @return the id of car
+     */
+    int getIdOfCar() {
+        return this.idOfCar;
+    }
+
+    /**
+     * Gets the index of the street of the spawned car, the source or the sink.
+     *
+     * @return the index of the street
+     */
+    int getIndexOfStreet() {
+        return this.indexOfStreet;
+    }
+
+    /**
+     * Gets the rate of the source, whether a sink is set, or the threshold of rerouting.
+     *
+     * @return the rate of the source
+     */
+    int getCarsPerMinute() {
+        return this.carsPerMinute;
+    }
+
+    /**
+     * Gets the wished speed of the spawned car or the cars of the source.
+     *
+     * @return the wished speed
+     */
+    int getWishedSpeed() {
+        return this.wishedSpeed;
+    }
+
+    /**
+     * Gets the accelerator of the spawned car or the cars of the source.
+     *
+     * @return the accelerator
+     */
+    int getAccelerator() {
+        return this.accelerator;
+    }
+
+    /**
+     * This enum describes the kinds of injections.
+     */
+    enum Kind {
+        /**
+         * A car was spawned at the start of a street.
+         */
+        SPAWN,
+        /**
+         * A car was removed from the network.
+         */
+        DESPAWN,
+        /**
+         * A source was set or removed.
+         */
+        SOURCE,
+        /**
+         * A sink was set or removed.
+         */
+        SINK,
+        /**
+         * Rerouting was switched on or off.
+         */
+        REROUTING
+    }
+
+}
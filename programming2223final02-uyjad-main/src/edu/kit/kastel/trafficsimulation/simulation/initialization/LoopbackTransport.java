@@ -0,0 +1,55 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class describes the transport between the workers of regions that run in the same process.
+ * Each pair of regions has two buffers: one is written by the sending worker in the current step, the other is
+ * read by the receiving worker and holds the message of the previous step. Both swap at the end of each step, so
+ * the buffers need no locks. A message is copied like it would be written to a socket, so the regions share no
+ * state through the transport.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class LoopbackTransport implements RegionTransport {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    // Buffers of each step parity by receiving and sending region, created at the first message.
+    private final ByteBuffer[][][] buffers;
+    // Parity of the buffers that are written in the current step.
+    private int parity;
+
+    /**
+     * Constructor of a transport between the given number of regions.
+     *
+     * @param numberOfRegions number of regions
+     */
+    LoopbackTransport(int numberOfRegions) {
+        this.buffers = new ByteBuffer[2][numberOfRegions][numberOfRegions];
+    }
+
+    @Override
+    public void send(int fromRegion, int toRegion, ByteBuffer message) {
+        ByteBuffer buffer = this.buffers[this.parity][toRegion][fromRegion];
+        if (buffer == null || buffer.capacity() < message.remaining()) {
+            buffer = ByteBuffer.allocate(Math.max(message.remaining(), buffer == null ? 0 : 2 * buffer.capacity()));
+            this.buffers[this.parity][toRegion][fromRegion] = buffer;
+        }
+        buffer.clear();
+        buffer.put(message.duplicate());
+        buffer.flip();
+    }
+
+    @Override
+    public ByteBuffer receive(int toRegion, int fromRegion) {
+        ByteBuffer buffer = this.buffers[1 - this.parity][toRegion][fromRegion];
+        return buffer == null ? EMPTY : buffer;
+    }
+
+    @Override
+    public void finishStep() {
+        // A buffer that is not written again still holds a message that was read, so nothing is received twice.
+        this.parity = 1 - this.parity;
+    }
+
+}
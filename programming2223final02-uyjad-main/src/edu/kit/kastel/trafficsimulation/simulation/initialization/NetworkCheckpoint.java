@@ -0,0 +1,76 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This class describes an immutable, compressed checkpoint of the state of a street network at one tick.
+ * It holds the state of the green lights, the index, position, speed and wished direction of every car, the
+ * attributes of spawned cars and the state of sources and sinks, deflated into one byte array. It also holds the
+ * number of injections the network had logged, so later injections can be replayed on the restored network.
+ * Everything else is taken from the topology when the checkpoint is restored
+ * by {@link StreetNetwork#StreetNetwork(Topology, NetworkCheckpoint,
+ * edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType)}.
+ * The traffic and signal statistics are not part of a checkpoint.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class NetworkCheckpoint {
+    private final long tick;
+    private final int numberOfInjections;
+    private final byte[] state;
+
+    /**
+     * Constructor of a checkpoint. The array is owned by the checkpoint afterwards and must not be changed.
+     *
+     * @param tick tick the checkpoint was taken at
+     * @param numberOfInjections number of injections logged by the network when the checkpoint was taken
+     * @param state deflated state of the network
+     */
+    NetworkCheckpoint(long tick, int numberOfInjections, byte[] state) {
+        this.tick = tick;
+        this.numberOfInjections = numberOfInjections;
+        this.state = state;
+    }
+
+    /**
+     * Gets the tick the checkpoint was taken at.
+     *
+     * @return the tick of the checkpoint
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the number of injections the network had logged when the checkpoint was taken.
+     *
+     * @return the number of injections included in the checkpoint
+     */
+    public int getNumberOfInjections() {
+        return this.numberOfInjections;
+    }
+
+    /**
+     * Gets the number of bytes of the compressed state.
+     *
+     * @return the size of the checkpoint in bytes
+     */
+    public int getSizeInBytes() {
+        return this.state.length;
+    }
+
+    /**
+     * Opens the inflated state for reading.
+     *
+     * @return stream of the inflated state
+     */
+    DataInputStream openState() {
+        return new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(this.state))));
+    }
+
+}
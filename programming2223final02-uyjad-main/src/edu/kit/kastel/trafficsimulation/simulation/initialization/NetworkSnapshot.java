@@ -0,0 +1,86 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * This class describes an immutable snapshot of the car positions of a street network at one tick.
+ * A snapshot can be read by any number of threads while the network keeps being simulated.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class NetworkSnapshot {
+    private static final String FORMAT_STATISTICS = "Tick %d: %d cars with average speed %.2f, %d crossings";
+    private final long tick;
+    private final long numberOfCrossings;
+    // All arrays are ordered by id of car, so a car can be found by binary search.
+    private final int[] idsOfCars;
+    private final int[] streetsOfCars;
+    private final int[] speedsOfCars;
+    private final int[] positionsOfCars;
+
+    /**
+     * Constructor of a snapshot. The arrays are owned by the snapshot afterwards and must not be changed.
+     *
+     * @param tick tick the snapshot was taken at
+     * @param numberOfCrossings number of crossings until this tick
+     * @param idsOfCars ids of cars in ascending order
+     * @param streetsOfCars id of street of each car
+     * @param speedsOfCars current speed of each car
+     * @param positionsOfCars position of each car
+     */
+    NetworkSnapshot(long tick, long numberOfCrossings, int[] idsOfCars, int[] streetsOfCars, int[] speedsOfCars,
+                    int[] positionsOfCars) {
+        this.tick = tick;
+        this.numberOfCrossings = numberOfCrossings;
+        this.idsOfCars = idsOfCars;
+        this.streetsOfCars = streetsOfCars;
+        this.speedsOfCars = speedsOfCars;
+        this.positionsOfCars = positionsOfCars;
+    }
+
+    /**
+     * Gets the tick the snapshot was taken at.
+     *
+     * @return the tick of the snapshot
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the string detail of car, in the same format as {@link StreetNetwork#getCarDetail(int)}.
+     *
+     * @param idOfCar id of car to be checked
+     * @return string detail of the car to be checked
+     * @throws InquiryException if the id of car does not exist
+     */
+    public String getCarDetail(int idOfCar) throws InquiryException {
+        int index = Arrays.binarySearch(this.idsOfCars, idOfCar);
+        if (index < 0) {
+            throw new InquiryException(String.format(ErrorMessage.ID_NOT_FOUND.toString(), idOfCar));
+        }
+        return String.format(StreetNetwork.REGEX_CAR_DETAILS, idOfCar, this.streetsOfCars[index],
+                this.speedsOfCars[index], this.positionsOfCars[index]);
+    }
+
+    /**
+     * Gets the statistics of the network, including tick, number of cars, average speed and number of crossings.
+     *
+     * @return string of the statistics
+     */
+    public String getStatistics() {
+        long sumOfSpeeds = 0;
+        for (int speed : this.speedsOfCars) {
+            sumOfSpeeds += speed;
+        }
+        double averageSpeed = this.speedsOfCars.length == 0 ? 0 : (double) sumOfSpeeds / this.speedsOfCars.length;
+        return String.format(Locale.ROOT, FORMAT_STATISTICS, this.tick, this.idsOfCars.length, averageSpeed,
+                this.numberOfCrossings);
+    }
+
+}
@@ -3,8 +3,6 @@
 import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
 import edu.kit.kastel.trafficsimulation.simulation.exception.ParserException;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -21,8 +19,8 @@ public class NodeData {
     private static final int MAXIMUM_NUMBER_OF_END_NODES = 4;
     private final int id;
     private final int durationOfGreenLight;
-    private final List<Integer> idListOfEndNodes;
-    private final List<Integer> idListOfPreviousNodes;
+    private int numberOfOutgoingStreets;
+    private int numberOfIncomingStreets;
 
     /**
      * Constructor of node data if node has green light.
@@ -33,13 +31,10 @@ public class NodeData {
      */
     public NodeData(int id, int durationOfGreenLight) throws ParserException {
         this.id = id;
-        if (durationOfGreenLight > MAXIMUM_GREEN_LIGHT_DURATION
-                || durationOfGreenLight < MINIMUM_GREEN_LIGHT_DURATION) {
+        if (!isValidDurationOfGreenLight(durationOfGreenLight)) {
             throw new ParserException(ErrorMessage.ILLEGAL_DURATION.toString());
         }
         this.durationOfGreenLight = durationOfGreenLight;
-        this.idListOfEndNodes = new ArrayList<>();
-        this.idListOfPreviousNodes = new ArrayList<>();
     }
 
     /**
@@ -50,8 +45,17 @@ public NodeData(int id, int durationOfGreenLight) throws ParserException {
     public NodeData(int id) {
         this.id = id;
         this.durationOfGreenLight = 0;
-        this.idListOfEndNodes = new ArrayList<>();
-        this.idListOfPreviousNodes = new ArrayList<>();
+    }
+
+    /**
+     * Checks whether the duration is within the range allowed for a green light.
+     *
+     * @param durationOfGreenLight duration to be checked
+     * @return true if the duration is valid for a green light, otherwise false
+     */
+    public static boolean isValidDurationOfGreenLight(int durationOfGreenLight) {
+        return durationOfGreenLight <= MAXIMUM_GREEN_LIGHT_DURATION
+                && durationOfGreenLight >= MINIMUM_GREEN_LIGHT_DURATION;
     }
 
     /**
@@ -73,21 +77,17 @@ public int getId() {
     }
 
     /**
-     * Adds id of end node.
-     *
-     * @param idOfEndNode id of end node
+     * Adds an outgoing street to this node.
      */
-    public void addIdOfEndNode(int idOfEndNode) {
-        this.idListOfEndNodes.add(idOfEndNode);
+    public void addOutgoingStreet() {
+        this.numberOfOutgoingStreets++;
     }
 
     /**
-     * Adds id of start node.
-     *
-     * @param idOfStartNode id of start node
+     * Adds an incoming street to this node.
      */
-    public void addIdOfPreviousNode(int idOfStartNode) {
-        this.idListOfPreviousNodes.add(idOfStartNode);
+    public void addIncomingStreet() {
+        this.numberOfIncomingStreets++;
     }
 
     /**
@@ -96,7 +96,7 @@ public void addIdOfPreviousNode(int idOfStartNode) {
      * @return true if this node has at least one incoming street and one outgoing street, otherwise false
      */
     public boolean isValid() {
-        return !this.idListOfPreviousNodes.isEmpty() && !this.idListOfEndNodes.isEmpty();
+        return this.numberOfIncomingStreets > 0 && this.numberOfOutgoingStreets > 0;
     }
 
     /**
@@ -105,7 +105,7 @@ public boolean isValid() {
      * @return true if Checks whether the number of incoming streets exceeds the maximum number, otherwise false
      */
     public boolean isValidForIncomingStreet() {
-        return this.idListOfPreviousNodes.size() < MAXIMUM_NUMBER_OF_END_NODES;
+        return this.numberOfIncomingStreets < MAXIMUM_NUMBER_OF_END_NODES;
     }
 
     /**
@@ -114,7 +114,7 @@ public boolean isValidForIncomingStreet() {
      * @return true if Checks whether the number of outgoing streets exceeds the maximum number, otherwise false
      */
     public boolean isValidForOutgoingStreet() {
-        return this.idListOfEndNodes.size() < MAXIMUM_NUMBER_OF_END_NODES;
+        return this.numberOfOutgoingStreets < MAXIMUM_NUMBER_OF_END_NODES;
     }
 
     /**
@@ -123,7 +123,7 @@ public boolean isValidForOutgoingStreet() {
      * @return  the number of incoming streets
      */
     public int getNumberOfIncomingStreets() {
-        return this.idListOfPreviousNodes.size();
+        return this.numberOfIncomingStreets;
     }
 
     @Override
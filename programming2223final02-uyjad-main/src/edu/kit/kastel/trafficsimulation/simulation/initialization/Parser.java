@@ -5,8 +5,6 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,8 +19,11 @@ public class Parser {
     private static final String KEY_ID_OF_STREET = "idOfStreet";
     private static final String KEY_WISHED_SPEED = "wishedSpeed";
     private static final String KEY_ACCELERATOR = "accelerator";
+    private static final String KEY_DESTINATION = "destination";
+    // The destination of a car is optional, cars without one follow their direction counter.
     private static final Pattern REGEX_CAR = Pattern.compile("(?<" + KEY_ID_OF_CAR + ">\\d+),(?<"
-            + KEY_ID_OF_STREET + ">\\d+),(?<" + KEY_WISHED_SPEED + ">\\d+),(?<" + KEY_ACCELERATOR + ">\\d+)");
+            + KEY_ID_OF_STREET + ">\\d+),(?<" + KEY_WISHED_SPEED + ">\\d+),(?<" + KEY_ACCELERATOR + ">\\d+)(?:,(?<"
+            + KEY_DESTINATION + ">\\d+))?");
     private static final String KEY_ID = "id";
     private static final String KEY_DURATION = "duration";
     private static final Pattern REGEX_NODE = Pattern.compile("(?<" + KEY_ID + ">\\d+):(?<" + KEY_DURATION
@@ -38,9 +39,11 @@ public class Parser {
     private final List<String> stringsOfCrossings;
     private final List<String> stringsOfStreets;
     private final List<String> stringsOfCars;
-    private final Map<Integer, NodeData> nodeDataList;
+    // Node data and cars are kept by dense index, the external ids are translated once while parsing.
+    private final List<NodeData> nodeDataList;
+    private final IdIndex indexOfNode;
     private final List<StreetData> streetDataList;
-    private final List<Integer> idListOfCars;
+    private final IdIndex indexOfCar;
 
     /**
      * Constructor of a parser.
@@ -53,9 +56,10 @@ public Parser(List<String> streets, List<String> crossings, List<String> cars) {
         this.stringsOfStreets = cloneList(streets);
         this.stringsOfCrossings = cloneList(crossings);
         this.stringsOfCars = cloneList(cars);
-        this.nodeDataList = new TreeMap<>();
+        this.nodeDataList = new ArrayList<>();
+        this.indexOfNode = new IdIndex(this.stringsOfCrossings.size());
         this.streetDataList = new ArrayList<>();
-        this.idListOfCars = new ArrayList<>();
+        this.indexOfCar = new IdIndex(this.stringsOfCars.size());
     }
 
     /**
@@ -71,13 +75,32 @@ public void setUp() throws ParserException {
         createCars();
     }
 
+    /**
+     * Creates the immutable topology with valid node data and street data.
+     *
+     * @return immutable topology with valid node data and street data
+     */
+    public Topology createTopology() {
+        return createTopology(StreetOrder.FILE);
+    }
+
+    /**
+     * Creates the immutable topology with valid node data and street data, the streets are laid out in the given order.
+     *
+     * @param streetOrder order the streets are laid out in
+     * @return immutable topology with valid node data and street data
+     */
+    public Topology createTopology(StreetOrder streetOrder) {
+        return new Topology(this.nodeDataList, this.streetDataList, streetOrder);
+    }
+
     /**
      * Creates a new street network with valid node data and street data.
      *
      * @return new street network with valid node data and street data
      */
     public StreetNetwork createStreetNetwork() {
-        return new StreetNetwork(this.nodeDataList, this.streetDataList);
+        return new StreetNetwork(createTopology());
     }
 
     /**
@@ -102,21 +125,25 @@ public void createStreets() throws ParserException {
                 throw new ParserException(ErrorMessage.INVALID_STREET_WITH_SAME_NODES.toString());
             }
             // Check whether node exists in node data list.
-            if (!this.nodeDataList.containsKey(idOfStartNode) || !this.nodeDataList.containsKey(idOfEndNode)) {
+            int indexOfStartNode = this.indexOfNode.indexOf(idOfStartNode);
+            int indexOfEndNode = this.indexOfNode.indexOf(idOfEndNode);
+            if (indexOfStartNode == -1 || indexOfEndNode == -1) {
                 throw new ParserException(ErrorMessage.NODE_NOT_FOUND.toString());
             }
             // Check if node is still valid for connection with another street.
-            if (!this.nodeDataList.get(idOfEndNode).isValidForIncomingStreet()) {
+            NodeData startNode = this.nodeDataList.get(indexOfStartNode);
+            NodeData endNode = this.nodeDataList.get(indexOfEndNode);
+            if (!endNode.isValidForIncomingStreet()) {
                 throw new ParserException(ErrorMessage.ILLEGAL_CONNECTION_TO_INCOMING_STREET.toString());
             }
-            if (!this.nodeDataList.get(idOfStartNode).isValidForOutgoingStreet()) {
+            if (!startNode.isValidForOutgoingStreet()) {
                 throw new ParserException(ErrorMessage.ILLEGAL_CONNECTION_TO_OUTGOING_STREET.toString());
             }
 
-            StreetData streetData = new StreetData(idOfStartNode, idOfEndNode, idOfType, length, maximumSpeed);
+            StreetData streetData = new StreetData(indexOfStartNode, indexOfEndNode, idOfType, length, maximumSpeed);
             this.streetDataList.add(streetData);
-            this.nodeDataList.get(idOfStartNode).addIdOfEndNode(idOfEndNode);
-            this.nodeDataList.get(idOfEndNode).addIdOfPreviousNode(idOfStartNode);
+            startNode.addOutgoingStreet();
+            endNode.addIncomingStreet();
         }
     }
 
@@ -132,7 +159,7 @@ public void createPreNodes() throws ParserException {
                 throw new ParserException(ErrorMessage.INVALID_NODE_DATA.toString());
             }
             int id = parseInteger(crossingMatcher.group(KEY_ID));
-            if (this.nodeDataList.containsKey(id)) {
+            if (this.indexOfNode.add(id) == -1) {
                 throw new ParserException(ErrorMessage.ILLEGAL_NEW_ID.toString());
             }
             int duration = parseInteger(crossingMatcher.group(KEY_DURATION));
@@ -142,7 +169,7 @@ public void createPreNodes() throws ParserException {
             } else {
                 newNodeData = new NodeData(id, duration);
             }
-            this.nodeDataList.put(id, newNodeData);
+            this.nodeDataList.add(newNodeData);
         }
     }
 
@@ -152,7 +179,7 @@ public void createPreNodes() throws ParserException {
      * @throws ParserException if a node is not connected to any incoming street and/or any outgoing street
      */
     public void checkNodeWithoutStreet() throws ParserException {
-        for (NodeData nodeData : this.nodeDataList.values()) {
+        for (NodeData nodeData : this.nodeDataList) {
             if (!nodeData.isValid()) {
                 throw new ParserException(ErrorMessage.NO_STREET_CONNECTED.toString());
             }
@@ -162,7 +189,8 @@ public void checkNodeWithoutStreet() throws ParserException {
     /**
      * Creates car. If successful, the car will be added to the street where it belongs.
      *
-     * @throws ParserException if the string from the file is invalid, the street does not exist, or the street is full
+     * @throws ParserException if the string from the file is invalid, the street or destination does not exist,
+     *      or the street is full
      */
     public void createCars() throws ParserException {
         for (String line : this.stringsOfCars) {
@@ -172,7 +200,7 @@ public void createCars() throws ParserException {
             }
             int idOfCar = parseInteger(carMatcher.group(KEY_ID_OF_CAR));
             // Check whether id of car already exists.
-            if (this.idListOfCars.contains(idOfCar)) {
+            if (this.indexOfCar.indexOf(idOfCar) != -1) {
                 throw new ParserException(ErrorMessage.ILLEGAL_NEW_ID.toString());
             }
 
@@ -189,9 +217,16 @@ public void createCars() throws ParserException {
 
             int wishedSpeed = parseInteger(carMatcher.group(KEY_WISHED_SPEED));
             int accelerator = parseInteger(carMatcher.group(KEY_ACCELERATOR));
-            Car carToAdd = new Car(idOfCar, wishedSpeed, accelerator);
+            int destination = -1;
+            if (carMatcher.group(KEY_DESTINATION) != null) {
+                destination = this.indexOfNode.indexOf(parseInteger(carMatcher.group(KEY_DESTINATION)));
+                if (destination == -1) {
+                    throw new ParserException(ErrorMessage.NODE_NOT_FOUND.toString());
+                }
+            }
+            Car carToAdd = new Car(idOfCar, wishedSpeed, accelerator, destination);
             this.streetDataList.get(idOfStreet).addCars(carToAdd);
-            this.idListOfCars.add(idOfCar);
+            this.indexOfCar.add(idOfCar);
         }
     }
 
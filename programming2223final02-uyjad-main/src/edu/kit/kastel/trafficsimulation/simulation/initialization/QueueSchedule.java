@@ -0,0 +1,152 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class describes when the streets of a network that are simulated as queues have to be looked at.
+ * A queue only has to be updated once its first car may leave, so instead of visiting every queue every tick,
+ * the tick its first car may leave from is kept in a heap. At the start of a tick, the queues that are due are
+ * moved into a set of ready streets, which is visited in the order of the ids of the streets, and a street stays
+ * there as long as its first car waits for room on the next street. A queue whose first car waits at a red light
+ * is put aside until its light turns green, together with the tick it started waiting at.
+ * An entry may be outdated, for instance if the car left the network in between, so every ready street is checked
+ * again before it is updated. The schedule only has to know at least every tick a queue may become ready at.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class QueueSchedule {
+    // A key holds the tick above the id of the street, so the heap is an array of longs ordered by tick.
+    private static final long MASK_OF_STREET = (1L << Integer.SIZE) - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private long[] heap;
+    private int size;
+    private final BitSet readyStreets;
+    private final BitSet streetsAtRed;
+    // Tick the first car of each queue at red started waiting at, by id of street.
+    private final long[] ticksOfRed;
+
+    /**
+     * Constructor of an empty schedule.
+     *
+     * @param numberOfStreets number of streets of the network
+     */
+    QueueSchedule(int numberOfStreets) {
+        this.heap = new long[INITIAL_CAPACITY];
+        this.readyStreets = new BitSet(numberOfStreets);
+        this.streetsAtRed = new BitSet(numberOfStreets);
+        this.ticksOfRed = new long[numberOfStreets];
+    }
+
+    /**
+     * Constructor of a schedule for a fork of a network.
+     *
+     * @param scheduleToCopy schedule of the forked network
+     */
+    QueueSchedule(QueueSchedule scheduleToCopy) {
+        this.heap = Arrays.copyOf(scheduleToCopy.heap, Math.max(scheduleToCopy.size, INITIAL_CAPACITY));
+        this.size = scheduleToCopy.size;
+        this.readyStreets = (BitSet) scheduleToCopy.readyStreets.clone();
+        this.streetsAtRed = (BitSet) scheduleToCopy.streetsAtRed.clone();
+        this.ticksOfRed = scheduleToCopy.ticksOfRed.clone();
+    }
+
+    /**
+     * Adds a tick from which on the first car of a queue may leave.
+     *
+     * @param tick tick from which on the first car may leave
+     * @param idOfStreet id of the street of the queue
+     */
+    void schedule(long tick, int idOfStreet) {
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, 2 * this.heap.length);
+        }
+        long key = (tick << Integer.SIZE) | idOfStreet;
+        int child = this.size;
+        while (child > 0 && this.heap[(child - 1) / 2] > key) {
+            this.heap[child] = this.heap[(child - 1) / 2];
+            child = (child - 1) / 2;
+        }
+        this.heap[child] = key;
+        this.size++;
+    }
+
+    /**
+     * Moves every queue that is due at the given tick into the set of ready streets.
+     *
+     * @param tick current tick
+     */
+    void takeDueQueues(long tick) {
+        while (this.size > 0 && this.heap[0] >>> Integer.SIZE <= tick) {
+            this.readyStreets.set((int) (this.heap[0] & MASK_OF_STREET));
+            removeFirst();
+        }
+    }
+
+    private void removeFirst() {
+        long last = this.heap[this.size - 1];
+        this.size--;
+        int parent = 0;
+        while (2 * parent + 1 < this.size) {
+            int child = 2 * parent + 1;
+            if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (this.heap[child] >= last) {
+                break;
+            }
+            this.heap[parent] = this.heap[child];
+            parent = child;
+        }
+        this.heap[parent] = last;
+    }
+
+    /**
+     * Gets the next ready street from the given id on.
+     *
+     * @param idOfStreet id of street to start from
+     * @return the id of the next ready street, or -1 if there is none
+     */
+    int getNextReadyStreet(int idOfStreet) {
+        return this.readyStreets.nextSetBit(idOfStreet);
+    }
+
+    /**
+     * Removes a street from the set of ready streets, because its first car does not have to leave anymore.
+     *
+     * @param idOfStreet id of street
+     */
+    void removeReadyStreet(int idOfStreet) {
+        this.readyStreets.clear(idOfStreet);
+    }
+
+    /**
+     * Puts a ready queue aside, because its first car waits at a red light.
+     *
+     * @param idOfStreet id of street
+     * @param tick tick the first car started waiting at
+     */
+    void putAsideAtRed(int idOfStreet, long tick) {
+        this.readyStreets.clear(idOfStreet);
+        this.streetsAtRed.set(idOfStreet);
+        this.ticksOfRed[idOfStreet] = tick;
+    }
+
+    /**
+     * Makes a queue that waits at red ready again, because its light turned green.
+     *
+     * @param idOfStreet id of street
+     * @param tick current tick
+     * @return the number of ticks the first car waited at red, or 0 if the queue did not wait
+     */
+    long takeQueueAtGreen(int idOfStreet, long tick) {
+        if (!this.streetsAtRed.get(idOfStreet)) {
+            return 0;
+        }
+        this.streetsAtRed.clear(idOfStreet);
+        this.readyStreets.set(idOfStreet);
+        return tick - this.ticksOfRed[idOfStreet];
+    }
+
+}
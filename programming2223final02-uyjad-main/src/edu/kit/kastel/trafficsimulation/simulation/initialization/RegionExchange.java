@@ -0,0 +1,201 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.simulation.module.Edge;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class describes what the workers of the regions of a network tell each other while the cars cross in rounds.
+ * A car that crosses onto a street of another region takes three messages: the post of the car to the region of
+ * the street, the answer of that region, and the car itself if it was accepted. A worker collects the records for
+ * each neighbouring region during a step and sends them as one message at its end, the neighbour reads them at the
+ * start of the next step. Streets and cars are named by their ids, never by where they are kept in memory.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class RegionExchange {
+    private static final byte POST = 0;
+    private static final byte ANSWER = 1;
+    private static final byte CAR = 2;
+    // Largest record: the kind, four ints and two bytes of a car.
+    private static final int MAXIMUM_SIZE_OF_RECORD = 1 + 4 * Integer.BYTES + 2;
+    private static final int INITIAL_CAPACITY = 64 * MAXIMUM_SIZE_OF_RECORD;
+    private final Topology topology;
+    private final RegionPartition partition;
+    private final RegionTransport transport;
+    // Records each region collected for each other region in this step, created at the first record.
+    private final ByteBuffer[][] messages;
+    // Cars received from other regions by index of the street they come from, a position of REJECTED if none.
+    private final int[] positionsOfCars;
+    private final int[] idsOfCars;
+    private final int[] speedsOfCars;
+    private final int[] wishedDirectionsOfCars;
+
+    /**
+     * Constructor of the exchange between the regions of a partition.
+     *
+     * @param topology topology of the network
+     * @param partition partition of the network into regions
+     * @param transport transport that carries the messages
+     */
+    RegionExchange(Topology topology, RegionPartition partition, RegionTransport transport) {
+        this.topology = topology;
+        this.partition = partition;
+        this.transport = transport;
+        int numberOfRegions = partition.getNumberOfRegions();
+        this.messages = new ByteBuffer[numberOfRegions][numberOfRegions];
+        int numberOfStreets = topology.getNumberOfStreets();
+        this.positionsOfCars = new int[numberOfStreets];
+        Arrays.fill(this.positionsOfCars, TransferMailboxes.REJECTED);
+        this.idsOfCars = new int[numberOfStreets];
+        this.speedsOfCars = new int[numberOfStreets];
+        this.wishedDirectionsOfCars = new int[numberOfStreets];
+    }
+
+    /**
+     * Checks whether two streets belong to different regions, so a car crossing between them is handed over.
+     *
+     * @param indexOfStreet index of street
+     * @param indexOfOtherStreet index of the other street
+     * @return true if the streets belong to different regions, otherwise false
+     */
+    boolean isAcrossRegions(int indexOfStreet, int indexOfOtherStreet) {
+        return this.partition.getRegionOfStreet(indexOfStreet) != this.partition.getRegionOfStreet(indexOfOtherStreet);
+    }
+
+    /**
+     * Posts the first car of a street into the mailbox of its next street in another region.
+     *
+     * @param indexOfSource index of the street the car comes from
+     * @param indexOfTarget index of the street the car wants to cross to
+     * @param wishedDistance distance the car wishes to drive on the next street
+     */
+    void sendPost(int indexOfSource, int indexOfTarget, int wishedDistance) {
+        ByteBuffer message = openRecord(indexOfSource, indexOfTarget);
+        message.put(POST);
+        message.putInt(this.topology.getIdOfStreet(indexOfTarget));
+        message.putInt(this.topology.getIdOfStreet(indexOfSource));
+        message.putInt(wishedDistance);
+    }
+
+    /**
+     * Answers a car posted by a street of another region.
+     *
+     * @param indexOfTarget index of the street of the mailbox
+     * @param indexOfSource index of the street the car comes from
+     * @param movement position of the car on its next street, or {@link TransferMailboxes#REJECTED}
+     */
+    void sendAnswer(int indexOfTarget, int indexOfSource, int movement) {
+        ByteBuffer message = openRecord(indexOfTarget, indexOfSource);
+        message.put(ANSWER);
+        message.putInt(this.topology.getIdOfStreet(indexOfSource));
+        message.putInt(movement);
+    }
+
+    /**
+     * Hands an accepted car over to the region of its next street. The car must already be prepared for crossing.
+     *
+     * @param indexOfSource index of the street the car comes from
+     * @param indexOfTarget index of the street the car crosses to
+     * @param movement position of the car on its next street
+     * @param edge edge the car comes from, whose first car it is
+     */
+    void sendCar(int indexOfSource, int indexOfTarget, int movement, Edge edge) {
+        ByteBuffer message = openRecord(indexOfSource, indexOfTarget);
+        message.put(CAR);
+        message.putInt(this.topology.getIdOfStreet(indexOfSource));
+        message.putInt(movement);
+        message.putInt(edge.getIdOfCar(0));
+        message.put((byte) edge.getSpeedOfCar(0));
+        message.put((byte) edge.getWishedDirectionOfCar(0));
+    }
+
+    private ByteBuffer openRecord(int indexOfStreetOfSender, int indexOfStreetOfReceiver) {
+        int fromRegion = this.partition.getRegionOfStreet(indexOfStreetOfSender);
+        int toRegion = this.partition.getRegionOfStreet(indexOfStreetOfReceiver);
+        ByteBuffer message = this.messages[fromRegion][toRegion];
+        if (message == null) {
+            message = ByteBuffer.allocate(INITIAL_CAPACITY);
+            this.messages[fromRegion][toRegion] = message;
+        } else if (message.remaining() < MAXIMUM_SIZE_OF_RECORD) {
+            message.flip();
+            message = ByteBuffer.allocate(2 * message.capacity()).put(message);
+            this.messages[fromRegion][toRegion] = message;
+        }
+        return message;
+    }
+
+    /**
+     * Sends the records a region collected in this step to its neighbours. Must only be called by its worker.
+     *
+     * @param region region that sends
+     */
+    void send(int region) {
+        for (int neighbour : this.partition.getNeighbours(region)) {
+            ByteBuffer message = this.messages[region][neighbour];
+            if (message != null && message.position() > 0) {
+                message.flip();
+                this.transport.send(region, neighbour, message);
+                message.clear();
+            }
+        }
+    }
+
+    /**
+     * Ends a step once all workers finished it, so the neighbours can read what was sent in it.
+     */
+    void finishStep() {
+        this.transport.finishStep();
+    }
+
+    /**
+     * Reads the messages the neighbours of a region sent in the previous step: posts go into the mailboxes of the
+     * region, answers are given to its streets, and cars are kept until their next street takes them.
+     * Must only be called by the worker of the region.
+     *
+     * @param region region that receives
+     * @param mailboxes mailboxes of the network
+     */
+    void receive(int region, TransferMailboxes mailboxes) {
+        for (int neighbour : this.partition.getNeighbours(region)) {
+            ByteBuffer message = this.transport.receive(region, neighbour);
+            while (message.hasRemaining()) {
+                byte kind = message.get();
+                if (kind == POST) {
+                    int indexOfTarget = this.topology.getIndexOfStreet(message.getInt());
+                    mailboxes.post(indexOfTarget, message.getInt(), message.getInt());
+                } else if (kind == ANSWER) {
+                    mailboxes.answer(this.topology.getIndexOfStreet(message.getInt()), message.getInt());
+                } else {
+                    int indexOfSource = this.topology.getIndexOfStreet(message.getInt());
+                    this.positionsOfCars[indexOfSource] = message.getInt();
+                    this.idsOfCars[indexOfSource] = message.getInt();
+                    this.speedsOfCars[indexOfSource] = Byte.toUnsignedInt(message.get());
+                    this.wishedDirectionsOfCars[indexOfSource] = Byte.toUnsignedInt(message.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the car received from a street of another region behind the cars of its next street.
+     *
+     * @param indexOfSource index of the street the car comes from
+     * @param nextEdge edge the car crosses to
+     * @param carRoster roster of the cars of the network
+     * @return true if a car was received from the street, false if it was rejected
+     */
+    boolean placeReceivedCar(int indexOfSource, Edge nextEdge, CarRoster carRoster) {
+        int position = this.positionsOfCars[indexOfSource];
+        if (position == TransferMailboxes.REJECTED) {
+            return false;
+        }
+        nextEdge.takeCrossedCar(carRoster.getCarPool(), carRoster.getIndexOfCar(this.idsOfCars[indexOfSource]),
+                position, this.speedsOfCars[indexOfSource], this.wishedDirectionsOfCars[indexOfSource]);
+        this.positionsOfCars[indexOfSource] = TransferMailboxes.REJECTED;
+        return true;
+    }
+
+}
@@ -0,0 +1,358 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * This class describes one level of the undirected graph a topology is partitioned on.
+ * A vertex stands for one or more nodes of the topology and weighs as much as the streets that end at them, because
+ * a region owns the streets that end at its nodes. An edge weighs as much as the streets between its two vertices,
+ * so the weight of the edges between two regions is the number of streets cars cross the border on.
+ * The neighbours of each vertex are laid out one row after another like the successor tables of the topology.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class RegionGraph {
+    private static final int NO_VERTEX = -1;
+    // Start of the neighbours of each vertex, followed by the end of the last row.
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] weightsOfEdges;
+    private final int[] weightsOfVertices;
+    private final int totalWeight;
+
+    /**
+     * Constructor of the graph of the nodes of a topology.
+     *
+     * @param topology topology to be partitioned
+     */
+    RegionGraph(Topology topology) {
+        int numberOfNodes = topology.getNumberOfNodes();
+        this.weightsOfVertices = new int[numberOfNodes];
+        // A key holds one end of a street above the other, so sorting the keys groups the streets by vertex.
+        long[] keys = new long[2 * topology.getNumberOfStreets()];
+        int numberOfKeys = 0;
+        for (int i = 0; i < topology.getNumberOfStreets(); i++) {
+            int startNode = topology.getStartNodeOfStreet(i);
+            int endNode = topology.getEndNodeOfStreet(i);
+            this.weightsOfVertices[endNode]++;
+            if (startNode != endNode) {
+                keys[numberOfKeys++] = ((long) startNode << Integer.SIZE) | endNode;
+                keys[numberOfKeys++] = ((long) endNode << Integer.SIZE) | startNode;
+            }
+        }
+        Arrays.sort(keys, 0, numberOfKeys);
+        this.offsets = new int[numberOfNodes + 1];
+        int[] mergedNeighbours = new int[numberOfKeys];
+        int[] mergedWeights = new int[numberOfKeys];
+        int numberOfEdges = 0;
+        for (int i = 0; i < numberOfKeys; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                mergedWeights[numberOfEdges - 1]++;
+                continue;
+            }
+            this.offsets[(int) (keys[i] >>> Integer.SIZE) + 1]++;
+            mergedNeighbours[numberOfEdges] = (int) keys[i];
+            mergedWeights[numberOfEdges++] = 1;
+        }
+        for (int i = 0; i < numberOfNodes; i++) {
+            this.offsets[i + 1] += this.offsets[i];
+        }
+        this.neighbours = Arrays.copyOf(mergedNeighbours, numberOfEdges);
+        this.weightsOfEdges = Arrays.copyOf(mergedWeights, numberOfEdges);
+        this.totalWeight = topology.getNumberOfStreets();
+    }
+
+    private RegionGraph(int[] offsets, int[] neighbours, int[] weightsOfEdges, int[] weightsOfVertices,
+                        int totalWeight) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weightsOfEdges = weightsOfEdges;
+        this.weightsOfVertices = weightsOfVertices;
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * Gets the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    int getNumberOfVertices() {
+        return this.weightsOfVertices.length;
+    }
+
+    /**
+     * Gets the sum of the weights of all vertices, which is the number of streets of the topology.
+     *
+     * @return the total weight
+     */
+    int getTotalWeight() {
+        return this.totalWeight;
+    }
+
+    /**
+     * Creates a coarser graph by merging each vertex with the unmatched neighbour it shares the heaviest edge with.
+     * Merging along heavy edges hides them inside the coarse vertices, so they cannot be cut anymore.
+     * The vertices are visited in the order of their indices, so the result only depends on the topology.
+     *
+     * @param maximumWeight largest weight of a merged vertex
+     * @param coarseVertices array of the length of the number of vertices, filled with the coarse vertex of each
+     * @return the coarser graph
+     */
+    RegionGraph coarsen(int maximumWeight, int[] coarseVertices) {
+        int numberOfVertices = getNumberOfVertices();
+        int[] partners = new int[numberOfVertices];
+        Arrays.fill(partners, NO_VERTEX);
+        Arrays.fill(coarseVertices, NO_VERTEX);
+        int numberOfCoarseVertices = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            if (coarseVertices[vertex] != NO_VERTEX) {
+                continue;
+            }
+            int partner = vertex;
+            int heaviestWeight = 0;
+            for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                int neighbour = this.neighbours[i];
+                if (coarseVertices[neighbour] == NO_VERTEX && this.weightsOfEdges[i] > heaviestWeight
+                        && this.weightsOfVertices[vertex] + this.weightsOfVertices[neighbour] <= maximumWeight) {
+                    partner = neighbour;
+                    heaviestWeight = this.weightsOfEdges[i];
+                }
+            }
+            partners[vertex] = partner;
+            partners[partner] = vertex;
+            coarseVertices[vertex] = numberOfCoarseVertices;
+            coarseVertices[partner] = numberOfCoarseVertices;
+            numberOfCoarseVertices++;
+        }
+
+        int[] coarseOffsets = new int[numberOfCoarseVertices + 1];
+        int[] coarseNeighbours = new int[this.neighbours.length];
+        int[] coarseWeightsOfEdges = new int[this.neighbours.length];
+        int[] coarseWeightsOfVertices = new int[numberOfCoarseVertices];
+        // Slot of each coarse neighbour in the row that is filled, so parallel edges are merged.
+        int[] slots = new int[numberOfCoarseVertices];
+        Arrays.fill(slots, NO_VERTEX);
+        int numberOfEdges = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            int coarseVertex = coarseVertices[vertex];
+            if (partners[vertex] < vertex) {
+                continue;
+            }
+            int startOfRow = numberOfEdges;
+            int numberOfMembers = partners[vertex] == vertex ? 1 : 2;
+            for (int j = 0; j < numberOfMembers; j++) {
+                int member = j == 0 ? vertex : partners[vertex];
+                coarseWeightsOfVertices[coarseVertex] += this.weightsOfVertices[member];
+                for (int i = this.offsets[member]; i < this.offsets[member + 1]; i++) {
+                    int coarseNeighbour = coarseVertices[this.neighbours[i]];
+                    if (coarseNeighbour == coarseVertex) {
+                        continue;
+                    }
+                    if (slots[coarseNeighbour] == NO_VERTEX) {
+                        slots[coarseNeighbour] = numberOfEdges;
+                        coarseNeighbours[numberOfEdges++] = coarseNeighbour;
+                    }
+                    coarseWeightsOfEdges[slots[coarseNeighbour]] += this.weightsOfEdges[i];
+                }
+            }
+            for (int i = startOfRow; i < numberOfEdges; i++) {
+                slots[coarseNeighbours[i]] = NO_VERTEX;
+            }
+            coarseOffsets[coarseVertex + 1] = numberOfEdges;
+        }
+        return new RegionGraph(coarseOffsets, Arrays.copyOf(coarseNeighbours, numberOfEdges),
+                Arrays.copyOf(coarseWeightsOfEdges, numberOfEdges), coarseWeightsOfVertices, this.totalWeight);
+    }
+
+    /**
+     * Splits the vertices into regions of about the same weight by recursive bisection. A bisection grows one half
+     * from a vertex far away from the first vertex of the part, always adding the vertex at its border with the
+     * heaviest edges into the half and the lightest edges to the rest of the part, until the half weighs its share.
+     * If the part is not connected, the half goes on growing from the first vertex of the part that is left.
+     *
+     * @param numberOfRegions number of regions
+     * @return the region of each vertex
+     */
+    int[] partitionInitially(int numberOfRegions) {
+        int numberOfVertices = getNumberOfVertices();
+        int[] vertices = new int[numberOfVertices];
+        for (int i = 0; i < numberOfVertices; i++) {
+            vertices[i] = i;
+        }
+        int[] regions = new int[numberOfVertices];
+        bisect(vertices, 0, numberOfVertices, 0, numberOfRegions, regions, new int[numberOfVertices]);
+        return regions;
+    }
+
+    /**
+     * Splits a part of the vertices, which all belong to the first of the given regions, into the given regions.
+     *
+     * @param vertices vertices of all parts, part after part, reordered within the part
+     * @param start start of the part
+     * @param end end of the part
+     * @param firstRegion first region of the part
+     * @param numberOfRegions number of regions of the part
+     * @param regions region of each vertex, changed in place
+     * @param gains array of the length of the number of vertices to be used while growing
+     */
+    private void bisect(int[] vertices, int start, int end, int firstRegion, int numberOfRegions, int[] regions,
+                        int[] gains) {
+        if (numberOfRegions == 1 || start == end) {
+            return;
+        }
+        int numberOfFirstRegions = numberOfRegions / 2;
+        int grownRegion = firstRegion + numberOfFirstRegions;
+        long weightOfPart = 0;
+        for (int i = start; i < end; i++) {
+            int vertex = vertices[i];
+            weightOfPart += this.weightsOfVertices[vertex];
+            // A vertex gains the edges it shares with the grown half and loses those to the rest of the part.
+            gains[vertex] = 0;
+            for (int j = this.offsets[vertex]; j < this.offsets[vertex + 1]; j++) {
+                if (regions[this.neighbours[j]] == firstRegion) {
+                    gains[vertex] -= this.weightsOfEdges[j];
+                }
+            }
+        }
+        long targetWeight = weightOfPart * (numberOfRegions - numberOfFirstRegions) / numberOfRegions;
+        long grownWeight = 0;
+        // A key holds the negated gain above the vertex, so the vertex with the highest gain comes first.
+        PriorityQueue<Long> border = new PriorityQueue<>();
+        int seed = findFarthestVertex(vertices[start], firstRegion, regions);
+        border.add(((long) -gains[seed] << Integer.SIZE) | seed);
+        int nextRoot = start;
+        while (grownWeight < targetWeight) {
+            if (border.isEmpty()) {
+                while (nextRoot < end && regions[vertices[nextRoot]] != firstRegion) {
+                    nextRoot++;
+                }
+                if (nextRoot == end) {
+                    break;
+                }
+                border.add(((long) -gains[vertices[nextRoot]] << Integer.SIZE) | vertices[nextRoot]);
+            }
+            long key = border.poll();
+            int vertex = (int) key;
+            // A vertex is added again with every change of its gain, so older keys are skipped.
+            if (regions[vertex] != firstRegion || -(int) (key >> Integer.SIZE) != gains[vertex]) {
+                continue;
+            }
+            int weight = this.weightsOfVertices[vertex];
+            if (2 * (grownWeight + weight) > 2 * targetWeight + weight) {
+                break;
+            }
+            regions[vertex] = grownRegion;
+            grownWeight += weight;
+            for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                int neighbour = this.neighbours[i];
+                if (regions[neighbour] == firstRegion) {
+                    gains[neighbour] += 2 * this.weightsOfEdges[i];
+                    border.add(((long) -gains[neighbour] << Integer.SIZE) | neighbour);
+                }
+            }
+        }
+
+        int[] part = Arrays.copyOfRange(vertices, start, end);
+        int middle = start;
+        for (int vertex : part) {
+            if (regions[vertex] == firstRegion) {
+                vertices[middle++] = vertex;
+            }
+        }
+        int next = middle;
+        for (int vertex : part) {
+            if (regions[vertex] == grownRegion) {
+                vertices[next++] = vertex;
+            }
+        }
+        bisect(vertices, start, middle, firstRegion, numberOfFirstRegions, regions, gains);
+        bisect(vertices, middle, end, grownRegion, numberOfRegions - numberOfFirstRegions, regions, gains);
+    }
+
+    /**
+     * Finds the vertex of a part that a breadth-first search from the given vertex reaches last.
+     *
+     * @param root vertex to start from
+     * @param region region of the vertices of the part
+     * @param regions region of each vertex
+     * @return the farthest vertex
+     */
+    private int findFarthestVertex(int root, int region, int[] regions) {
+        int[] order = new int[getNumberOfVertices()];
+        boolean[] isVisited = new boolean[getNumberOfVertices()];
+        isVisited[root] = true;
+        order[0] = root;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int vertex = order[head];
+            for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                int neighbour = this.neighbours[i];
+                if (!isVisited[neighbour] && regions[neighbour] == region) {
+                    isVisited[neighbour] = true;
+                    order[tail++] = neighbour;
+                }
+            }
+        }
+        return order[tail - 1];
+    }
+
+    /**
+     * Improves the regions by moving vertices at the border into the neighbouring region they share the heaviest
+     * edges with, as long as this lowers the weight of the cut edges, or keeps it and evens out the weights of both
+     * regions. A move never lets a region grow beyond the maximum weight. The passes end once no vertex moves.
+     *
+     * @param regions region of each vertex, changed in place
+     * @param numberOfRegions number of regions
+     * @param maximumWeight largest weight of a region
+     * @param maximumNumberOfPasses largest number of passes over all vertices
+     */
+    void refine(int[] regions, int numberOfRegions, int maximumWeight, int maximumNumberOfPasses) {
+        int numberOfVertices = getNumberOfVertices();
+        long[] weightsOfRegions = new long[numberOfRegions];
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            weightsOfRegions[regions[vertex]] += this.weightsOfVertices[vertex];
+        }
+        int[] connections = new int[numberOfRegions];
+        for (int pass = 0; pass < maximumNumberOfPasses; pass++) {
+            boolean hasMoved = false;
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                int region = regions[vertex];
+                for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                    connections[regions[this.neighbours[i]]] += this.weightsOfEdges[i];
+                }
+                int weight = this.weightsOfVertices[vertex];
+                int bestRegion = region;
+                int bestGain = 0;
+                for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                    int otherRegion = regions[this.neighbours[i]];
+                    if (otherRegion == region || otherRegion == bestRegion
+                            || weightsOfRegions[otherRegion] + weight > maximumWeight) {
+                        continue;
+                    }
+                    int gain = connections[otherRegion] - connections[region];
+                    boolean isEvener = weightsOfRegions[otherRegion] + weight < weightsOfRegions[region];
+                    if (gain > bestGain || (gain == bestGain && isEvener && (bestRegion == region
+                            || weightsOfRegions[otherRegion] < weightsOfRegions[bestRegion]))) {
+                        bestRegion = otherRegion;
+                        bestGain = gain;
+                    }
+                }
+                for (int i = this.offsets[vertex]; i < this.offsets[vertex + 1]; i++) {
+                    connections[regions[this.neighbours[i]]] = 0;
+                }
+                if (bestRegion != region) {
+                    regions[vertex] = bestRegion;
+                    weightsOfRegions[region] -= weight;
+                    weightsOfRegions[bestRegion] += weight;
+                    hasMoved = true;
+                }
+            }
+            if (!hasMoved) {
+                break;
+            }
+        }
+    }
+
+}
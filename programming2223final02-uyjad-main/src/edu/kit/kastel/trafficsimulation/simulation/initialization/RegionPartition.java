@@ -0,0 +1,197 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class describes how the streets of a topology are split into regions, each of which is simulated by its own
+ * worker. A region owns a set of nodes together with the streets that end at them, so a crossing, its lights and
+ * the streets waiting at it always belong to the same region. Only a car that crosses onto a street ending in
+ * another region has to be handed over, so the partition keeps the number of such boundary streets low while
+ * giving every region about the same number of streets.
+ * The partition is computed once at load time by a multilevel scheme: the graph of the nodes is coarsened by
+ * merging heavy edges until it is small, split by recursive bisection, each half grown greedily from a far node,
+ * and then projected back level by level, moving the nodes at the borders wherever that cuts fewer streets.
+ * It only depends on the topology, so it never changes the result of a simulation and is shared by all forks.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class RegionPartition {
+    // The coarsening stops once there are at most this many vertices per region.
+    private static final int VERTICES_PER_REGION_WHEN_COARSEST = 20;
+    // The coarsening also stops once a level merges less than this share of the vertices.
+    private static final double MINIMUM_SHRINKING = 0.95;
+    // A region may weigh this share more than the average region.
+    private static final double ALLOWED_IMBALANCE = 0.03;
+    private static final int MAXIMUM_NUMBER_OF_PASSES = 8;
+    private final int numberOfRegions;
+    // Region of each street, by index of street.
+    private final int[] regionOfStreet;
+    // Start of the streets of each region, followed by the end of the last region.
+    private final int[] offsetsOfRegions;
+    // Indices of the streets of each region in the order of their ids, region after region.
+    private final int[] streetsOfRegions;
+    private final int[] numbersOfBoundaryStreets;
+    // Regions each region exchanges cars with, in ascending order.
+    private final int[][] neighboursOfRegions;
+    private final long durationOfComputation;
+
+    /**
+     * Constructor of a partition of a topology into the given number of regions.
+     * With one region, every street belongs to it and nothing is computed.
+     *
+     * @param topology topology to be partitioned
+     * @param numberOfRegions number of regions, at least 1
+     */
+    RegionPartition(Topology topology, int numberOfRegions) {
+        long start = System.nanoTime();
+        this.numberOfRegions = numberOfRegions;
+        int[] regionOfNode = numberOfRegions == 1
+                ? new int[topology.getNumberOfNodes()] : partitionNodes(topology, numberOfRegions);
+        int numberOfStreets = topology.getNumberOfStreets();
+        this.regionOfStreet = new int[numberOfStreets];
+        this.offsetsOfRegions = new int[numberOfRegions + 1];
+        for (int i = 0; i < numberOfStreets; i++) {
+            this.regionOfStreet[i] = regionOfNode[topology.getEndNodeOfStreet(i)];
+            this.offsetsOfRegions[this.regionOfStreet[i] + 1]++;
+        }
+        for (int i = 0; i < numberOfRegions; i++) {
+            this.offsetsOfRegions[i + 1] += this.offsetsOfRegions[i];
+        }
+        int[] next = Arrays.copyOf(this.offsetsOfRegions, numberOfRegions);
+        this.streetsOfRegions = new int[numberOfStreets];
+        for (int idOfStreet = 0; idOfStreet < numberOfStreets; idOfStreet++) {
+            int indexOfStreet = topology.getIndexOfStreet(idOfStreet);
+            this.streetsOfRegions[next[this.regionOfStreet[indexOfStreet]]++] = indexOfStreet;
+        }
+
+        // A street is at the boundary if its start node belongs to another region, both regions are neighbours.
+        this.numbersOfBoundaryStreets = new int[numberOfRegions];
+        boolean[][] areNeighbours = new boolean[numberOfRegions][numberOfRegions];
+        for (int i = 0; i < numberOfStreets; i++) {
+            int otherRegion = regionOfNode[topology.getStartNodeOfStreet(i)];
+            if (otherRegion != this.regionOfStreet[i]) {
+                this.numbersOfBoundaryStreets[this.regionOfStreet[i]]++;
+                areNeighbours[otherRegion][this.regionOfStreet[i]] = true;
+                areNeighbours[this.regionOfStreet[i]][otherRegion] = true;
+            }
+        }
+        this.neighboursOfRegions = new int[numberOfRegions][];
+        for (int region = 0; region < numberOfRegions; region++) {
+            int numberOfNeighbours = 0;
+            int[] neighbours = new int[numberOfRegions];
+            for (int otherRegion = 0; otherRegion < numberOfRegions; otherRegion++) {
+                if (areNeighbours[region][otherRegion]) {
+                    neighbours[numberOfNeighbours++] = otherRegion;
+                }
+            }
+            this.neighboursOfRegions[region] = Arrays.copyOf(neighbours, numberOfNeighbours);
+        }
+        this.durationOfComputation = System.nanoTime() - start;
+    }
+
+    private static int[] partitionNodes(Topology topology, int numberOfRegions) {
+        List<RegionGraph> graphs = new ArrayList<>();
+        List<int[]> coarseVerticesOfLevels = new ArrayList<>();
+        RegionGraph graph = new RegionGraph(topology);
+        int maximumWeightOfVertex = Math.max(graph.getTotalWeight()
+                / (VERTICES_PER_REGION_WHEN_COARSEST * numberOfRegions / 2), 1);
+        while (graph.getNumberOfVertices() > VERTICES_PER_REGION_WHEN_COARSEST * numberOfRegions) {
+            int[] coarseVertices = new int[graph.getNumberOfVertices()];
+            RegionGraph coarseGraph = graph.coarsen(maximumWeightOfVertex, coarseVertices);
+            if (coarseGraph.getNumberOfVertices() > MINIMUM_SHRINKING * graph.getNumberOfVertices()) {
+                break;
+            }
+            graphs.add(graph);
+            coarseVerticesOfLevels.add(coarseVertices);
+            graph = coarseGraph;
+        }
+
+        int maximumWeightOfRegion = (int) Math.ceil((1 + ALLOWED_IMBALANCE) * graph.getTotalWeight()
+                / numberOfRegions);
+        int[] regions = graph.partitionInitially(numberOfRegions);
+        graph.refine(regions, numberOfRegions, maximumWeightOfRegion, MAXIMUM_NUMBER_OF_PASSES);
+        for (int level = graphs.size() - 1; level >= 0; level--) {
+            int[] coarseVertices = coarseVerticesOfLevels.get(level);
+            int[] fineRegions = new int[coarseVertices.length];
+            for (int vertex = 0; vertex < coarseVertices.length; vertex++) {
+                fineRegions[vertex] = regions[coarseVertices[vertex]];
+            }
+            regions = fineRegions;
+            graphs.get(level).refine(regions, numberOfRegions, maximumWeightOfRegion, MAXIMUM_NUMBER_OF_PASSES);
+        }
+        return regions;
+    }
+
+    /**
+     * Gets the number of regions.
+     *
+     * @return the number of regions
+     */
+    int getNumberOfRegions() {
+        return this.numberOfRegions;
+    }
+
+    /**
+     * Gets the region a street belongs to, which is the region of its end node.
+     *
+     * @param indexOfStreet index of street
+     * @return the region of the street
+     */
+    int getRegionOfStreet(int indexOfStreet) {
+        return this.regionOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the position of the first street of a region in {@link #getStreetsOfRegions()}.
+     * The streets of a region end at the start of the next region.
+     *
+     * @param region region, or the number of regions for the end of the last region
+     * @return the start of the streets of the region
+     */
+    int getStartOfRegion(int region) {
+        return this.offsetsOfRegions[region];
+    }
+
+    /**
+     * Gets the indices of the streets of all regions, region after region and in the order of their ids within
+     * each region. The array must not be changed.
+     *
+     * @return the streets of all regions
+     */
+    int[] getStreetsOfRegions() {
+        return this.streetsOfRegions;
+    }
+
+    /**
+     * Gets the number of streets of a region that start in another region.
+     *
+     * @param region region
+     * @return the number of boundary streets of the region
+     */
+    int getNumberOfBoundaryStreets(int region) {
+        return this.numbersOfBoundaryStreets[region];
+    }
+
+    /**
+     * Gets the regions a region exchanges cars with. The array must not be changed.
+     *
+     * @param region region
+     * @return the neighbouring regions in ascending order
+     */
+    int[] getNeighbours(int region) {
+        return this.neighboursOfRegions[region];
+    }
+
+    /**
+     * Gets the time it took to compute this partition.
+     *
+     * @return the duration of the computation in nanoseconds
+     */
+    long getDurationOfComputation() {
+        return this.durationOfComputation;
+    }
+
+}
@@ -0,0 +1,41 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface describes how the workers of the regions of a network hand messages to each other.
+ * A worker sends at most one message to each neighbouring region per step of a tick, and the neighbour receives it
+ * in the next step, once all workers finished the step. The messages only hold primitive values, so the workers
+ * could run in different processes with a transport over the network.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+interface RegionTransport {
+
+    /**
+     * Sends a message from one region to another. The bytes between position and limit are copied, so the buffer
+     * can be reused right away.
+     *
+     * @param fromRegion region that sends the message
+     * @param toRegion region that receives the message
+     * @param message message to be sent
+     */
+    void send(int fromRegion, int toRegion, ByteBuffer message);
+
+    /**
+     * Receives the message one region sent to another in the previous step. Reading the message consumes it.
+     *
+     * @param toRegion region that receives the message
+     * @param fromRegion region that sent the message
+     * @return the message, without remaining bytes if none was sent
+     */
+    ByteBuffer receive(int toRegion, int fromRegion);
+
+    /**
+     * Ends a step once all workers finished it, so the messages sent in it can be received in the next step.
+     * Must not be called while a worker sends or receives.
+     */
+    void finishStep();
+
+}
@@ -0,0 +1,265 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.simulation.module.Edge;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class describes the rerouting of the cars of one network around congested streets.
+ * After every tick the travel time of each street is estimated from the number of cars on it and smoothed into a
+ * weight, which moves an eighth of the way towards the estimate per tick, so a single red phase does not change
+ * the routes. Only if the weight of a street drifted from the weight the current tables were computed with by more
+ * than the threshold, new tables are computed from a copy of the weights in the background. They replace the
+ * current tables a fixed number of ticks later, in one step between two ticks, so the routes of a network do not
+ * depend on how fast the computation was and a past tick can be rebuilt exactly.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class Rerouting {
+    private static final String FORMAT_STATISTICS = "Rerouting at %d%% drift with a delay of %d ticks: "
+            + "%d streets drifted, %d tables computed in %d ms, %d waits%s";
+    private static final String FORMAT_NEXT_SWAP = ", next tables at tick %d";
+    private static final int SHIFT_OF_SMOOTHING = 3;
+    // A completely occupied street takes five times as long as a free one.
+    private static final int FACTOR_OF_CONGESTION = 4;
+    private static final int PERCENT = 100;
+    private static final int NANOSECONDS_PER_MILLISECOND = 1_000_000;
+    private static final long NO_SWAP = -1;
+    private final Topology topology;
+    private final int thresholdInPercent;
+    private final int delayInTicks;
+    private final int[] destinations;
+    private final int[] costsOfFreeFlow;
+    // Smoothed weight of each street, by index of street.
+    private final int[] weights;
+    private final boolean[] isDrifted;
+    private int[] weightsOfTables;
+    // Read by other threads, for instance by the routing command during a background simulation.
+    private volatile RoutingTable tables;
+    private int numberOfDriftedStreets;
+    // Tables computed in the background and the weights they are computed with, null if none are computed.
+    private CompletableFuture<RoutingTable> pendingTables;
+    private int[] pendingWeights;
+    private long tickOfSwap = NO_SWAP;
+    private long numberOfComputations;
+    private long durationOfComputations;
+    private long numberOfWaits;
+
+    /**
+     * Constructor of a rerouting that starts with the free-flow tables of the topology.
+     *
+     * @param topology topology of the network, whose cars have destinations
+     * @param thresholdInPercent drift of the weight of a street that leads to new tables, at least 1
+     * @param delayInTicks number of ticks from starting a computation until its tables are used, at least 1
+     */
+    Rerouting(Topology topology, int thresholdInPercent, int delayInTicks) {
+        this.topology = topology;
+        this.thresholdInPercent = thresholdInPercent;
+        this.delayInTicks = delayInTicks;
+        this.tables = topology.getRoutingTable();
+        this.destinations = this.tables.getDestinations();
+        this.costsOfFreeFlow = RoutingTable.createCostsOfFreeFlow(topology);
+        this.weights = this.costsOfFreeFlow.clone();
+        this.weightsOfTables = this.costsOfFreeFlow.clone();
+        this.isDrifted = new boolean[this.weights.length];
+    }
+
+    /**
+     * Constructor of a rerouting for a fork of a network. Tables and a running computation are shared.
+     *
+     * @param reroutingToCopy rerouting of the forked network
+     */
+    Rerouting(Rerouting reroutingToCopy) {
+        this.topology = reroutingToCopy.topology;
+        this.thresholdInPercent = reroutingToCopy.thresholdInPercent;
+        this.delayInTicks = reroutingToCopy.delayInTicks;
+        this.destinations = reroutingToCopy.destinations;
+        this.costsOfFreeFlow = reroutingToCopy.costsOfFreeFlow;
+        this.weights = reroutingToCopy.weights.clone();
+        this.isDrifted = reroutingToCopy.isDrifted.clone();
+        this.weightsOfTables = reroutingToCopy.weightsOfTables;
+        this.tables = reroutingToCopy.tables;
+        this.numberOfDriftedStreets = reroutingToCopy.numberOfDriftedStreets;
+        this.pendingTables = reroutingToCopy.pendingTables;
+        this.pendingWeights = reroutingToCopy.pendingWeights;
+        this.tickOfSwap = reroutingToCopy.tickOfSwap;
+    }
+
+    /**
+     * Constructor of a rerouting that restores the state written by {@link #write(DataOutputStream)}.
+     * The current tables are computed again from their weights, unless these are the free-flow weights.
+     *
+     * @param topology topology of the network, whose cars have destinations
+     * @param state state to be read
+     * @throws IOException if the state cannot be read
+     */
+    Rerouting(Topology topology, DataInputStream state) throws IOException {
+        this(topology, state.readInt(), state.readInt());
+        readWeights(state, this.weights);
+        this.weightsOfTables = readWeights(state, new int[this.weights.length]);
+        if (!Arrays.equals(this.weightsOfTables, this.costsOfFreeFlow)) {
+            this.tables = new RoutingTable(topology, this.destinations, this.weightsOfTables);
+        }
+        countDriftedStreets();
+        this.tickOfSwap = state.readLong();
+        if (this.tickOfSwap != NO_SWAP) {
+            this.pendingWeights = readWeights(state, new int[this.weights.length]);
+            this.pendingTables = computeInBackground(this.pendingWeights);
+        }
+    }
+
+    private static int[] readWeights(DataInputStream state, int[] weights) throws IOException {
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = state.readInt();
+        }
+        return weights;
+    }
+
+    private static void writeWeights(DataOutputStream state, int[] weights) throws IOException {
+        for (int weight : weights) {
+            state.writeInt(weight);
+        }
+    }
+
+    /**
+     * Writes the settings, the weights and the running computation, so a checkpoint continues exactly.
+     *
+     * @param state state to be written into
+     * @throws IOException if the state cannot be written
+     */
+    void write(DataOutputStream state) throws IOException {
+        state.writeInt(this.thresholdInPercent);
+        state.writeInt(this.delayInTicks);
+        writeWeights(state, this.weights);
+        writeWeights(state, this.weightsOfTables);
+        state.writeLong(this.tickOfSwap);
+        if (this.tickOfSwap != NO_SWAP) {
+            writeWeights(state, this.pendingWeights);
+        }
+    }
+
+    /**
+     * Gets the tables the cars currently route by.
+     *
+     * @return the current tables
+     */
+    RoutingTable getTables() {
+        return this.tables;
+    }
+
+    /**
+     * Gets the drift of the weight of a street that leads to new tables.
+     *
+     * @return the threshold in percent
+     */
+    int getThresholdInPercent() {
+        return this.thresholdInPercent;
+    }
+
+    /**
+     * Gets the number of ticks from starting a computation until its tables are used.
+     *
+     * @return the delay in ticks
+     */
+    int getDelayInTicks() {
+        return this.delayInTicks;
+    }
+
+    /**
+     * Updates the weights by the cars on the edges after a tick. Tables due at this tick are swapped in first,
+     * waiting for their computation if it is not finished yet, then a new computation is started if a weight
+     * drifted too far and none is running.
+     *
+     * @param edges edges of the network, by index of street
+     * @param tick number of ticks simulated so far
+     */
+    void update(List<Edge> edges, long tick) {
+        if (this.pendingTables != null && tick >= this.tickOfSwap) {
+            swapTables();
+        }
+        for (int i = 0; i < this.weights.length; i++) {
+            int difference = estimateTravelTime(i, edges.get(i).getNumberOfCars()) - this.weights[i];
+            if (difference != 0) {
+                // The shift rounds down, so a weight reaches a smaller estimate, but stays just below a larger one.
+                this.weights[i] += difference >> SHIFT_OF_SMOOTHING;
+                updateDrift(i);
+            }
+        }
+        if (this.pendingTables == null && this.numberOfDriftedStreets > 0) {
+            this.pendingWeights = this.weights.clone();
+            this.pendingTables = computeInBackground(this.pendingWeights);
+            this.tickOfSwap = tick + this.delayInTicks;
+        }
+    }
+
+    /**
+     * Estimates the time to drive a street from its free-flow time, growing with the square of its occupancy.
+     *
+     * @param indexOfStreet index of street
+     * @param numberOfCars number of cars on the street
+     * @return the estimated travel time, in the unit of the free-flow costs
+     */
+    private int estimateTravelTime(int indexOfStreet, int numberOfCars) {
+        long length = this.topology.getLengthOfStreet(indexOfStreet);
+        long occupiedLength = Math.min((long) numberOfCars * StreetNetwork.MINIMUM_DISTANCE_BETWEEN_CARS, length);
+        long costOfFreeFlow = this.costsOfFreeFlow[indexOfStreet];
+        return (int) (costOfFreeFlow + costOfFreeFlow * FACTOR_OF_CONGESTION * occupiedLength * occupiedLength
+                / (length * length));
+    }
+
+    private CompletableFuture<RoutingTable> computeInBackground(int[] weightsToRouteBy) {
+        return CompletableFuture.supplyAsync(() -> new RoutingTable(this.topology, this.destinations,
+                weightsToRouteBy));
+    }
+
+    private void swapTables() {
+        if (!this.pendingTables.isDone()) {
+            this.numberOfWaits++;
+        }
+        RoutingTable nextTables = this.pendingTables.join();
+        this.weightsOfTables = this.pendingWeights;
+        this.tables = nextTables;
+        this.pendingTables = null;
+        this.pendingWeights = null;
+        this.tickOfSwap = NO_SWAP;
+        this.numberOfComputations++;
+        this.durationOfComputations += nextTables.getDurationOfComputation();
+        countDriftedStreets();
+    }
+
+    private void countDriftedStreets() {
+        this.numberOfDriftedStreets = 0;
+        Arrays.fill(this.isDrifted, false);
+        for (int i = 0; i < this.weights.length; i++) {
+            updateDrift(i);
+        }
+    }
+
+    private void updateDrift(int indexOfStreet) {
+        long drift = Math.abs((long) this.weights[indexOfStreet] - this.weightsOfTables[indexOfStreet]);
+        boolean isDriftedNow = drift * PERCENT > (long) this.thresholdInPercent * this.weightsOfTables[indexOfStreet];
+        if (isDriftedNow != this.isDrifted[indexOfStreet]) {
+            this.isDrifted[indexOfStreet] = isDriftedNow;
+            this.numberOfDriftedStreets += isDriftedNow ? 1 : -1;
+        }
+    }
+
+    /**
+     * Gets the settings, the number of drifted streets, the computed tables and how often a tick waited for them.
+     *
+     * @return string of the statistics
+     */
+    String getStatistics() {
+        return String.format(FORMAT_STATISTICS, this.thresholdInPercent, this.delayInTicks,
+                this.numberOfDriftedStreets, this.numberOfComputations,
+                this.durationOfComputations / NANOSECONDS_PER_MILLISECOND, this.numberOfWaits,
+                this.tickOfSwap == NO_SWAP ? "" : String.format(FORMAT_NEXT_SWAP, this.tickOfSwap));
+    }
+
+}
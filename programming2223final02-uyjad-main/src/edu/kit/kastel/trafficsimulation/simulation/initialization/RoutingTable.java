@@ -0,0 +1,224 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * This class describes the next-hop tables of the cars that drive to a destination.
+ * Instead of all pairs of nodes, there is one shortest path tree per node that is the destination of a car:
+ * for every node it holds the direction to leave the node in, as a byte, so a car finds its next street by one
+ * lookup at every crossing. A network of 100,000 nodes needs 100 KB per destination.
+ * The trees are computed by searching backwards from each destination along the incoming streets, weighted by the
+ * time to drive a street at its speed limit. The destinations are spread over all processors, every worker
+ * reuses its own search arrays. A table never changes after it was computed, so it is shared by all networks
+ * and threads without synchronization.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class RoutingTable {
+    /**
+     * The next hop of a node from which the destination cannot be reached.
+     */
+    public static final int UNREACHABLE = -1;
+    // Times are measured in 1/256 of a tick, so short and slow streets keep their order.
+    private static final int SHIFT_OF_COST = 8;
+    // A search key holds the cost of a node above its index, so the heap is an array of longs.
+    private static final int BITS_OF_NODE = 24;
+    private static final long MASK_OF_NODE = (1L << BITS_OF_NODE) - 1;
+    private static final int NO_DESTINATION = -1;
+    private final int numberOfNodes;
+    // Slot of the tree of each node, or -1 if no car drives to the node.
+    private final int[] slotOfDestination;
+    private final int[] destinations;
+    private final byte[][] nextHops;
+    private final long durationOfComputation;
+
+    /**
+     * Constructor of the tables for the given destinations, weighted by the time to drive each street at its
+     * speed limit.
+     *
+     * @param topology topology the cars drive on, with fewer than 2^24 nodes
+     * @param destinations indices of the destination nodes, without duplicates
+     */
+    public RoutingTable(Topology topology, int[] destinations) {
+        this(topology, destinations, createCostsOfFreeFlow(topology));
+    }
+
+    /**
+     * Constructor of the tables for the given destinations, weighted by the given costs of the streets.
+     *
+     * @param topology topology the cars drive on, with fewer than 2^24 nodes
+     * @param destinations indices of the destination nodes, without duplicates
+     * @param costsOfStreets positive cost of each street, by index of street
+     */
+    public RoutingTable(Topology topology, int[] destinations, int[] costsOfStreets) {
+        long start = System.nanoTime();
+        this.numberOfNodes = topology.getNumberOfNodes();
+        this.destinations = destinations.clone();
+        this.slotOfDestination = new int[this.numberOfNodes];
+        Arrays.fill(this.slotOfDestination, NO_DESTINATION);
+        for (int i = 0; i < destinations.length; i++) {
+            this.slotOfDestination[destinations[i]] = i;
+        }
+        this.nextHops = new byte[destinations.length][];
+        int[] directionOfStreet = new int[topology.getNumberOfStreets()];
+        for (int i = 0; i < this.numberOfNodes; i++) {
+            for (int direction = 0; direction < topology.getNumberOfOutgoingStreets(i); direction++) {
+                directionOfStreet[topology.getOutgoingStreet(i, direction)] = direction;
+            }
+        }
+        // Every worker takes the next destination until none is left, so long and short searches balance out.
+        AtomicInteger nextSlot = new AtomicInteger();
+        int numberOfWorkers = Math.min(destinations.length, Runtime.getRuntime().availableProcessors());
+        IntStream.range(0, numberOfWorkers).parallel().forEach(worker -> {
+            long[] costs = new long[this.numberOfNodes];
+            // Every street is relaxed at most once, so the heap never holds more keys than streets.
+            long[] heap = new long[topology.getNumberOfStreets() + 1];
+            int slot = nextSlot.getAndIncrement();
+            while (slot < destinations.length) {
+                this.nextHops[slot] = createTree(topology, destinations[slot], costsOfStreets, directionOfStreet,
+                        costs, heap);
+                slot = nextSlot.getAndIncrement();
+            }
+        });
+        this.durationOfComputation = System.nanoTime() - start;
+    }
+
+    /**
+     * Creates the cost of every street as the time to drive it at its speed limit.
+     *
+     * @param topology topology of the streets
+     * @return the cost of each street, by index of street
+     */
+    public static int[] createCostsOfFreeFlow(Topology topology) {
+        int[] costs = new int[topology.getNumberOfStreets()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = Math.max((topology.getLengthOfStreet(i) << SHIFT_OF_COST)
+                    / topology.getMaximumSpeedOfStreet(i), 1);
+        }
+        return costs;
+    }
+
+    /**
+     * Searches the shortest paths to one destination backwards and records the first street of each path.
+     * Nodes of equal cost are settled in the order of their index and a path is only replaced by a strictly
+     * shorter one, so the tree does not depend on the worker that computes it.
+     *
+     * @param topology topology of the streets
+     * @param destination index of the destination node
+     * @param costsOfStreets cost of each street
+     * @param directionOfStreet direction of each street at its start node
+     * @param costs search array of the cost of each node, overwritten
+     * @param heap search array for the keys of the nodes to be settled, overwritten
+     * @return the direction to leave each node in, or {@link #UNREACHABLE}
+     */
+    private static byte[] createTree(Topology topology, int destination, int[] costsOfStreets,
+                                     int[] directionOfStreet, long[] costs, long[] heap) {
+        byte[] tree = new byte[costs.length];
+        Arrays.fill(tree, (byte) UNREACHABLE);
+        Arrays.fill(costs, Long.MAX_VALUE);
+        costs[destination] = 0;
+        heap[0] = destination;
+        int sizeOfHeap = 1;
+        while (sizeOfHeap > 0) {
+            long key = heap[0];
+            sizeOfHeap = removeFirst(heap, sizeOfHeap);
+            int node = (int) (key & MASK_OF_NODE);
+            long cost = key >>> BITS_OF_NODE;
+            // A node may be in the heap several times, only its cheapest key is settled.
+            if (cost > costs[node]) {
+                continue;
+            }
+            for (int i = 0; i < topology.getNumberOfIncomingStreets(node); i++) {
+                int street = topology.getIncomingStreet(node, i);
+                int previousNode = topology.getStartNodeOfStreet(street);
+                long nextCost = cost + costsOfStreets[street];
+                if (nextCost < costs[previousNode]) {
+                    costs[previousNode] = nextCost;
+                    tree[previousNode] = (byte) directionOfStreet[street];
+                    sizeOfHeap = add(heap, sizeOfHeap, (nextCost << BITS_OF_NODE) | previousNode);
+                }
+            }
+        }
+        return tree;
+    }
+
+    private static int add(long[] heap, int size, long key) {
+        int child = size;
+        while (child > 0 && heap[(child - 1) / 2] > key) {
+            heap[child] = heap[(child - 1) / 2];
+            child = (child - 1) / 2;
+        }
+        heap[child] = key;
+        return size + 1;
+    }
+
+    private static int removeFirst(long[] heap, int size) {
+        long last = heap[size - 1];
+        int newSize = size - 1;
+        int parent = 0;
+        while (2 * parent + 1 < newSize) {
+            int child = 2 * parent + 1;
+            if (child + 1 < newSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = last;
+        return newSize;
+    }
+
+    /**
+     * Gets the direction a car leaves a node in to drive to its destination.
+     *
+     * @param destination index of a destination node of this table
+     * @param indexOfNode index of the node the car leaves
+     * @return the direction, or {@link #UNREACHABLE} if the destination cannot be reached from the node
+     */
+    public int getNextHop(int destination, int indexOfNode) {
+        return this.nextHops[this.slotOfDestination[destination]][indexOfNode];
+    }
+
+    /**
+     * Gets the number of destinations.
+     *
+     * @return the number of destinations
+     */
+    public int getNumberOfDestinations() {
+        return this.destinations.length;
+    }
+
+    /**
+     * Gets the indices of the destination nodes.
+     *
+     * @return a copy of the destinations
+     */
+    public int[] getDestinations() {
+        return this.destinations.clone();
+    }
+
+    /**
+     * Gets the number of bytes of the next-hop tables.
+     *
+     * @return the size of the tables
+     */
+    public long getSizeOfTables() {
+        return (long) this.destinations.length * this.numberOfNodes;
+    }
+
+    /**
+     * Gets the time it took to compute the tables.
+     *
+     * @return the duration of the computation in nanoseconds
+     */
+    public long getDurationOfComputation() {
+        return this.durationOfComputation;
+    }
+
+}
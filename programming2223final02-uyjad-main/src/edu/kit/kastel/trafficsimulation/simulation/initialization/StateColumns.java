@@ -0,0 +1,125 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+/**
+ * This class describes a reusable sample of the state of a street network at one tick, stored as columns.
+ * The occupancy column holds the number of cars of each street, ordered by id of street. The car columns hold
+ * id, id of street, position and current speed of each car, grouped by street in the order of the street ids
+ * and ordered by position within each street. The arrays are allocated once for the topology and are
+ * overwritten by each sample, so taking a sample allocates nothing unless spawned cars make a network hold
+ * more cars than any sample before.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class StateColumns {
+    private final int[] occupancy;
+    private int[] idsOfCars;
+    private int[] streetsOfCars;
+    private int[] positionsOfCars;
+    private int[] speedsOfCars;
+    private long tick;
+    private int numberOfCars;
+
+    /**
+     * Constructor of empty columns that fit every state of networks built upon the topology without spawned cars.
+     *
+     * @param topology topology of the sampled networks
+     */
+    public StateColumns(Topology topology) {
+        this.occupancy = new int[topology.getNumberOfStreets()];
+        this.idsOfCars = new int[topology.getNumberOfCars()];
+        this.streetsOfCars = new int[topology.getNumberOfCars()];
+        this.positionsOfCars = new int[topology.getNumberOfCars()];
+        this.speedsOfCars = new int[topology.getNumberOfCars()];
+    }
+
+    /**
+     * Makes sure the car columns fit the given number of cars. Growing keeps no content.
+     *
+     * @param numberOfCars number of cars of the next sample
+     */
+    void ensureCapacity(int numberOfCars) {
+        if (numberOfCars > this.idsOfCars.length) {
+            int capacity = Math.max(numberOfCars, 2 * this.idsOfCars.length);
+            this.idsOfCars = new int[capacity];
+            this.streetsOfCars = new int[capacity];
+            this.positionsOfCars = new int[capacity];
+            this.speedsOfCars = new int[capacity];
+        }
+    }
+
+    /**
+     * Sets the tick of the sample and the number of filled rows of the car columns.
+     *
+     * @param tick tick the sample was taken at
+     * @param numberOfCars number of cars in the sample
+     */
+    void setSize(long tick, int numberOfCars) {
+        this.tick = tick;
+        this.numberOfCars = numberOfCars;
+    }
+
+    /**
+     * Gets the tick the sample was taken at.
+     *
+     * @return the tick of the sample
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the number of filled rows of the car columns.
+     *
+     * @return the number of cars in the sample
+     */
+    public int getNumberOfCars() {
+        return this.numberOfCars;
+    }
+
+    /**
+     * Gets the column of the number of cars of each street. The array is not copied.
+     *
+     * @return the occupancy column
+     */
+    public int[] getOccupancy() {
+        return this.occupancy;
+    }
+
+    /**
+     * Gets the column of the ids of cars. Only the first {@link #getNumberOfCars()} entries are valid.
+     *
+     * @return the id column
+     */
+    public int[] getIdsOfCars() {
+        return this.idsOfCars;
+    }
+
+    /**
+     * Gets the column of the street ids of cars. Only the first {@link #getNumberOfCars()} entries are valid.
+     *
+     * @return the street column
+     */
+    public int[] getStreetsOfCars() {
+        return this.streetsOfCars;
+    }
+
+    /**
+     * Gets the column of the positions of cars. Only the first {@link #getNumberOfCars()} entries are valid.
+     *
+     * @return the position column
+     */
+    public int[] getPositionsOfCars() {
+        return this.positionsOfCars;
+    }
+
+    /**
+     * Gets the column of the current speeds of cars. Only the first {@link #getNumberOfCars()} entries are valid.
+     *
+     * @return the speed column
+     */
+    public int[] getSpeedsOfCars() {
+        return this.speedsOfCars;
+    }
+
+}
@@ -19,8 +19,8 @@ public class StreetData {
     private static final int MINIMUM_SPEED_ALLOWED = 5;
     private static final int MAXIMUM_SPEED_ALLOWED = 40;
     private final List<Car> cars;
-    private final int idOfStartNode;
-    private final int idOfEndNode;
+    private final int indexOfStartNode;
+    private final int indexOfEndNode;
     private final int idOfStreetType;
     private final int length;
     private final int maximumSpeed;
@@ -30,17 +30,17 @@ public class StreetData {
      * Constructor of street data.
      * Calculates the quota of cars(in other word, maximum number of cars allowed on this street).
      *
-     * @param idOfStartNode id of start node
-     * @param idOfEndNode id of end node
+     * @param indexOfStartNode index of start node
+     * @param indexOfEndNode index of end node
      * @param idOfStreetType id of street type
      * @param length length of street
      * @param maximumSpeed maximum speed that is allowed
      * @throws ParserException if length or maximum speed is not valid
      */
-    public StreetData(int idOfStartNode, int idOfEndNode, int idOfStreetType, int length, int maximumSpeed)
+    public StreetData(int indexOfStartNode, int indexOfEndNode, int idOfStreetType, int length, int maximumSpeed)
             throws ParserException {
-        this.idOfStartNode = idOfStartNode;
-        this.idOfEndNode = idOfEndNode;
+        this.indexOfStartNode = indexOfStartNode;
+        this.indexOfEndNode = indexOfEndNode;
         this.idOfStreetType = idOfStreetType;
 
         if (length < MINIMUM_LENGTH || length > MAXIMUM_LENGTH) {
@@ -107,21 +107,21 @@ public int getLength() {
     }
 
     /**
-     * Gets id of end node.
+     * Gets index of end node.
      *
-     * @return id of end node
+     * @return index of end node
      */
-    public int getIdOfEndNode() {
-        return this.idOfEndNode;
+    public int getIndexOfEndNode() {
+        return this.indexOfEndNode;
     }
 
     /**
-     * Gets id of start node.
+     * Gets index of start node.
      *
-     * @return id of start node
+     * @return index of start node
      */
-    public int getIdOfStartNode() {
-        return this.idOfStartNode;
+    public int getIndexOfStartNode() {
+        return this.indexOfStartNode;
     }
 
     /**
@@ -2,170 +2,1520 @@
 
 import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
 import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+import edu.kit.kastel.trafficsimulation.simulation.exception.ParserException;
+import edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType;
 import edu.kit.kastel.trafficsimulation.simulation.module.Edge;
 import edu.kit.kastel.trafficsimulation.simulation.module.Node;
 import edu.kit.kastel.trafficsimulation.simulation.module.NodeType;
+import edu.kit.kastel.trafficsimulation.simulation.module.SignalStatistics;
+import edu.kit.kastel.trafficsimulation.simulation.module.StreetStatistics;
+import edu.kit.kastel.trafficsimulation.simulation.module.TrafficModel;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * This class describes the street network.
  * The nodes (which also means crossings) and edges (which also means streets) can be managed and updated here.
+ * Besides the cars of the topology, cars can be spawned onto and removed from the network between two ticks,
+ * sources let cars enter at the start of a street and sinks let them leave at its end. Such changes are logged,
+ * so the state at a past tick can be rebuilt by {@link #replayInjections(StreetNetwork, int)}.
+ * The traffic model decides which streets are simulated as queues instead of moving every car every tick.
+ * A queue is only updated at the ticks its first car may leave at, so a tick costs time in proportion to the
+ * microscopic streets and the cars that leave queues, not to the number of queues.
+ * With workers, the cars cross in rounds through the mailboxes of the edges instead of edge after edge,
+ * see {@link #moveCarsInRounds()}. The network can also be split into regions at load time, each of which is
+ * updated by one worker that only hands the cars crossing its border to the other regions.
  *
  * @author uyjad
  * @version 1.0
  */
 public class StreetNetwork {
-    private static final String REGEX_CAR_DETAILS = "Car %d on street %d with speed %d and position %d";
-    private static final int MINIMUM_DISTANCE_BETWEEN_CARS = 10;
-    private final Map<Integer, NodeData> nodeDataList;
-    private final List<StreetData> streetDataList;
-    private final Map<Node, List<Edge>> graph;
+    static final String REGEX_CAR_DETAILS = "Car %d on street %d with speed %d and position %d";
+    private static final String FORMAT_STREET_STATISTICS = "Street %d: %d cars with mean speed %.2f, queue %d, "
+            + "inflow %d, outflow %d, average occupancy %.2f, average queue %.2f, maximum queue %d";
+    private static final String HEADER_STREET_STATISTICS = "street,cars,meanSpeed,queue,inflow,outflow,"
+            + "averageOccupancy,averageQueue,maximumQueue";
+    private static final String FORMAT_STREET_STATISTICS_ROW = "%d,%d,%.2f,%d,%d,%d,%.4f,%.4f,%d";
+    private static final String FORMAT_SIGNAL_STATISTICS = "Street %d: %d green ticks, %d wasted, %d crossings in "
+            + "%d phases (%.2f per phase, maximum %d), %d held at red";
+    private static final String HEADER_SIGNAL_STATISTICS = "tick,crossing,street,greenTicks,wastedGreenTicks,"
+            + "crossings,phases,maximumCrossingsInPhase,carsHeldAtRed";
+    private static final String FORMAT_SIGNAL_STATISTICS_ROW = "%d,%d,%d,%d,%d,%d,%d,%d,%d";
+    static final int MINIMUM_DISTANCE_BETWEEN_CARS = 10;
+    // Written into a checkpoint instead of the index of a spawned car, which is followed by its attributes.
+    private static final int SPAWNED_CAR = -1;
+    // What an edge does with its first car in a round of crossings.
+    private static final byte FIRST_CAR_STAYS = 0;
+    private static final byte FIRST_CAR_CROSSES = 1;
+    private static final byte FIRST_CAR_LEAVES = 2;
+    private static final String FORMAT_REGIONS = "%d regions, %d of %d streets start in another region, "
+            + "partitioned in %d ms";
+    private static final String FORMAT_REGION = "Region %d: %d streets, %d boundary streets, %d neighbouring regions";
+    private static final int NANOSECONDS_PER_MILLISECOND = 1_000_000;
+    private static final String FORMAT_WORKLOAD = "Workers busy %.1f%% of the time, estimated imbalance %.2f";
+    private static final int PERCENT = 100;
+    private static final String FORMAT_INJECTION_STATISTICS = "%d cars spawned, %d removed, %d spawned cars on the "
+            + "network, %d sources, %d sinks, %d pooled records (%d free)";
+    // Only replaced if a parameter change is applied, the structure of the topology stays the same.
+    private Topology topology;
+    private final List<Node> nodes;
+    private final List<Edge> edges;
+    private final CarRoster carRoster;
+    private final TrafficModel trafficModel;
+    // Ids of the streets that are not simulated as queues, in ascending order.
+    private final int[] idsOfMicroscopicStreets;
+    private final QueueSchedule queueSchedule;
+    // Null if the cars cross edge after edge on the simulating thread.
+    private final CrossingWorkers crossingWorkers;
+    // Null if the cars cross edge after edge, a single region if all workers share the edges.
+    private final RegionPartition regionPartition;
+    // Only used during a tick with workers, created at the first such tick.
+    private TransferMailboxes transferMailboxes;
+    // Null if there is only one region.
+    private RegionExchange regionExchange;
+    // Only used during a tick with workers, created at the first such tick.
+    private EdgeWorkload edgeWorkload;
+    private boolean isSplitIntoEqualParts;
+    // Edges that still move cars in this tick, in the blocks of their regions, and their number in each region.
+    private int[] activeEdges;
+    private int[] numbersOfActiveEdges;
+    private byte[] stepsOfFirstCars;
+    // Source of each street ordered by index of street, null if no cars enter the street from outside.
+    private final CarSource[] sources;
+    private final boolean[] isSink;
+    private final List<Injection> injections;
+    private int numberOfSources;
+    // Null if the cars with a destination route by the free-flow tables of the topology.
+    private Rerouting rerouting;
+    private long numberOfSpawnedCars;
+    private long numberOfRemovedCars;
+    private long numberOfCrossings;
+    // Taken right after the topology was last changed, null if it never was. Earlier ticks cannot be rebuilt.
+    private NetworkCheckpoint checkpointOfChange;
+    // Read by other threads, for instance by a periodic export of the signal statistics.
+    private volatile long numberOfTicks;
 
     /**
-     * Constructor of a network.
+     * Constructor of a network with the green light durations of the topology.
      * Initiate nodes, edge and green light access.
      *
-     * @param nodeDataList list of node data
-     * @param streetDataList list of street data
+     * @param topology immutable topology the network is built upon
      */
-    public StreetNetwork(Map<Integer, NodeData> nodeDataList, List<StreetData> streetDataList) {
-        this.nodeDataList = nodeDataList;
-        this.streetDataList = streetDataList;
-        this.graph = new HashMap<>();
-        initiateNode();
-        initiateEdge();
+    public StreetNetwork(Topology topology) {
+        this(topology, topology.getDurationsOfGreenLight());
+    }
+
+    /**
+     * Constructor of a network with the green light durations of the topology and the given storage of cars.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param storeType kind of storage for the cars
+     */
+    public StreetNetwork(Topology topology, CarStoreType storeType) {
+        this(topology, storeType, TrafficModel.MICROSCOPIC);
+    }
+
+    /**
+     * Constructor of a network with the green light durations of the topology, the given storage of cars and the
+     * given traffic model.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param storeType kind of storage for the cars
+     * @param trafficModel model that decides which streets are simulated as queues
+     */
+    public StreetNetwork(Topology topology, CarStoreType storeType, TrafficModel trafficModel) {
+        this(topology, storeType, trafficModel, 0);
+    }
+
+    /**
+     * Constructor of a network with the green light durations of the topology, the given storage of cars, the
+     * given traffic model and the given number of workers.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param storeType kind of storage for the cars
+     * @param trafficModel model that decides which streets are simulated as queues
+     * @param numberOfWorkers number of workers the cars cross in rounds with, 0 to let them cross edge after edge;
+     *      workers need every street to be simulated microscopically
+     */
+    public StreetNetwork(Topology topology, CarStoreType storeType, TrafficModel trafficModel, int numberOfWorkers) {
+        this(topology, storeType, trafficModel, numberOfWorkers, 1);
+    }
+
+    /**
+     * Constructor of a network with the green light durations of the topology, the given storage of cars, the
+     * given traffic model and the given numbers of workers and regions.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param storeType kind of storage for the cars
+     * @param trafficModel model that decides which streets are simulated as queues
+     * @param numberOfWorkers number of workers the cars cross in rounds with, 0 to let them cross edge after edge;
+     *      workers need every street to be simulated microscopically
+     * @param numberOfRegions number of regions the network is split into if there are workers, at least 1
+     */
+    public StreetNetwork(Topology topology, CarStoreType storeType, TrafficModel trafficModel, int numberOfWorkers,
+                         int numberOfRegions) {
+        this(topology, topology.getDurationsOfGreenLight(), storeType, trafficModel, numberOfWorkers,
+                numberOfRegions);
+    }
+
+    /**
+     * Constructor of a network with the given green light durations.
+     * The topology is shared, only nodes, edges and cars are newly allocated for this network.
+     * A node without green light in the topology stays without green light.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param durationsOfGreenLight green light duration of each node, ordered by node index
+     */
+    public StreetNetwork(Topology topology, int[] durationsOfGreenLight) {
+        this(topology, durationsOfGreenLight, CarStoreType.OBJECT, TrafficModel.MICROSCOPIC, 0, 1);
+    }
+
+    /**
+     * Constructor of a network with the given green light durations, the given storage of cars, the given
+     * traffic model and the given numbers of workers and regions. The regions are partitioned here.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param durationsOfGreenLight green light duration of each node, ordered by node index
+     * @param storeType kind of storage for the cars
+     * @param trafficModel model that decides which streets are simulated as queues
+     * @param numberOfWorkers number of workers the cars cross in rounds with, 0 to let them cross edge after edge;
+     *      workers need every street to be simulated microscopically
+     * @param numberOfRegions number of regions the network is split into if there are workers, at least 1
+     */
+    public StreetNetwork(Topology topology, int[] durationsOfGreenLight, CarStoreType storeType,
+                         TrafficModel trafficModel, int numberOfWorkers, int numberOfRegions) {
+        this.topology = topology;
+        this.trafficModel = trafficModel;
+        this.crossingWorkers = numberOfWorkers == 0 ? null : new CrossingWorkers(numberOfWorkers);
+        this.regionPartition = numberOfWorkers == 0 ? null : new RegionPartition(topology, numberOfRegions);
+        this.edges = new ArrayList<>();
+        this.carRoster = new CarRoster(new CarPool(topology));
+        this.sources = new CarSource[topology.getNumberOfStreets()];
+        this.isSink = new boolean[topology.getNumberOfStreets()];
+        this.injections = new ArrayList<>();
+        this.nodes = initiateNode(durationsOfGreenLight);
+        initiateEdge(storeType);
         setInitialGreenLightPermission();
+        this.idsOfMicroscopicStreets = findMicroscopicStreets();
+        this.queueSchedule = new QueueSchedule(this.edges.size());
+        scheduleAllQueues();
+    }
+
+    /**
+     * Constructor of a network that forks an existing network.
+     * Nodes are copied, while the cars of each edge are shared until one of both networks changes them.
+     * So forking costs time in proportion to the number of streets and spawned cars, not the number of cars,
+     * and both networks can be simulated independently and concurrently afterwards.
+     *
+     * @param networkToFork network to be forked
+     */
+    public StreetNetwork(StreetNetwork networkToFork) {
+        this.topology = networkToFork.getTopology();
+        this.nodes = new ArrayList<>();
+        this.edges = new ArrayList<>();
+        for (Node nodeToCopy : networkToFork.nodes) {
+            this.nodes.add(new Node(nodeToCopy));
+        }
+        for (int i = 0; i < this.topology.getNumberOfStreets(); i++) {
+            Node endNode = this.nodes.get(this.topology.getEndNodeOfStreet(i));
+            this.edges.add(new Edge(networkToFork.edges.get(i), endNode, this::getNumberOfTicks));
+        }
+        this.carRoster = new CarRoster(networkToFork.carRoster);
+        this.trafficModel = networkToFork.trafficModel;
+        this.crossingWorkers = networkToFork.crossingWorkers;
+        this.regionPartition = networkToFork.regionPartition;
+        this.isSplitIntoEqualParts = networkToFork.isSplitIntoEqualParts;
+        this.idsOfMicroscopicStreets = networkToFork.idsOfMicroscopicStreets;
+        this.queueSchedule = new QueueSchedule(networkToFork.queueSchedule);
+        this.sources = new CarSource[networkToFork.sources.length];
+        for (int i = 0; i < this.sources.length; i++) {
+            if (networkToFork.sources[i] != null) {
+                this.sources[i] = new CarSource(networkToFork.sources[i], i);
+            }
+        }
+        this.numberOfSources = networkToFork.numberOfSources;
+        this.isSink = networkToFork.isSink.clone();
+        this.injections = new ArrayList<>(networkToFork.injections);
+        this.rerouting = networkToFork.rerouting == null ? null : new Rerouting(networkToFork.rerouting);
+        this.numberOfSpawnedCars = networkToFork.numberOfSpawnedCars;
+        this.numberOfRemovedCars = networkToFork.numberOfRemovedCars;
+        this.numberOfCrossings = networkToFork.getNumberOfCrossings();
+        this.checkpointOfChange = networkToFork.checkpointOfChange;
+        this.numberOfTicks = networkToFork.getNumberOfTicks();
+    }
+
+    /**
+     * Constructor of a network that restores a checkpoint of a network built upon the same topology.
+     * The restored network continues exactly like the network the checkpoint was taken of, including its spawned
+     * cars, sources, sinks, rerouting, traffic model and crossings in rounds, only its traffic and signal statistics
+     * start at 0 and its log of injections is empty.
+     *
+     * @param topology immutable topology the network is built upon
+     * @param checkpoint checkpoint to be restored
+     * @param storeType kind of storage for the cars
+     */
+    public StreetNetwork(Topology topology, NetworkCheckpoint checkpoint, CarStoreType storeType) {
+        this.topology = topology;
+        this.edges = new ArrayList<>();
+        CarPool carPool = new CarPool(topology);
+        this.carRoster = new CarRoster(carPool);
+        this.sources = new CarSource[topology.getNumberOfStreets()];
+        this.isSink = new boolean[topology.getNumberOfStreets()];
+        this.injections = new ArrayList<>();
+        this.nodes = initiateNode(topology.getDurationsOfGreenLight());
+        BitSet placedCars = new BitSet(topology.getNumberOfCars());
+        // The clock of the queues reads the number of ticks, so it is set before the cars are placed.
+        this.numberOfTicks = checkpoint.getTick();
+        try (DataInputStream state = checkpoint.openState()) {
+            this.numberOfCrossings = state.readLong();
+            this.numberOfSpawnedCars = state.readLong();
+            this.numberOfRemovedCars = state.readLong();
+            int nextIdOfCar = state.readInt();
+            this.trafficModel = TrafficModel.createHybrid(state.readInt());
+            // The crossings in rounds do not depend on the number of workers or regions, so the restored network
+            // uses one worker for one region.
+            boolean isInRounds = state.readBoolean();
+            this.crossingWorkers = isInRounds ? new CrossingWorkers(1) : null;
+            this.regionPartition = isInRounds ? new RegionPartition(topology, 1) : null;
+            for (int i = 0; i < this.nodes.size(); i++) {
+                Node node = this.nodes.get(i);
+                if (node.getType() == NodeType.INTERSECTION) {
+                    node.restoreGreenLight(state.readInt(), state.readUnsignedByte());
+                }
+            }
+            for (int i = 0; i < topology.getNumberOfStreets(); i++) {
+                Node endNode = this.nodes.get(topology.getEndNodeOfStreet(i));
+                Edge edge = new Edge(i, topology, carPool, List.of(), endNode, storeType, this.trafficModel,
+                        this::getNumberOfTicks);
+                int numberOfCars = state.readInt();
+                for (int j = 0; j < numberOfCars; j++) {
+                    int indexOfCar = state.readInt();
+                    if (indexOfCar == SPAWNED_CAR) {
+                        indexOfCar = this.carRoster.add(state.readInt(), state.readUnsignedByte(),
+                                state.readUnsignedByte());
+                    } else {
+                        placedCars.set(indexOfCar);
+                    }
+                    // The position of a car of a queue is written as the number of ticks until it may leave.
+                    if (edge.isQueue()) {
+                        edge.placeQueuedCar(carPool, indexOfCar, state.readUnsignedShort(), state.readUnsignedByte(),
+                                state.readUnsignedByte());
+                    } else {
+                        edge.placeCar(carPool, indexOfCar, state.readUnsignedShort(), state.readUnsignedByte(),
+                                state.readUnsignedByte());
+                    }
+                }
+                this.edges.add(edge);
+            }
+            this.numberOfSources = state.readInt();
+            for (int i = 0; i < this.numberOfSources; i++) {
+                CarSource source = new CarSource(state.readInt(), state.readInt(), state.readUnsignedByte(),
+                        state.readUnsignedByte());
+                source.restore(state.readInt(), state.readLong());
+                this.sources[source.getIndexOfStreet()] = source;
+            }
+            int numberOfSinks = state.readInt();
+            for (int i = 0; i < numberOfSinks; i++) {
+                this.isSink[state.readInt()] = true;
+            }
+            if (state.readBoolean()) {
+                this.rerouting = new Rerouting(topology, state);
+            }
+            this.carRoster.setNextIdOfCar(nextIdOfCar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < this.nodes.size(); i++) {
+            Node node = this.nodes.get(i);
+            if (node.getType() == NodeType.INTERSECTION) {
+                getIncomingEdge(i, node.getEdgeIndicator()).setAsHasGreenLightAccess();
+            }
+        }
+        markMissingCarsAsRemoved(placedCars);
+        this.idsOfMicroscopicStreets = findMicroscopicStreets();
+        this.queueSchedule = new QueueSchedule(this.edges.size());
+        scheduleAllQueues();
+    }
+
+    /**
+     * Marks the cars of the topology that were not placed as removed, because they left the network before.
+     *
+     * @param placedCars indices of the placed cars of the topology
+     */
+    private void markMissingCarsAsRemoved(BitSet placedCars) {
+        int numberOfCars = this.topology.getNumberOfCars();
+        for (int i = placedCars.nextClearBit(0); i < numberOfCars; i = placedCars.nextClearBit(i + 1)) {
+            this.carRoster.markAsRemoved(i);
+        }
+    }
+
+    /**
+     * Constructor of a network that continues an existing network after its topology changed structurally.
+     * The cars of every street that matches a street of the previous topology keep their position, speed and
+     * wished direction, the cars of new or changed streets are dropped. Spawned cars are kept like the cars of the
+     * topology, sources and sinks of matching streets are kept as well, the log of injections starts empty.
+     * Rerouting keeps its settings, but starts again from the free-flow tables of the next topology.
+     * The traffic model, the workers and the number of regions are kept, a car of a queue keeps the number of ticks
+     * until it may leave.
+     * A crossing keeps the state of its green light if its incoming streets all match in the same order,
+     * otherwise its green light starts again.
+     * The number of ticks and crossings continue, the traffic and signal statistics start at 0.
+     * A checkpoint of the rebuilt network is taken, see {@link #getCheckpointOfChange()}.
+     *
+     * @param previousNetwork network built upon the previous topology of the change
+     * @param change change from the topology of the previous network to the topology of the new network
+     * @param storeType kind of storage for the cars
+     */
+    public StreetNetwork(StreetNetwork previousNetwork, TopologyChange change, CarStoreType storeType) {
+        Topology previousTopology = previousNetwork.getTopology();
+        CarPool previousPool = previousNetwork.carRoster.getCarPool();
+        this.topology = change.getNextTopology();
+        this.edges = new ArrayList<>();
+        CarPool carPool = new CarPool(this.topology);
+        this.carRoster = new CarRoster(carPool);
+        this.trafficModel = previousNetwork.trafficModel;
+        this.crossingWorkers = previousNetwork.crossingWorkers;
+        // The streets may have changed, so the regions are partitioned again.
+        this.regionPartition = previousNetwork.regionPartition == null
+                ? null : new RegionPartition(this.topology, previousNetwork.regionPartition.getNumberOfRegions());
+        this.sources = new CarSource[this.topology.getNumberOfStreets()];
+        this.isSink = new boolean[this.topology.getNumberOfStreets()];
+        this.injections = new ArrayList<>();
+        this.nodes = initiateNode(this.topology.getDurationsOfGreenLight());
+        this.numberOfTicks = previousNetwork.getNumberOfTicks();
+        BitSet placedCars = new BitSet(this.topology.getNumberOfCars());
+        for (int i = 0; i < this.topology.getNumberOfStreets(); i++) {
+            Node endNode = this.nodes.get(this.topology.getEndNodeOfStreet(i));
+            Edge edge = new Edge(i, this.topology, carPool, List.of(), endNode, storeType, this.trafficModel,
+                    this::getNumberOfTicks);
+            int previousIndex = change.getPreviousIndexOfStreet(i);
+            if (previousIndex != -1) {
+                Edge previousEdge = previousNetwork.edges.get(previousIndex);
+                for (int j = 0; j < previousEdge.getNumberOfCars(); j++) {
+                    int idOfCar = previousEdge.getIdOfCar(j);
+                    int previousIndexOfCar = previousNetwork.carRoster.getIndexOfCar(idOfCar);
+                    int indexOfCar;
+                    if (previousPool.isSpawned(previousIndexOfCar)) {
+                        indexOfCar = this.carRoster.add(idOfCar, previousPool.getWishedSpeedOfCar(previousIndexOfCar),
+                                previousPool.getAcceleratorOfCar(previousIndexOfCar));
+                    } else {
+                        indexOfCar = this.topology.getIndexOfCar(idOfCar);
+                        if (indexOfCar == -1) {
+                            continue;
+                        }
+                        placedCars.set(indexOfCar);
+                    }
+                    // A matching street has the same length, so it is a queue if and only if the previous one is.
+                    if (edge.isQueue()) {
+                        edge.placeQueuedCar(carPool, indexOfCar, previousEdge.getRemainingTicksOfCar(j),
+                                previousEdge.getSpeedOfCar(j), previousEdge.getWishedDirectionOfCar(j));
+                    } else {
+                        edge.placeCar(carPool, indexOfCar, previousEdge.getPositionOfCar(j),
+                                previousEdge.getSpeedOfCar(j), previousEdge.getWishedDirectionOfCar(j));
+                    }
+                }
+                if (previousNetwork.sources[previousIndex] != null) {
+                    this.sources[i] = new CarSource(previousNetwork.sources[previousIndex], i);
+                    this.numberOfSources++;
+                }
+                this.isSink[i] = previousNetwork.isSink[previousIndex];
+            }
+            this.edges.add(edge);
+        }
+        markMissingCarsAsRemoved(placedCars);
+        this.carRoster.setNextIdOfCar(Math.max(this.carRoster.getNextIdOfCar(),
+                previousNetwork.carRoster.getNextIdOfCar()));
+        this.numberOfSpawnedCars = previousNetwork.numberOfSpawnedCars;
+        this.numberOfRemovedCars = previousNetwork.numberOfRemovedCars;
+        this.rerouting = createRerouting(previousNetwork.rerouting);
+        for (int i = 0; i < this.nodes.size(); i++) {
+            Node node = this.nodes.get(i);
+            if (node.getType() != NodeType.INTERSECTION) {
+                continue;
+            }
+            int previousIndex = change.getPreviousIndexOfNode(i);
+            if (previousIndex != -1 && hasSameIncomingStreets(i, previousIndex, previousTopology, change)) {
+                Node previousNode = previousNetwork.nodes.get(previousIndex);
+                node.restoreGreenLight(Math.min(
+                        previousNode.getGreenLight().getDurationCounter().getCurrentCount(),
+                        this.topology.getDurationOfGreenLight(i) - 1), previousNode.getEdgeIndicator());
+            }
+            getIncomingEdge(i, node.getEdgeIndicator()).setAsHasGreenLightAccess();
+        }
+        this.numberOfCrossings = previousNetwork.getNumberOfCrossings();
+        this.idsOfMicroscopicStreets = findMicroscopicStreets();
+        this.queueSchedule = new QueueSchedule(this.edges.size());
+        scheduleAllQueues();
+        this.checkpointOfChange = createCheckpoint();
+    }
+
+    /**
+     * Checks whether a crossing has the same incoming streets in the same order before and after a change.
+     *
+     * @param indexOfNode index of the crossing in the next topology
+     * @param previousIndexOfNode index of the crossing in the previous topology
+     * @param previousTopology previous topology of the change
+     * @param change change of the topology
+     * @return true if all incoming streets match, otherwise false
+     */
+    private boolean hasSameIncomingStreets(int indexOfNode, int previousIndexOfNode, Topology previousTopology,
+                                           TopologyChange change) {
+        int numberOfIncomingStreets = this.topology.getNumberOfIncomingStreets(indexOfNode);
+        if (previousTopology.getDurationOfGreenLight(previousIndexOfNode) == 0
+                || numberOfIncomingStreets != previousTopology.getNumberOfIncomingStreets(previousIndexOfNode)) {
+            return false;
+        }
+        for (int i = 0; i < numberOfIncomingStreets; i++) {
+            if (change.getPreviousIndexOfStreet(this.topology.getIncomingStreet(indexOfNode, i))
+                    != previousTopology.getIncomingStreet(previousIndexOfNode, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a parameter change to this network in place: the speed limits of changed streets and the green light
+     * durations of changed crossings are set, all cars and green lights keep their state.
+     * Rerouting keeps its settings, but starts again from the free-flow tables of the next topology.
+     * It takes time in proportion to the number of changed streets and crossings, apart from a checkpoint of the
+     * network that is taken afterwards, see {@link #getCheckpointOfChange()}.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param change parameter change from the topology of this network
+     */
+    public void applyParameters(TopologyChange change) {
+        Topology nextTopology = change.getNextTopology();
+        for (int indexOfStreet : change.getStreetsWithChangedSpeed()) {
+            this.edges.get(indexOfStreet).setMaximumSpeed(nextTopology.getMaximumSpeedOfStreet(indexOfStreet));
+        }
+        for (int indexOfNode : change.getNodesWithChangedDuration()) {
+            this.nodes.get(indexOfNode).setDurationOfGreenLight(nextTopology.getDurationOfGreenLight(indexOfNode));
+        }
+        this.topology = nextTopology;
+        this.rerouting = createRerouting(this.rerouting);
+        this.checkpointOfChange = createCheckpoint();
+    }
+
+    /**
+     * Gets the checkpoint taken right after the topology of this network was last changed. A past tick is rebuilt
+     * upon the current topology, so only the ticks from this checkpoint on can be rebuilt.
+     *
+     * @return the checkpoint of the last change of the topology, or null if the topology was never changed
+     */
+    public NetworkCheckpoint getCheckpointOfChange() {
+        return this.checkpointOfChange;
+    }
+
+    /**
+     * Creates a rerouting for the topology of this network with the settings of a previous rerouting.
+     *
+     * @param previousRerouting previous rerouting, or null
+     * @return the rerouting, or null if there was none or no car of the topology has a destination
+     */
+    private Rerouting createRerouting(Rerouting previousRerouting) {
+        if (previousRerouting == null || this.topology.getRoutingTable() == null) {
+            return null;
+        }
+        return new Rerouting(this.topology, previousRerouting.getThresholdInPercent(),
+                previousRerouting.getDelayInTicks());
+    }
+
+    /**
+     * Creates nodes.
+     *
+     * @param durationsOfGreenLight green light duration of each node, ordered by node index
+     * @return the created nodes, ordered by node index
+     */
+    private List<Node> initiateNode(int[] durationsOfGreenLight) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < this.topology.getNumberOfNodes(); i++) {
+            int idOfNode = this.topology.getIdOfNode(i);
+            Node node;
+            if (this.topology.getDurationOfGreenLight(i) != 0) {
+                node = new Node(idOfNode, durationsOfGreenLight[i], this.topology.getNumberOfIncomingStreets(i));
+            } else {
+                node = new Node(idOfNode);
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Creates edges in the order of their index in the topology, so their data is allocated in that order.
+     * The outgoing and incoming edges of a node are looked up in the successor tables of the topology.
+     *
+     * @param storeType kind of storage for the cars
+     */
+    private void initiateEdge(CarStoreType storeType) {
+        for (int i = 0; i < this.topology.getNumberOfStreets(); i++) {
+            Node endNode = this.nodes.get(this.topology.getEndNodeOfStreet(i));
+            this.edges.add(new Edge(i, this.topology, this.carRoster.getCarPool(), this.topology.getCarsOfStreet(i),
+                    endNode, storeType, this.trafficModel, this::getNumberOfTicks));
+        }
+    }
+
+    /**
+     * Finds the streets that are not simulated as queues.
+     *
+     * @return the ids of the microscopic streets in ascending order
+     */
+    private int[] findMicroscopicStreets() {
+        int[] ids = new int[this.edges.size()];
+        int numberOfStreets = 0;
+        for (int i = 0; i < this.edges.size(); i++) {
+            if (!findEdgeByID(i).isQueue()) {
+                ids[numberOfStreets] = i;
+                numberOfStreets++;
+            }
+        }
+        return Arrays.copyOf(ids, numberOfStreets);
+    }
+
+    /**
+     * Schedules every queue with cars at the tick its first car may leave at.
+     */
+    private void scheduleAllQueues() {
+        for (Edge edge : this.edges) {
+            scheduleQueue(edge);
+        }
+    }
+
+    /**
+     * Schedules the edge at the tick its first car may leave at, if it is a queue with cars.
+     * Must be called whenever a queue gets a new first car, except while the queue itself is updated.
+     *
+     * @param edge edge whose first car changed
+     */
+    private void scheduleQueue(Edge edge) {
+        if (edge.isQueue() && !edge.isEmpty()) {
+            this.queueSchedule.schedule(edge.getExitTickOfFirstCar(), this.topology.getIdOfStreet(edge.getId()));
+        }
+    }
+
+    /**
+     * Sets the green light permission at the initial state.
+     */
+    private void setInitialGreenLightPermission() {
+        for (int i = 0; i < this.nodes.size(); i++) {
+            if (this.nodes.get(i).getType() == NodeType.INTERSECTION) {
+                getIncomingEdge(i, 0).setAsHasGreenLightAccess();
+            }
+        }
+    }
+
+    /**
+     * Gets an incoming edge of the node.
+     *
+     * @param indexOfNode index of node
+     * @param position position of the edge in the incoming table of the node
+     * @return the incoming edge
+     */
+    private Edge getIncomingEdge(int indexOfNode, int position) {
+        return this.edges.get(this.topology.getIncomingStreet(indexOfNode, position));
+    }
+
+    /**
+     * Gets the topology this network is built upon.
+     *
+     * @return the topology of this network
+     */
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    /**
+     * Gets the traffic model that decides which streets of this network are simulated as queues.
+     *
+     * @return the traffic model of this network
+     */
+    public TrafficModel getTrafficModel() {
+        return this.trafficModel;
+    }
+
+    /**
+     * Gets the number of workers the cars of this network cross in rounds with.
+     *
+     * @return the number of workers, or 0 if the cars cross edge after edge
+     */
+    public int getNumberOfWorkers() {
+        return this.crossingWorkers == null ? 0 : this.crossingWorkers.getNumberOfWorkers();
+    }
+
+    /**
+     * Gets the number of regions this network is split into.
+     *
+     * @return the number of regions, or 0 if the cars cross edge after edge
+     */
+    public int getNumberOfRegions() {
+        return this.regionPartition == null ? 0 : this.regionPartition.getNumberOfRegions();
+    }
+
+    /**
+     * Gets how the streets are split into regions: a summary of all regions followed by one line per region with
+     * its streets, the streets that start in another region and the number of regions it exchanges cars with.
+     *
+     * @return the lines of the statistics of the regions
+     * @throws InquiryException if the network is not split into several regions
+     */
+    public List<String> getRegionStatistics() throws InquiryException {
+        RegionPartition partition = this.regionPartition;
+        if (partition == null || partition.getNumberOfRegions() == 1) {
+            throw new InquiryException(ErrorMessage.NO_REGIONS.toString());
+        }
+        List<String> lines = new ArrayList<>();
+        int numberOfBoundaryStreets = 0;
+        for (int region = 0; region < partition.getNumberOfRegions(); region++) {
+            numberOfBoundaryStreets += partition.getNumberOfBoundaryStreets(region);
+            lines.add(String.format(FORMAT_REGION, region,
+                    partition.getStartOfRegion(region + 1) - partition.getStartOfRegion(region),
+                    partition.getNumberOfBoundaryStreets(region), partition.getNeighbours(region).length));
+        }
+        lines.add(0, String.format(FORMAT_REGIONS, partition.getNumberOfRegions(), numberOfBoundaryStreets,
+                this.edges.size(), partition.getDurationOfComputation() / NANOSECONDS_PER_MILLISECOND));
+        return lines;
+    }
+
+    /**
+     * Sets whether the workers split each step into one part of the same number of edges per worker, instead of
+     * into batches of about the same estimated work that they steal from each other. Either way the cars move the
+     * same, only the load of the workers differs.
+     *
+     * @param isSplitIntoEqualParts true to split into equal parts, false to split by the estimated work
+     */
+    public void setSplitIntoEqualParts(boolean isSplitIntoEqualParts) {
+        this.isSplitIntoEqualParts = isSplitIntoEqualParts;
+        if (this.edgeWorkload != null) {
+            this.edgeWorkload.setSplitByCost(!isSplitIntoEqualParts);
+        }
+    }
+
+    /**
+     * Gets how busy the workers were during the steps of the rounds so far, and how much longer the steps take than
+     * with a perfectly even load as estimated by the work of the edges.
+     *
+     * @return the statistics of the workload
+     * @throws InquiryException if the cars do not cross in rounds or the network is split into several regions
+     */
+    public String getWorkloadStatistics() throws InquiryException {
+        if (this.regionPartition == null || this.regionPartition.getNumberOfRegions() > 1) {
+            throw new InquiryException(ErrorMessage.NO_WORKLOAD.toString());
+        }
+        EdgeWorkload workload = this.edgeWorkload;
+        return String.format(Locale.ROOT, FORMAT_WORKLOAD, workload == null ? 0 : PERCENT * workload.getUtilisation(),
+                workload == null ? 1 : workload.getEstimatedImbalance());
+    }
+
+    /**
+     * Gets the number of times a car crossed a node onto its next street since the network was built.
+     *
+     * @return the number of crossings
+     */
+    public long getNumberOfCrossings() {
+        return this.numberOfCrossings;
+    }
+
+    /**
+     * Gets the number of cars that left this network, at a sink, at their destination or removed from outside.
+     *
+     * @return the number of removed cars
+     */
+    public long getNumberOfRemovedCars() {
+        return this.numberOfRemovedCars;
+    }
+
+    /**
+     * Gets the number of ticks simulated since the network was built.
+     *
+     * @return the number of ticks
+     */
+    public long getNumberOfTicks() {
+        return this.numberOfTicks;
+    }
+
+    /**
+     * Creates an immutable snapshot of the positions and speeds of all cars at the current tick.
+     * Must be called by the thread that simulates this network.
+     *
+     * @return snapshot of the current state
+     */
+    public NetworkSnapshot createSnapshot() {
+        int numberOfCars = 0;
+        for (Edge edge : this.edges) {
+            numberOfCars += edge.getNumberOfCars();
+        }
+        // Each key holds the id of car in the upper half and the index in the lower half, so sorting orders by id.
+        long[] keys = new long[numberOfCars];
+        int[] streets = new int[numberOfCars];
+        int[] speeds = new int[numberOfCars];
+        int[] positions = new int[numberOfCars];
+        int index = 0;
+        for (Edge edge : this.edges) {
+            for (int i = 0; i < edge.getNumberOfCars(); i++) {
+                keys[index] = ((long) edge.getIdOfCar(i) << Integer.SIZE) | index;
+                streets[index] = this.topology.getIdOfStreet(edge.getId());
+                speeds[index] = edge.getSpeedOfCar(i);
+                positions[index] = edge.getPositionOfCar(i);
+                index++;
+            }
+        }
+        Arrays.sort(keys);
+        int[] idsOfCars = new int[numberOfCars];
+        int[] streetsOfCars = new int[numberOfCars];
+        int[] speedsOfCars = new int[numberOfCars];
+        int[] positionsOfCars = new int[numberOfCars];
+        for (int i = 0; i < numberOfCars; i++) {
+            int source = (int) keys[i];
+            idsOfCars[i] = (int) (keys[i] >>> Integer.SIZE);
+            streetsOfCars[i] = streets[source];
+            speedsOfCars[i] = speeds[source];
+            positionsOfCars[i] = positions[source];
+        }
+        return new NetworkSnapshot(this.numberOfTicks, this.numberOfCrossings, idsOfCars, streetsOfCars,
+                speedsOfCars, positionsOfCars);
+    }
+
+    /**
+     * Resets the status of all cars from "updated" to "not updated". So they are ready for updates next tick.
+     * Queues do not look at the status of their cars, they are reset when they are updated.
+     */
+    public void resetCars() {
+        for (int idOfStreet : this.idsOfMicroscopicStreets) {
+            findEdgeByID(idOfStreet).reset();
+        }
+    }
+
+    /**
+     * Finds edge by id.
+     *
+     * @param idOfStreet id of street
+     * @return edge that matches the id of street
+     */
+    public Edge findEdgeByID(int idOfStreet) {
+        return this.edges.get(this.topology.getIndexOfStreet(idOfStreet));
+    }
+
+    /**
+     * Executes simulation for one tick: lets cars of sources enter, updates cars on each edge and then updates nodes.
+     * Finally the weights of rerouting are updated by the cars on each edge.
+     */
+    public void update() {
+        if (this.numberOfSources > 0) {
+            spawnCarsOfSources();
+        }
+        if (this.crossingWorkers == null) {
+            moveCarsEdgeByEdge();
+        } else {
+            moveCarsInRounds();
+        }
+
+        // Change the status of car from "updated" to "not updated". So it will be ready for the next tick.
+        resetCars();
+
+        // Update the crossings(nodes) by changing the green light duration and green light access.
+        for (int i = 0; i < this.nodes.size(); i++) {
+            Node node = this.nodes.get(i);
+            if (node.getType() == NodeType.INTERSECTION) {
+                if (node.isEndOfDuration()) {
+                    // Reset current edge, so the edge no longer has green light access.
+                    int greenLightIndicator = node.getEdgeIndicator();
+                    getIncomingEdge(i, greenLightIndicator).setAsNoGreenLightAccess();
+                    // Update the green light duration, indicator and set the green light access.
+                    node.updateIndicator();
+                    int newGreenLightIndicator = node.getEdgeIndicator();
+                    getIncomingEdge(i, newGreenLightIndicator).setAsHasGreenLightAccess();
+                    long ticksAtRed = this.queueSchedule.takeQueueAtGreen(
+                            this.topology.getIdOfStreet(this.topology.getIncomingStreet(i, newGreenLightIndicator)),
+                            this.numberOfTicks + 1);
+                    if (ticksAtRed > 0) {
+                        node.getSignalStatistics().recordCarHeldAtRed(newGreenLightIndicator, ticksAtRed);
+                    }
+                    node.getSignalStatistics().recordEndOfPhase(this.numberOfTicks, newGreenLightIndicator);
+                }
+                node.updateDuration();
+            }
+        }
+        this.numberOfTicks++;
+        if (this.rerouting != null) {
+            this.rerouting.update(this.edges, this.numberOfTicks);
+        }
+    }
+
+    /**
+     * Moves the cars of all edges on the simulating thread, edge after edge in the order of their ids.
+     * A car that crosses to another edge moves onto it right away, so whether the cars of that edge already moved
+     * in this tick depends on the ids of both edges.
+     */
+    private void moveCarsEdgeByEdge() {
+        // Edges are handled in the order of their ids, independent of the order they are laid out in.
+        // Queues are only handled if their first car may leave, between the microscopic edges of lower and higher id.
+        this.queueSchedule.takeDueQueues(this.numberOfTicks);
+        int idOfReadyQueue = this.queueSchedule.getNextReadyStreet(0);
+        int numberOfMicroscopicStreets = this.idsOfMicroscopicStreets.length;
+        for (int i = 0; i <= numberOfMicroscopicStreets; i++) {
+            int idOfStreet = i < numberOfMicroscopicStreets ? this.idsOfMicroscopicStreets[i] : this.edges.size();
+            while (idOfReadyQueue != -1 && idOfReadyQueue < idOfStreet) {
+                updateQueue(findEdgeByID(idOfReadyQueue));
+                idOfReadyQueue = this.queueSchedule.getNextReadyStreet(idOfReadyQueue + 1);
+            }
+            if (idOfStreet == this.edges.size()) {
+                break;
+            }
+            Edge edgeToHandle = findEdgeByID(idOfStreet);
+            while (!edgeToHandle.allCarsStay() && !edgeToHandle.isEmpty() && !edgeToHandle.isFullyUpdated()) {
+                // We start with the first car which is closet to end of edge.
+                int wishedDistanceOnNextEdge = edgeToHandle.getFirstCarWishedDistance();
+
+                // If the wished distance to travel on next edge is negative or 0,
+                // then all cars currently on this edge will not move to next edge.
+                if (wishedDistanceOnNextEdge <= 0) {
+                    edgeToHandle.updateInternally();
+                    edgeToHandle.setAsAllCarsStay();
+                } else if (this.isSink[edgeToHandle.getId()] || hasReachedDestination(edgeToHandle)) {
+                    // A car that would cross the end of a sink or of the last street to its destination
+                    // leaves the network instead, regardless of lights.
+                    removeCar(edgeToHandle, 0);
+                } else {
+                    // If the wished distance to travel on next edge is greater than 0,
+                    // will attempt to update the car on next edge.
+                    updateCar(edgeToHandle, wishedDistanceOnNextEdge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the cars of all edges in rounds, with the edges split among the workers. In a round, every edge that
+     * still moves cars looks at its first car: either the car stays and the edge moves its other cars, or the car
+     * leaves the network, or it is posted into the mailbox of its next edge. Then each mailbox is answered in the
+     * order of the ids of the streets the cars come from, by the same rules of distance as
+     * {@link #updateCar(Edge, int)}, and the accepted cars move over. The rounds end once no edge moves a car.
+     * So the result only depends on the ids of the streets, not on the number of workers or regions or how their
+     * threads are scheduled. Unlike edge after edge, it does not depend on the ids whether the cars of the next edge
+     * already moved: a crossing car is placed behind the cars of its next edge as they are once every edge decided
+     * what to do with its first car, and an edge whose first car stays moved its other cars by then.
+     * If the network is split into regions, each step runs one task per region over the edges of the region, and a
+     * post, answer or car for a street of another region is handed over by {@link RegionExchange}.
+     */
+    private void moveCarsInRounds() {
+        RegionPartition partition = this.regionPartition;
+        if (this.transferMailboxes == null) {
+            this.transferMailboxes = new TransferMailboxes(this.topology, partition);
+            if (partition.getNumberOfRegions() > 1) {
+                this.regionExchange = new RegionExchange(this.topology, partition,
+                        new LoopbackTransport(partition.getNumberOfRegions()));
+            }
+            this.activeEdges = new int[this.edges.size()];
+            this.numbersOfActiveEdges = new int[partition.getNumberOfRegions()];
+            this.stepsOfFirstCars = new byte[this.edges.size()];
+            this.edgeWorkload = new EdgeWorkload(this.edges.size(), this.crossingWorkers.getNumberOfWorkers());
+            this.edgeWorkload.setSplitByCost(!this.isSplitIntoEqualParts);
+        }
+        this.edgeWorkload.estimate(this.edges, this.numberOfTicks);
+        TransferMailboxes mailboxes = this.transferMailboxes;
+        int[] streetsOfRegions = partition.getStreetsOfRegions();
+        boolean hasActiveEdges = false;
+        for (int region = 0; region < partition.getNumberOfRegions(); region++) {
+            int start = partition.getStartOfRegion(region);
+            int numberOfActiveEdges = 0;
+            for (int i = start; i < partition.getStartOfRegion(region + 1); i++) {
+                if (!this.edges.get(streetsOfRegions[i]).isEmpty()) {
+                    this.activeEdges[start + numberOfActiveEdges++] = streetsOfRegions[i];
+                }
+            }
+            this.numbersOfActiveEdges[region] = numberOfActiveEdges;
+            hasActiveEdges |= numberOfActiveEdges > 0;
+        }
+        while (hasActiveEdges) {
+            runInRegions(this.activeEdges, region -> this.numbersOfActiveEdges[region], true, this::postFirstCar);
+            // Cars leave one after another, as they change the roster shared by all edges.
+            for (int region = 0; region < partition.getNumberOfRegions(); region++) {
+                int start = partition.getStartOfRegion(region);
+                for (int i = start; i < start + this.numbersOfActiveEdges[region]; i++) {
+                    if (this.stepsOfFirstCars[this.activeEdges[i]] == FIRST_CAR_LEAVES) {
+                        removeCar(this.edges.get(this.activeEdges[i]), 0);
+                    }
+                }
+            }
+            runInRegions(mailboxes.getTargets(), mailboxes::getNumberOfTargets, false, this::answerMailbox);
+            runInRegions(this.activeEdges, region -> this.numbersOfActiveEdges[region], true, this::sendFirstCar);
+            runInRegions(mailboxes.getTargets(), mailboxes::getNumberOfTargets, false, this::receiveCars);
+            mailboxes.clear();
+            // An edge whose first car left or crossed looks at its next car in the next round.
+            hasActiveEdges = false;
+            for (int region = 0; region < partition.getNumberOfRegions(); region++) {
+                int start = partition.getStartOfRegion(region);
+                int numberOfNextActiveEdges = 0;
+                for (int i = start; i < start + this.numbersOfActiveEdges[region]; i++) {
+                    int indexOfStreet = this.activeEdges[i];
+                    byte step = this.stepsOfFirstCars[indexOfStreet];
+                    boolean hasCrossed = step == FIRST_CAR_CROSSES
+                            && mailboxes.getMovement(indexOfStreet) != TransferMailboxes.REJECTED;
+                    if (hasCrossed) {
+                        this.numberOfCrossings++;
+                    }
+                    if (hasCrossed || step == FIRST_CAR_LEAVES) {
+                        this.activeEdges[start + numberOfNextActiveEdges++] = indexOfStreet;
+                    }
+                }
+                this.numbersOfActiveEdges[region] = numberOfNextActiveEdges;
+                hasActiveEdges |= numberOfNextActiveEdges > 0;
+            }
+        }
+    }
+
+    /**
+     * Runs one step of a round over the given edges, which are laid out in the blocks of their regions.
+     * With a single region, the edges are split among all workers. Otherwise each region is one task, which first
+     * receives what the other regions sent in the step before and sends what it has for them at its end.
+     *
+     * @param indices indices of edges in the blocks of their regions
+     * @param numberOfIndices number of valid entries at the start of the block of each region, read once the
+     *      region received its messages
+     * @param isByCost true if the work of the action grows with the cars of an edge, so the edges are split among
+     *      the workers by their estimated work, false to split them by their number
+     * @param action action applied to the index of each edge
+     */
+    private void runInRegions(int[] indices, IntUnaryOperator numberOfIndices, boolean isByCost,
+                              IntConsumer action) {
+        RegionExchange exchange = this.regionExchange;
+        if (exchange == null) {
+            this.crossingWorkers.run(indices, numberOfIndices.applyAsInt(0), this.edgeWorkload, isByCost, action);
+            return;
+        }
+        this.crossingWorkers.runEach(this.regionPartition.getNumberOfRegions(), region -> {
+            exchange.receive(region, this.transferMailboxes);
+            int start = this.regionPartition.getStartOfRegion(region);
+            int end = start + numberOfIndices.applyAsInt(region);
+            for (int i = start; i < end; i++) {
+                action.accept(indices[i]);
+            }
+            exchange.send(region);
+        });
+        exchange.finishStep();
+    }
+
+    /**
+     * Decides what an edge does with its first car in this round, only changing this edge and its signal
+     * statistics. A car that wants to cross a green light is posted into the mailbox of its next edge.
+     *
+     * @param indexOfStreet index of street of the edge
+     */
+    private void postFirstCar(int indexOfStreet) {
+        Edge edgeToHandle = this.edges.get(indexOfStreet);
+        this.stepsOfFirstCars[indexOfStreet] = FIRST_CAR_STAYS;
+        if (edgeToHandle.allCarsStay() || edgeToHandle.isEmpty() || edgeToHandle.isFullyUpdated()) {
+            return;
+        }
+        int wishedDistanceOnNextEdge = edgeToHandle.getFirstCarWishedDistance();
+        if (wishedDistanceOnNextEdge <= 0) {
+            edgeToHandle.updateInternally();
+            edgeToHandle.setAsAllCarsStay();
+        } else if (this.isSink[indexOfStreet] || hasReachedDestination(edgeToHandle)) {
+            this.stepsOfFirstCars[indexOfStreet] = FIRST_CAR_LEAVES;
+        } else if (checkGreenLightAccess(edgeToHandle)) {
+            if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION) {
+                edgeToHandle.getEndNode().getSignalStatistics().recordCarWaitingAtGreen(this.numberOfTicks);
+            }
+            int indexOfNextStreet = findNextEdge(edgeToHandle).getId();
+            if (isAcrossRegions(indexOfStreet, indexOfNextStreet)) {
+                this.regionExchange.sendPost(indexOfStreet, indexOfNextStreet, wishedDistanceOnNextEdge);
+            } else {
+                this.transferMailboxes.post(indexOfNextStreet, this.topology.getIdOfStreet(indexOfStreet),
+                        wishedDistanceOnNextEdge);
+            }
+            this.stepsOfFirstCars[indexOfStreet] = FIRST_CAR_CROSSES;
+        }
+    }
+
+    private boolean isAcrossRegions(int indexOfStreet, int indexOfOtherStreet) {
+        return this.regionExchange != null && this.regionExchange.isAcrossRegions(indexOfStreet, indexOfOtherStreet);
     }
 
     /**
-     * Creates nodes and add them to the graph.
+     * Answers the cars in the mailbox of an edge in the order of the ids of the streets they come from.
+     * A car is accepted as long as it keeps the minimum distance to the last car, including the cars accepted
+     * before it. The cars are only added once all mailboxes are answered and the accepted cars left their edges.
+     *
+     * @param indexOfStreet index of street of the edge
      */
-    public void initiateNode() {
-        for (NodeData nodeData : this.nodeDataList.values()) {
-            int duration = nodeData.getDurationOfGreenLight();
-            if (duration != 0) {
-                this.graph.put(new Node(nodeData.getId(), duration, nodeData.getNumberOfIncomingStreets()),
-                        new ArrayList<>());
+    private void answerMailbox(int indexOfStreet) {
+        TransferMailboxes mailboxes = this.transferMailboxes;
+        Edge nextEdge = this.edges.get(indexOfStreet);
+        mailboxes.sort(indexOfStreet);
+        int lastCarPosition = nextEdge.isEmpty() ? -1 : nextEdge.getLastCarPosition();
+        for (int i = 0; i < mailboxes.getNumberOfTransfers(indexOfStreet); i++) {
+            int indexOfSource = this.topology.getIndexOfStreet(mailboxes.getIdOfSource(indexOfStreet, i));
+            int wishedDistance = mailboxes.getWishedDistance(indexOfStreet, i);
+            int movement;
+            if (lastCarPosition == -1) {
+                lastCarPosition = Math.min(wishedDistance, nextEdge.getLength());
+                movement = lastCarPosition;
+            } else if (lastCarPosition >= MINIMUM_DISTANCE_BETWEEN_CARS) {
+                lastCarPosition = Math.min(wishedDistance, lastCarPosition - MINIMUM_DISTANCE_BETWEEN_CARS);
+                movement = lastCarPosition;
+            } else {
+                movement = TransferMailboxes.REJECTED;
+            }
+            if (isAcrossRegions(indexOfStreet, indexOfSource)) {
+                this.regionExchange.sendAnswer(indexOfStreet, indexOfSource, movement);
             } else {
-                this.graph.put(new Node(nodeData.getId()), new ArrayList<>());
+                mailboxes.answer(indexOfSource, movement);
             }
         }
     }
 
     /**
-     * Creates edges and adds edges to the graph.
-     * Meanwhile, for each edge, the end node will also be updated.
+     * Lets the first car of an edge that was posted into a mailbox cross into the outbox of the edge if it was
+     * accepted, or hands it over to the region of its next edge. Otherwise all cars of the edge stay and the edge
+     * moves them.
+     *
+     * @param indexOfStreet index of street of the edge
      */
-    public void initiateEdge() {
-        for (int i = 0; i < this.streetDataList.size(); i++) {
-            StreetData streetData = this.streetDataList.get(i);
-            Edge newEdge = null;
-            Node edgeStartNode = null;
-            Node endNode = null;
-            for (Node node : this.graph.keySet()) {
-                if (node.getId() == streetData.getIdOfStartNode()) {
-                    edgeStartNode = node;
-                }
-                if (node.getId() == streetData.getIdOfEndNode()) {
-                    endNode = node;
-                    newEdge = new Edge(i, streetData, endNode);
-                }
-                //Add edge to the graph.
-                if (edgeStartNode != null & newEdge != null) {
-                    this.graph.get(edgeStartNode).add(newEdge);
-                    endNode.addEdge(newEdge);
+    private void sendFirstCar(int indexOfStreet) {
+        if (this.stepsOfFirstCars[indexOfStreet] != FIRST_CAR_CROSSES) {
+            return;
+        }
+        Edge edgeToHandle = this.edges.get(indexOfStreet);
+        int movement = this.transferMailboxes.getMovement(indexOfStreet);
+        if (movement == TransferMailboxes.REJECTED) {
+            edgeToHandle.setAsAllCarsStay();
+            edgeToHandle.updateInternally();
+            return;
+        }
+        // The next edge is found before the car turns to its next wished direction.
+        int indexOfNextStreet = this.regionExchange == null ? indexOfStreet : findNextEdge(edgeToHandle).getId();
+        edgeToHandle.prepareFirstCarForCrossing();
+        // Check whether it is a pure turn (that means car moves from end of old edge to Position 0 of new edge).
+        if (edgeToHandle.isFirstCarAtEndOfEdge() && movement == 0) {
+            edgeToHandle.stopFirstCar();
+        }
+        if (isAcrossRegions(indexOfStreet, indexOfNextStreet)) {
+            this.regionExchange.sendCar(indexOfStreet, indexOfNextStreet, movement, edgeToHandle);
+            edgeToHandle.removeFirstCar();
+        } else {
+            edgeToHandle.moveFirstCarToOutbox();
+        }
+        if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION) {
+            edgeToHandle.getEndNode().getSignalStatistics()
+                    .recordCrossing(this.topology.getPositionAtEndNode(indexOfStreet));
+        }
+    }
+
+    /**
+     * Adds the accepted cars of the mailbox of an edge, taking them from the outboxes of the edges they come from,
+     * or from what was received of the edges in other regions.
+     *
+     * @param indexOfStreet index of street of the edge
+     */
+    private void receiveCars(int indexOfStreet) {
+        TransferMailboxes mailboxes = this.transferMailboxes;
+        Edge nextEdge = this.edges.get(indexOfStreet);
+        for (int i = 0; i < mailboxes.getNumberOfTransfers(indexOfStreet); i++) {
+            int indexOfSource = this.topology.getIndexOfStreet(mailboxes.getIdOfSource(indexOfStreet, i));
+            if (isAcrossRegions(indexOfStreet, indexOfSource)) {
+                if (!this.regionExchange.placeReceivedCar(indexOfSource, nextEdge, this.carRoster)) {
                     break;
                 }
+                continue;
+            }
+            int movement = mailboxes.getMovement(indexOfSource);
+            if (movement == TransferMailboxes.REJECTED) {
+                break;
             }
+            nextEdge.takeCarOfOutbox(this.edges.get(indexOfSource), movement);
         }
     }
 
     /**
-     * Sets the green light permission at the initial state.
+     * Lets the first cars of a queue leave that drove the whole edge, as long as their crossing is green and
+     * their next street has room, but at most as many per tick as the speed limit lets pass.
+     *
+     * @param edgeToHandle edge that is simulated as a queue
      */
-    public void setInitialGreenLightPermission() {
-        for (Node node : this.graph.keySet()) {
-            if (node.getType() == NodeType.INTERSECTION) {
-                node.getIncomingEdges().get(0).setAsHasGreenLightAccess();
+    private void updateQueue(Edge edgeToHandle) {
+        edgeToHandle.reset();
+        int outflow = 0;
+        while (outflow < edgeToHandle.getOutflowPerTick() && !edgeToHandle.allCarsStay() && !edgeToHandle.isEmpty()
+                && edgeToHandle.isFirstCarReady()) {
+            if (this.isSink[edgeToHandle.getId()] || hasReachedDestination(edgeToHandle)) {
+                removeCar(edgeToHandle, 0);
+            } else {
+                updateCar(edgeToHandle, edgeToHandle.getFirstCarWishedDistance());
             }
+            outflow++;
+        }
+        // A queue stays ready while its first car waits for room, otherwise it is due again when its next car is.
+        int idOfStreet = this.topology.getIdOfStreet(edgeToHandle.getId());
+        if (edgeToHandle.isEmpty() || !edgeToHandle.isFirstCarReady()) {
+            this.queueSchedule.removeReadyStreet(idOfStreet);
+            scheduleQueue(edgeToHandle);
+        } else if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION
+                && !edgeToHandle.hasGreenLightAccess()) {
+            // The first car was counted as held at red once, the following ticks are counted when it is green.
+            this.queueSchedule.putAsideAtRed(idOfStreet, this.numberOfTicks + 1);
         }
     }
 
     /**
-     * Resets the status of all cars from "updated" to "not updated". So they are ready for updates next tick.
+     * Lets the next waiting car of every source enter the start of its street if it is free.
+     * Sources are handled in the order of the ids of their streets, so the spawned cars get the same ids
+     * whatever order the streets are laid out in.
      */
-    public void resetCars() {
-        for (Node node : this.graph.keySet()) {
-            for (Edge edge : this.graph.get(node)) {
-                edge.reset();
+    private void spawnCarsOfSources() {
+        for (int i = 0; i < this.sources.length; i++) {
+            CarSource source = this.sources[this.topology.getIndexOfStreet(i)];
+            if (source == null) {
+                continue;
+            }
+            source.recordTick();
+            Edge edge = this.edges.get(source.getIndexOfStreet());
+            if (source.hasWaitingCar() && hasRoomAtStart(edge)) {
+                source.takeWaitingCar();
+                edge.spawnCar(this.carRoster.getCarPool(), this.carRoster.add(this.carRoster.takeNextIdOfCar(),
+                        source.getWishedSpeed(), source.getAccelerator()));
+                if (edge.getNumberOfCars() == 1) {
+                    scheduleQueue(edge);
+                }
+                this.numberOfSpawnedCars++;
             }
         }
     }
 
     /**
-     * Finds edge by id.
-     * First checks the list of edges connected to the id of start node.
-     * Then uses the id of street to find the edge.
+     * Checks whether the first car of the edge drives to the end node of the edge.
+     *
+     * @param edge edge with at least one car
+     * @return true if the end node of the edge is the destination of the first car, otherwise false
+     */
+    private boolean hasReachedDestination(Edge edge) {
+        return this.topology.getRoutingTable() != null
+                && edge.getDestinationOfFirstCar() == this.topology.getEndNodeOfStreet(edge.getId());
+    }
+
+    /**
+     * Checks whether a car can be placed at the start of the edge.
+     *
+     * @param edge edge to be checked
+     * @return true if the edge is empty or its last car is far enough from the start, otherwise false
+     */
+    private boolean hasRoomAtStart(Edge edge) {
+        return edge.isEmpty() || edge.getLastCarPosition() >= MINIMUM_DISTANCE_BETWEEN_CARS;
+    }
+
+    /**
+     * Removes a car from the network and from the roster of its cars.
      *
+     * @param edge edge the car is on
+     * @param index index of car on the edge
+     */
+    private void removeCar(Edge edge, int index) {
+        this.carRoster.remove(edge.getIdOfCar(index));
+        edge.removeCar(index);
+        this.numberOfRemovedCars++;
+    }
+
+    /**
+     * Spawns a car standing at the start of a street. The injection is logged.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param idOfCar id of car, which must not be on the network
      * @param idOfStreet id of street
-     * @return edge that matches the id of street, if not found, return null
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @throws InquiryException if the street does not exist, the id is on the network, the attributes are not valid
+     *      or the start of the street is occupied
      */
-    public Edge findEdgeByID(int idOfStreet) {
-        int idOfStartNode = this.streetDataList.get(idOfStreet).getIdOfStartNode();
-        Node newStartNode = new Node(idOfStartNode);
-        for (Edge edgeToFind : this.graph.get(newStartNode)) {
-            if (edgeToFind.getId() == idOfStreet) {
-                return edgeToFind;
-            }
+    public void spawnCar(int idOfCar, int idOfStreet, int wishedSpeed, int accelerator) throws InquiryException {
+        checkStreet(idOfStreet);
+        if (this.carRoster.getIndexOfCar(idOfCar) != -1) {
+            throw new InquiryException(ErrorMessage.CAR_EXISTS.format(idOfCar));
+        }
+        checkAttributes(wishedSpeed, accelerator);
+        if (!hasRoomAtStart(findEdgeByID(idOfStreet))) {
+            throw new InquiryException(ErrorMessage.NO_ROOM_AT_START.format(idOfStreet));
         }
-        return null;
+        log(new Injection(Injection.Kind.SPAWN, this.numberOfTicks, idOfCar,
+                this.topology.getIndexOfStreet(idOfStreet), 0, wishedSpeed, accelerator));
     }
 
     /**
-     * Executes simulation for one tick: updates cars on each edge and then updates nodes.
+     * Removes a car from the network, wherever it is. The injection is logged.
+     * It takes time in proportion to the number of cars. Must be called by the thread that simulates this network,
+     * between two ticks.
+     *
+     * @param idOfCar id of car
+     * @throws InquiryException if the car is not on the network
      */
-    public void update() {
-        for (int i = 0; i < this.streetDataList.size(); i++) {
-            Edge edgeToHandle = findEdgeByID(i);
-            while (!edgeToHandle.allCarsStay() && !edgeToHandle.isEmpty() && !edgeToHandle.isFullyUpdated()) {
-                // We start with the first car which is closet to end of edge.
-                int wishedDistanceOnNextEdge = edgeToHandle.getFirstCarWishedDistance();
+    public void despawnCar(int idOfCar) throws InquiryException {
+        if (this.carRoster.getIndexOfCar(idOfCar) == -1) {
+            throw new InquiryException(ErrorMessage.ID_NOT_FOUND.format(idOfCar));
+        }
+        log(new Injection(Injection.Kind.DESPAWN, this.numberOfTicks, idOfCar, 0, 0, 0, 0));
+    }
 
-                // If the wished distance to travel on next edge is negative or 0,
-                // then all cars currently on this edge will not move to next edge.
-                if (wishedDistanceOnNextEdge <= 0) {
-                    edgeToHandle.updateInternally();
-                    edgeToHandle.setAsAllCarsStay();
-                } else {
-                    // If the wished distance to travel on next edge is greater than 0,
-                    // will attempt to update the car on next edge.
-                    updateCar(edgeToHandle, wishedDistanceOnNextEdge);
-                }
-            }
+    /**
+     * Sets the source of a street, which replaces its previous source. A rate of 0 removes the source.
+     * The injection is logged. Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param idOfStreet id of street
+     * @param carsPerMinute number of cars arriving every 60 ticks
+     * @param wishedSpeed wished speed of the cars
+     * @param accelerator accelerator of the cars
+     * @throws InquiryException if the street does not exist, the rate is negative or the attributes are not valid
+     */
+    public void setSource(int idOfStreet, int carsPerMinute, int wishedSpeed, int accelerator)
+            throws InquiryException {
+        checkStreet(idOfStreet);
+        if (carsPerMinute < 0) {
+            throw new InquiryException(ErrorMessage.ILLEGAL_RATE.toString());
         }
+        if (carsPerMinute > 0) {
+            checkAttributes(wishedSpeed, accelerator);
+        }
+        log(new Injection(Injection.Kind.SOURCE, this.numberOfTicks, 0, this.topology.getIndexOfStreet(idOfStreet),
+                carsPerMinute, wishedSpeed, accelerator));
+    }
 
-        // Change the status of car from "updated" to "not updated". So it will be ready for the next tick.
-        resetCars();
+    /**
+     * Sets or removes the sink of a street. The injection is logged.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param idOfStreet id of street
+     * @param isSink true if cars leave the network at the end of the street, otherwise false
+     * @throws InquiryException if the street does not exist
+     */
+    public void setSink(int idOfStreet, boolean isSink) throws InquiryException {
+        checkStreet(idOfStreet);
+        log(new Injection(Injection.Kind.SINK, this.numberOfTicks, 0, this.topology.getIndexOfStreet(idOfStreet),
+                isSink ? 1 : 0, 0, 0));
+    }
 
-        // Update the crossings(nodes) by changing the green light duration and green light access.
-        for (Node node : this.graph.keySet()) {
-            if (node.getType() == NodeType.INTERSECTION) {
-                if (node.isEndOfDuration()) {
-                    // Reset current edge, so the edge no longer has green light access.
-                    int greenLightIndicator = node.getEdgeIndicator();
-                    node.getIncomingEdges().get(greenLightIndicator).setAsNoGreenLightAccess();
-                    // Update the green light duration, indicator and set the green light access.
-                    node.updateIndicator();
-                    int newGreenLightIndicator = node.getEdgeIndicator();
-                    node.getIncomingEdges().get(newGreenLightIndicator).setAsHasGreenLightAccess();
+    /**
+     * Lets the cars with a destination route around congested streets from now on, starting again from the
+     * free-flow tables of the topology. The injection is logged.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param thresholdInPercent drift of the weight of a street that leads to new tables
+     * @param delayInTicks number of ticks from starting a computation of tables until they are used
+     * @throws InquiryException if no car has a destination or the threshold or delay is not positive
+     */
+    public void startRerouting(int thresholdInPercent, int delayInTicks) throws InquiryException {
+        if (this.topology.getRoutingTable() == null) {
+            throw new InquiryException(ErrorMessage.NO_ROUTING.toString());
+        }
+        if (thresholdInPercent <= 0 || delayInTicks <= 0) {
+            throw new InquiryException(ErrorMessage.ILLEGAL_REROUTING.toString());
+        }
+        log(new Injection(Injection.Kind.REROUTING, this.numberOfTicks, delayInTicks, 0, thresholdInPercent, 0, 0));
+    }
+
+    /**
+     * Lets the cars with a destination route by the free-flow tables of the topology again. The injection is logged.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @throws InquiryException if rerouting is not switched on
+     */
+    public void stopRerouting() throws InquiryException {
+        if (this.rerouting == null) {
+            throw new InquiryException(ErrorMessage.NO_REROUTING.toString());
+        }
+        log(new Injection(Injection.Kind.REROUTING, this.numberOfTicks, 0, 0, 0, 0, 0));
+    }
+
+    /**
+     * Checks whether the cars with a destination route around congested streets.
+     *
+     * @return true if rerouting is switched on, otherwise false
+     */
+    public boolean isRerouting() {
+        return this.rerouting != null;
+    }
+
+    /**
+     * Gets the settings of rerouting, the number of drifted streets and the tables computed so far.
+     *
+     * @return string of the statistics
+     * @throws InquiryException if rerouting is not switched on
+     */
+    public String getReroutingStatistics() throws InquiryException {
+        if (this.rerouting == null) {
+            throw new InquiryException(ErrorMessage.NO_REROUTING.toString());
+        }
+        return this.rerouting.getStatistics();
+    }
+
+    /**
+     * Checks a car arriving from outside the network by the same rules as a spawned car.
+     *
+     * @param idOfStreet id of the street the car enters
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @throws InquiryException if the street does not exist or the attributes are not valid
+     */
+    public void checkArrival(int idOfStreet, int wishedSpeed, int accelerator) throws InquiryException {
+        checkStreet(idOfStreet);
+        checkAttributes(wishedSpeed, accelerator);
+    }
+
+    /**
+     * Lets a checked car arriving from outside the network enter the start of a street if it is free.
+     * The car gets the next id no car of the network had before, like a car of a source, and is logged like a
+     * spawned car, so past ticks are rebuilt without the origin of the arrival.
+     * Must be called by the thread that simulates this network, between two ticks.
+     *
+     * @param idOfStreet id of the street the car enters
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @return true if the car entered, false if the start of the street is occupied
+     */
+    public boolean spawnArrival(int idOfStreet, int wishedSpeed, int accelerator) {
+        if (!hasRoomAtStart(findEdgeByID(idOfStreet))) {
+            return false;
+        }
+        log(new Injection(Injection.Kind.SPAWN, this.numberOfTicks, this.carRoster.takeNextIdOfCar(),
+                this.topology.getIndexOfStreet(idOfStreet), 0, wishedSpeed, accelerator));
+        return true;
+    }
+
+    /**
+     * Checks whether the street exists.
+     *
+     * @param idOfStreet id of street
+     * @throws InquiryException if the street does not exist
+     */
+    private void checkStreet(int idOfStreet) throws InquiryException {
+        if (idOfStreet < 0 || idOfStreet >= this.edges.size()) {
+            throw new InquiryException(ErrorMessage.STREET_NOT_FOUND.format(idOfStreet));
+        }
+    }
+
+    /**
+     * Checks the attributes of a car to be spawned by the same rules as the cars of the simulation files.
+     *
+     * @param wishedSpeed wished speed of car
+     * @param accelerator accelerator of car
+     * @throws InquiryException if the wished speed or accelerator is not valid
+     */
+    private static void checkAttributes(int wishedSpeed, int accelerator) throws InquiryException {
+        try {
+            new Car(0, wishedSpeed, accelerator);
+        } catch (ParserException e) {
+            throw new InquiryException(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs a checked injection and applies it.
+     *
+     * @param injection injection to be applied
+     */
+    private void log(Injection injection) {
+        this.injections.add(injection);
+        apply(injection);
+    }
+
+    /**
+     * Applies an injection that was checked when it was made.
+     *
+     * @param injection injection to be applied
+     */
+    private void apply(Injection injection) {
+        int indexOfStreet = injection.getIndexOfStreet();
+        if (injection.getKind() == Injection.Kind.SPAWN) {
+            Edge edge = this.edges.get(indexOfStreet);
+            edge.spawnCar(this.carRoster.getCarPool(), this.carRoster.add(injection.getIdOfCar(),
+                    injection.getWishedSpeed(), injection.getAccelerator()));
+            if (edge.getNumberOfCars() == 1) {
+                scheduleQueue(edge);
+            }
+            this.numberOfSpawnedCars++;
+        } else if (injection.getKind() == Injection.Kind.DESPAWN) {
+            for (Edge edge : this.edges) {
+                int index = edge.getIndexOfCar(injection.getIdOfCar());
+                if (index != -1) {
+                    removeCar(edge, index);
+                    if (index == 0) {
+                        scheduleQueue(edge);
+                    }
+                    return;
                 }
-                node.updateDuration();
             }
+        } else if (injection.getKind() == Injection.Kind.SOURCE) {
+            if (this.sources[indexOfStreet] != null) {
+                this.numberOfSources--;
+            }
+            this.sources[indexOfStreet] = null;
+            if (injection.getCarsPerMinute() > 0) {
+                this.sources[indexOfStreet] = new CarSource(indexOfStreet, injection.getCarsPerMinute(),
+                        injection.getWishedSpeed(), injection.getAccelerator());
+                this.numberOfSources++;
+            }
+        } else if (injection.getKind() == Injection.Kind.SINK) {
+            this.isSink[indexOfStreet] = injection.getCarsPerMinute() != 0;
+        } else {
+            this.rerouting = injection.getCarsPerMinute() == 0
+                    ? null : new Rerouting(this.topology, injection.getCarsPerMinute(), injection.getIdOfCar());
+        }
+    }
+
+    /**
+     * Gets the number of injections logged by this network.
+     *
+     * @return the number of injections
+     */
+    public int getNumberOfInjections() {
+        return this.injections.size();
+    }
+
+    /**
+     * Applies the injections logged by this network to a network that rebuilds one of its past ticks.
+     * Starting with the given injection, all injections made up to the current tick of the past network are applied.
+     *
+     * @param pastNetwork network built upon the same topology that is simulated forward
+     * @param numberOfAppliedInjections number of injections already applied to the past network
+     * @return the number of injections applied to the past network afterwards
+     */
+    public int replayInjections(StreetNetwork pastNetwork, int numberOfAppliedInjections) {
+        int next = numberOfAppliedInjections;
+        while (next < this.injections.size()
+                && this.injections.get(next).getTick() <= pastNetwork.getNumberOfTicks()) {
+            pastNetwork.log(this.injections.get(next));
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * Gets the statistics of spawned and removed cars, sources, sinks and the pool of car records.
+     *
+     * @return string of the statistics
+     */
+    public String getInjectionStatistics() {
+        int numberOfSinks = 0;
+        for (boolean sink : this.isSink) {
+            numberOfSinks += sink ? 1 : 0;
         }
+        CarPool carPool = this.carRoster.getCarPool();
+        return String.format(FORMAT_INJECTION_STATISTICS, this.numberOfSpawnedCars, this.numberOfRemovedCars,
+                this.carRoster.getNumberOfSpawnedCars(), this.numberOfSources, numberOfSinks,
+                carPool.getNumberOfRecords(), carPool.getNumberOfFreeRecords());
     }
 
     /**
@@ -178,6 +1528,8 @@ public void update() {
      */
     public boolean checkGreenLightAccess(Edge edgeToHandle) {
         if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION && !edgeToHandle.hasGreenLightAccess()) {
+            edgeToHandle.getEndNode().getSignalStatistics()
+                    .recordCarHeldAtRed(this.topology.getPositionAtEndNode(edgeToHandle.getId()));
             edgeToHandle.setAsAllCarsStay();
             edgeToHandle.updateInternally();
             return false;
@@ -195,19 +1547,12 @@ public void updateCar(Edge edgeToHandle, int wishedRemainingDistance) {
         if (!checkGreenLightAccess(edgeToHandle)) {
             return;
         }
-
-        // Find next edge.
-        Edge nextEdge;
-        Car carToHandle = edgeToHandle.getCar();
-        int wishedDirection = carToHandle.getWishedDirection();
-        Node endNode = edgeToHandle.getEndNode();
-
-        if (this.graph.get(endNode).size() < wishedDirection + 1) {
-            nextEdge = this.graph.get(endNode).get(0);
-        } else {
-            nextEdge = this.graph.get(endNode).get(wishedDirection);
+        if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION) {
+            edgeToHandle.getEndNode().getSignalStatistics().recordCarWaitingAtGreen(this.numberOfTicks);
         }
 
+        Edge nextEdge = findNextEdge(edgeToHandle);
+
         // Update car depending on the situation on next edge.
         // If there is not enough space, then the car stays on old edge, otherwise the car is added to the new edge.
         int availableDistance = nextEdge.getLastCarPosition();
@@ -218,9 +1563,7 @@ public void updateCar(Edge edgeToHandle, int wishedRemainingDistance) {
         }
 
         // Car now made it to the next edge.
-        carToHandle.setAsUpdated();
-        carToHandle.updateWishedDirection();
-        edgeToHandle.updateSpeedOfFirstCar();
+        edgeToHandle.prepareFirstCarForCrossing();
         int movement;
         // Check whether the next edge is empty of cars.
         if (nextEdge.isEmpty()) {
@@ -230,10 +1573,253 @@ public void updateCar(Edge edgeToHandle, int wishedRemainingDistance) {
         }
         // Check whether it is a pure turn (that means car moves from end of old edge to Position 0 of new edge).
         if (edgeToHandle.isFirstCarAtEndOfEdge() && movement == 0) {
-            carToHandle.setCurrentSpeed(0);
+            edgeToHandle.stopFirstCar();
+        }
+        nextEdge.moveFirstCarFrom(edgeToHandle, movement);
+        if (nextEdge.getNumberOfCars() == 1) {
+            scheduleQueue(nextEdge);
+        }
+        this.numberOfCrossings++;
+        if (edgeToHandle.getEndNode().getType() == NodeType.INTERSECTION) {
+            edgeToHandle.getEndNode().getSignalStatistics()
+                    .recordCrossing(this.topology.getPositionAtEndNode(edgeToHandle.getId()));
+        }
+    }
+
+    /**
+     * Finds the edge the first car of the given edge crosses to.
+     * A car with a destination takes the next hop of its table if it can reach it, otherwise its wished direction.
+     *
+     * @param edgeToHandle edge where car is positioned
+     * @return the next edge of the first car
+     */
+    private Edge findNextEdge(Edge edgeToHandle) {
+        int wishedDirection = edgeToHandle.getWishedDirectionOfFirstCar();
+        int endNode = this.topology.getEndNodeOfStreet(edgeToHandle.getId());
+        RoutingTable routingTable = this.rerouting == null
+                ? this.topology.getRoutingTable() : this.rerouting.getTables();
+        if (routingTable != null && edgeToHandle.getDestinationOfFirstCar() != -1) {
+            int nextHop = routingTable.getNextHop(edgeToHandle.getDestinationOfFirstCar(), endNode);
+            if (nextHop != RoutingTable.UNREACHABLE) {
+                wishedDirection = nextHop;
+            }
+        }
+        if (this.topology.getNumberOfOutgoingStreets(endNode) < wishedDirection + 1) {
+            wishedDirection = 0;
+        }
+        return this.edges.get(this.topology.getOutgoingStreet(endNode, wishedDirection));
+    }
+
+    /**
+     * Gets the traffic statistics of a street, including occupancy, mean speed, queue length, inflow and outflow.
+     * The statistics are read from the aggregates of the edge, the cars are not visited.
+     *
+     * @param idOfStreet id of street
+     * @return string of the statistics of the street
+     * @throws InquiryException if the id of street does not exist
+     */
+    public String getStreetStatistics(int idOfStreet) throws InquiryException {
+        if (idOfStreet < 0 || idOfStreet >= this.edges.size()) {
+            throw new InquiryException(ErrorMessage.STREET_NOT_FOUND.format(idOfStreet));
+        }
+        StreetStatistics statistics = findEdgeByID(idOfStreet).getStatistics();
+        return String.format(Locale.ROOT, FORMAT_STREET_STATISTICS, idOfStreet, statistics.getNumberOfCars(),
+                statistics.getMeanSpeed(), statistics.getQueueLength(), statistics.getInflow(),
+                statistics.getOutflow(), statistics.getAverageOccupancy(this.numberOfTicks),
+                statistics.getAverageQueueLength(this.numberOfTicks), statistics.getMaximumQueueLength());
+    }
+
+    /**
+     * Writes the traffic statistics of all streets as comma separated values, one line per street in order of id.
+     *
+     * @param writer writer the statistics are written to
+     * @throws IOException if the writer fails
+     */
+    public void writeStreetStatistics(Writer writer) throws IOException {
+        writer.write(HEADER_STREET_STATISTICS);
+        writer.write(System.lineSeparator());
+        for (int i = 0; i < this.edges.size(); i++) {
+            StreetStatistics statistics = findEdgeByID(i).getStatistics();
+            writer.write(String.format(Locale.ROOT, FORMAT_STREET_STATISTICS_ROW, i, statistics.getNumberOfCars(),
+                    statistics.getMeanSpeed(), statistics.getQueueLength(), statistics.getInflow(),
+                    statistics.getOutflow(), statistics.getAverageOccupancy(this.numberOfTicks),
+                    statistics.getAverageQueueLength(this.numberOfTicks), statistics.getMaximumQueueLength()));
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Creates a compressed checkpoint of the state of all green lights and cars at the current tick.
+     * Must be called by the thread that simulates this network.
+     *
+     * @return checkpoint of the current state
+     */
+    public NetworkCheckpoint createCheckpoint() {
+        CarPool carPool = this.carRoster.getCarPool();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        // The buffer passes whole blocks to the deflater instead of every single byte.
+        try (DataOutputStream state = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(bytes, deflater)))) {
+            state.writeLong(this.numberOfCrossings);
+            state.writeLong(this.numberOfSpawnedCars);
+            state.writeLong(this.numberOfRemovedCars);
+            state.writeInt(this.carRoster.getNextIdOfCar());
+            state.writeInt(this.trafficModel.getMinimumLengthOfQueue());
+            state.writeBoolean(this.crossingWorkers != null);
+            for (Node node : this.nodes) {
+                if (node.getType() == NodeType.INTERSECTION) {
+                    state.writeInt(node.getGreenLight().getDurationCounter().getCurrentCount());
+                    state.writeByte(node.getEdgeIndicator());
+                }
+            }
+            for (Edge edge : this.edges) {
+                state.writeInt(edge.getNumberOfCars());
+                for (int i = 0; i < edge.getNumberOfCars(); i++) {
+                    int indexOfCar = this.carRoster.getIndexOfCar(edge.getIdOfCar(i));
+                    if (carPool.isSpawned(indexOfCar)) {
+                        state.writeInt(SPAWNED_CAR);
+                        state.writeInt(carPool.getIdOfCar(indexOfCar));
+                        state.writeByte(carPool.getWishedSpeedOfCar(indexOfCar));
+                        state.writeByte(carPool.getAcceleratorOfCar(indexOfCar));
+                    } else {
+                        state.writeInt(indexOfCar);
+                    }
+                    // The position of a car of a queue is only approximate, so its remaining ticks are written.
+                    state.writeShort(edge.isQueue() ? edge.getRemainingTicksOfCar(i) : edge.getPositionOfCar(i));
+                    state.writeByte(edge.getSpeedOfCar(i));
+                    state.writeByte(edge.getWishedDirectionOfCar(i));
+                }
+            }
+            state.writeInt(this.numberOfSources);
+            for (CarSource source : this.sources) {
+                if (source != null) {
+                    state.writeInt(source.getIndexOfStreet());
+                    state.writeInt(source.getCarsPerMinute());
+                    state.writeByte(source.getWishedSpeed());
+                    state.writeByte(source.getAccelerator());
+                    state.writeInt(source.getSumOfRate());
+                    state.writeLong(source.getNumberOfWaitingCars());
+                }
+            }
+            int numberOfSinks = 0;
+            for (boolean sink : this.isSink) {
+                numberOfSinks += sink ? 1 : 0;
+            }
+            state.writeInt(numberOfSinks);
+            for (int i = 0; i < this.isSink.length; i++) {
+                if (this.isSink[i]) {
+                    state.writeInt(i);
+                }
+            }
+            state.writeBoolean(this.rerouting != null);
+            if (this.rerouting != null) {
+                this.rerouting.write(state);
+            }
+        } catch (IOException e) {
+            // Writing into memory does not fail.
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return new NetworkCheckpoint(this.numberOfTicks, this.injections.size(), bytes.toByteArray());
+    }
+
+    /**
+     * Fills the columns with the state of all streets and cars at the current tick.
+     * Must be called by the thread that simulates this network.
+     *
+     * @param columns columns created for the topology of this network, their previous content is overwritten
+     */
+    public void fillColumns(StateColumns columns) {
+        int numberOfAllCars = 0;
+        for (Edge edge : this.edges) {
+            numberOfAllCars += edge.getNumberOfCars();
+        }
+        columns.ensureCapacity(numberOfAllCars);
+        int row = 0;
+        for (int i = 0; i < this.edges.size(); i++) {
+            Edge edge = findEdgeByID(i);
+            int numberOfCars = edge.getNumberOfCars();
+            columns.getOccupancy()[i] = numberOfCars;
+            for (int j = 0; j < numberOfCars; j++) {
+                columns.getIdsOfCars()[row] = edge.getIdOfCar(j);
+                columns.getStreetsOfCars()[row] = i;
+                columns.getPositionsOfCars()[row] = edge.getPositionOfCar(j);
+                columns.getSpeedsOfCars()[row] = edge.getSpeedOfCar(j);
+                row++;
+            }
+        }
+        columns.setSize(this.numberOfTicks, row);
+    }
+
+    /**
+     * Gets the signal statistics of an intersection, one line per incoming street in the order of its green phases.
+     * May be called by any thread while the network is simulated.
+     *
+     * @param idOfNode id of the intersection
+     * @return lines of the signal statistics
+     * @throws InquiryException if the node does not exist or has no green light
+     */
+    public List<String> getSignalStatistics(int idOfNode) throws InquiryException {
+        int indexOfNode = this.topology.getIndexOfNode(idOfNode);
+        if (indexOfNode == -1) {
+            throw new InquiryException(ErrorMessage.CROSSING_NOT_FOUND.format(idOfNode));
+        }
+        long ticks = this.numberOfTicks;
+        SignalStatistics statistics = this.nodes.get(indexOfNode).getSignalStatistics();
+        if (statistics == null) {
+            throw new InquiryException(ErrorMessage.NO_GREEN_LIGHT.format(idOfNode));
+        }
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < statistics.getNumberOfIncomingStreets(); i++) {
+            long phases = statistics.getPhases(i);
+            double crossingsPerPhase = phases == 0 ? 0 : (double) statistics.getCrossings(i) / phases;
+            lines.add(String.format(Locale.ROOT, FORMAT_SIGNAL_STATISTICS,
+                    this.topology.getIdOfStreet(this.topology.getIncomingStreet(indexOfNode, i)),
+                    statistics.getGreenTicks(i, ticks), statistics.getWastedGreenTicks(i, ticks),
+                    statistics.getCrossings(i), phases, crossingsPerPhase, statistics.getMaximumCrossingsInPhase(i),
+                    statistics.getCarsHeldAtRed(i)));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the header of the comma separated signal statistics.
+     *
+     * @param writer writer the header is written to
+     * @throws IOException if the writer fails
+     */
+    public static void writeHeaderOfSignalStatistics(Writer writer) throws IOException {
+        writer.write(HEADER_SIGNAL_STATISTICS);
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes the signal statistics of all intersections at the current tick as comma separated values,
+     * one line per incoming street. May be called by any thread while the network is simulated.
+     *
+     * @param writer writer the statistics are written to
+     * @throws IOException if the writer fails
+     */
+    public void writeSignalStatistics(Writer writer) throws IOException {
+        long tick = this.numberOfTicks;
+        for (int i = 0; i < this.nodes.size(); i++) {
+            SignalStatistics statistics = this.nodes.get(i).getSignalStatistics();
+            if (statistics == null) {
+                continue;
+            }
+            for (int j = 0; j < statistics.getNumberOfIncomingStreets(); j++) {
+                int idOfStreet = this.topology.getIdOfStreet(this.topology.getIncomingStreet(i, j));
+                writer.write(String.format(Locale.ROOT, FORMAT_SIGNAL_STATISTICS_ROW, tick,
+                        this.topology.getIdOfNode(i), idOfStreet,
+                        statistics.getGreenTicks(j, tick), statistics.getWastedGreenTicks(j, tick),
+                        statistics.getCrossings(j),
+                        statistics.getPhases(j), statistics.getMaximumCrossingsInPhase(j),
+                        statistics.getCarsHeldAtRed(j)));
+                writer.write(System.lineSeparator());
+            }
         }
-        nextEdge.addCar(new Car(carToHandle), movement);
-        edgeToHandle.removeFirstCar();
     }
 
     /**
@@ -244,12 +1830,15 @@ public void updateCar(Edge edgeToHandle, int wishedRemainingDistance) {
      * @throws InquiryException if the id of car does not exist
      */
     public String getCarDetail(int idOfCar) throws InquiryException {
-        for (int idOfEdge = 0; idOfEdge < this.streetDataList.size(); idOfEdge++) {
+        if (this.carRoster.getIndexOfCar(idOfCar) == -1) {
+            throw new InquiryException(String.format(ErrorMessage.ID_NOT_FOUND.toString(), idOfCar));
+        }
+        for (int idOfEdge = 0; idOfEdge < this.edges.size(); idOfEdge++) {
             Edge edgeToSearch = findEdgeByID(idOfEdge);
-            if (edgeToSearch.getCarByID(idOfCar) != null) {
-                Car carToSearch = edgeToSearch.getCarByID(idOfCar);
-                return String.format(REGEX_CAR_DETAILS, idOfCar, idOfEdge, carToSearch.getCurrentSpeed(),
-                        carToSearch.getPosition());
+            int index = edgeToSearch.getIndexOfCar(idOfCar);
+            if (index != -1) {
+                return String.format(REGEX_CAR_DETAILS, idOfCar, idOfEdge, edgeToSearch.getSpeedOfCar(index),
+                        edgeToSearch.getPositionOfCar(index));
             }
         }
         throw new InquiryException(String.format(ErrorMessage.ID_NOT_FOUND.toString(), idOfCar));
@@ -0,0 +1,219 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+/**
+ * This class describes the orders in which the streets of a topology can be laid out in memory.
+ * Two streets are neighbours if a car can move from one to the other. Placing neighbours close to each other
+ * means a car that crosses a node mostly touches data that was loaded into the cache shortly before.
+ * The order only decides the internal index of a street, the external street ids are never changed.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public enum StreetOrder {
+
+    /**
+     * Streets keep the order of the file.
+     */
+    FILE("file") {
+        @Override
+        int[] createOrder(int[] startNodes, int[] endNodes, int numberOfNodes) {
+            int[] order = new int[startNodes.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+    },
+
+    /**
+     * Streets are ordered by a breadth-first search starting at the first street of the file.
+     */
+    BFS("bfs") {
+        @Override
+        int[] createOrder(int[] startNodes, int[] endNodes, int numberOfNodes) {
+            return searchBreadthFirst(startNodes, endNodes, numberOfNodes, false);
+        }
+    },
+
+    /**
+     * Streets are ordered by the reverse Cuthill-McKee algorithm, which keeps the bandwidth of the street graph low.
+     */
+    RCM("rcm") {
+        @Override
+        int[] createOrder(int[] startNodes, int[] endNodes, int numberOfNodes) {
+            int[] order = searchBreadthFirst(startNodes, endNodes, numberOfNodes, true);
+            for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+                int id = order[i];
+                order[i] = order[j];
+                order[j] = id;
+            }
+            return order;
+        }
+    };
+
+    private final String name;
+
+    /**
+     * Constructor of a street order.
+     *
+     * @param name name of the street order as given by user
+     */
+    StreetOrder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the street order from input string.
+     *
+     * @param name name of the street order
+     * @return street order that matches this name, otherwise null
+     */
+    public static StreetOrder getStreetOrderFromString(String name) {
+        for (StreetOrder order : StreetOrder.values()) {
+            if (order.name.equals(name)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the order of the streets.
+     *
+     * @param startNodes index of the start node of each street, ordered by id of street
+     * @param endNodes index of the end node of each street, ordered by id of street
+     * @param numberOfNodes number of nodes
+     * @return id of the street at each internal index
+     */
+    abstract int[] createOrder(int[] startNodes, int[] endNodes, int numberOfNodes);
+
+    /**
+     * Orders the streets by breadth-first search over the undirected street graph.
+     * Each connected part of the graph is searched from its first street not visited yet.
+     *
+     * @param startNodes index of the start node of each street, ordered by id of street
+     * @param endNodes index of the end node of each street, ordered by id of street
+     * @param numberOfNodes number of nodes
+     * @param isByDegree true if the search starts at streets with few neighbours and visits neighbours
+     *                   in ascending order of their number of neighbours (Cuthill-McKee), otherwise false
+     * @return id of the street at each internal index
+     */
+    private static int[] searchBreadthFirst(int[] startNodes, int[] endNodes, int numberOfNodes,
+                                            boolean isByDegree) {
+        int numberOfStreets = startNodes.length;
+        int[] outgoingOffsets = new int[numberOfNodes + 1];
+        int[] outgoingStreets = createRows(startNodes, numberOfNodes, outgoingOffsets);
+        int[] incomingOffsets = new int[numberOfNodes + 1];
+        int[] incomingStreets = createRows(endNodes, numberOfNodes, incomingOffsets);
+        int[] degrees = new int[numberOfStreets];
+        // A street has at most as many neighbours as its degree, counting parallel streets and itself.
+        int maximumDegree = 0;
+        for (int i = 0; i < numberOfStreets; i++) {
+            degrees[i] = outgoingOffsets[endNodes[i] + 1] - outgoingOffsets[endNodes[i]]
+                    + incomingOffsets[startNodes[i] + 1] - incomingOffsets[startNodes[i]];
+            maximumDegree = Math.max(maximumDegree, degrees[i]);
+        }
+        int[] roots = isByDegree ? sortByDegree(degrees) : StreetOrder.FILE.createOrder(startNodes, endNodes, 0);
+
+        int[] order = new int[numberOfStreets];
+        boolean[] isVisited = new boolean[numberOfStreets];
+        int[] neighbours = new int[maximumDegree];
+        int tail = 0;
+        for (int root : roots) {
+            if (isVisited[root]) {
+                continue;
+            }
+            isVisited[root] = true;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int street = order[head];
+                int numberOfNeighbours = 0;
+                for (int i = outgoingOffsets[endNodes[street]]; i < outgoingOffsets[endNodes[street] + 1]; i++) {
+                    neighbours[numberOfNeighbours++] = outgoingStreets[i];
+                }
+                for (int i = incomingOffsets[startNodes[street]]; i < incomingOffsets[startNodes[street] + 1]; i++) {
+                    neighbours[numberOfNeighbours++] = incomingStreets[i];
+                }
+                if (isByDegree) {
+                    sortByDegree(neighbours, numberOfNeighbours, degrees);
+                }
+                for (int i = 0; i < numberOfNeighbours; i++) {
+                    if (!isVisited[neighbours[i]]) {
+                        isVisited[neighbours[i]] = true;
+                        order[tail++] = neighbours[i];
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Groups the streets into one row per node, ordered by id of street within each row.
+     *
+     * @param nodes index of the node of each street that decides its row
+     * @param numberOfNodes number of nodes
+     * @param offsets array of length number of nodes + 1, filled with the start of each row
+     * @return ids of streets, row by row
+     */
+    private static int[] createRows(int[] nodes, int numberOfNodes, int[] offsets) {
+        for (int node : nodes) {
+            offsets[node + 1]++;
+        }
+        for (int i = 0; i < numberOfNodes; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = new int[numberOfNodes];
+        System.arraycopy(offsets, 0, next, 0, numberOfNodes);
+        int[] streets = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            streets[next[nodes[i]]++] = i;
+        }
+        return streets;
+    }
+
+    /**
+     * Sorts all streets by ascending number of neighbours. Streets with the same number keep the order of their ids.
+     *
+     * @param degrees number of neighbours of each street
+     * @return ids of streets sorted by number of neighbours
+     */
+    private static int[] sortByDegree(int[] degrees) {
+        int maximumDegree = 0;
+        for (int degree : degrees) {
+            maximumDegree = Math.max(maximumDegree, degree);
+        }
+        int[] offsets = new int[maximumDegree + 2];
+        for (int degree : degrees) {
+            offsets[degree + 1]++;
+        }
+        for (int i = 0; i <= maximumDegree; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] streets = new int[degrees.length];
+        for (int i = 0; i < degrees.length; i++) {
+            streets[offsets[degrees[i]]++] = i;
+        }
+        return streets;
+    }
+
+    /**
+     * Sorts the first streets of the array by ascending number of neighbours, keeping the order of equal streets.
+     *
+     * @param streets ids of streets to be sorted
+     * @param length number of streets to be sorted
+     * @param degrees number of neighbours of each street
+     */
+    private static void sortByDegree(int[] streets, int length, int[] degrees) {
+        for (int i = 1; i < length; i++) {
+            int street = streets[i];
+            int target = i;
+            while (target > 0 && degrees[streets[target - 1]] > degrees[street]) {
+                streets[target] = streets[target - 1];
+                target--;
+            }
+            streets[target] = street;
+        }
+    }
+
+}
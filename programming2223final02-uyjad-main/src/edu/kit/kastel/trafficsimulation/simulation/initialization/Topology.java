@@ -0,0 +1,446 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes the immutable topology of a street network.
+ * It contains nodes, streets, lengths, speed limits, successor tables and the initial placement of cars.
+ * A topology is built once after parsing and can be shared by any number of street networks,
+ * which only allocate their own car and green light state.
+ * Streets are addressed by an internal index, which equals the street id unless a {@link StreetOrder} lays
+ * the streets out differently. External street ids are only used when reading files and printing results.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class Topology {
+    private final IdIndex indexOfNode;
+    private final int[] durationsOfGreenLight;
+    // Street data is ordered by the internal index of the street, which differs from the id if streets are reordered.
+    private final int[] idsOfStreets;
+    private final int[] indicesOfStreets;
+    private final int[] startNodeOfStreet;
+    private final int[] endNodeOfStreet;
+    private final int[] typeOfStreet;
+    private final int[] lengthOfStreet;
+    private final int[] maximumSpeedOfStreet;
+    // Successor tables in compressed sparse row layout: the streets of node i are at offsets[i] to offsets[i + 1].
+    private final int[] outgoingOffsets;
+    private final int[] outgoingStreets;
+    private final int[] incomingOffsets;
+    private final int[] incomingStreets;
+    private final int[] positionAtEndNode;
+    private final List<List<Car>> carsOfStreet;
+    // Immutable attributes of all cars, ordered by street and by the position of the car on its street.
+    private final IdIndex indexOfCar;
+    private final List<Car> prototypesOfCars;
+    private final byte[] wishedSpeedsOfCars;
+    private final byte[] acceleratorsOfCars;
+    // Destination node of each car, null if no car has a destination.
+    private final int[] destinationsOfCars;
+    // Next-hop tables of the destinations of the cars, null if no car has a destination.
+    private final RoutingTable routingTable;
+
+    /**
+     * Constructor of a topology with valid node data and street data.
+     * Nodes keep the index of the node data, streets keep their ids as index.
+     *
+     * @param nodeDataList valid node data ordered by index
+     * @param streetDataList valid street data, the nodes of each street are given by index
+     */
+    public Topology(List<NodeData> nodeDataList, List<StreetData> streetDataList) {
+        this(nodeDataList, streetDataList, StreetOrder.FILE);
+    }
+
+    /**
+     * Constructor of a topology with valid node data and street data, the streets are laid out in the given order.
+     * Nodes keep the index of the node data.
+     *
+     * @param nodeDataList valid node data ordered by index
+     * @param streetDataList valid street data, the nodes of each street are given by index
+     * @param streetOrder order the streets are laid out in
+     */
+    public Topology(List<NodeData> nodeDataList, List<StreetData> streetDataList, StreetOrder streetOrder) {
+        int numberOfNodes = nodeDataList.size();
+        this.indexOfNode = new IdIndex(numberOfNodes);
+        this.durationsOfGreenLight = new int[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            this.indexOfNode.add(nodeDataList.get(i).getId());
+            this.durationsOfGreenLight[i] = nodeDataList.get(i).getDurationOfGreenLight();
+        }
+
+        int numberOfStreets = streetDataList.size();
+        int[] startNodes = new int[numberOfStreets];
+        int[] endNodes = new int[numberOfStreets];
+        for (int i = 0; i < numberOfStreets; i++) {
+            startNodes[i] = streetDataList.get(i).getIndexOfStartNode();
+            endNodes[i] = streetDataList.get(i).getIndexOfEndNode();
+        }
+        this.idsOfStreets = streetOrder.createOrder(startNodes, endNodes, numberOfNodes);
+        this.indicesOfStreets = new int[numberOfStreets];
+        this.startNodeOfStreet = new int[numberOfStreets];
+        this.endNodeOfStreet = new int[numberOfStreets];
+        this.typeOfStreet = new int[numberOfStreets];
+        this.lengthOfStreet = new int[numberOfStreets];
+        this.maximumSpeedOfStreet = new int[numberOfStreets];
+        List<List<Car>> cars = new ArrayList<>();
+        for (int i = 0; i < numberOfStreets; i++) {
+            StreetData streetData = streetDataList.get(this.idsOfStreets[i]);
+            this.indicesOfStreets[this.idsOfStreets[i]] = i;
+            this.startNodeOfStreet[i] = streetData.getIndexOfStartNode();
+            this.endNodeOfStreet[i] = streetData.getIndexOfEndNode();
+            this.typeOfStreet[i] = streetData.getIdOfStreetType();
+            this.lengthOfStreet[i] = streetData.getLength();
+            this.maximumSpeedOfStreet[i] = streetData.getMaximumSpeed();
+            cars.add(Collections.unmodifiableList(streetData.getCars()));
+        }
+        this.carsOfStreet = Collections.unmodifiableList(cars);
+
+        int numberOfCars = 0;
+        for (List<Car> carsOnStreet : cars) {
+            numberOfCars += carsOnStreet.size();
+        }
+        this.indexOfCar = new IdIndex(numberOfCars);
+        this.wishedSpeedsOfCars = new byte[numberOfCars];
+        this.acceleratorsOfCars = new byte[numberOfCars];
+        int[] destinations = new int[numberOfCars];
+        boolean[] isDestination = new boolean[numberOfNodes];
+        int numberOfDestinations = 0;
+        List<Car> prototypes = new ArrayList<>(numberOfCars);
+        for (List<Car> carsOnStreet : cars) {
+            for (Car car : carsOnStreet) {
+                prototypes.add(car);
+                int indexOfNextCar = this.indexOfCar.add(car.getId());
+                this.wishedSpeedsOfCars[indexOfNextCar] = (byte) car.getWishedSpeed();
+                this.acceleratorsOfCars[indexOfNextCar] = (byte) car.getAccelerator();
+                destinations[indexOfNextCar] = car.getDestination();
+                if (car.getDestination() != -1 && !isDestination[car.getDestination()]) {
+                    isDestination[car.getDestination()] = true;
+                    numberOfDestinations++;
+                }
+            }
+        }
+        this.destinationsOfCars = numberOfDestinations == 0 ? null : destinations;
+
+        this.prototypesOfCars = Collections.unmodifiableList(prototypes);
+
+        // Successor tables keep the order of the street ids, which decides the wished direction of cars.
+        this.outgoingOffsets = new int[numberOfNodes + 1];
+        this.outgoingStreets = createRows(startNodes, this.outgoingOffsets);
+        this.incomingOffsets = new int[numberOfNodes + 1];
+        this.incomingStreets = createRows(endNodes, this.incomingOffsets);
+        this.positionAtEndNode = new int[numberOfStreets];
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int j = this.incomingOffsets[i]; j < this.incomingOffsets[i + 1]; j++) {
+                this.positionAtEndNode[this.incomingStreets[j]] = j - this.incomingOffsets[i];
+            }
+        }
+
+        // The tables only read the streets, which are complete at this point.
+        this.routingTable = numberOfDestinations == 0 ? null
+                : new RoutingTable(this, collectDestinations(isDestination, numberOfDestinations));
+    }
+
+    private static int[] collectDestinations(boolean[] isDestination, int numberOfDestinations) {
+        int[] destinations = new int[numberOfDestinations];
+        int next = 0;
+        for (int i = 0; i < isDestination.length; i++) {
+            if (isDestination[i]) {
+                destinations[next++] = i;
+            }
+        }
+        return destinations;
+    }
+
+    /**
+     * Groups the streets into one row per node, ordered by id of street within each row.
+     *
+     * @param nodes index of the node of each street that decides its row, ordered by id of street
+     * @param offsets array of length number of nodes + 1, filled with the start of each row
+     * @return internal indices of streets, row by row
+     */
+    private int[] createRows(int[] nodes, int[] offsets) {
+        for (int node : nodes) {
+            offsets[node + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] next = offsets.clone();
+        int[] streets = new int[nodes.length];
+        for (int id = 0; id < nodes.length; id++) {
+            streets[next[nodes[id]]++] = this.indicesOfStreets[id];
+        }
+        return streets;
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int getNumberOfNodes() {
+        return this.indexOfNode.size();
+    }
+
+    /**
+     * Gets the number of streets.
+     *
+     * @return the number of streets
+     */
+    public int getNumberOfStreets() {
+        return this.lengthOfStreet.length;
+    }
+
+    /**
+     * Gets the id of the street with the given index.
+     *
+     * @param indexOfStreet index of street
+     * @return id of street
+     */
+    public int getIdOfStreet(int indexOfStreet) {
+        return this.idsOfStreets[indexOfStreet];
+    }
+
+    /**
+     * Gets the index of the street with the given id.
+     *
+     * @param idOfStreet id of street
+     * @return index of street
+     */
+    public int getIndexOfStreet(int idOfStreet) {
+        return this.indicesOfStreets[idOfStreet];
+    }
+
+    /**
+     * Gets the id of the node with the given index.
+     *
+     * @param indexOfNode index of node
+     * @return id of node
+     */
+    public int getIdOfNode(int indexOfNode) {
+        return this.indexOfNode.idOf(indexOfNode);
+    }
+
+    /**
+     * Gets the index of the node with the given id.
+     *
+     * @param idOfNode id of node
+     * @return index of node, or -1 if the node does not exist
+     */
+    public int getIndexOfNode(int idOfNode) {
+        return this.indexOfNode.indexOf(idOfNode);
+    }
+
+    /**
+     * Gets the green light duration of the node with the given index. A duration of 0 means there is no green light.
+     *
+     * @param indexOfNode index of node
+     * @return green light duration of node
+     */
+    public int getDurationOfGreenLight(int indexOfNode) {
+        return this.durationsOfGreenLight[indexOfNode];
+    }
+
+    /**
+     * Gets a copy of the green light durations of all nodes, ordered by node index.
+     *
+     * @return green light durations of all nodes
+     */
+    public int[] getDurationsOfGreenLight() {
+        return this.durationsOfGreenLight.clone();
+    }
+
+    /**
+     * Gets the index of the start node of the street.
+     *
+     * @param indexOfStreet index of street
+     * @return index of start node
+     */
+    public int getStartNodeOfStreet(int indexOfStreet) {
+        return this.startNodeOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the index of the end node of the street.
+     *
+     * @param indexOfStreet index of street
+     * @return index of end node
+     */
+    public int getEndNodeOfStreet(int indexOfStreet) {
+        return this.endNodeOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the id of the street type.
+     *
+     * @param indexOfStreet index of street
+     * @return id of street type
+     */
+    public int getTypeOfStreet(int indexOfStreet) {
+        return this.typeOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the length of the street.
+     *
+     * @param indexOfStreet index of street
+     * @return length of street
+     */
+    public int getLengthOfStreet(int indexOfStreet) {
+        return this.lengthOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the maximum speed the street allows.
+     *
+     * @param indexOfStreet index of street
+     * @return maximum speed of street
+     */
+    public int getMaximumSpeedOfStreet(int indexOfStreet) {
+        return this.maximumSpeedOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the number of outgoing streets of the node.
+     *
+     * @param indexOfNode index of node
+     * @return number of outgoing streets
+     */
+    public int getNumberOfOutgoingStreets(int indexOfNode) {
+        return this.outgoingOffsets[indexOfNode + 1] - this.outgoingOffsets[indexOfNode];
+    }
+
+    /**
+     * Gets the index of an outgoing street of the node.
+     *
+     * @param indexOfNode index of node
+     * @param direction position of the street in the successor table of the node
+     * @return index of the outgoing street
+     */
+    public int getOutgoingStreet(int indexOfNode, int direction) {
+        return this.outgoingStreets[this.outgoingOffsets[indexOfNode] + direction];
+    }
+
+    /**
+     * Gets the number of incoming streets of the node.
+     *
+     * @param indexOfNode index of node
+     * @return number of incoming streets
+     */
+    public int getNumberOfIncomingStreets(int indexOfNode) {
+        return this.incomingOffsets[indexOfNode + 1] - this.incomingOffsets[indexOfNode];
+    }
+
+    /**
+     * Gets the index of an incoming street of the node.
+     *
+     * @param indexOfNode index of node
+     * @param position position of the street in the incoming table of the node
+     * @return index of the incoming street
+     */
+    public int getIncomingStreet(int indexOfNode, int position) {
+        return this.incomingStreets[this.incomingOffsets[indexOfNode] + position];
+    }
+
+    /**
+     * Gets the position of the street in the incoming table of its end node.
+     *
+     * @param indexOfStreet index of street
+     * @return position of the street at its end node
+     */
+    public int getPositionAtEndNode(int indexOfStreet) {
+        return this.positionAtEndNode[indexOfStreet];
+    }
+
+    /**
+     * Gets the number of cars.
+     *
+     * @return the number of cars
+     */
+    public int getNumberOfCars() {
+        return this.indexOfCar.size();
+    }
+
+    /**
+     * Gets the index of the car with the given id.
+     *
+     * @param idOfCar id of car
+     * @return index of car, or -1 if the car does not exist
+     */
+    public int getIndexOfCar(int idOfCar) {
+        return this.indexOfCar.indexOf(idOfCar);
+    }
+
+    /**
+     * Gets the id of the car with the given index.
+     *
+     * @param indexOfCar index of car
+     * @return id of car
+     */
+    public int getIdOfCar(int indexOfCar) {
+        return this.indexOfCar.idOf(indexOfCar);
+    }
+
+    /**
+     * Gets the wished speed of the car with the given index.
+     *
+     * @param indexOfCar index of car
+     * @return wished speed of car
+     */
+    public int getWishedSpeedOfCar(int indexOfCar) {
+        return this.wishedSpeedsOfCars[indexOfCar];
+    }
+
+    /**
+     * Gets the accelerator of the car with the given index.
+     *
+     * @param indexOfCar index of car
+     * @return accelerator of car
+     */
+    public int getAcceleratorOfCar(int indexOfCar) {
+        return this.acceleratorsOfCars[indexOfCar];
+    }
+
+    /**
+     * Gets the destination of the car with the given index.
+     *
+     * @param indexOfCar index of car
+     * @return index of the node the car drives to, or -1 if it has no destination
+     */
+    public int getDestinationOfCar(int indexOfCar) {
+        return this.destinationsOfCars == null ? -1 : this.destinationsOfCars[indexOfCar];
+    }
+
+    /**
+     * Gets the next-hop tables of the destinations of the cars.
+     *
+     * @return the routing table, or null if no car has a destination
+     */
+    public RoutingTable getRoutingTable() {
+        return this.routingTable;
+    }
+
+    /**
+     * Gets the initial car with the given index. The returned car is a prototype and must be copied before use.
+     *
+     * @param indexOfCar index of car
+     * @return the initial car
+     */
+    public Car getCar(int indexOfCar) {
+        return this.prototypesOfCars.get(indexOfCar);
+    }
+
+    /**
+     * Gets the initial cars of the street. The returned cars are prototypes and must be copied before use.
+     *
+     * @param indexOfStreet index of street
+     * @return unmodifiable list of the initial cars, ordered from the end of the street backwards
+     */
+    public List<Car> getCarsOfStreet(int indexOfStreet) {
+        return this.carsOfStreet.get(indexOfStreet);
+    }
+
+}
@@ -0,0 +1,193 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * This class describes the difference between two topologies of the same scenario, for instance before and after
+ * the simulation files were edited. A street of the next topology matches a street of the previous one if both
+ * connect the same crossings with the same length and type, so streets keep their match if lines were inserted or
+ * removed before them. Streets with the same crossings, length and type are matched in the order of their ids.
+ * A change is a parameter change if only speed limits and green light durations differ, then a network can be
+ * changed in place by {@link StreetNetwork#applyParameters(TopologyChange)}. Otherwise a new network has to be
+ * built by {@link StreetNetwork#StreetNetwork(StreetNetwork, TopologyChange,
+ * edu.kit.kastel.trafficsimulation.simulation.module.CarStoreType)}.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class TopologyChange {
+    private static final String FORMAT_SUMMARY = "%d streets added, %d removed, %d speed limits and %d green light "
+            + "durations changed";
+    private static final String SEPARATOR_OF_KEY = ":";
+    private static final int NO_MATCH = -1;
+    private final Topology previousTopology;
+    private final Topology nextTopology;
+    // Index of the matching street or node in the previous topology, ordered by index in the next topology.
+    private final int[] previousIndexOfStreet;
+    private final int[] previousIndexOfNode;
+    // Indices in the next topology of matched streets and nodes whose parameters changed.
+    private final int[] streetsWithChangedSpeed;
+    private final int[] nodesWithChangedDuration;
+    private final int numberOfAddedStreets;
+    private final int numberOfRemovedStreets;
+    private final boolean isParameterChange;
+
+    /**
+     * Constructor of the change from one topology to another.
+     * It takes time in proportion to the number of streets and crossings.
+     *
+     * @param previousTopology topology before the change
+     * @param nextTopology topology after the change
+     */
+    public TopologyChange(Topology previousTopology, Topology nextTopology) {
+        this.previousTopology = previousTopology;
+        this.nextTopology = nextTopology;
+        this.previousIndexOfNode = new int[nextTopology.getNumberOfNodes()];
+        boolean hasSameNodes = previousTopology.getNumberOfNodes() == nextTopology.getNumberOfNodes();
+        int[] changedNodes = new int[nextTopology.getNumberOfNodes()];
+        int numberOfChangedNodes = 0;
+        for (int i = 0; i < nextTopology.getNumberOfNodes(); i++) {
+            int previousIndex = previousTopology.getIndexOfNode(nextTopology.getIdOfNode(i));
+            this.previousIndexOfNode[i] = previousIndex;
+            int duration = nextTopology.getDurationOfGreenLight(i);
+            int previousDuration = previousIndex == NO_MATCH
+                    ? 0 : previousTopology.getDurationOfGreenLight(previousIndex);
+            hasSameNodes &= previousIndex == i && (duration == 0) == (previousDuration == 0);
+            if (previousIndex != NO_MATCH && duration != 0 && previousDuration != 0 && duration != previousDuration) {
+                changedNodes[numberOfChangedNodes++] = i;
+            }
+        }
+        this.nodesWithChangedDuration = Arrays.copyOf(changedNodes, numberOfChangedNodes);
+
+        Map<String, Queue<Integer>> previousStreets = new HashMap<>();
+        for (int id = 0; id < previousTopology.getNumberOfStreets(); id++) {
+            int index = previousTopology.getIndexOfStreet(id);
+            previousStreets.computeIfAbsent(getKeyOfStreet(previousTopology, index), key -> new ArrayDeque<>())
+                    .add(index);
+        }
+        this.previousIndexOfStreet = new int[nextTopology.getNumberOfStreets()];
+        boolean hasSameStreets = previousTopology.getNumberOfStreets() == nextTopology.getNumberOfStreets();
+        int[] changedStreets = new int[nextTopology.getNumberOfStreets()];
+        int numberOfChangedStreets = 0;
+        int numberOfMatches = 0;
+        for (int id = 0; id < nextTopology.getNumberOfStreets(); id++) {
+            int index = nextTopology.getIndexOfStreet(id);
+            Queue<Integer> candidates = previousStreets.get(getKeyOfStreet(nextTopology, index));
+            int previousIndex = candidates == null || candidates.isEmpty() ? NO_MATCH : candidates.poll();
+            this.previousIndexOfStreet[index] = previousIndex;
+            hasSameStreets &= previousIndex == index && previousTopology.getIdOfStreet(previousIndex) == id;
+            if (previousIndex != NO_MATCH) {
+                numberOfMatches++;
+                if (nextTopology.getMaximumSpeedOfStreet(index)
+                        != previousTopology.getMaximumSpeedOfStreet(previousIndex)) {
+                    changedStreets[numberOfChangedStreets++] = index;
+                }
+            }
+        }
+        this.streetsWithChangedSpeed = Arrays.copyOf(changedStreets, numberOfChangedStreets);
+        this.numberOfAddedStreets = nextTopology.getNumberOfStreets() - numberOfMatches;
+        this.numberOfRemovedStreets = previousTopology.getNumberOfStreets() - numberOfMatches;
+        this.isParameterChange = hasSameNodes && hasSameStreets;
+    }
+
+    /**
+     * Gets the key of a street that is the same for matching streets of both topologies.
+     *
+     * @param topology topology of the street
+     * @param indexOfStreet index of the street in the topology
+     * @return key of the street
+     */
+    private static String getKeyOfStreet(Topology topology, int indexOfStreet) {
+        return topology.getIdOfNode(topology.getStartNodeOfStreet(indexOfStreet)) + SEPARATOR_OF_KEY
+                + topology.getIdOfNode(topology.getEndNodeOfStreet(indexOfStreet)) + SEPARATOR_OF_KEY
+                + topology.getLengthOfStreet(indexOfStreet) + SEPARATOR_OF_KEY
+                + topology.getTypeOfStreet(indexOfStreet);
+    }
+
+    /**
+     * Gets the topology before the change.
+     *
+     * @return the previous topology
+     */
+    public Topology getPreviousTopology() {
+        return this.previousTopology;
+    }
+
+    /**
+     * Gets the topology after the change.
+     *
+     * @return the next topology
+     */
+    public Topology getNextTopology() {
+        return this.nextTopology;
+    }
+
+    /**
+     * Gets the index of the matching street in the previous topology.
+     *
+     * @param indexOfStreet index of the street in the next topology
+     * @return index of the street in the previous topology, or -1 if the street is new or was changed
+     */
+    int getPreviousIndexOfStreet(int indexOfStreet) {
+        return this.previousIndexOfStreet[indexOfStreet];
+    }
+
+    /**
+     * Gets the index of the crossing with the same id in the previous topology.
+     *
+     * @param indexOfNode index of the crossing in the next topology
+     * @return index of the crossing in the previous topology, or -1 if the crossing is new
+     */
+    int getPreviousIndexOfNode(int indexOfNode) {
+        return this.previousIndexOfNode[indexOfNode];
+    }
+
+    /**
+     * Gets the matched streets whose speed limit changed. The array is not copied.
+     *
+     * @return indices of the streets in the next topology
+     */
+    int[] getStreetsWithChangedSpeed() {
+        return this.streetsWithChangedSpeed;
+    }
+
+    /**
+     * Gets the crossings that have a green light before and after the change, but with another duration.
+     * The array is not copied.
+     *
+     * @return indices of the crossings in the next topology
+     */
+    int[] getNodesWithChangedDuration() {
+        return this.nodesWithChangedDuration;
+    }
+
+    /**
+     * Checks whether only speed limits and green light durations changed, so a network can be changed in place.
+     *
+     * @return true if the change is a parameter change, otherwise false
+     */
+    public boolean isParameterChange() {
+        return this.isParameterChange;
+    }
+
+    /**
+     * Checks whether nothing changed.
+     *
+     * @return true if both topologies describe the same scenario, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.isParameterChange && this.streetsWithChangedSpeed.length == 0
+                && this.nodesWithChangedDuration.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(FORMAT_SUMMARY, this.numberOfAddedStreets, this.numberOfRemovedStreets,
+                this.streetsWithChangedSpeed.length, this.nodesWithChangedDuration.length);
+    }
+
+}
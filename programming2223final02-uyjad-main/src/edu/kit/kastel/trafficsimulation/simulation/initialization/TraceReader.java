@@ -0,0 +1,282 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import edu.kit.kastel.trafficsimulation.resource.ErrorMessage;
+import edu.kit.kastel.trafficsimulation.simulation.exception.InquiryException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class describes random access to a trace file written by {@link TraceWriter}. The file is mapped into
+ * memory and never read as a whole: a query finds the keyframe at or before the tick by binary search over the
+ * ticks of the index and looks the car or street up in each following delta up to the tick by binary search, so
+ * it touches at most one keyframe interval of the file no matter how long the trace is. A trace holds everything
+ * it needs, so it can be read without the network it was recorded from. Queries can be answered by any number of
+ * threads.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class TraceReader {
+    private static final String FORMAT_OCCUPANCY = "Street %d: %d cars";
+    // A mapped buffer holds at most 2 GiB, so larger traces are mapped as several segments.
+    private static final int SHIFT_OF_SEGMENT = 30;
+    private static final long MASK_OF_SEGMENT = (1L << SHIFT_OF_SEGMENT) - 1;
+    private final MappedByteBuffer[] segments;
+    private final IdIndex indexOfCars;
+    private final int numberOfStreets;
+    // Offset of the first car in a keyframe.
+    private final long offsetOfCars;
+    private final long[] ticksOfKeyframes;
+    private final long[] offsetsOfKeyframes;
+    // The frames end where the index starts.
+    private final long offsetOfIndex;
+    private final long firstTick;
+    private final long lastTick;
+
+    /**
+     * Constructor of a trace reader. It maps the file and reads the header and the index of keyframes.
+     *
+     * @param path path of the trace file
+     * @throws IOException if the file cannot be read or is no complete trace
+     */
+    public TraceReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TraceWriter.SIZE_OF_HEADER + TraceWriter.SIZE_OF_FOOTER) {
+                throw new IOException(path.toString());
+            }
+            this.segments = new MappedByteBuffer[(int) ((size - 1) >>> SHIFT_OF_SEGMENT) + 1];
+            for (int i = 0; i < this.segments.length; i++) {
+                long start = (long) i << SHIFT_OF_SEGMENT;
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, 1L << SHIFT_OF_SEGMENT));
+            }
+            long footer = size - TraceWriter.SIZE_OF_FOOTER;
+            if (getInt(0) != TraceWriter.MAGIC || getInt(footer + 3 * Long.BYTES + 2 * Integer.BYTES)
+                    != TraceWriter.MAGIC) {
+                throw new IOException(path.toString());
+            }
+            int numberOfCars = getInt(Integer.BYTES);
+            this.numberOfStreets = getInt(2 * Integer.BYTES);
+            this.offsetOfCars = TraceWriter.SIZE_OF_KEYFRAME_HEADER + (long) this.numberOfStreets * Integer.BYTES;
+            this.offsetOfIndex = getLong(footer);
+            this.firstTick = getLong(footer + Long.BYTES);
+            this.lastTick = getLong(footer + 2 * Long.BYTES);
+            int numberOfKeyframes = getInt(footer + 3 * Long.BYTES);
+            int numberOfAddedCars = getInt(footer + 3 * Long.BYTES + Integer.BYTES);
+            this.ticksOfKeyframes = new long[numberOfKeyframes];
+            this.offsetsOfKeyframes = new long[numberOfKeyframes];
+            for (int i = 0; i < numberOfKeyframes; i++) {
+                this.ticksOfKeyframes[i] = getLong(this.offsetOfIndex + 2L * i * Long.BYTES);
+                this.offsetsOfKeyframes[i] = getLong(this.offsetOfIndex + (2L * i + 1) * Long.BYTES);
+            }
+            this.indexOfCars = new IdIndex(numberOfCars + numberOfAddedCars);
+            for (int i = 0; i < numberOfCars; i++) {
+                this.indexOfCars.add(getInt(TraceWriter.SIZE_OF_HEADER + (long) i * Integer.BYTES));
+            }
+            long addedCars = this.offsetOfIndex + 2L * numberOfKeyframes * Long.BYTES;
+            for (int i = 0; i < numberOfAddedCars; i++) {
+                this.indexOfCars.add(getInt(addedCars + (long) i * Integer.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Gets the first tick of the trace.
+     *
+     * @return the first recorded tick
+     */
+    public long getFirstTick() {
+        return this.firstTick;
+    }
+
+    /**
+     * Gets the last tick of the trace.
+     *
+     * @return the last recorded tick
+     */
+    public long getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * Gets the string detail of car at a recorded tick, in the same format as {@link StreetNetwork#getCarDetail(int)}.
+     *
+     * @param idOfCar id of car to be checked
+     * @param tick recorded tick
+     * @return string detail of the car to be checked
+     * @throws InquiryException if the tick is not recorded or the car is not on any street at the tick
+     */
+    public String getCarDetail(int idOfCar, long tick) throws InquiryException {
+        long frame = findKeyframe(tick);
+        int indexOfCar = this.indexOfCars.indexOf(idOfCar);
+        if (indexOfCar == -1) {
+            throw new InquiryException(String.format(ErrorMessage.ID_NOT_FOUND.toString(), idOfCar));
+        }
+        int numberOfCars = getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER);
+        // A car added after the keyframe was not on any street at its tick, so it has no entry yet.
+        long car = -1;
+        if (indexOfCar < numberOfCars) {
+            car = frame + this.offsetOfCars + (long) indexOfCar * TraceWriter.SIZE_OF_CAR;
+        }
+        long recordedTick = getLong(frame + Byte.BYTES);
+        frame += this.offsetOfCars + (long) numberOfCars * TraceWriter.SIZE_OF_CAR;
+        while (isDeltaUpTo(frame, tick)) {
+            int changedCars = getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER);
+            int changedStreets = getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER + Integer.BYTES);
+            long entry = search(frame + TraceWriter.SIZE_OF_DELTA_HEADER, changedCars,
+                    TraceWriter.SIZE_OF_CHANGED_CAR, indexOfCar);
+            if (entry != -1) {
+                car = entry + Integer.BYTES;
+            }
+            recordedTick = getLong(frame + Byte.BYTES);
+            frame += TraceWriter.SIZE_OF_DELTA_HEADER + (long) changedCars * TraceWriter.SIZE_OF_CHANGED_CAR
+                    + (long) changedStreets * TraceWriter.SIZE_OF_CHANGED_STREET;
+        }
+        checkRecorded(tick, recordedTick);
+        int idOfStreet = car == -1 ? TraceWriter.NO_STREET : getInt(car);
+        if (idOfStreet == TraceWriter.NO_STREET) {
+            throw new InquiryException(String.format(ErrorMessage.ID_NOT_FOUND.toString(), idOfCar));
+        }
+        int position = getShort(car + Integer.BYTES) & 0xFFFF;
+        int speed = getByte(car + Integer.BYTES + Short.BYTES);
+        return String.format(StreetNetwork.REGEX_CAR_DETAILS, idOfCar, idOfStreet, speed, position);
+    }
+
+    /**
+     * Gets the number of cars of a street at a recorded tick.
+     *
+     * @param idOfStreet id of street
+     * @param tick recorded tick
+     * @return string of the number of cars of the street
+     * @throws InquiryException if the tick is not recorded or the id of street does not exist
+     */
+    public String getOccupancy(int idOfStreet, long tick) throws InquiryException {
+        long frame = findKeyframe(tick);
+        if (idOfStreet < 0 || idOfStreet >= this.numberOfStreets) {
+            throw new InquiryException(ErrorMessage.STREET_NOT_FOUND.format(idOfStreet));
+        }
+        int numberOfCars = getInt(frame + TraceWriter.SIZE_OF_KEYFRAME_HEADER + (long) idOfStreet * Integer.BYTES);
+        long recordedTick = getLong(frame + Byte.BYTES);
+        frame += this.offsetOfCars + (long) getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER) * TraceWriter.SIZE_OF_CAR;
+        while (isDeltaUpTo(frame, tick)) {
+            int changedCars = getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER);
+            int changedStreets = getInt(frame + TraceWriter.SIZE_OF_FRAME_HEADER + Integer.BYTES);
+            long streets = frame + TraceWriter.SIZE_OF_DELTA_HEADER
+                    + (long) changedCars * TraceWriter.SIZE_OF_CHANGED_CAR;
+            long entry = search(streets, changedStreets, TraceWriter.SIZE_OF_CHANGED_STREET, idOfStreet);
+            if (entry != -1) {
+                numberOfCars = getInt(entry + Integer.BYTES);
+            }
+            recordedTick = getLong(frame + Byte.BYTES);
+            frame = streets + (long) changedStreets * TraceWriter.SIZE_OF_CHANGED_STREET;
+        }
+        checkRecorded(tick, recordedTick);
+        return String.format(FORMAT_OCCUPANCY, idOfStreet, numberOfCars);
+    }
+
+    /**
+     * Finds the offset of the last keyframe at or before a tick.
+     *
+     * @param tick recorded tick
+     * @return offset of the keyframe
+     * @throws InquiryException if the tick is not recorded
+     */
+    private long findKeyframe(long tick) throws InquiryException {
+        if (tick < this.firstTick || tick > this.lastTick) {
+            throw new InquiryException(ErrorMessage.TICK_NOT_IN_TRACE.format(tick, this.firstTick, this.lastTick));
+        }
+        int index = Arrays.binarySearch(this.ticksOfKeyframes, tick);
+        // Otherwise the binary search gives the keyframe after the tick, the first keyframe is at the first tick.
+        return this.offsetsOfKeyframes[index >= 0 ? index : -index - 2];
+    }
+
+    /**
+     * Checks whether a delta of a tick up to the given tick starts at an offset.
+     *
+     * @param frame offset of the frame after the last one read
+     * @param tick tick of the query
+     * @return true if a delta starts there whose tick is at most the tick of the query, otherwise false
+     */
+    private boolean isDeltaUpTo(long frame, long tick) {
+        return frame < this.offsetOfIndex && getByte(frame) == TraceWriter.KIND_DELTA
+                && getLong(frame + Byte.BYTES) <= tick;
+    }
+
+    /**
+     * Checks that the tick of the last frame read is the tick of a query, so the tick was appended to the trace.
+     *
+     * @param tick tick of the query
+     * @param recordedTick tick of the last frame read
+     * @throws InquiryException if the tick was skipped while the trace was recorded
+     */
+    private void checkRecorded(long tick, long recordedTick) throws InquiryException {
+        if (recordedTick != tick) {
+            throw new InquiryException(ErrorMessage.TICK_NOT_RECORDED.format(tick));
+        }
+    }
+
+    /**
+     * Searches entries that start with an int key in ascending order.
+     *
+     * @param start offset of the first entry
+     * @param numberOfEntries number of entries
+     * @param sizeOfEntry size of an entry in bytes
+     * @param key key to be searched
+     * @return offset of the entry with the key or -1 if there is none
+     */
+    private long search(long start, int numberOfEntries, int sizeOfEntry, int key) {
+        int low = 0;
+        int high = numberOfEntries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long entry = start + (long) middle * sizeOfEntry;
+            int keyOfEntry = getInt(entry);
+            if (keyOfEntry < key) {
+                low = middle + 1;
+            } else if (keyOfEntry > key) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private long getLong(long offset) {
+        MappedByteBuffer segment = this.segments[(int) (offset >>> SHIFT_OF_SEGMENT)];
+        int position = (int) (offset & MASK_OF_SEGMENT);
+        if (position + Long.BYTES <= segment.limit()) {
+            return segment.getLong(position);
+        }
+        return ((long) getInt(offset) << Integer.SIZE) | (getInt(offset + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    private int getInt(long offset) {
+        MappedByteBuffer segment = this.segments[(int) (offset >>> SHIFT_OF_SEGMENT)];
+        int position = (int) (offset & MASK_OF_SEGMENT);
+        if (position + Integer.BYTES <= segment.limit()) {
+            return segment.getInt(position);
+        }
+        return (getShort(offset) << Short.SIZE) | (getShort(offset + Short.BYTES) & 0xFFFF);
+    }
+
+    private short getShort(long offset) {
+        MappedByteBuffer segment = this.segments[(int) (offset >>> SHIFT_OF_SEGMENT)];
+        int position = (int) (offset & MASK_OF_SEGMENT);
+        if (position + Short.BYTES <= segment.limit()) {
+            return segment.getShort(position);
+        }
+        return (short) ((getByte(offset) << Byte.SIZE) | (getByte(offset + Byte.BYTES) & 0xFF));
+    }
+
+    private byte getByte(long offset) {
+        return this.segments[(int) (offset >>> SHIFT_OF_SEGMENT)].get((int) (offset & MASK_OF_SEGMENT));
+    }
+
+}
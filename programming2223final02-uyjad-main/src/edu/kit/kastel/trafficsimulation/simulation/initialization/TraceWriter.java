@@ -0,0 +1,272 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class describes the recording of a street network into an indexed trace file, one frame per appended tick.
+ * A keyframe holds the full state and is written at least every K ticks, the ticks between hold only what changed
+ * since the previous frame. The ticks and offsets of all keyframes are written as an index at the end, so a
+ * {@link TraceReader} can answer queries at any recorded tick without simulating.
+ * <p>
+ * All numbers are big-endian. The file starts with a header of a magic number, the number of cars of the topology,
+ * the number of streets, the interval of keyframes and the id of every car of the topology. Each frame starts with
+ * its kind (byte) and tick (long). A keyframe holds the number of cars traced so far (int), the number of cars of
+ * every street (int, ordered by id of street) and for each of those cars the id of its street (int, -1 if the car
+ * is not on any street), its position (short) and its speed (byte), ordered by index of car. A delta holds the
+ * number of changed cars and changed streets (int), then the index, street, position and speed of each changed car
+ * ordered by index, then the id and number of cars of each changed street ordered by id. The file ends with the
+ * tick and offset of every keyframe (long each) and the id of every car that was spawned or entered from a source
+ * while recording (int), followed by a footer of the offset of the index, the first and last tick (long), the
+ * number of keyframes, the number of cars added while recording and the magic number (int).
+ * <p>
+ * The cars of the topology have the first indices, a car added while recording gets the next index when it is
+ * first seen. Its id is only known from the end of the file, so the header never has to be rewritten.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class TraceWriter {
+    static final int MAGIC = 0x54524331;
+    static final byte KIND_KEYFRAME = 0;
+    static final byte KIND_DELTA = 1;
+    static final int SIZE_OF_HEADER = 4 * Integer.BYTES;
+    static final int SIZE_OF_FRAME_HEADER = Byte.BYTES + Long.BYTES;
+    static final int SIZE_OF_KEYFRAME_HEADER = SIZE_OF_FRAME_HEADER + Integer.BYTES;
+    static final int SIZE_OF_DELTA_HEADER = SIZE_OF_FRAME_HEADER + 2 * Integer.BYTES;
+    static final int SIZE_OF_CAR = Integer.BYTES + Short.BYTES + Byte.BYTES;
+    static final int SIZE_OF_CHANGED_CAR = Integer.BYTES + SIZE_OF_CAR;
+    static final int SIZE_OF_CHANGED_STREET = 2 * Integer.BYTES;
+    static final int SIZE_OF_FOOTER = 3 * Long.BYTES + 3 * Integer.BYTES;
+    static final int NO_STREET = -1;
+    private static final int SIZE_OF_BUFFER = 1 << 20;
+    private final Topology topology;
+    // Index of every traced car by id, the cars of the topology first.
+    private final IdIndex indexOfCars;
+    private final int interval;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SIZE_OF_BUFFER);
+    private final StateColumns columns;
+    // State of the previous and the current tick, ordered by index of car or by id of street.
+    private int[] streets;
+    private int[] positions;
+    private int[] speeds;
+    private int[] occupancy;
+    private int[] currentStreets;
+    private int[] currentPositions;
+    private int[] currentSpeeds;
+    private long[] ticksOfKeyframes = new long[16];
+    private long[] offsetsOfKeyframes = new long[16];
+    private int numberOfKeyframes;
+    private long firstTick = -1;
+    private long lastTick;
+
+    /**
+     * Constructor of a trace writer. It creates the file and writes the header.
+     *
+     * @param topology topology of the recorded networks
+     * @param path path of the file to be written
+     * @param interval number of ticks between two keyframes, at least 1
+     * @throws IOException if the file cannot be written
+     */
+    public TraceWriter(Topology topology, Path path, int interval) throws IOException {
+        this.topology = topology;
+        this.interval = interval;
+        this.columns = new StateColumns(topology);
+        int numberOfCars = topology.getNumberOfCars();
+        this.indexOfCars = new IdIndex(numberOfCars);
+        this.streets = new int[numberOfCars];
+        this.positions = new int[numberOfCars];
+        this.speeds = new int[numberOfCars];
+        this.occupancy = new int[topology.getNumberOfStreets()];
+        this.currentStreets = new int[numberOfCars];
+        this.currentPositions = new int[numberOfCars];
+        this.currentSpeeds = new int[numberOfCars];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ensureSpace(SIZE_OF_HEADER);
+        this.buffer.putInt(MAGIC).putInt(numberOfCars).putInt(topology.getNumberOfStreets()).putInt(interval);
+        for (int i = 0; i < numberOfCars; i++) {
+            ensureSpace(Integer.BYTES);
+            this.buffer.putInt(topology.getIdOfCar(i));
+            this.indexOfCars.add(topology.getIdOfCar(i));
+        }
+    }
+
+    /**
+     * Appends the state of the network at its current tick. The first appended tick is a keyframe, and so is every
+     * tick at least the interval after the last keyframe. Must be called by the thread that simulates the network,
+     * with ascending ticks. A tick that is not appended is not recorded, so it cannot be queried.
+     *
+     * @param streetNetwork network to be recorded, built upon the topology of this writer
+     * @throws IOException if the file cannot be written
+     */
+    public void append(StreetNetwork streetNetwork) throws IOException {
+        streetNetwork.fillColumns(this.columns);
+        Arrays.fill(this.currentStreets, NO_STREET);
+        for (int i = 0; i < this.columns.getNumberOfCars(); i++) {
+            int idOfCar = this.columns.getIdsOfCars()[i];
+            int indexOfCar = this.indexOfCars.indexOf(idOfCar);
+            if (indexOfCar == -1) {
+                indexOfCar = addCar(idOfCar);
+            }
+            this.currentStreets[indexOfCar] = this.columns.getStreetsOfCars()[i];
+            this.currentPositions[indexOfCar] = this.columns.getPositionsOfCars()[i];
+            this.currentSpeeds[indexOfCar] = this.columns.getSpeedsOfCars()[i];
+        }
+        long tick = this.columns.getTick();
+        if (this.firstTick == -1) {
+            this.firstTick = tick;
+        }
+        if (this.numberOfKeyframes == 0
+                || tick - this.ticksOfKeyframes[this.numberOfKeyframes - 1] >= this.interval) {
+            writeKeyframe(tick);
+        } else {
+            writeDelta(tick);
+        }
+        this.lastTick = tick;
+        int[] previous = this.streets;
+        this.streets = this.currentStreets;
+        this.currentStreets = previous;
+        previous = this.positions;
+        this.positions = this.currentPositions;
+        this.currentPositions = previous;
+        previous = this.speeds;
+        this.speeds = this.currentSpeeds;
+        this.currentSpeeds = previous;
+        System.arraycopy(this.columns.getOccupancy(), 0, this.occupancy, 0, this.occupancy.length);
+    }
+
+    /**
+     * Adds a car that is seen for the first time. It was not on any street at the previous tick.
+     *
+     * @param idOfCar id of the car
+     * @return the index of the car
+     */
+    private int addCar(int idOfCar) {
+        int indexOfCar = this.indexOfCars.add(idOfCar);
+        if (indexOfCar == this.streets.length) {
+            int capacity = Math.max(2 * indexOfCar, 1);
+            this.streets = Arrays.copyOf(this.streets, capacity);
+            this.positions = Arrays.copyOf(this.positions, capacity);
+            this.speeds = Arrays.copyOf(this.speeds, capacity);
+            this.currentStreets = Arrays.copyOf(this.currentStreets, capacity);
+            this.currentPositions = Arrays.copyOf(this.currentPositions, capacity);
+            this.currentSpeeds = Arrays.copyOf(this.currentSpeeds, capacity);
+            Arrays.fill(this.currentStreets, indexOfCar, capacity, NO_STREET);
+        }
+        this.streets[indexOfCar] = NO_STREET;
+        return indexOfCar;
+    }
+
+    private void writeKeyframe(long tick) throws IOException {
+        if (this.numberOfKeyframes == this.offsetsOfKeyframes.length) {
+            this.ticksOfKeyframes = Arrays.copyOf(this.ticksOfKeyframes, 2 * this.numberOfKeyframes);
+            this.offsetsOfKeyframes = Arrays.copyOf(this.offsetsOfKeyframes, 2 * this.numberOfKeyframes);
+        }
+        this.ticksOfKeyframes[this.numberOfKeyframes] = tick;
+        this.offsetsOfKeyframes[this.numberOfKeyframes++] = getOffset();
+        ensureSpace(SIZE_OF_KEYFRAME_HEADER);
+        this.buffer.put(KIND_KEYFRAME).putLong(tick).putInt(this.indexOfCars.size());
+        for (int numberOfCars : this.columns.getOccupancy()) {
+            ensureSpace(Integer.BYTES);
+            this.buffer.putInt(numberOfCars);
+        }
+        for (int i = 0; i < this.indexOfCars.size(); i++) {
+            ensureSpace(SIZE_OF_CAR);
+            putCar(i);
+        }
+    }
+
+    private void writeDelta(long tick) throws IOException {
+        int changedCars = 0;
+        for (int i = 0; i < this.indexOfCars.size(); i++) {
+            if (isChanged(i)) {
+                changedCars++;
+            }
+        }
+        int[] currentOccupancy = this.columns.getOccupancy();
+        int changedStreets = 0;
+        for (int i = 0; i < currentOccupancy.length; i++) {
+            if (currentOccupancy[i] != this.occupancy[i]) {
+                changedStreets++;
+            }
+        }
+        ensureSpace(SIZE_OF_DELTA_HEADER);
+        this.buffer.put(KIND_DELTA).putLong(tick).putInt(changedCars).putInt(changedStreets);
+        for (int i = 0; i < this.indexOfCars.size(); i++) {
+            if (isChanged(i)) {
+                ensureSpace(SIZE_OF_CHANGED_CAR);
+                this.buffer.putInt(i);
+                putCar(i);
+            }
+        }
+        for (int i = 0; i < currentOccupancy.length; i++) {
+            if (currentOccupancy[i] != this.occupancy[i]) {
+                ensureSpace(SIZE_OF_CHANGED_STREET);
+                this.buffer.putInt(i).putInt(currentOccupancy[i]);
+            }
+        }
+    }
+
+    private boolean isChanged(int indexOfCar) {
+        return this.currentStreets[indexOfCar] != this.streets[indexOfCar]
+                || this.currentPositions[indexOfCar] != this.positions[indexOfCar]
+                || this.currentSpeeds[indexOfCar] != this.speeds[indexOfCar];
+    }
+
+    private void putCar(int indexOfCar) {
+        this.buffer.putInt(this.currentStreets[indexOfCar]).putShort((short) this.currentPositions[indexOfCar])
+                .put((byte) this.currentSpeeds[indexOfCar]);
+    }
+
+    /**
+     * Writes the index of keyframes, the ids of the cars added while recording and the footer and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void finish() throws IOException {
+        try {
+            long offsetOfIndex = getOffset();
+            for (int i = 0; i < this.numberOfKeyframes; i++) {
+                ensureSpace(2 * Long.BYTES);
+                this.buffer.putLong(this.ticksOfKeyframes[i]).putLong(this.offsetsOfKeyframes[i]);
+            }
+            int numberOfCarsOfTopology = this.topology.getNumberOfCars();
+            for (int i = numberOfCarsOfTopology; i < this.indexOfCars.size(); i++) {
+                ensureSpace(Integer.BYTES);
+                this.buffer.putInt(this.indexOfCars.idOf(i));
+            }
+            ensureSpace(SIZE_OF_FOOTER);
+            this.buffer.putLong(offsetOfIndex).putLong(this.firstTick).putLong(this.lastTick)
+                    .putInt(this.numberOfKeyframes).putInt(this.indexOfCars.size() - numberOfCarsOfTopology)
+                    .putInt(MAGIC);
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private long getOffset() throws IOException {
+        return this.channel.position() + this.buffer.position();
+    }
+
+    private void ensureSpace(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+}
@@ -0,0 +1,173 @@
+package edu.kit.kastel.trafficsimulation.simulation.initialization;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This class describes the inbound mailboxes of the edges of a network, through which cars cross to the next edge
+ * while the edges are updated by several workers.
+ * In one round, every edge posts at most its first car into the mailbox of the edge it wants to cross to. A mailbox
+ * only receives cars from the incoming streets of the start node of its edge, so it is bounded by their number.
+ * Posting reserves a slot by an atomic increment and never locks, the slots of all mailboxes are laid out one after
+ * another like the successor tables of the topology. Once all cars are posted, each mailbox is sorted by the ids of
+ * the streets the cars come from and answered in this order, so the result does not depend on the order of posting.
+ * The mailboxes that received a car are listed per region, so the worker of each region finds its own.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class TransferMailboxes {
+
+    /**
+     * Movement of a car whose transfer was rejected, because its next edge has no room.
+     */
+    static final int REJECTED = -1;
+
+    // A transfer holds the id of the street the car comes from above the distance the car wishes to drive.
+    private static final long MASK_OF_DISTANCE = (1L << Integer.SIZE) - 1;
+    // Start of the slots of each mailbox, by index of street, followed by the end of the last mailbox.
+    private final int[] offsets;
+    private final long[] transfers;
+    private final AtomicIntegerArray sizes;
+    private final RegionPartition partition;
+    // Indices of the streets whose mailbox received a car in this round, in the blocks of their regions.
+    private final int[] targets;
+    private final AtomicIntegerArray numbersOfTargets;
+    // Answer to the car posted by each street, by index of street.
+    private final int[] movements;
+
+    /**
+     * Constructor of empty mailboxes for all streets of a topology.
+     *
+     * @param topology topology of the network
+     * @param partition partition of the network into regions
+     */
+    TransferMailboxes(Topology topology, RegionPartition partition) {
+        int numberOfStreets = topology.getNumberOfStreets();
+        this.offsets = new int[numberOfStreets + 1];
+        for (int i = 0; i < numberOfStreets; i++) {
+            this.offsets[i + 1] = this.offsets[i]
+                    + topology.getNumberOfIncomingStreets(topology.getStartNodeOfStreet(i));
+        }
+        this.transfers = new long[this.offsets[numberOfStreets]];
+        this.sizes = new AtomicIntegerArray(numberOfStreets);
+        this.partition = partition;
+        this.targets = new int[numberOfStreets];
+        this.numbersOfTargets = new AtomicIntegerArray(partition.getNumberOfRegions());
+        this.movements = new int[numberOfStreets];
+    }
+
+    /**
+     * Posts the first car of a street into the mailbox of its next street. May be called by several threads.
+     *
+     * @param indexOfTarget index of the street the car wants to cross to
+     * @param idOfSource id of the street the car comes from
+     * @param wishedDistance distance the car wishes to drive on the next street, at least 1
+     */
+    void post(int indexOfTarget, int idOfSource, int wishedDistance) {
+        int slot = this.sizes.getAndIncrement(indexOfTarget);
+        if (slot == 0) {
+            int region = this.partition.getRegionOfStreet(indexOfTarget);
+            this.targets[this.partition.getStartOfRegion(region) + this.numbersOfTargets.getAndIncrement(region)]
+                    = indexOfTarget;
+        }
+        this.transfers[this.offsets[indexOfTarget] + slot] = ((long) idOfSource << Integer.SIZE) | wishedDistance;
+    }
+
+    /**
+     * Gets the number of streets of a region whose mailbox received a car in this round.
+     *
+     * @param region region
+     * @return the number of target streets of the region
+     */
+    int getNumberOfTargets(int region) {
+        return this.numbersOfTargets.get(region);
+    }
+
+    /**
+     * Gets the indices of the streets whose mailbox received a car in this round, in no particular order within
+     * each region. The targets of a region start at {@link RegionPartition#getStartOfRegion(int)}, only the first
+     * {@link #getNumberOfTargets(int)} entries there are valid.
+     *
+     * @return the indices of the target streets
+     */
+    int[] getTargets() {
+        return this.targets;
+    }
+
+    /**
+     * Gets the number of cars in the mailbox of a street.
+     *
+     * @param indexOfTarget index of street
+     * @return the number of cars in the mailbox
+     */
+    int getNumberOfTransfers(int indexOfTarget) {
+        return this.sizes.get(indexOfTarget);
+    }
+
+    /**
+     * Sorts the mailbox of a street by the ids of the streets the cars come from.
+     *
+     * @param indexOfTarget index of street
+     */
+    void sort(int indexOfTarget) {
+        int start = this.offsets[indexOfTarget];
+        Arrays.sort(this.transfers, start, start + this.sizes.get(indexOfTarget));
+    }
+
+    /**
+     * Gets the id of the street a car in a mailbox comes from.
+     *
+     * @param indexOfTarget index of street of the mailbox
+     * @param slot slot of the car in the sorted mailbox
+     * @return the id of the street the car comes from
+     */
+    int getIdOfSource(int indexOfTarget, int slot) {
+        return (int) (this.transfers[this.offsets[indexOfTarget] + slot] >>> Integer.SIZE);
+    }
+
+    /**
+     * Gets the distance a car in a mailbox wishes to drive on the street of the mailbox.
+     *
+     * @param indexOfTarget index of street of the mailbox
+     * @param slot slot of the car in the sorted mailbox
+     * @return the wished distance of the car
+     */
+    int getWishedDistance(int indexOfTarget, int slot) {
+        return (int) (this.transfers[this.offsets[indexOfTarget] + slot] & MASK_OF_DISTANCE);
+    }
+
+    /**
+     * Answers the car posted by a street with the distance it moves on its next street.
+     *
+     * @param indexOfSource index of the street the car comes from
+     * @param movement position of the car on its next street, or {@link #REJECTED}
+     */
+    void answer(int indexOfSource, int movement) {
+        this.movements[indexOfSource] = movement;
+    }
+
+    /**
+     * Gets the answer to the car posted by a street.
+     *
+     * @param indexOfSource index of the street the car comes from
+     * @return the position of the car on its next street, or {@link #REJECTED}
+     */
+    int getMovement(int indexOfSource) {
+        return this.movements[indexOfSource];
+    }
+
+    /**
+     * Empties the mailboxes that received a car in this round. Must not be called while cars are posted.
+     */
+    void clear() {
+        for (int region = 0; region < this.partition.getNumberOfRegions(); region++) {
+            int start = this.partition.getStartOfRegion(region);
+            for (int i = start; i < start + this.numbersOfTargets.get(region); i++) {
+                this.sizes.set(this.targets[i], 0);
+            }
+            this.numbersOfTargets.set(region, 0);
+        }
+    }
+
+}
@@ -1,10 +1,10 @@
 package edu.kit.kastel.trafficsimulation.simulation.module;
 
 import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class describes a car manager that can execute command on cars, such as adding, moving or deleting cars.
@@ -15,8 +15,14 @@
 public class CarManager {
     private static final int MINIMUM_DISTANCE_BETWEEN_CARS = 10;
     private final int lengthOfEdge;
-    private final int maximumSpeed;
-    private final LinkedList<Car> carList = new LinkedList<>();
+    private int maximumSpeed;
+    private final boolean isOvertakingAllowed;
+    private final CarStore cars;
+    private final StreetStatistics statistics;
+    // Holds the last car that left this edge by moving into the outbox, created when it is first needed.
+    private CarStore outbox;
+    // Number of edges that share this car manager. A shared car manager must not be changed.
+    private final AtomicInteger numberOfOwners = new AtomicInteger(1);
 
     /**
      * Constructor of car manager.
@@ -24,98 +30,310 @@ public class CarManager {
      * For instance, first car will be put at the end of edge.
      * The next car will be put backwards while the requirement of minimum distance between cars is fulfilled.
      *
-     * @param cars cars to be managed
+     * @param carPool pool that holds the attributes of the cars
+     * @param cars cars to be managed, they are copied into the storage
      * @param lengthOfEdge length of edge
      * @param maximumSpeed maximum speed on this edge
+     * @param isOvertakingAllowed whether cars may overtake on this edge
+     * @param storeType kind of storage for the cars
      */
-    public CarManager(List<Car> cars, int lengthOfEdge, int maximumSpeed) {
+    public CarManager(CarPool carPool, List<Car> cars, int lengthOfEdge, int maximumSpeed,
+                      boolean isOvertakingAllowed, CarStoreType storeType) {
+        this.cars = storeType.createStore(carPool, lengthOfEdge / MINIMUM_DISTANCE_BETWEEN_CARS + 1);
         for (int i = 0; i < cars.size(); i++) {
-            Car newCar = cars.get(i);
-            newCar.setPosition(lengthOfEdge - MINIMUM_DISTANCE_BETWEEN_CARS * i);
-            this.carList.add(newCar);
+            this.cars.add(cars.get(i));
+            this.cars.setPosition(i, lengthOfEdge - MINIMUM_DISTANCE_BETWEEN_CARS * i);
+        }
+        this.statistics = new StreetStatistics();
+        for (int i = 0; i < this.cars.size(); i++) {
+            this.statistics.placeCar(this.cars.getCurrentSpeed(i));
         }
         this.lengthOfEdge = lengthOfEdge;
         this.maximumSpeed = maximumSpeed;
+        this.isOvertakingAllowed = isOvertakingAllowed;
+    }
+
+    /**
+     * Constructor of car manager with existing car manager.
+     * All cars are copied, so the new car manager can be changed without affecting the existing one.
+     *
+     * @param carManagerToCopy car manager to be copied
+     */
+    public CarManager(CarManager carManagerToCopy) {
+        this.cars = carManagerToCopy.cars.copy();
+        this.statistics = new StreetStatistics(carManagerToCopy.statistics);
+        this.lengthOfEdge = carManagerToCopy.lengthOfEdge;
+        this.maximumSpeed = carManagerToCopy.maximumSpeed;
+        this.isOvertakingAllowed = carManagerToCopy.isOvertakingAllowed;
+    }
+
+    /**
+     * Registers one more edge as owner of this car manager.
+     *
+     * @return this car manager
+     */
+    public CarManager share() {
+        this.numberOfOwners.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Unregisters one edge as owner of this car manager.
+     */
+    public void release() {
+        this.numberOfOwners.decrementAndGet();
+    }
+
+    /**
+     * Checks whether this car manager is shared by more than one edge.
+     *
+     * @return true if this car manager is shared, otherwise false
+     */
+    public boolean isShared() {
+        return this.numberOfOwners.get() > 1;
+    }
+
+    /**
+     * Changes the maximum speed on this edge. Cars that are faster slow down when they are updated next.
+     *
+     * @param maximumSpeed new maximum speed
+     */
+    public void setMaximumSpeed(int maximumSpeed) {
+        this.maximumSpeed = maximumSpeed;
+    }
+
+    /**
+     * Gets the number of cars on this edge.
+     *
+     * @return the number of cars on this edge
+     */
+    public int getNumberOfCars() {
+        return this.cars.size();
+    }
+
+    /**
+     * Gets the id of the car with the given index.
+     *
+     * @param index index of car
+     * @return id of car
+     */
+    public int getIdOfCar(int index) {
+        return this.cars.getId(index);
+    }
+
+    /**
+     * Gets the current speed of the car with the given index.
+     *
+     * @param index index of car
+     * @return current speed of car
+     */
+    public int getSpeedOfCar(int index) {
+        return this.cars.getCurrentSpeed(index);
+    }
+
+    /**
+     * Gets the position of the car with the given index.
+     *
+     * @param index index of car
+     * @return position of car
+     */
+    public int getPositionOfCar(int index) {
+        return this.cars.getPosition(index);
+    }
+
+    /**
+     * Gets the wished direction of the car at the given index.
+     *
+     * @param index index of car, 0 is the car closest to the end of edge
+     * @return wished direction of car
+     */
+    public int getWishedDirectionOfCar(int index) {
+        return this.cars.getWishedDirection(index);
+    }
+
+    /**
+     * Places a car of the pool with its position, speed and wished direction behind the last car.
+     * The car must be behind all cars of this edge.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     * @param position position of car
+     * @param speed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    public void placeCar(CarPool carPool, int indexOfCar, int position, int speed, int wishedDirection) {
+        this.cars.add(carPool, indexOfCar, position, speed, wishedDirection);
+        this.statistics.placeCar(speed);
+    }
+
+    /**
+     * Lets a car of the pool enter this edge from outside the network, standing at the start of the edge.
+     * The start of the edge must be free.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     */
+    public void spawnCar(CarPool carPool, int indexOfCar) {
+        this.cars.add(carPool, indexOfCar, 0, 0, 0);
+        this.statistics.enterCar(0);
+    }
+
+    /**
+     * Removes a car that leaves the network.
+     *
+     * @param index index of car
+     */
+    public void removeCar(int index) {
+        this.statistics.leaveCar(this.cars.getCurrentSpeed(index));
+        this.cars.remove(index);
+    }
+
+    /**
+     * Gets the traffic statistics of this edge.
+     *
+     * @return the statistics of this edge
+     */
+    public StreetStatistics getStatistics() {
+        return this.statistics;
     }
 
     /**
-     * Gets car by id.
+     * Gets the index of car by id.
      *
-     * @param carOfID id of car to be checked
-     * @return car if it is found, otherwise return null
+     * @param idOfCar id of car to be checked
+     * @return index of car if it is found, otherwise return -1
      */
-    public Car getCarByID(int carOfID) {
-        for (Car carToSearch : this.carList) {
-            if (carToSearch.getId() == carOfID) {
-                return carToSearch;
+    public int getIndexOfCar(int idOfCar) {
+        for (int i = 0; i < this.cars.size(); i++) {
+            if (this.cars.getId(i) == idOfCar) {
+                return i;
             }
         }
-        return null;
+        return -1;
     }
 
     /**
-     * Updates the position and speed of cars. Cars will only move within this edge.
+     * Gets new speed of car.
+     * New speed is the minimum of calculated speed(which is sum of current speed and accelerator) and wished speed.
      *
-     * @param isOvertakingAllowed boolean shows whether it is allowed to overtake
+     * @param index index of car
+     * @return new speed of car
      */
-    public void updateCarsInternally(boolean isOvertakingAllowed) {
-        for (int i = 0; i < this.carList.size(); i++) {
-            Collections.sort(this.carList);
-            Car carToUpdate = this.carList.get(i);
+    private int getNewSpeed(int index) {
+        return Math.min(this.cars.getCurrentSpeed(index) + this.cars.getAccelerator(index),
+                this.cars.getWishedSpeed(index));
+    }
 
-            if (carToUpdate.isUpdated()) {
-                continue;
-            }
+    /**
+     * Sets the speed of car and keeps the statistics up to date.
+     *
+     * @param index index of car
+     * @param speed the new speed
+     */
+    private void setSpeedOfCar(int index, int speed) {
+        this.statistics.changeSpeed(this.cars.getCurrentSpeed(index), speed);
+        this.cars.setCurrentSpeed(index, speed);
+    }
 
-            carToUpdate.setAsUpdated();
-            int currentPosition = carToUpdate.getPosition();
+    /**
+     * Updates the position and speed of cars. Cars will only move within this edge.
+     * Whether cars may overtake was decided when this car manager was built, so each lane type has its own loop.
+     */
+    public void updateCarsInternally() {
+        if (this.isOvertakingAllowed) {
+            updateCarsOnPassingLane();
+        } else {
+            updateCarsOnSimpleLane();
+        }
+    }
 
-            // If the car already stands at the end, no need to move. Set the speed as 0.
-            if (currentPosition == this.lengthOfEdge) {
-                carToUpdate.setCurrentSpeed(0);
-                continue;
+    /**
+     * Updates the cars of a lane without overtaking. Each car follows the car in front of it, the first car
+     * follows a car standing the minimum distance behind the end of edge. As a car never passes the car in front
+     * of it, the cars keep their order and are only sorted once.
+     */
+    private void updateCarsOnSimpleLane() {
+        CarStore carsToUpdate = this.cars;
+        int numberOfCars = carsToUpdate.size();
+        int length = this.lengthOfEdge;
+        int speedLimit = this.maximumSpeed;
+        carsToUpdate.sortByPosition();
+        int positionOfFrontCar = length + MINIMUM_DISTANCE_BETWEEN_CARS;
+        for (int i = 0; i < numberOfCars; i++) {
+            int currentPosition = carsToUpdate.getPosition(i);
+            if (!carsToUpdate.isUpdated(i)) {
+                carsToUpdate.setUpdated(i, true);
+                int allowedMovement = positionOfFrontCar - MINIMUM_DISTANCE_BETWEEN_CARS - currentPosition;
+                // A car at the end of edge or too close to the car in front of it does not move.
+                if (currentPosition == length || allowedMovement <= 0) {
+                    setSpeedOfCar(i, 0);
+                } else {
+                    int speed = Math.min(getNewSpeed(i), speedLimit);
+                    setSpeedOfCar(i, speed);
+                    currentPosition += Math.min(allowedMovement, speed);
+                    carsToUpdate.setPosition(i, currentPosition);
+                }
             }
+            positionOfFrontCar = currentPosition;
+        }
+    }
 
-            int speed = Math.min(carToUpdate.getNewSpeed(), this.maximumSpeed);
-            carToUpdate.setCurrentSpeed(speed);
-            // If it is the first car(the one closet to end node), need to consider comparison with the length of edge.
-            if (i == 0) {
-                carToUpdate.setPosition(Math.min(speed + currentPosition, this.lengthOfEdge));
-                continue;
+    /**
+     * Updates the cars of a lane with overtaking. A car overtakes the car in front of it if it gets the minimum
+     * distance ahead of it and behind the car in front of both, otherwise it follows. The end of edge counts as a
+     * car standing the minimum distance behind it, so the first two cars need no checks of their own. The cars are
+     * only sorted again after a car overtook, which swaps it with the car it passed and no other car.
+     */
+    private void updateCarsOnPassingLane() {
+        CarStore carsToUpdate = this.cars;
+        int numberOfCars = carsToUpdate.size();
+        int length = this.lengthOfEdge;
+        int speedLimit = this.maximumSpeed;
+        boolean isSorted = false;
+        // The first car cannot overtake, as there is no room in front of the car it follows.
+        int positionAheadOfFrontCar = length + MINIMUM_DISTANCE_BETWEEN_CARS;
+        int positionOfFrontCar = length + MINIMUM_DISTANCE_BETWEEN_CARS;
+        for (int i = 0; i < numberOfCars; i++) {
+            if (!isSorted) {
+                carsToUpdate.sortByPosition();
+                isSorted = true;
             }
-
-            int positionOfFrontCar = this.carList.get(i - 1).getPosition();
-            if (isOvertakingAllowed) {
-                // Assume that overtaking happens.
-                // Calculate remaining distance between car and front car after deduction of required minimum distance.
-                int remainingDistance = currentPosition + speed - positionOfFrontCar - MINIMUM_DISTANCE_BETWEEN_CARS;
-
-                // If it is the second car (which means it is second closet to the end node),
-                // then check if the minimum distance between car and end of edge still holds after overtaking.
-                if (i == 1) {
-                    if (remainingDistance >= 0
-                            && this.lengthOfEdge - positionOfFrontCar >= MINIMUM_DISTANCE_BETWEEN_CARS) {
-                        carToUpdate.setPosition(Math.min(currentPosition + speed, this.lengthOfEdge));
-                        continue;
-                    }
+            int currentPosition = carsToUpdate.getPosition(i);
+            boolean hasOvertaken = false;
+            if (!carsToUpdate.isUpdated(i)) {
+                carsToUpdate.setUpdated(i, true);
+                if (currentPosition == length) {
+                    setSpeedOfCar(i, 0);
                 } else {
-                    // If it is not the second car, check if minimum distance between cars still holds after overtaking.
-                    int limit = this.carList.get(i - 2).getPosition();
-                    if (remainingDistance >= 0 && (limit - positionOfFrontCar >= 2 * MINIMUM_DISTANCE_BETWEEN_CARS)) {
-                        carToUpdate.setPosition(Math.min(currentPosition + speed,
-                                limit - MINIMUM_DISTANCE_BETWEEN_CARS));
-                        continue;
+                    int speed = Math.min(getNewSpeed(i), speedLimit);
+                    // Calculate remaining distance between car and front car after deduction of required minimum
+                    // distance, assuming that overtaking happens.
+                    int remainingDistance = currentPosition + speed - positionOfFrontCar
+                            - MINIMUM_DISTANCE_BETWEEN_CARS;
+                    int allowedMovement = positionOfFrontCar - MINIMUM_DISTANCE_BETWEEN_CARS - currentPosition;
+                    if (remainingDistance >= 0
+                            && positionAheadOfFrontCar - positionOfFrontCar >= 2 * MINIMUM_DISTANCE_BETWEEN_CARS) {
+                        setSpeedOfCar(i, speed);
+                        currentPosition = Math.min(currentPosition + speed,
+                                positionAheadOfFrontCar - MINIMUM_DISTANCE_BETWEEN_CARS);
+                        carsToUpdate.setPosition(i, currentPosition);
+                        hasOvertaken = true;
+                        isSorted = false;
+                    } else if (allowedMovement <= 0) {
+                        setSpeedOfCar(i, 0);
+                    } else {
+                        setSpeedOfCar(i, speed);
+                        currentPosition += Math.min(allowedMovement, speed);
+                        carsToUpdate.setPosition(i, currentPosition);
                     }
                 }
             }
-
-            // If overtaking is not allowed or overtaking does not happen, the car will be updated as following.
-            int allowedMovement = positionOfFrontCar - MINIMUM_DISTANCE_BETWEEN_CARS - currentPosition;
-            // Check whether the car can meet the minimum distance condition. If not, do not move and set speed as 0.
-            if (allowedMovement <= 0) {
-                carToUpdate.setCurrentSpeed(0);
+            // Once sorted, the car that overtook is in front of the car it passed.
+            if (hasOvertaken) {
+                positionAheadOfFrontCar = currentPosition;
             } else {
-                carToUpdate.increasePosition(Math.min(allowedMovement, speed));
+                positionAheadOfFrontCar = positionOfFrontCar;
+                positionOfFrontCar = currentPosition;
             }
         }
     }
@@ -129,11 +347,11 @@ public void updateCarsInternally(boolean isOvertakingAllowed) {
      * @return -1 if the edge is empty, otherwise return position of the car that is closet to the start node
      */
     public int getLastCarPosition() {
-        if (this.carList.isEmpty()) {
+        if (isEmpty()) {
             return -1;
         }
-        Collections.sort(this.carList);
-        return this.carList.getLast().getPosition();
+        this.cars.sortByPosition();
+        return this.cars.getPosition(this.cars.size() - 1);
     }
 
     /**
@@ -142,8 +360,8 @@ public int getLastCarPosition() {
      * @return the wished distance to drive on new street
      */
     public int getFirstCarWishedRemainingDistance() {
-        Collections.sort(this.carList);
-        return (this.carList.getFirst().getPosition() + calculateSpeedOfFirstCar() - this.lengthOfEdge);
+        this.cars.sortByPosition();
+        return (this.cars.getPosition(0) + calculateSpeedOfFirstCar() - this.lengthOfEdge);
     }
 
     /**
@@ -152,54 +370,160 @@ public int getFirstCarWishedRemainingDistance() {
      * @return speed of first car that is closet to the end of edge
      */
     public int calculateSpeedOfFirstCar() {
-        return Math.min(this.carList.getFirst().getNewSpeed(), this.maximumSpeed);
+        return Math.min(getNewSpeed(0), this.maximumSpeed);
     }
 
     /**
      * Updates the speed of first car that is closet to the end of edge.
      */
     public void updateSpeedOfFirstCar() {
-        this.carList.getFirst().setCurrentSpeed(calculateSpeedOfFirstCar());
+        setSpeedOfCar(0, calculateSpeedOfFirstCar());
     }
 
     /**
-     * Adds a new car.
+     * Gets the wished direction of the car that is closet to the end of edge.
      *
-     * @param carToAdd car to be added
+     * @return the wished direction of the first car
+     */
+    public int getWishedDirectionOfFirstCar() {
+        return this.cars.getWishedDirection(0);
+    }
+
+    /**
+     * Gets the destination of the car that is closet to the end of edge.
+     *
+     * @return index of the node the first car drives to, or -1 if it has no destination
+     */
+    public int getDestinationOfFirstCar() {
+        return this.cars.getDestination(0);
+    }
+
+    /**
+     * Prepares the car that is closet to the end of edge for crossing to the next edge.
+     * The car is set as updated, turns to its next wished direction and gets its new speed.
+     */
+    public void prepareFirstCarForCrossing() {
+        this.cars.setUpdated(0, true);
+        this.cars.updateWishedDirection(0);
+        updateSpeedOfFirstCar();
+    }
+
+    /**
+     * Stops the car that is closet to the end of edge by setting its speed as 0.
+     */
+    public void stopFirstCar() {
+        setSpeedOfCar(0, 0);
+    }
+
+    /**
+     * Adds a copy of the first car of another car manager.
+     *
+     * @param source car manager of the edge the car comes from
      * @param wishedDistance the distance the new car wishes to drive
      */
-    public void addCar(Car carToAdd, int wishedDistance) {
+    public void addFirstCarOf(CarManager source, int wishedDistance) {
+        int position;
         if (isEmpty()) {
-            carToAdd.setPosition(wishedDistance);
+            position = wishedDistance;
         } else {
-            carToAdd.setPosition(Math.min(wishedDistance, getLastCarPosition() - MINIMUM_DISTANCE_BETWEEN_CARS));
+            position = Math.min(wishedDistance, getLastCarPosition() - MINIMUM_DISTANCE_BETWEEN_CARS);
         }
-        this.carList.add(carToAdd);
+        this.cars.addFrom(source.cars, 0);
+        this.statistics.enterCar(source.cars.getCurrentSpeed(0));
+        this.cars.setPosition(this.cars.size() - 1, position);
     }
 
     /**
-     * Gets the car that is closet to the end of edge.
+     * Moves the car that is closet to the end of edge into the outbox, replacing the car moved into it before.
+     * The next edge takes the car from there, so the two edges are not changed at the same time.
+     */
+    public void moveFirstCarToOutbox() {
+        if (this.outbox == null) {
+            this.outbox = this.cars.createEmpty();
+        } else if (this.outbox.size() > 0) {
+            this.outbox.removeFirst();
+        }
+        this.outbox.addFrom(this.cars, 0);
+        removeFirstCar();
+    }
+
+    /**
+     * Adds a copy of the car in the outbox of another car manager at the given position behind all cars.
      *
-     * @return the car that is closet to the end of edge
+     * @param source car manager of the edge the car comes from
+     * @param position position of the car, which keeps the minimum distance to the last car
      */
-    public Car getFirstCar() {
-        return this.carList.getFirst();
+    public void addCarOfOutbox(CarManager source, int position) {
+        this.cars.addFrom(source.outbox, 0);
+        this.statistics.enterCar(source.outbox.getCurrentSpeed(0));
+        this.cars.setPosition(this.cars.size() - 1, position);
+    }
+
+    /**
+     * Adds a car of the pool that crossed from another edge at the given position behind all cars.
+     * The car is updated in this tick.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     * @param position position of the car, which keeps the minimum distance to the last car
+     * @param speed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    public void addCrossedCar(CarPool carPool, int indexOfCar, int position, int speed, int wishedDirection) {
+        this.cars.add(carPool, indexOfCar, position, speed, wishedDirection);
+        this.cars.setUpdated(this.cars.size() - 1, true);
+        this.statistics.enterCar(speed);
+    }
+
+    /**
+     * Adds a copy of the first car of another car manager at the start of the edge, without looking at the cars
+     * on this edge. The car manager of a queue keeps its cars in the order they entered this way.
+     *
+     * @param source car manager of the edge the car comes from
+     */
+    public void enqueueFirstCarOf(CarManager source) {
+        this.cars.addFrom(source.cars, 0);
+        this.statistics.enterCar(source.cars.getCurrentSpeed(0));
+        this.cars.setPosition(this.cars.size() - 1, 0);
+        driveAtFreeFlow(this.cars.size() - 1);
+    }
+
+    /**
+     * Sets the speed of a car to the speed it drives on a free edge, the minimum of its wished speed and the
+     * maximum speed. A queue does not move its cars, so this is the speed a car of a queue drives until it waits.
+     *
+     * @param index index of car
+     */
+    public void driveAtFreeFlow(int index) {
+        setSpeedOfCar(index, Math.min(this.cars.getWishedSpeed(index), this.maximumSpeed));
     }
 
     /**
      * Removes the car that is closet to the end of edge.
      */
     public void removeFirstCar() {
-        this.carList.removeFirst();
+        this.statistics.leaveCar(this.cars.getCurrentSpeed(0));
+        this.cars.removeFirst();
     }
 
     /**
      * Resets status of all cars as "not updated". So cars are ready for updates next tick.
+     * Meanwhile, the occupancy and queue length at the end of this tick are recorded in the statistics.
      */
     public void reset() {
-        for (Car carToReset : this.carList) {
-            carToReset.reset();
+        for (int i = 0; i < this.cars.size(); i++) {
+            this.cars.setUpdated(i, false);
         }
+        this.statistics.recordTick();
+    }
+
+    /**
+     * Records the occupancy and queue length for several ticks in the statistics, without visiting the cars.
+     *
+     * @param numberOfTicks number of ticks in which the cars did not change
+     */
+    public void recordTicks(long numberOfTicks) {
+        this.statistics.recordTicks(numberOfTicks);
     }
 
     /**
@@ -208,8 +532,8 @@ public void reset() {
      * @return true if all cars are updated, otherwise return false
      */
     public boolean isAllUpdated() {
-        for (Car carToCheck : this.carList) {
-            if (!carToCheck.isUpdated()) {
+        for (int i = 0; i < this.cars.size(); i++) {
+            if (!this.cars.isUpdated(i)) {
                 return false;
             }
         }
@@ -222,7 +546,7 @@ public boolean isAllUpdated() {
      * @return true if the edge is empty, otherwise return false
      */
     public boolean isEmpty() {
-        return this.carList.isEmpty();
+        return this.cars.size() == 0;
     }
 
     /**
@@ -231,7 +555,7 @@ public boolean isEmpty() {
      * @return true if the first car is at the end of edge, otherwise return false
      */
     public boolean isCarAtTheEnd() {
-        return this.carList.getFirst().getPosition() == this.lengthOfEdge;
+        return this.cars.getPosition(0) == this.lengthOfEdge;
     }
 
 }
@@ -0,0 +1,192 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the timing of an edge that is simulated as a queue.
+ * Instead of moving every car every tick, a car gets the tick from which on it may leave the edge when it enters,
+ * as if it drove the whole edge at the speed limit. The cars leave in the order they entered, so a tick only looks
+ * at the first car. The cars themselves are held by the car manager of the edge, in the same order as their exit
+ * ticks. A position is derived from the exit tick when it is read, so it is approximate: the car drives at the
+ * speed limit, but keeps the minimum distance to the end of the edge for every car in front of it.
+ * The statistics of the edge are not recorded per tick either, but for all ticks since the cars last changed.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+final class CarQueue {
+    private static final int MINIMUM_DISTANCE_BETWEEN_CARS = 10;
+    private final int lengthOfEdge;
+    private int maximumSpeed;
+    private long[] exitTicks;
+    // Index of the exit tick of the first car. Removing the first car only moves this index.
+    private int head;
+    private int size;
+    // Ticks before this one are recorded in the statistics of the edge.
+    private long recordedTick;
+
+    /**
+     * Constructor of an empty queue.
+     *
+     * @param lengthOfEdge length of edge
+     * @param maximumSpeed maximum speed on this edge
+     * @param tick current tick, from which on the statistics are recorded
+     */
+    CarQueue(int lengthOfEdge, int maximumSpeed, long tick) {
+        this.lengthOfEdge = lengthOfEdge;
+        this.maximumSpeed = maximumSpeed;
+        this.recordedTick = tick;
+        this.exitTicks = new long[lengthOfEdge / MINIMUM_DISTANCE_BETWEEN_CARS + 1];
+    }
+
+    /**
+     * Constructor of a queue with an existing queue, which can be changed without affecting the existing one.
+     *
+     * @param queueToCopy queue to be copied
+     */
+    CarQueue(CarQueue queueToCopy) {
+        this.lengthOfEdge = queueToCopy.lengthOfEdge;
+        this.maximumSpeed = queueToCopy.maximumSpeed;
+        this.exitTicks = Arrays.copyOfRange(queueToCopy.exitTicks, queueToCopy.head, queueToCopy.exitTicks.length);
+        this.size = queueToCopy.size;
+        this.recordedTick = queueToCopy.recordedTick;
+    }
+
+    /**
+     * Gets the number of ticks that are not recorded in the statistics of the edge yet.
+     *
+     * @param tick current tick
+     * @return the number of ticks since the statistics were last recorded
+     */
+    long getUnrecordedTicks(long tick) {
+        return tick - this.recordedTick;
+    }
+
+    /**
+     * Marks the ticks before the given tick as recorded in the statistics of the edge.
+     *
+     * @param tick current tick
+     */
+    void setRecordedTick(long tick) {
+        this.recordedTick = tick;
+    }
+
+    /**
+     * Changes the maximum speed on this edge. Cars that are already on the edge keep their exit tick.
+     *
+     * @param maximumSpeed new maximum speed
+     */
+    void setMaximumSpeed(int maximumSpeed) {
+        this.maximumSpeed = maximumSpeed;
+    }
+
+    /**
+     * Gets how many cars may leave this edge per tick, one per minimum distance the speed limit covers.
+     *
+     * @return the maximum number of cars leaving per tick, at least 1
+     */
+    int getOutflowPerTick() {
+        return Math.max(this.maximumSpeed / MINIMUM_DISTANCE_BETWEEN_CARS, 1);
+    }
+
+    /**
+     * Adds a car at the given position behind all cars, which may leave once it drove the rest of the edge.
+     *
+     * @param tick current tick
+     * @param position position of the car
+     */
+    void enter(long tick, int position) {
+        add(tick + (this.lengthOfEdge - position + this.maximumSpeed - 1) / this.maximumSpeed);
+    }
+
+    /**
+     * Adds a car behind all cars that may leave after the given number of ticks.
+     *
+     * @param tick current tick
+     * @param remainingTicks number of ticks until the car may leave
+     */
+    void place(long tick, int remainingTicks) {
+        add(tick + remainingTicks);
+    }
+
+    private void add(long exitTick) {
+        if (this.head + this.size == this.exitTicks.length) {
+            // Moves the ticks back to the start if the first cars left, otherwise grows the array.
+            long[] target = this.head > 0 ? this.exitTicks : new long[2 * this.exitTicks.length];
+            System.arraycopy(this.exitTicks, this.head, target, 0, this.size);
+            this.exitTicks = target;
+            this.head = 0;
+        }
+        this.exitTicks[this.head + this.size] = exitTick;
+        this.size++;
+    }
+
+    /**
+     * Removes the first car.
+     */
+    void removeFirst() {
+        this.head++;
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    /**
+     * Removes the car with the given index.
+     *
+     * @param index index of car
+     */
+    void remove(int index) {
+        System.arraycopy(this.exitTicks, this.head + index + 1, this.exitTicks, this.head + index,
+                this.size - index - 1);
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    /**
+     * Checks whether the first car may leave this edge.
+     *
+     * @param tick current tick
+     * @return true if the first car drove the whole edge, otherwise false
+     */
+    boolean isFirstCarReady(long tick) {
+        return this.exitTicks[this.head] <= tick;
+    }
+
+    /**
+     * Gets the tick from which on the first car may leave this edge.
+     *
+     * @return the exit tick of the first car
+     */
+    long getExitTickOfFirstCar() {
+        return this.exitTicks[this.head];
+    }
+
+    /**
+     * Gets the number of ticks until the car with the given index may leave this edge.
+     *
+     * @param index index of car
+     * @param tick current tick
+     * @return the remaining ticks, 0 if the car may leave
+     */
+    int getRemainingTicks(int index, long tick) {
+        return (int) Math.max(this.exitTicks[this.head + index] - tick, 0);
+    }
+
+    /**
+     * Gets the approximate position of the car with the given index.
+     *
+     * @param index index of car
+     * @param tick current tick
+     * @return the position of the car
+     */
+    int getPosition(int index, long tick) {
+        long drivenPosition = this.lengthOfEdge - (long) getRemainingTicks(index, tick) * this.maximumSpeed;
+        long queuedPosition = this.lengthOfEdge - (long) index * MINIMUM_DISTANCE_BETWEEN_CARS;
+        return (int) Math.max(Math.min(drivenPosition, queuedPosition), 0);
+    }
+
+}
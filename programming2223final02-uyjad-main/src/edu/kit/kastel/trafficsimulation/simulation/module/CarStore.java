@@ -0,0 +1,175 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+
+/**
+ * This interface describes the storage of the cars on one edge.
+ * Cars are addressed by their index, index 0 is the car closest to the end of edge once the cars are sorted.
+ * The storage only holds data, the rules of movement are applied by the {@link CarManager}.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public interface CarStore {
+
+    /**
+     * Gets the number of stored cars.
+     *
+     * @return the number of stored cars
+     */
+    int size();
+
+    /**
+     * Gets the id of the car.
+     *
+     * @param index index of car
+     * @return id of car
+     */
+    int getId(int index);
+
+    /**
+     * Gets the wished speed of the car.
+     *
+     * @param index index of car
+     * @return wished speed of car
+     */
+    int getWishedSpeed(int index);
+
+    /**
+     * Gets the accelerator of the car.
+     *
+     * @param index index of car
+     * @return accelerator of car
+     */
+    int getAccelerator(int index);
+
+    /**
+     * Gets the current speed of the car.
+     *
+     * @param index index of car
+     * @return current speed of car
+     */
+    int getCurrentSpeed(int index);
+
+    /**
+     * Sets the current speed of the car.
+     *
+     * @param index index of car
+     * @param speed the new speed
+     */
+    void setCurrentSpeed(int index, int speed);
+
+    /**
+     * Gets the position of the car.
+     *
+     * @param index index of car
+     * @return position of car
+     */
+    int getPosition(int index);
+
+    /**
+     * Sets the position of the car.
+     *
+     * @param index index of car
+     * @param position the new position
+     */
+    void setPosition(int index, int position);
+
+    /**
+     * Gets the wished direction of the car.
+     *
+     * @param index index of car
+     * @return wished direction of car
+     */
+    int getWishedDirection(int index);
+
+    /**
+     * Updates the wished direction of the car to the next direction.
+     *
+     * @param index index of car
+     */
+    void updateWishedDirection(int index);
+
+    /**
+     * Gets the destination of the car.
+     *
+     * @param index index of car
+     * @return index of the node the car drives to, or -1 if it has no destination
+     */
+    int getDestination(int index);
+
+    /**
+     * Checks whether the car is updated in this tick.
+     *
+     * @param index index of car
+     * @return true if the car is updated, otherwise false
+     */
+    boolean isUpdated(int index);
+
+    /**
+     * Sets whether the car is updated in this tick.
+     *
+     * @param index index of car
+     * @param isUpdated true if the car is updated, otherwise false
+     */
+    void setUpdated(int index, boolean isUpdated);
+
+    /**
+     * Adds a copy of the car at the end of the storage.
+     *
+     * @param car car to be copied
+     */
+    void add(Car car);
+
+    /**
+     * Adds a car of the pool with the given state at the end of the storage. The car is not updated.
+     *
+     * @param carPool pool the car is held in, the same for all storages of a network
+     * @param indexOfCar index of car in the pool
+     * @param position position of car
+     * @param currentSpeed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    void add(CarPool carPool, int indexOfCar, int position, int currentSpeed, int wishedDirection);
+
+    /**
+     * Adds a copy of a car of another storage of the same kind at the end of this storage.
+     *
+     * @param source storage the car is stored in
+     * @param index index of car in the source storage
+     */
+    void addFrom(CarStore source, int index);
+
+    /**
+     * Removes the car with index 0.
+     */
+    void removeFirst();
+
+    /**
+     * Removes the car. The cars behind it move up by one index.
+     *
+     * @param index index of car
+     */
+    void remove(int index);
+
+    /**
+     * Sorts the cars by descending position. Cars with the same position keep their order.
+     */
+    void sortByPosition();
+
+    /**
+     * Creates a copy of this storage, which can be changed without affecting this storage.
+     *
+     * @return the copy of this storage
+     */
+    CarStore copy();
+
+    /**
+     * Creates an empty storage of the same kind, which cars of this storage can be added to.
+     *
+     * @return the empty storage
+     */
+    CarStore createEmpty();
+
+}
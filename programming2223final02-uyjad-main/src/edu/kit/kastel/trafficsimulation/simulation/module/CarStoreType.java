@@ -0,0 +1,78 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+
+/**
+ * This class describes the kinds of storage for the cars of an edge.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public enum CarStoreType {
+
+    /**
+     * Every car is a {@link edu.kit.kastel.trafficsimulation.simulation.initialization.Car} object on the heap.
+     */
+    OBJECT("object") {
+        @Override
+        public CarStore createStore(CarPool carPool, int capacity) {
+            return new ObjectCarStore();
+        }
+    },
+
+    /**
+     * Every car is a fixed size record outside the heap.
+     */
+    OFF_HEAP("offheap") {
+        @Override
+        public CarStore createStore(CarPool carPool, int capacity) {
+            return new OffHeapCarStore(capacity);
+        }
+    },
+
+    /**
+     * Every car is one long on the heap, its immutable attributes are shared through the pool of cars.
+     */
+    COMPACT("compact") {
+        @Override
+        public CarStore createStore(CarPool carPool, int capacity) {
+            return new CompactCarStore(carPool, capacity);
+        }
+    };
+
+    private final String name;
+
+    /**
+     * Constructor of a kind of storage.
+     *
+     * @param name name of the kind of storage as given by user
+     */
+    CarStoreType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the kind of storage from input string.
+     *
+     * @param name name of the kind of storage
+     * @return kind of storage that matches this name, otherwise null
+     */
+    public static CarStoreType getCarStoreTypeFromString(String name) {
+        for (CarStoreType type : CarStoreType.values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates an empty storage of this kind.
+     *
+     * @param carPool pool that holds the attributes of the cars
+     * @param capacity expected maximum number of cars
+     * @return the new storage
+     */
+    public abstract CarStore createStore(CarPool carPool, int capacity);
+
+}
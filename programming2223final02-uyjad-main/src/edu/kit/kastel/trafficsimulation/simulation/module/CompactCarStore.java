@@ -0,0 +1,207 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+
+import java.util.Arrays;
+
+/**
+ * This class describes a storage that packs the whole mutable state of a car into one long.
+ * The long holds position, current speed, wished direction, the "updated" status and the index of the car
+ * in the {@link CarPool}. Id, wished speed and accelerator never change, so they are read from the primitive arrays
+ * of the pool, which are shared by all edges of a network and its forks.
+ * <p>
+ * On a 64-bit JVM with compressed references, a car of the object storage costs 40 bytes for the car,
+ * 24 bytes for its direction counter and 24 bytes for the node of the linked list, that is 88 bytes.
+ * A car of this storage costs 8 bytes for its state and 6 bytes for its shared attributes, that is 14 bytes.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class CompactCarStore implements CarStore {
+    // Bits 0 to 15 hold the position, bits 16 to 23 the current speed, bits 24 and 25 the wished direction,
+    // bit 26 the "updated" status and bits 32 to 63 the index of the car in the pool.
+    private static final int SHIFT_SPEED = 16;
+    private static final int SHIFT_DIRECTION = 24;
+    private static final int SHIFT_INDEX = 32;
+    private static final long MASK_POSITION = 0xFFFFL;
+    private static final long MASK_SPEED = 0xFFL << SHIFT_SPEED;
+    private static final long MASK_DIRECTION = 0b11L << SHIFT_DIRECTION;
+    private static final long MASK_UPDATED = 1L << 26;
+    private static final int NUMBER_OF_DIRECTIONS = 4;
+    private final CarPool carPool;
+    private long[] states;
+    // Index of the state of the first car. Removing the first car only moves this index.
+    private int head;
+    private int size;
+
+    /**
+     * Constructor of a compact car storage.
+     *
+     * @param carPool pool that holds the immutable attributes of the cars
+     * @param capacity number of cars that fit before the storage has to grow, at least 1
+     */
+    public CompactCarStore(CarPool carPool, int capacity) {
+        this.carPool = carPool;
+        this.states = new long[Math.max(capacity, 1)];
+    }
+
+    private long getState(int index) {
+        return this.states[this.head + index];
+    }
+
+    private void setState(int index, long state) {
+        this.states[this.head + index] = state;
+    }
+
+    private int getIndexOfCar(int index) {
+        return (int) (getState(index) >>> SHIFT_INDEX);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int getId(int index) {
+        return this.carPool.getIdOfCar(getIndexOfCar(index));
+    }
+
+    @Override
+    public int getWishedSpeed(int index) {
+        return this.carPool.getWishedSpeedOfCar(getIndexOfCar(index));
+    }
+
+    @Override
+    public int getAccelerator(int index) {
+        return this.carPool.getAcceleratorOfCar(getIndexOfCar(index));
+    }
+
+    @Override
+    public int getCurrentSpeed(int index) {
+        return (int) ((getState(index) & MASK_SPEED) >>> SHIFT_SPEED);
+    }
+
+    @Override
+    public void setCurrentSpeed(int index, int speed) {
+        setState(index, (getState(index) & ~MASK_SPEED) | ((long) speed << SHIFT_SPEED));
+    }
+
+    @Override
+    public int getPosition(int index) {
+        return (int) (getState(index) & MASK_POSITION);
+    }
+
+    @Override
+    public void setPosition(int index, int position) {
+        setState(index, (getState(index) & ~MASK_POSITION) | position);
+    }
+
+    @Override
+    public int getWishedDirection(int index) {
+        return (int) ((getState(index) & MASK_DIRECTION) >>> SHIFT_DIRECTION);
+    }
+
+    @Override
+    public void updateWishedDirection(int index) {
+        long direction = (getWishedDirection(index) + 1) % NUMBER_OF_DIRECTIONS;
+        setState(index, (getState(index) & ~MASK_DIRECTION) | (direction << SHIFT_DIRECTION));
+    }
+
+    @Override
+    public int getDestination(int index) {
+        return this.carPool.getDestinationOfCar(getIndexOfCar(index));
+    }
+
+    @Override
+    public boolean isUpdated(int index) {
+        return (getState(index) & MASK_UPDATED) != 0;
+    }
+
+    @Override
+    public void setUpdated(int index, boolean isUpdated) {
+        long state = getState(index);
+        setState(index, isUpdated ? state | MASK_UPDATED : state & ~MASK_UPDATED);
+    }
+
+    @Override
+    public void add(Car car) {
+        long state = ((long) this.carPool.getTopology().getIndexOfCar(car.getId()) << SHIFT_INDEX)
+                | ((long) car.getWishedDirection() << SHIFT_DIRECTION)
+                | ((long) car.getCurrentSpeed() << SHIFT_SPEED)
+                | car.getPosition()
+                | (car.isUpdated() ? MASK_UPDATED : 0);
+        add(state);
+    }
+
+    @Override
+    public void add(CarPool carPool, int indexOfCar, int position, int currentSpeed, int wishedDirection) {
+        add(((long) indexOfCar << SHIFT_INDEX) | ((long) wishedDirection << SHIFT_DIRECTION)
+                | ((long) currentSpeed << SHIFT_SPEED) | position);
+    }
+
+    @Override
+    public void addFrom(CarStore source, int index) {
+        add(((CompactCarStore) source).getState(index));
+    }
+
+    private void add(long state) {
+        if (this.head + this.size == this.states.length) {
+            // Moves the states back to the start if the first cars were removed, otherwise grows the array.
+            long[] target = this.head > 0 ? this.states : new long[2 * this.states.length];
+            System.arraycopy(this.states, this.head, target, 0, this.size);
+            this.states = target;
+            this.head = 0;
+        }
+        setState(this.size, state);
+        this.size++;
+    }
+
+    @Override
+    public void removeFirst() {
+        this.head++;
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    @Override
+    public void remove(int index) {
+        System.arraycopy(this.states, this.head + index + 1, this.states, this.head + index, this.size - index - 1);
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    @Override
+    public void sortByPosition() {
+        // Insertion sort is stable and fast, because the cars are nearly sorted after every move.
+        for (int i = this.head + 1; i < this.head + this.size; i++) {
+            long state = this.states[i];
+            long position = state & MASK_POSITION;
+            int target = i;
+            while (target > this.head && (this.states[target - 1] & MASK_POSITION) < position) {
+                this.states[target] = this.states[target - 1];
+                target--;
+            }
+            this.states[target] = state;
+        }
+    }
+
+    @Override
+    public CarStore copy() {
+        CompactCarStore copy = new CompactCarStore(this.carPool, 1);
+        copy.states = Arrays.copyOfRange(this.states, this.head, this.states.length);
+        copy.size = this.size;
+        return copy;
+    }
+
+    @Override
+    public CarStore createEmpty() {
+        return new CompactCarStore(this.carPool, 1);
+    }
+
+}
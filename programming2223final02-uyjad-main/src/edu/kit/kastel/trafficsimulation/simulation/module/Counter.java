@@ -9,7 +9,7 @@
  */
 public class Counter {
     // Limit is the boundary the counter cannot reach.
-    private final int limit;
+    private int limit;
     private int currentCount;
 
     /**
@@ -23,6 +23,36 @@ public Counter(int limit) {
         this.limit = limit;
     }
 
+    /**
+     * Constructor of a counter with existing counter.
+     * The copy has its own count, so increasing one counter does not affect the other.
+     *
+     * @param counterToCopy counter to be copied
+     */
+    public Counter(Counter counterToCopy) {
+        this.limit = counterToCopy.limit;
+        this.currentCount = counterToCopy.getCurrentCount();
+    }
+
+    /**
+     * Sets the count, for instance to restore a counter from a checkpoint.
+     *
+     * @param count new count, between 0 and limit - 1
+     */
+    public void setCurrentCount(int count) {
+        this.currentCount = count;
+    }
+
+    /**
+     * Changes the limit of the counter. If the count is not below the new limit, it is set to the new maximum value.
+     *
+     * @param limit new limit, at least 1
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+        this.currentCount = Math.min(this.currentCount, limit - 1);
+    }
+
     /**
      * Increases the count.
      * If the counter hits the maximum value(which is limit -1), the counter restarts at 0.
@@ -1,13 +1,19 @@
 package edu.kit.kastel.trafficsimulation.simulation.module;
 
 import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
-import edu.kit.kastel.trafficsimulation.simulation.initialization.StreetData;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Topology;
+
+import java.util.List;
+import java.util.function.LongSupplier;
 
 /**
  * This class describes an edge that represents the street. So it shares some attributes of street.
  * (Edge and street are mentioned interchangeably in this programming task)
  * But the edge here has only one end node as attribute. Start node is not included.
  * The edge can add, move and remove cars. Also, it can retrieve information of the cars.
+ * If the traffic model of the network simulates the edge as a queue, its cars are not moved within the edge,
+ * but leave it in the order they entered once they drove its length at the speed limit, see {@link CarQueue}.
  *
  * @author uyjad
  * @version 1.0
@@ -16,7 +22,11 @@ public class Edge {
     private final Node endNode;
     private final StreetType type;
     private final int length;
-    private final CarManager carManager;
+    private CarManager carManager;
+    // Exit ticks of the cars in the order of the car manager, null if the edge is simulated microscopically.
+    private CarQueue carQueue;
+    // Gives the number of ticks the network of this edge simulated, which a queue measures the time of cars in.
+    private final LongSupplier clock;
     private boolean hasGreenLightAccess;
     private boolean allCarStay;
     private final int id;
@@ -24,62 +34,380 @@ public class Edge {
     /**
      * Constructor of an edge.
      *
-     * @param id id of edge
-     * @param streetData pre street that edge is built upon
+     * @param id index of the street of this edge in the topology
+     * @param topology topology that describes the street of this edge
+     * @param carPool pool that holds the attributes of the cars
+     * @param cars cars initially placed on this edge, they are copied into the storage of this edge
      * @param endNode end node of the edge
+     * @param storeType kind of storage for the cars of this edge
+     * @param trafficModel model that decides whether this edge is simulated as a queue
+     * @param clock number of ticks the network of this edge simulated
      */
-    public Edge(int id, StreetData streetData, Node endNode) {
+    public Edge(int id, Topology topology, CarPool carPool, List<Car> cars, Node endNode, CarStoreType storeType,
+                TrafficModel trafficModel, LongSupplier clock) {
         this.id = id;
-        this.type = StreetType.getStreetTypeFromString(streetData.getIdOfStreetType());
-        this.length = streetData.getLength();
+        this.type = StreetType.getStreetTypeFromString(topology.getTypeOfStreet(id));
+        this.length = topology.getLengthOfStreet(id);
         this.endNode = endNode;
-        this.carManager = new CarManager(streetData.getCars(), streetData.getLength(), streetData.getMaximumSpeed());
+        this.clock = clock;
+        this.carManager = new CarManager(carPool, cars, this.length, topology.getMaximumSpeedOfStreet(id),
+                isOvertakingAllowed(), storeType);
+        if (trafficModel.isQueue(this.length)) {
+            this.carQueue = new CarQueue(this.length, topology.getMaximumSpeedOfStreet(id), clock.getAsLong());
+            for (int i = 0; i < this.carManager.getNumberOfCars(); i++) {
+                this.carQueue.enter(clock.getAsLong(), this.carManager.getPositionOfCar(i));
+                this.carManager.driveAtFreeFlow(i);
+            }
+        }
         this.allCarStay = false;
         this.hasGreenLightAccess = false;
     }
 
     /**
-     * Adds car to the edge.
+     * Constructor of an edge that forks an existing edge.
+     * The cars are shared with the existing edge until one of both edges changes them (copy-on-write).
+     *
+     * @param edgeToFork edge to be forked
+     * @param endNode end node of the new edge
+     * @param clock number of ticks the network of the new edge simulated
+     */
+    public Edge(Edge edgeToFork, Node endNode, LongSupplier clock) {
+        this.id = edgeToFork.getId();
+        this.type = edgeToFork.type;
+        this.length = edgeToFork.getLength();
+        this.endNode = endNode;
+        this.clock = clock;
+        this.carManager = edgeToFork.carManager.share();
+        this.carQueue = edgeToFork.carQueue;
+        this.allCarStay = edgeToFork.allCarsStay();
+        this.hasGreenLightAccess = edgeToFork.hasGreenLightAccess();
+    }
+
+    /**
+     * Gets the car manager for changes. If the car manager is shared with a forked edge, it will be copied first.
+     * The queue is shared and copied together with the car manager, so it must only be changed after calling this.
+     * As the cars of a queue may change now, the ticks since they last changed are recorded in its statistics.
+     *
+     * @return car manager that is owned only by this edge
+     */
+    private CarManager getWritableCarManager() {
+        if (this.carManager.isShared()) {
+            CarManager ownCarManager = new CarManager(this.carManager);
+            if (this.carQueue != null) {
+                this.carQueue = new CarQueue(this.carQueue);
+            }
+            // Once released, another edge may change the shared cars and queue, so both are copied before.
+            this.carManager.release();
+            this.carManager = ownCarManager;
+        }
+        if (this.carQueue != null) {
+            long tick = this.clock.getAsLong();
+            this.carManager.recordTicks(this.carQueue.getUnrecordedTicks(tick));
+            this.carQueue.setRecordedTick(tick);
+        }
+        return this.carManager;
+    }
+
+    /**
+     * Moves the first car of the given edge to this edge.
+     * The car is added to this edge and removed from the given edge.
+     * A queue adds the car at its start, it may leave once it drove the whole edge.
      *
-     * @param car car to add
+     * @param previousEdge edge the car comes from
      * @param wishedDistance car's wished distance to travel
      */
-    public void addCar(Car car, int wishedDistance) {
-        this.carManager.addCar(car, wishedDistance);
+    public void moveFirstCarFrom(Edge previousEdge, int wishedDistance) {
+        if (isQueue()) {
+            getWritableCarManager().enqueueFirstCarOf(previousEdge.getWritableCarManager());
+            this.carQueue.enter(this.clock.getAsLong(), 0);
+        } else {
+            getWritableCarManager().addFirstCarOf(previousEdge.getWritableCarManager(), wishedDistance);
+        }
+        previousEdge.removeFirstCar();
+    }
+
+    /**
+     * Moves the first car into the outbox of this microscopic edge, from which the next edge takes it by
+     * {@link #takeCarOfOutbox(Edge, int)}. Unlike {@link #moveFirstCarFrom(Edge, int)}, each step only changes one
+     * edge, so different edges can be changed by different threads at the same time.
+     */
+    public void moveFirstCarToOutbox() {
+        getWritableCarManager().moveFirstCarToOutbox();
     }
 
     /**
-     * Gets the car by id.
+     * Adds the car in the outbox of the given edge behind the cars of this microscopic edge.
+     *
+     * @param previousEdge edge the car comes from, whose first car was moved into its outbox
+     * @param position position of the car, which keeps the minimum distance to the last car
+     */
+    public void takeCarOfOutbox(Edge previousEdge, int position) {
+        getWritableCarManager().addCarOfOutbox(previousEdge.carManager, position);
+    }
+
+    /**
+     * Adds a car of the pool that crossed from an edge kept elsewhere, for instance by the worker of another
+     * region, behind the cars of this microscopic edge. Like {@link #takeCarOfOutbox(Edge, int)}, the car counts
+     * as updated in this tick and as entering this edge.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     * @param position position of the car, which keeps the minimum distance to the last car
+     * @param speed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    public void takeCrossedCar(CarPool carPool, int indexOfCar, int position, int speed, int wishedDirection) {
+        getWritableCarManager().addCrossedCar(carPool, indexOfCar, position, speed, wishedDirection);
+    }
+
+    /**
+     * Checks whether this edge is simulated as a queue.
+     *
+     * @return true if this edge is a queue, otherwise false
+     */
+    public boolean isQueue() {
+        return this.carQueue != null;
+    }
+
+    /**
+     * Checks whether the first car of this queue drove the whole edge, so it may leave.
+     *
+     * @return true if the first car may leave, otherwise false
+     */
+    public boolean isFirstCarReady() {
+        return this.carQueue.isFirstCarReady(this.clock.getAsLong());
+    }
+
+    /**
+     * Gets the tick from which on the first car of this queue may leave.
+     *
+     * @return the exit tick of the first car
+     */
+    public long getExitTickOfFirstCar() {
+        return this.carQueue.getExitTickOfFirstCar();
+    }
+
+    /**
+     * Gets how many cars may leave this queue per tick.
+     *
+     * @return the maximum number of cars leaving per tick
+     */
+    public int getOutflowPerTick() {
+        return this.carQueue.getOutflowPerTick();
+    }
+
+    /**
+     * Gets the number of ticks until the car with the given index may leave this queue.
+     * Together with speed and wished direction it restores the car exactly, see {@link #placeQueuedCar}.
+     *
+     * @param index index of car
+     * @return the remaining ticks, 0 if the car may leave
+     */
+    public int getRemainingTicksOfCar(int index) {
+        return this.carQueue.getRemainingTicks(index, this.clock.getAsLong());
+    }
+
+    /**
+     * Gets the traffic statistics of this edge. They must only be read, not changed.
+     * The statistics of a queue are a copy that includes the ticks since its cars last changed.
+     *
+     * @return the statistics of this edge
+     */
+    public StreetStatistics getStatistics() {
+        if (isQueue()) {
+            StreetStatistics statistics = new StreetStatistics(this.carManager.getStatistics());
+            statistics.recordTicks(this.carQueue.getUnrecordedTicks(this.clock.getAsLong()));
+            return statistics;
+        }
+        return this.carManager.getStatistics();
+    }
+
+    /**
+     * Gets the number of cars on this edge.
+     *
+     * @return the number of cars on this edge
+     */
+    public int getNumberOfCars() {
+        return this.carManager.getNumberOfCars();
+    }
+
+    /**
+     * Gets the id of the car with the given index. Index 0 is the car closest to the end of edge.
+     *
+     * @param index index of car
+     * @return id of car
+     */
+    public int getIdOfCar(int index) {
+        return this.carManager.getIdOfCar(index);
+    }
+
+    /**
+     * Gets the current speed of the car with the given index.
+     *
+     * @param index index of car
+     * @return current speed of car
+     */
+    public int getSpeedOfCar(int index) {
+        return this.carManager.getSpeedOfCar(index);
+    }
+
+    /**
+     * Gets the position of the car with the given index. The position of a car of a queue is approximate.
+     *
+     * @param index index of car
+     * @return position of car
+     */
+    public int getPositionOfCar(int index) {
+        if (isQueue()) {
+            return this.carQueue.getPosition(index, this.clock.getAsLong());
+        }
+        return this.carManager.getPositionOfCar(index);
+    }
+
+    /**
+     * Gets the wished direction of the car at the given index.
+     *
+     * @param index index of car, 0 is the car closest to the end node
+     * @return wished direction of car
+     */
+    public int getWishedDirectionOfCar(int index) {
+        return this.carManager.getWishedDirectionOfCar(index);
+    }
+
+    /**
+     * Places a car of the pool with its position, speed and wished direction behind the last car of this edge.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     * @param position position of car
+     * @param speed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    public void placeCar(CarPool carPool, int indexOfCar, int position, int speed, int wishedDirection) {
+        if (isQueue()) {
+            getWritableCarManager().placeCar(carPool, indexOfCar, 0, speed, wishedDirection);
+            this.carQueue.enter(this.clock.getAsLong(), position);
+        } else {
+            getWritableCarManager().placeCar(carPool, indexOfCar, position, speed, wishedDirection);
+        }
+    }
+
+    /**
+     * Places a car of the pool behind the last car of this queue, which may leave after the given number of ticks.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     * @param remainingTicks number of ticks until the car may leave
+     * @param speed current speed of car
+     * @param wishedDirection wished direction of car
+     */
+    public void placeQueuedCar(CarPool carPool, int indexOfCar, int remainingTicks, int speed, int wishedDirection) {
+        getWritableCarManager().placeCar(carPool, indexOfCar, 0, speed, wishedDirection);
+        this.carQueue.place(this.clock.getAsLong(), remainingTicks);
+    }
+
+    /**
+     * Lets a car of the pool enter this edge from outside the network, standing at the start of the edge.
+     * A car entering a queue drives at its free-flow speed instead.
+     *
+     * @param carPool pool the car is held in
+     * @param indexOfCar index of car in the pool
+     */
+    public void spawnCar(CarPool carPool, int indexOfCar) {
+        getWritableCarManager().spawnCar(carPool, indexOfCar);
+        if (isQueue()) {
+            this.carQueue.enter(this.clock.getAsLong(), 0);
+            this.carManager.driveAtFreeFlow(getNumberOfCars() - 1);
+        }
+    }
+
+    /**
+     * Removes a car that leaves the network.
+     *
+     * @param index index of car, 0 is the car closest to the end node
+     */
+    public void removeCar(int index) {
+        getWritableCarManager().removeCar(index);
+        if (isQueue()) {
+            this.carQueue.remove(index);
+        }
+    }
+
+    /**
+     * Changes the maximum speed of the street of this edge, the cars keep their state.
+     *
+     * @param maximumSpeed new maximum speed
+     */
+    public void setMaximumSpeed(int maximumSpeed) {
+        getWritableCarManager().setMaximumSpeed(maximumSpeed);
+        if (isQueue()) {
+            this.carQueue.setMaximumSpeed(maximumSpeed);
+        }
+    }
+
+    /**
+     * Gets the index of the car by id.
      *
      * @param idOfCar id of the car to be searched
-     * @return the car that matches the id
+     * @return the index of the car that matches the id, or -1 if the car is not on this edge
      */
-    public Car getCarByID(int idOfCar) {
-        return this.carManager.getCarByID(idOfCar);
+    public int getIndexOfCar(int idOfCar) {
+        return this.carManager.getIndexOfCar(idOfCar);
     }
 
     /**
      * Gets the wished distance to travel on next street.
      * Formula for calculation:
      * wished distance on next street = car's wished travel distance - the length of the current street.
+     * The first car of a queue stands at the end, so it wishes to drive its new speed.
      *
      * @return the wished distance to travel on next street
      */
     public int getFirstCarWishedDistance() {
-        return this.carManager.getFirstCarWishedRemainingDistance();
+        if (isQueue()) {
+            return this.carManager.calculateSpeedOfFirstCar();
+        }
+        return getWritableCarManager().getFirstCarWishedRemainingDistance();
     }
 
     /**
-     * Updates the speed of first car on this edge.
+     * Gets the wished direction of the first car on this edge.
+     *
+     * @return the wished direction of the first car
      */
-    public void updateSpeedOfFirstCar() {
-        this.carManager.updateSpeedOfFirstCar();
+    public int getWishedDirectionOfFirstCar() {
+        return getWritableCarManager().getWishedDirectionOfFirstCar();
     }
 
     /**
-     * Gets the id of edge.
+     * Gets the destination of the first car on this edge.
      *
-     * @return id of edge
+     * @return index of the node the first car drives to, or -1 if it has no destination
+     */
+    public int getDestinationOfFirstCar() {
+        return this.carManager.getDestinationOfFirstCar();
+    }
+
+    /**
+     * Prepares the first car on this edge for crossing to the next edge: sets it as updated,
+     * turns it to its next wished direction and updates its speed.
+     */
+    public void prepareFirstCarForCrossing() {
+        getWritableCarManager().prepareFirstCarForCrossing();
+    }
+
+    /**
+     * Stops the first car on this edge by setting its speed as 0.
+     */
+    public void stopFirstCar() {
+        getWritableCarManager().stopFirstCar();
+    }
+
+    /**
+     * Gets the index of the street of this edge in the topology.
+     * It equals the id of the street unless the streets of the topology are reordered.
+     *
+     * @return index of the street of this edge
      */
     public int getId() {
         return this.id;
@@ -89,15 +417,24 @@ public int getId() {
      * Removes the first car.
      */
     public void removeFirstCar() {
-        this.carManager.removeFirstCar();
+        getWritableCarManager().removeFirstCar();
+        if (isQueue()) {
+            this.carQueue.removeFirst();
+        }
     }
 
     /**
      * Updates the movement and speed of car on this edge.
-     * If on this edge car can overtake other cars, then car manager will allow overtaking during updates.
+     * If on this edge car can overtake other cars, then car manager will allow overtaking during updates, as its
+     * lane type was given to it when this edge was built.
+     * The cars of a queue do not move within the edge, only its first car stops, because it has to wait.
      */
     public void updateInternally() {
-        this.carManager.updateCarsInternally(isOvertakingAllowed());
+        if (isQueue()) {
+            getWritableCarManager().stopFirstCar();
+            return;
+        }
+        getWritableCarManager().updateCarsInternally();
     }
 
     /**
@@ -118,15 +455,6 @@ public int getLength() {
         return this.length;
     }
 
-    /**
-     * Gets the first car (the one that travels the farthest on this edge).
-     *
-     * @return the first car on this edge.
-     */
-    public Car getCar() {
-        return this.carManager.getFirstCar();
-    }
-
     /**
      * The purpose of this method is to check whether there is space for a new car.
      * Gets the position of the car that is closet to the start node of the edge.
@@ -136,15 +464,21 @@ public Car getCar() {
      * @return the position of the last car. If edge is empty, return -1.
      */
     public int getLastCarPosition() {
-        return this.carManager.getLastCarPosition();
+        if (isQueue()) {
+            return isEmpty() ? -1 : getPositionOfCar(getNumberOfCars() - 1);
+        }
+        return getWritableCarManager().getLastCarPosition();
     }
 
     /**
      * Resets status of all cars as "not updated", so cars are ready for next update.
      * Resets the status of "all car stay", so it is possible for car to move to next edge during next update.
+     * A queue does not look at the status of its cars and records its statistics when its cars change.
      */
     public void reset() {
-        this.carManager.reset();
+        if (!isQueue() && !isEmpty()) {
+            getWritableCarManager().reset();
+        }
         this.allCarStay = false;
     }
 
@@ -213,7 +547,7 @@ public void setAsNoGreenLightAccess() {
      * @return true if the first car(the car closet to end node) is at the end of edge, otherwise false
      */
     public boolean isFirstCarAtEndOfEdge() {
-        return this.carManager.isCarAtTheEnd();
+        return isQueue() || this.carManager.isCarAtTheEnd();
     }
 
     /**
@@ -31,9 +31,9 @@ public GreenLight(int duration, int numberOfIncomingStreets) {
      * @param greenLight green light to be copied
      */
     public GreenLight(GreenLight greenLight) {
-        this.durationCounter = greenLight.getDurationCounter();
+        this.durationCounter = new Counter(greenLight.getDurationCounter());
         this.numberOfIncomingStreets = greenLight.getNumberOfIncomingStreets();
-        this.indicatorCounter = greenLight.getStreetIndicatorCounter();
+        this.indicatorCounter = new Counter(greenLight.getStreetIndicatorCounter());
     }
 
     /**
@@ -61,6 +61,15 @@ public Counter getDurationCounter() {
         return this.durationCounter;
     }
 
+    /**
+     * Changes the duration of the green light. A phase that already lasted the new duration ends with this tick.
+     *
+     * @param duration new duration, at least 1
+     */
+    public void setDuration(int duration) {
+        this.durationCounter.setLimit(duration);
+    }
+
     /**
      * Updates the street indicator by increasing the count.
      */
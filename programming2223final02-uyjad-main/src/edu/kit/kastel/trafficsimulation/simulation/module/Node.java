@@ -1,7 +1,5 @@
 package edu.kit.kastel.trafficsimulation.simulation.module;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,8 +13,8 @@
 public class Node {
     private final int id;
     private final NodeType type;
-    private final List<Edge> incomingEdges = new ArrayList<>();
     private GreenLight greenLight;
+    private SignalStatistics signalStatistics;
 
     /**
      * Constructor of node with green light.
@@ -29,6 +27,7 @@ public Node(int id, int duration, int numberOfIncomingStreets) {
         this.id = id;
         this.type = NodeType.INTERSECTION;
         this.greenLight = new GreenLight(duration, numberOfIncomingStreets);
+        this.signalStatistics = new SignalStatistics(numberOfIncomingStreets);
     }
 
     /**
@@ -51,16 +50,17 @@ public Node(Node nodeToCopy) {
         this.type = nodeToCopy.getType();
         if (this.type == NodeType.INTERSECTION) {
             this.greenLight = new GreenLight(nodeToCopy.getGreenLight());
+            this.signalStatistics = new SignalStatistics(nodeToCopy.getSignalStatistics());
         }
     }
 
     /**
-     * Adds a new edge to the node.
+     * Gets the counters of the green light of this node.
      *
-     * @param edgeToAdd edge to be added
+     * @return the signal statistics if the node type is intersection, otherwise null
      */
-    public void addEdge(Edge edgeToAdd) {
-        this.incomingEdges.add(edgeToAdd);
+    public SignalStatistics getSignalStatistics() {
+        return this.signalStatistics;
     }
 
     /**
@@ -70,6 +70,26 @@ public void updateDuration() {
         this.greenLight.updateDuration();
     }
 
+    /**
+     * Restores the state of the green light, for instance from a checkpoint.
+     *
+     * @param durationCount ticks lapsed in the current green phase
+     * @param indicator indicator of the incoming edge/street that is allowed to cross
+     */
+    public void restoreGreenLight(int durationCount, int indicator) {
+        this.greenLight.getDurationCounter().setCurrentCount(durationCount);
+        this.greenLight.getStreetIndicatorCounter().setCurrentCount(indicator);
+    }
+
+    /**
+     * Changes the duration of the green light of this node, the current phase and street indicator are kept.
+     *
+     * @param duration new duration, at least 1
+     */
+    public void setDurationOfGreenLight(int duration) {
+        this.greenLight.setDuration(duration);
+    }
+
     /**
      * Updates the street indicator.
      */
@@ -122,15 +142,6 @@ public GreenLight getGreenLight() {
         return this.greenLight;
     }
 
-    /**
-     * Gets list of incoming edges connected to this node.
-     *
-     * @return list of incoming edges connected to this node
-     */
-    public List<Edge> getIncomingEdges() {
-        return this.incomingEdges;
-    }
-
     @Override
     public int hashCode() {
         return Objects.hash(this.id);
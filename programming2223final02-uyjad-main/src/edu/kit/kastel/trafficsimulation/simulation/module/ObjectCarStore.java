@@ -0,0 +1,137 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+/**
+ * This class describes a storage that keeps every car as a {@link Car} object in a linked list.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class ObjectCarStore implements CarStore {
+    private final LinkedList<Car> carList = new LinkedList<>();
+
+    @Override
+    public int size() {
+        return this.carList.size();
+    }
+
+    @Override
+    public int getId(int index) {
+        return this.carList.get(index).getId();
+    }
+
+    @Override
+    public int getWishedSpeed(int index) {
+        return this.carList.get(index).getWishedSpeed();
+    }
+
+    @Override
+    public int getAccelerator(int index) {
+        return this.carList.get(index).getAccelerator();
+    }
+
+    @Override
+    public int getCurrentSpeed(int index) {
+        return this.carList.get(index).getCurrentSpeed();
+    }
+
+    @Override
+    public void setCurrentSpeed(int index, int speed) {
+        this.carList.get(index).setCurrentSpeed(speed);
+    }
+
+    @Override
+    public int getPosition(int index) {
+        return this.carList.get(index).getPosition();
+    }
+
+    @Override
+    public void setPosition(int index, int position) {
+        this.carList.get(index).setPosition(position);
+    }
+
+    @Override
+    public int getWishedDirection(int index) {
+        return this.carList.get(index).getWishedDirection();
+    }
+
+    @Override
+    public void updateWishedDirection(int index) {
+        this.carList.get(index).updateWishedDirection();
+    }
+
+    @Override
+    public int getDestination(int index) {
+        return this.carList.get(index).getDestination();
+    }
+
+    @Override
+    public boolean isUpdated(int index) {
+        return this.carList.get(index).isUpdated();
+    }
+
+    @Override
+    public void setUpdated(int index, boolean isUpdated) {
+        if (isUpdated) {
+            this.carList.get(index).setAsUpdated();
+        } else {
+            this.carList.get(index).reset();
+        }
+    }
+
+    @Override
+    public void add(Car car) {
+        this.carList.add(new Car(car));
+    }
+
+    @Override
+    public void add(CarPool carPool, int indexOfCar, int position, int currentSpeed, int wishedDirection) {
+        Car car = carPool.createCar(indexOfCar);
+        car.setPosition(position);
+        car.setCurrentSpeed(currentSpeed);
+        for (int i = 0; i < wishedDirection; i++) {
+            car.updateWishedDirection();
+        }
+        this.carList.add(car);
+    }
+
+    @Override
+    public void addFrom(CarStore source, int index) {
+        add(((ObjectCarStore) source).carList.get(index));
+    }
+
+    @Override
+    public void removeFirst() {
+        this.carList.removeFirst();
+    }
+
+    @Override
+    public void remove(int index) {
+        this.carList.remove(index);
+    }
+
+    @Override
+    public void sortByPosition() {
+        Collections.sort(this.carList);
+    }
+
+    @Override
+    public CarStore copy() {
+        ObjectCarStore copy = new ObjectCarStore();
+        for (Car car : this.carList) {
+            copy.add(car);
+        }
+        return copy;
+    }
+
+    @Override
+    public CarStore createEmpty() {
+        return new ObjectCarStore();
+    }
+
+}
@@ -0,0 +1,232 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import edu.kit.kastel.trafficsimulation.simulation.initialization.Car;
+import edu.kit.kastel.trafficsimulation.simulation.initialization.CarPool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class describes a storage that keeps the cars of one edge as fixed size records outside the heap.
+ * Each record holds id, wished speed, accelerator, current speed, position and a flag word
+ * with the wished direction, the "updated" status and the destination. So the cars do not add any object to the heap
+ * and are never visited by the garbage collector.
+ * The records of the cars are stored one after another starting at the record of the first car.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class OffHeapCarStore implements CarStore {
+    private static final int OFFSET_ID = 0;
+    private static final int OFFSET_WISHED_SPEED = 4;
+    private static final int OFFSET_ACCELERATOR = 8;
+    private static final int OFFSET_CURRENT_SPEED = 12;
+    private static final int OFFSET_POSITION = 16;
+    private static final int OFFSET_FLAGS = 20;
+    private static final int SIZE_OF_RECORD = 24;
+    // The lower two bits of the flags hold the wished direction, the next bit the "updated" status
+    // and the bits above the destination plus 1, so 0 stands for no destination.
+    private static final int MASK_DIRECTION = 0b011;
+    private static final int MASK_UPDATED = 0b100;
+    private static final int SHIFT_DESTINATION = 3;
+    private static final int NUMBER_OF_DIRECTIONS = 4;
+    private ByteBuffer records;
+    // Index of the record of the first car. Removing the first car only moves this index.
+    private int head;
+    private int size;
+
+    /**
+     * Constructor of an off-heap car storage.
+     *
+     * @param capacity number of cars that fit before the storage has to grow, at least 1
+     */
+    public OffHeapCarStore(int capacity) {
+        this.records = allocate(Math.max(capacity, 1));
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * SIZE_OF_RECORD).order(ByteOrder.nativeOrder());
+    }
+
+    private int offset(int index) {
+        return (this.head + index) * SIZE_OF_RECORD;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int getId(int index) {
+        return this.records.getInt(offset(index) + OFFSET_ID);
+    }
+
+    @Override
+    public int getWishedSpeed(int index) {
+        return this.records.getInt(offset(index) + OFFSET_WISHED_SPEED);
+    }
+
+    @Override
+    public int getAccelerator(int index) {
+        return this.records.getInt(offset(index) + OFFSET_ACCELERATOR);
+    }
+
+    @Override
+    public int getCurrentSpeed(int index) {
+        return this.records.getInt(offset(index) + OFFSET_CURRENT_SPEED);
+    }
+
+    @Override
+    public void setCurrentSpeed(int index, int speed) {
+        this.records.putInt(offset(index) + OFFSET_CURRENT_SPEED, speed);
+    }
+
+    @Override
+    public int getPosition(int index) {
+        return this.records.getInt(offset(index) + OFFSET_POSITION);
+    }
+
+    @Override
+    public void setPosition(int index, int position) {
+        this.records.putInt(offset(index) + OFFSET_POSITION, position);
+    }
+
+    @Override
+    public int getWishedDirection(int index) {
+        return this.records.getInt(offset(index) + OFFSET_FLAGS) & MASK_DIRECTION;
+    }
+
+    @Override
+    public void updateWishedDirection(int index) {
+        int flags = this.records.getInt(offset(index) + OFFSET_FLAGS);
+        int direction = ((flags & MASK_DIRECTION) + 1) % NUMBER_OF_DIRECTIONS;
+        this.records.putInt(offset(index) + OFFSET_FLAGS, (flags & ~MASK_DIRECTION) | direction);
+    }
+
+    @Override
+    public int getDestination(int index) {
+        return (this.records.getInt(offset(index) + OFFSET_FLAGS) >>> SHIFT_DESTINATION) - 1;
+    }
+
+    @Override
+    public boolean isUpdated(int index) {
+        return (this.records.getInt(offset(index) + OFFSET_FLAGS) & MASK_UPDATED) != 0;
+    }
+
+    @Override
+    public void setUpdated(int index, boolean isUpdated) {
+        int flags = this.records.getInt(offset(index) + OFFSET_FLAGS);
+        this.records.putInt(offset(index) + OFFSET_FLAGS, isUpdated ? flags | MASK_UPDATED : flags & ~MASK_UPDATED);
+    }
+
+    @Override
+    public void add(Car car) {
+        add(car.getId(), car.getWishedSpeed(), car.getAccelerator(), car.getCurrentSpeed(), car.getPosition(),
+                car.getWishedDirection() | (car.isUpdated() ? MASK_UPDATED : 0)
+                        | ((car.getDestination() + 1) << SHIFT_DESTINATION));
+    }
+
+    @Override
+    public void add(CarPool carPool, int indexOfCar, int position, int currentSpeed, int wishedDirection) {
+        add(carPool.getIdOfCar(indexOfCar), carPool.getWishedSpeedOfCar(indexOfCar),
+                carPool.getAcceleratorOfCar(indexOfCar), currentSpeed, position,
+                wishedDirection | ((carPool.getDestinationOfCar(indexOfCar) + 1) << SHIFT_DESTINATION));
+    }
+
+    @Override
+    public void addFrom(CarStore source, int index) {
+        add(source.getId(index), source.getWishedSpeed(index), source.getAccelerator(index),
+                source.getCurrentSpeed(index), source.getPosition(index),
+                source.getWishedDirection(index) | (source.isUpdated(index) ? MASK_UPDATED : 0)
+                        | ((source.getDestination(index) + 1) << SHIFT_DESTINATION));
+    }
+
+    private void add(int id, int wishedSpeed, int accelerator, int currentSpeed, int position, int flags) {
+        ensureSpaceAtEnd();
+        int offset = offset(this.size);
+        this.records.putInt(offset + OFFSET_ID, id);
+        this.records.putInt(offset + OFFSET_WISHED_SPEED, wishedSpeed);
+        this.records.putInt(offset + OFFSET_ACCELERATOR, accelerator);
+        this.records.putInt(offset + OFFSET_CURRENT_SPEED, currentSpeed);
+        this.records.putInt(offset + OFFSET_POSITION, position);
+        this.records.putInt(offset + OFFSET_FLAGS, flags);
+        this.size++;
+    }
+
+    /**
+     * Makes sure there is a free record after the last car.
+     * Moves the records back to the start of the buffer if the first records were removed,
+     * otherwise grows the buffer to twice its capacity.
+     */
+    private void ensureSpaceAtEnd() {
+        int capacity = this.records.capacity() / SIZE_OF_RECORD;
+        if (this.head + this.size < capacity) {
+            return;
+        }
+        ByteBuffer target = this.head > 0 ? this.records : allocate(2 * capacity);
+        target.put(0, this.records, offset(0), this.size * SIZE_OF_RECORD);
+        this.records = target;
+        this.head = 0;
+    }
+
+    @Override
+    public void removeFirst() {
+        this.head++;
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    @Override
+    public void remove(int index) {
+        this.records.put(offset(index), this.records, offset(index + 1), (this.size - index - 1) * SIZE_OF_RECORD);
+        this.size--;
+        if (this.size == 0) {
+            this.head = 0;
+        }
+    }
+
+    @Override
+    public void sortByPosition() {
+        // Insertion sort is stable and fast, because the cars are nearly sorted after every move.
+        for (int i = 1; i < this.size; i++) {
+            int position = getPosition(i);
+            if (getPosition(i - 1) >= position) {
+                continue;
+            }
+            int id = getId(i);
+            int wishedSpeed = getWishedSpeed(i);
+            int accelerator = getAccelerator(i);
+            int currentSpeed = getCurrentSpeed(i);
+            int flags = this.records.getInt(offset(i) + OFFSET_FLAGS);
+            int target = i - 1;
+            while (target > 0 && getPosition(target - 1) < position) {
+                target--;
+            }
+            this.records.put(offset(target + 1), this.records, offset(target), (i - target) * SIZE_OF_RECORD);
+            int offset = offset(target);
+            this.records.putInt(offset + OFFSET_ID, id);
+            this.records.putInt(offset + OFFSET_WISHED_SPEED, wishedSpeed);
+            this.records.putInt(offset + OFFSET_ACCELERATOR, accelerator);
+            this.records.putInt(offset + OFFSET_CURRENT_SPEED, currentSpeed);
+            this.records.putInt(offset + OFFSET_POSITION, position);
+            this.records.putInt(offset + OFFSET_FLAGS, flags);
+        }
+    }
+
+    @Override
+    public CarStore copy() {
+        OffHeapCarStore copy = new OffHeapCarStore(this.records.capacity() / SIZE_OF_RECORD);
+        copy.records.put(0, this.records, offset(0), this.size * SIZE_OF_RECORD);
+        copy.size = this.size;
+        return copy;
+    }
+
+    @Override
+    public CarStore createEmpty() {
+        return new OffHeapCarStore(1);
+    }
+
+}
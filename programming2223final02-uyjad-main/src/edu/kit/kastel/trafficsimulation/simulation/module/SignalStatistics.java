@@ -0,0 +1,214 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * This class describes the counters of the green light of one intersection, kept for each incoming street.
+ * It counts green ticks, green ticks wasted while no car wanted to cross, crossings, completed green phases
+ * and cars held at red. The counters are only increased by the simulating thread, but they can be read by any
+ * thread at any time, for instance by a periodic export while the simulation runs in the background.
+ * Like a {@code LongAdder}, a reader sees a recent value of each counter without locking, but not a consistent
+ * view of all counters. As there is only one writer, an increment is a plain store instead of an atomic update.
+ * <p>
+ * The counters are only touched when a car meets the intersection or a green phase ends, never once per tick.
+ * Green ticks are derived from the tick each phase started, wasted green ticks are the green ticks in which
+ * no car wanted to cross. Incoming streets are addressed by their position in the incoming table of the
+ * intersection.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class SignalStatistics {
+    // Opaque access makes each store visible to other threads eventually and keeps longs from being torn.
+    private static final VarHandle COUNTER = MethodHandles.arrayElementVarHandle(long[].class);
+    private final long[] greenTicksOfCompletedPhases;
+    private final long[] usedGreenTicks;
+    private final long[] crossings;
+    private final long[] phases;
+    private final long[] maximumCrossingsInPhase;
+    private final long[] carsHeldAtRed;
+    private volatile int positionWithGreenLight;
+    private volatile long startOfPhase;
+    // Only used by the simulating thread.
+    private long lastUsedGreenTick = -1;
+    private int crossingsInCurrentPhase;
+
+    /**
+     * Constructor of signal statistics with all counters at 0. The first green phase starts at tick 0
+     * with the first incoming street.
+     *
+     * @param numberOfIncomingStreets number of incoming streets of the intersection
+     */
+    public SignalStatistics(int numberOfIncomingStreets) {
+        this.greenTicksOfCompletedPhases = new long[numberOfIncomingStreets];
+        this.usedGreenTicks = new long[numberOfIncomingStreets];
+        this.crossings = new long[numberOfIncomingStreets];
+        this.phases = new long[numberOfIncomingStreets];
+        this.maximumCrossingsInPhase = new long[numberOfIncomingStreets];
+        this.carsHeldAtRed = new long[numberOfIncomingStreets];
+    }
+
+    /**
+     * Constructor of signal statistics with existing signal statistics.
+     *
+     * @param statisticsToCopy signal statistics to be copied
+     */
+    public SignalStatistics(SignalStatistics statisticsToCopy) {
+        this.greenTicksOfCompletedPhases = statisticsToCopy.greenTicksOfCompletedPhases.clone();
+        this.usedGreenTicks = statisticsToCopy.usedGreenTicks.clone();
+        this.crossings = statisticsToCopy.crossings.clone();
+        this.phases = statisticsToCopy.phases.clone();
+        this.maximumCrossingsInPhase = statisticsToCopy.maximumCrossingsInPhase.clone();
+        this.carsHeldAtRed = statisticsToCopy.carsHeldAtRed.clone();
+        this.positionWithGreenLight = statisticsToCopy.positionWithGreenLight;
+        this.startOfPhase = statisticsToCopy.startOfPhase;
+        this.lastUsedGreenTick = statisticsToCopy.lastUsedGreenTick;
+        this.crossingsInCurrentPhase = statisticsToCopy.crossingsInCurrentPhase;
+    }
+
+    private static void add(long[] counters, int position, long value) {
+        COUNTER.setOpaque(counters, position, counters[position] + value);
+    }
+
+    private static long read(long[] counters, int position) {
+        return (long) COUNTER.getOpaque(counters, position);
+    }
+
+    /**
+     * Records a car of the incoming street that has green light and wants to cross the intersection,
+     * whether it crosses or is held back by a full outgoing street.
+     *
+     * @param tick current tick
+     */
+    public void recordCarWaitingAtGreen(long tick) {
+        if (tick != this.lastUsedGreenTick) {
+            this.lastUsedGreenTick = tick;
+            add(this.usedGreenTicks, this.positionWithGreenLight, 1);
+        }
+    }
+
+    /**
+     * Records a car that crossed the intersection from the incoming street that has green light.
+     *
+     * @param position position of the incoming street
+     */
+    public void recordCrossing(int position) {
+        add(this.crossings, position, 1);
+        this.crossingsInCurrentPhase++;
+    }
+
+    /**
+     * Records a car that wanted to cross the intersection, but was held at red.
+     *
+     * @param position position of the incoming street
+     */
+    public void recordCarHeldAtRed(int position) {
+        add(this.carsHeldAtRed, position, 1);
+    }
+
+    /**
+     * Records a car that was held at red for several ticks, by a street that is not looked at every tick.
+     *
+     * @param position position of the incoming street
+     * @param numberOfTicks number of ticks the car was held
+     */
+    public void recordCarHeldAtRed(int position, long numberOfTicks) {
+        add(this.carsHeldAtRed, position, numberOfTicks);
+    }
+
+    /**
+     * Records the end of the current green phase in the given tick. The next phase starts in the following tick.
+     *
+     * @param tick last tick of the current green phase
+     * @param nextPosition position of the incoming street that has green light in the next phase
+     */
+    public void recordEndOfPhase(long tick, int nextPosition) {
+        int position = this.positionWithGreenLight;
+        add(this.greenTicksOfCompletedPhases, position, tick + 1 - this.startOfPhase);
+        add(this.phases, position, 1);
+        if (this.crossingsInCurrentPhase > this.maximumCrossingsInPhase[position]) {
+            COUNTER.setOpaque(this.maximumCrossingsInPhase, position, (long) this.crossingsInCurrentPhase);
+        }
+        this.crossingsInCurrentPhase = 0;
+        this.startOfPhase = tick + 1;
+        this.positionWithGreenLight = nextPosition;
+    }
+
+    /**
+     * Gets the number of incoming streets.
+     *
+     * @return the number of incoming streets
+     */
+    public int getNumberOfIncomingStreets() {
+        return this.crossings.length;
+    }
+
+    /**
+     * Gets the number of ticks the incoming street had green light.
+     *
+     * @param position position of the incoming street
+     * @param ticks number of simulated ticks
+     * @return the number of green ticks
+     */
+    public long getGreenTicks(int position, long ticks) {
+        long greenTicks = read(this.greenTicksOfCompletedPhases, position);
+        if (position == this.positionWithGreenLight) {
+            greenTicks += Math.max(ticks - this.startOfPhase, 0);
+        }
+        return greenTicks;
+    }
+
+    /**
+     * Gets the number of green ticks of the incoming street in which no car wanted to cross.
+     *
+     * @param position position of the incoming street
+     * @param ticks number of simulated ticks
+     * @return the number of wasted green ticks
+     */
+    public long getWastedGreenTicks(int position, long ticks) {
+        return Math.max(getGreenTicks(position, ticks) - read(this.usedGreenTicks, position), 0);
+    }
+
+    /**
+     * Gets the number of cars that crossed the intersection from the incoming street.
+     *
+     * @param position position of the incoming street
+     * @return the number of crossings
+     */
+    public long getCrossings(int position) {
+        return read(this.crossings, position);
+    }
+
+    /**
+     * Gets the number of completed green phases of the incoming street.
+     *
+     * @param position position of the incoming street
+     * @return the number of completed green phases
+     */
+    public long getPhases(int position) {
+        return read(this.phases, position);
+    }
+
+    /**
+     * Gets the largest number of cars that crossed from the incoming street in one completed green phase.
+     *
+     * @param position position of the incoming street
+     * @return the maximum number of crossings in a green phase
+     */
+    public long getMaximumCrossingsInPhase(int position) {
+        return read(this.maximumCrossingsInPhase, position);
+    }
+
+    /**
+     * Gets the number of times a car of the incoming street wanted to cross, but was held at red.
+     * A car is counted once for every tick it is held.
+     *
+     * @param position position of the incoming street
+     * @return the number of cars held at red
+     */
+    public long getCarsHeldAtRed(int position) {
+        return read(this.carsHeldAtRed, position);
+    }
+
+}
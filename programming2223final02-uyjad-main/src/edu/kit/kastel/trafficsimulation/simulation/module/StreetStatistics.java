@@ -0,0 +1,194 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+/**
+ * This class describes the traffic statistics of one street.
+ * The statistics are kept up to date while cars move, enter and leave, each event costs constant time,
+ * so they can be read at any time without visiting the cars of the street.
+ * A car counts as queued while its speed is 0.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public class StreetStatistics {
+    private int numberOfCars;
+    private int sumOfSpeeds;
+    private int numberOfQueuedCars;
+    private long inflow;
+    private long outflow;
+    // Sums over all recorded ticks, divided by the number of ticks they give the average over time.
+    private long sumOfOccupancy;
+    private long sumOfQueueLength;
+    private int maximumQueueLength;
+
+    /**
+     * Constructor of empty statistics.
+     */
+    public StreetStatistics() {
+    }
+
+    /**
+     * Constructor of statistics with existing statistics.
+     *
+     * @param statisticsToCopy statistics to be copied
+     */
+    public StreetStatistics(StreetStatistics statisticsToCopy) {
+        this.numberOfCars = statisticsToCopy.numberOfCars;
+        this.sumOfSpeeds = statisticsToCopy.sumOfSpeeds;
+        this.numberOfQueuedCars = statisticsToCopy.numberOfQueuedCars;
+        this.inflow = statisticsToCopy.inflow;
+        this.outflow = statisticsToCopy.outflow;
+        this.sumOfOccupancy = statisticsToCopy.sumOfOccupancy;
+        this.sumOfQueueLength = statisticsToCopy.sumOfQueueLength;
+        this.maximumQueueLength = statisticsToCopy.maximumQueueLength;
+    }
+
+    /**
+     * Records a car that is placed on the street when the network is built.
+     *
+     * @param speed speed of the car
+     */
+    public void placeCar(int speed) {
+        this.numberOfCars++;
+        this.sumOfSpeeds += speed;
+        if (speed == 0) {
+            this.numberOfQueuedCars++;
+        }
+    }
+
+    /**
+     * Records a car that enters the street from another street.
+     *
+     * @param speed speed of the car
+     */
+    public void enterCar(int speed) {
+        placeCar(speed);
+        this.inflow++;
+    }
+
+    /**
+     * Records a car that leaves the street.
+     *
+     * @param speed speed of the car
+     */
+    public void leaveCar(int speed) {
+        this.numberOfCars--;
+        this.sumOfSpeeds -= speed;
+        if (speed == 0) {
+            this.numberOfQueuedCars--;
+        }
+        this.outflow++;
+    }
+
+    /**
+     * Records the change of speed of a car on the street.
+     *
+     * @param oldSpeed speed before the change
+     * @param newSpeed speed after the change
+     */
+    public void changeSpeed(int oldSpeed, int newSpeed) {
+        this.sumOfSpeeds += newSpeed - oldSpeed;
+        if (oldSpeed == 0 && newSpeed != 0) {
+            this.numberOfQueuedCars--;
+        } else if (oldSpeed != 0 && newSpeed == 0) {
+            this.numberOfQueuedCars++;
+        }
+    }
+
+    /**
+     * Adds the current occupancy and queue length to the sums over time. Must be called once per tick.
+     */
+    public void recordTick() {
+        this.sumOfOccupancy += this.numberOfCars;
+        this.sumOfQueueLength += this.numberOfQueuedCars;
+        this.maximumQueueLength = Math.max(this.maximumQueueLength, this.numberOfQueuedCars);
+    }
+
+    /**
+     * Adds the current occupancy and queue length to the sums over time for several ticks in which they did not
+     * change. Replaces calling {@link #recordTick()} once per tick for a street whose cars are not visited per tick.
+     *
+     * @param numberOfTicks number of ticks to be recorded
+     */
+    public void recordTicks(long numberOfTicks) {
+        if (numberOfTicks > 0) {
+            this.sumOfOccupancy += this.numberOfCars * numberOfTicks;
+            this.sumOfQueueLength += this.numberOfQueuedCars * numberOfTicks;
+            this.maximumQueueLength = Math.max(this.maximumQueueLength, this.numberOfQueuedCars);
+        }
+    }
+
+    /**
+     * Gets the number of cars on the street.
+     *
+     * @return the number of cars
+     */
+    public int getNumberOfCars() {
+        return this.numberOfCars;
+    }
+
+    /**
+     * Gets the mean speed of the cars on the street.
+     *
+     * @return the mean speed, or 0 if the street is empty
+     */
+    public double getMeanSpeed() {
+        return this.numberOfCars == 0 ? 0 : (double) this.sumOfSpeeds / this.numberOfCars;
+    }
+
+    /**
+     * Gets the number of cars on the street with speed 0.
+     *
+     * @return the length of the queue
+     */
+    public int getQueueLength() {
+        return this.numberOfQueuedCars;
+    }
+
+    /**
+     * Gets the number of cars that entered the street from another street.
+     *
+     * @return the inflow of the street
+     */
+    public long getInflow() {
+        return this.inflow;
+    }
+
+    /**
+     * Gets the number of cars that left the street.
+     *
+     * @return the outflow of the street
+     */
+    public long getOutflow() {
+        return this.outflow;
+    }
+
+    /**
+     * Gets the average number of cars on the street over the recorded ticks.
+     *
+     * @param ticks number of recorded ticks
+     * @return the average occupancy, or 0 if no tick was recorded
+     */
+    public double getAverageOccupancy(long ticks) {
+        return ticks == 0 ? 0 : (double) this.sumOfOccupancy / ticks;
+    }
+
+    /**
+     * Gets the average length of the queue over the recorded ticks.
+     *
+     * @param ticks number of recorded ticks
+     * @return the average queue length, or 0 if no tick was recorded
+     */
+    public double getAverageQueueLength(long ticks) {
+        return ticks == 0 ? 0 : (double) this.sumOfQueueLength / ticks;
+    }
+
+    /**
+     * Gets the longest queue recorded at the end of a tick.
+     *
+     * @return the maximum queue length
+     */
+    public int getMaximumQueueLength() {
+        return this.maximumQueueLength;
+    }
+
+}
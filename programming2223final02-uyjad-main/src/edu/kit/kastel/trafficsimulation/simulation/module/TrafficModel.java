@@ -0,0 +1,95 @@
+package edu.kit.kastel.trafficsimulation.simulation.module;
+
+/**
+ * This class describes how the cars of the streets of a network are simulated.
+ * A microscopic street moves every car every tick, keeping the distance to the car in front.
+ * A mesoscopic street is a queue: a car takes the time to drive the street at its speed limit and then leaves in
+ * the order it entered, so a tick only looks at the first cars of the street. A hybrid model simulates the streets
+ * from a given length on as queues and shorter streets, typically the ones around crossings, microscopically.
+ *
+ * @author uyjad
+ * @version 1.0
+ */
+public final class TrafficModel {
+
+    /**
+     * Every street is simulated microscopically.
+     */
+    public static final TrafficModel MICROSCOPIC = new TrafficModel(Integer.MAX_VALUE);
+
+    /**
+     * Every street is simulated as a queue.
+     */
+    public static final TrafficModel MESOSCOPIC = new TrafficModel(0);
+
+    private static final String NAME_OF_MICROSCOPIC = "micro";
+    private static final String NAME_OF_MESOSCOPIC = "meso";
+    private static final String FORMAT_HYBRID = "hybrid=%d";
+    private final int minimumLengthOfQueue;
+
+    /**
+     * Constructor of a traffic model.
+     *
+     * @param minimumLengthOfQueue length from which on a street is simulated as a queue
+     */
+    private TrafficModel(int minimumLengthOfQueue) {
+        this.minimumLengthOfQueue = minimumLengthOfQueue;
+    }
+
+    /**
+     * Creates a hybrid model that simulates the streets from the given length on as queues.
+     *
+     * @param minimumLengthOfQueue length from which on a street is simulated as a queue
+     * @return the hybrid model
+     */
+    public static TrafficModel createHybrid(int minimumLengthOfQueue) {
+        return new TrafficModel(minimumLengthOfQueue);
+    }
+
+    /**
+     * Gets the traffic model from input string.
+     *
+     * @param name name of the traffic model, without the length of a hybrid model
+     * @return traffic model that matches this name, otherwise null
+     */
+    public static TrafficModel getTrafficModelFromString(String name) {
+        if (name.equals(NAME_OF_MICROSCOPIC)) {
+            return MICROSCOPIC;
+        }
+        if (name.equals(NAME_OF_MESOSCOPIC)) {
+            return MESOSCOPIC;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a street of the given length is simulated as a queue.
+     *
+     * @param lengthOfStreet length of the street
+     * @return true if the street is simulated as a queue, otherwise false
+     */
+    public boolean isQueue(int lengthOfStreet) {
+        return lengthOfStreet >= this.minimumLengthOfQueue;
+    }
+
+    /**
+     * Gets the length from which on a street is simulated as a queue.
+     *
+     * @return the minimum length of a queue
+     */
+    public int getMinimumLengthOfQueue() {
+        return this.minimumLengthOfQueue;
+    }
+
+    @Override
+    public String toString() {
+        if (this.minimumLengthOfQueue == MICROSCOPIC.minimumLengthOfQueue) {
+            return NAME_OF_MICROSCOPIC;
+        }
+        if (this.minimumLengthOfQueue == MESOSCOPIC.minimumLengthOfQueue) {
+            return NAME_OF_MESOSCOPIC;
+        }
+        return String.format(FORMAT_HYBRID, this.minimumLengthOfQueue);
+    }
+
+}